@@ -0,0 +1,117 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link CloudletScheduler#updateVmProcessing(double, List)}, which every VM runs at each
+ * datacenter event, with a given number of cloudlets submitted to the VM. The cloudlets are long
+ * enough not to finish during a measurement, so each operation is the steady state cost of an
+ * update.
+ *
+ * @since CloudSim Toolkit 3.0.3
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class CloudletSchedulerBenchmark {
+
+	/** The length of the cloudlets, in MI. */
+	private static final long CLOUDLET_LENGTH = 1000000000000L;
+
+	/** The number of PEs of the VM. */
+	private static final int VM_PES = 4;
+
+	/** The MIPS of each PE of the VM. */
+	private static final double VM_MIPS = 1000;
+
+	/** The cloudlet scheduler. */
+	@Param({ "timeShared", "spaceShared", "timeSharedHeap" })
+	public String scheduler;
+
+	/** The number of cloudlets submitted to the VM. */
+	@Param({ "10", "1000", "100000" })
+	public int cloudlets;
+
+	/** The cloudlet scheduler of the VM. */
+	private CloudletScheduler cloudletScheduler;
+
+	/** The MIPS share of the VM. */
+	private List<Double> mipsShare;
+
+	/** The current time. */
+	private double time;
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		mipsShare = new ArrayList<Double>();
+		for (int i = 0; i < VM_PES; i++) {
+			mipsShare.add(VM_MIPS);
+		}
+
+		cloudletScheduler = createScheduler(scheduler);
+		time = 0;
+		cloudletScheduler.updateVmProcessing(time, mipsShare);
+
+		UtilizationModel utilizationModel = new UtilizationModelFull();
+		for (int i = 0; i < cloudlets; i++) {
+			Cloudlet cloudlet = new Cloudlet(
+					i,
+					CLOUDLET_LENGTH,
+					1,
+					300,
+					300,
+					utilizationModel,
+					utilizationModel,
+					utilizationModel);
+			cloudletScheduler.cloudletSubmit(cloudlet);
+		}
+	}
+
+	@Benchmark
+	public double updateVmProcessing() {
+		time += 1;
+		return cloudletScheduler.updateVmProcessing(time, mipsShare);
+	}
+
+	/**
+	 * Creates a cloudlet scheduler.
+	 *
+	 * @param scheduler the scheduler name
+	 * @return the cloudlet scheduler
+	 */
+	private static CloudletScheduler createScheduler(String scheduler) {
+		if (scheduler.equals("spaceShared")) {
+			return new CloudletSchedulerSpaceShared();
+		} else if (scheduler.equals("timeSharedHeap")) {
+			return new CloudletSchedulerTimeSharedHeap();
+		}
+		return new CloudletSchedulerTimeShared();
+	}
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the utilization of a given number of PlanetLab utilization models at the same time,
+ * asked to each model in turn or to all of them at once, as a datacenter does for its VMs at each
+ * event. The models view random samples in a shared buffer, and the times fall between samples,
+ * so each utilization is interpolated.
+ *
+ * @since CloudSim Toolkit 3.0.3
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class UtilizationModelPlanetLabInMemoryBenchmark {
+
+	/** The number of samples of each model. */
+	private static final int SAMPLES = 288;
+
+	/** The scheduling interval. */
+	private static final double SCHEDULING_INTERVAL = 300;
+
+	/** The number of models. */
+	@Param({ "100", "1000", "10000" })
+	public int models;
+
+	/** The utilization models. */
+	private UtilizationModel[] utilizationModels;
+
+	/** The utilization of each model. */
+	private double[] utilization;
+
+	/** The current time. */
+	private double time;
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		Random random = new Random(0);
+		ByteBuffer percentages = ByteBuffer.allocate(models * SAMPLES);
+		for (int i = 0; i < percentages.capacity(); i++) {
+			percentages.put(i, (byte) random.nextInt(101));
+		}
+		utilizationModels = new UtilizationModel[models];
+		for (int i = 0; i < models; i++) {
+			utilizationModels[i] = new UtilizationModelPlanetLabInMemory(
+					percentages,
+					i * SAMPLES,
+					SAMPLES,
+					SCHEDULING_INTERVAL);
+		}
+		utilization = new double[models];
+		time = 0;
+	}
+
+	@Benchmark
+	public double[] getUtilization() {
+		nextTime();
+		for (int i = 0; i < utilizationModels.length; i++) {
+			utilization[i] = utilizationModels[i].getUtilization(time);
+		}
+		return utilization;
+	}
+
+	@Benchmark
+	public double[] getUtilizationBatched() {
+		nextTime();
+		UtilizationModelPlanetLabInMemory.getUtilization(
+				utilizationModels,
+				utilizationModels.length,
+				time,
+				utilization);
+		return utilization;
+	}
+
+	/**
+	 * Moves the time forward, between two samples, wrapping around at the end of the samples.
+	 */
+	private void nextTime() {
+		time += SCHEDULING_INTERVAL + 0.1;
+		if (time >= (SAMPLES - 1) * SCHEDULING_INTERVAL) {
+			time = 0.1;
+		}
+	}
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link VmAllocationPolicySimple#allocateHostForVm(Vm)} on a large datacenter. Half of
+ * the hosts already run a VM, so the policy has to compare hosts with different numbers of free
+ * PEs. Each operation allocates a host to a VM and releases it again.
+ *
+ * @since CloudSim Toolkit 3.0.3
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class VmAllocationPolicySimpleBenchmark {
+
+	/** The number of hosts. */
+	@Param({ "10000" })
+	public int hosts;
+
+	/** The VM allocation policy. */
+	private VmAllocationPolicySimple vmAllocationPolicy;
+
+	/** The VM to allocate. */
+	private Vm vm;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Log.disable();
+
+		List<Host> hostList = new ArrayList<Host>();
+		for (int i = 0; i < hosts; i++) {
+			List<Pe> peList = new ArrayList<Pe>();
+			for (int j = 0; j < 4; j++) {
+				peList.add(new Pe(j, new PeProvisionerSimple(1000)));
+			}
+			hostList.add(new Host(
+					i,
+					new RamProvisionerSimple(16384),
+					new BwProvisionerSimple(1000000),
+					1000000,
+					peList,
+					new VmSchedulerTimeShared(peList)));
+		}
+		vmAllocationPolicy = new VmAllocationPolicySimple(hostList);
+
+		for (int i = 0; i < hosts / 2; i++) {
+			vmAllocationPolicy.allocateHostForVm(createVm(i), hostList.get(i * 2));
+		}
+		vm = createVm(hosts);
+	}
+
+	@Benchmark
+	public boolean allocateHostForVm() {
+		boolean result = vmAllocationPolicy.allocateHostForVm(vm);
+		vmAllocationPolicy.deallocateHostForVm(vm);
+		return result;
+	}
+
+	/**
+	 * Creates a VM.
+	 *
+	 * @param id the VM id
+	 * @return the VM
+	 */
+	private static Vm createVm(int id) {
+		return new Vm(id, 0, 1000, 2, 1024, 1000, 1000, "Xen", new CloudletSchedulerTimeShared());
+	}
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the {@link EventQueue} engines of the future queue on the classic workloads of the
+ * event set literature:
+ * <ul>
+ * <li>hold: the queue keeps a steady size, each operation polls the first event and inserts a new
+ * one at a random distance in the future;
+ * <li>insert: the queue is filled from empty and then drained.
+ * </ul>
+ * The event time increments are drawn from an exponential distribution, with a share of zero
+ * increments to model the many events CloudSim entities send with no delay.
+ *
+ * @since CloudSim Toolkit 3.0.3
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class EventQueueBenchmark {
+
+	/** The number of precomputed time increments. */
+	private static final int INCREMENTS = 1 << 16;
+
+	/** The event queue engine. */
+	@Param({ "treeset", "heap", "calendar" })
+	public String engine;
+
+	/** The number of events in the queue. */
+	@Param({ "1000", "100000" })
+	public int size;
+
+	/** The share of events sent with no delay. */
+	@Param({ "0.2" })
+	public double zeroDelayShare;
+
+	/** The queue. */
+	private EventQueue queue;
+
+	/** The time increments. */
+	private double[] increments;
+
+	/** The next increment to use. */
+	private int nextIncrement;
+
+	/** The serial of the next event. */
+	private long serial;
+
+	@Setup(Level.Trial)
+	public void setUpIncrements() {
+		Random random = new Random(42);
+		increments = new double[INCREMENTS];
+		for (int i = 0; i < INCREMENTS; i++) {
+			if (random.nextDouble() < zeroDelayShare) {
+				increments[i] = 0;
+			} else {
+				increments[i] = -Math.log(1 - random.nextDouble()) * 300;
+			}
+		}
+	}
+
+	@Setup(Level.Iteration)
+	public void setUpQueue() {
+		queue = createQueue(engine);
+		serial = 0;
+		nextIncrement = 0;
+		for (int i = 0; i < size; i++) {
+			queue.add(newEvent(nextIncrement()));
+		}
+	}
+
+	@Benchmark
+	public SimEvent hold() {
+		SimEvent first = queue.poll();
+		SimEvent event = newEvent(first.eventTime() + nextIncrement());
+		queue.add(event);
+		return first;
+	}
+
+	@Benchmark
+	public void insertThenDrain(Blackhole blackhole) {
+		EventQueue empty = createQueue(engine);
+		double time = 0;
+		for (int i = 0; i < size; i++) {
+			time += nextIncrement();
+			empty.add(newEvent(time));
+		}
+		for (int i = 0; i < size; i++) {
+			blackhole.consume(empty.poll());
+		}
+	}
+
+	/**
+	 * Creates an event to send at a given time.
+	 *
+	 * @param time the time
+	 * @return the event
+	 */
+	private SimEvent newEvent(double time) {
+		SimEvent event = new SimEvent(SimEvent.SEND, time, 0, 1, 0, null);
+		event.setSerial(serial++);
+		return event;
+	}
+
+	/**
+	 * Gets the next time increment.
+	 *
+	 * @return the increment
+	 */
+	private double nextIncrement() {
+		return increments[nextIncrement++ & (INCREMENTS - 1)];
+	}
+
+	/**
+	 * Creates an event queue engine.
+	 *
+	 * @param engine the engine name
+	 * @return the event queue
+	 */
+	static EventQueue createQueue(String engine) {
+		if (engine.equals("heap")) {
+			return new HeapEventQueue();
+		} else if (engine.equals("calendar")) {
+			return new CalendarEventQueue();
+		}
+		return new TreeSetEventQueue();
+	}
+
+}
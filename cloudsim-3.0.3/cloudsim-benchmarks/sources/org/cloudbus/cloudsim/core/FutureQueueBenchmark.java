@@ -0,0 +1,126 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the insert and poll operations of the {@link FutureQueue}, as used by the simulation
+ * loop, on top of each {@link EventQueue} engine. Unlike {@link EventQueueBenchmark}, the events
+ * go through {@link FutureQueue#addEvent(SimEvent)}, which assigns their serial, and are polled in
+ * batches of events with the same time, as done by the batched dispatch of CloudSim.
+ *
+ * @since CloudSim Toolkit 3.0.3
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class FutureQueueBenchmark {
+
+	/** The number of precomputed time increments. */
+	private static final int INCREMENTS = 1 << 16;
+
+	/** The event queue engine. */
+	@Param({ "treeset", "heap", "calendar" })
+	public String engine;
+
+	/** The number of events in the queue. */
+	@Param({ "1000", "100000" })
+	public int size;
+
+	/** The share of events sent with no delay. */
+	@Param({ "0.2" })
+	public double zeroDelayShare;
+
+	/** The queue. */
+	private FutureQueue queue;
+
+	/** The time increments. */
+	private double[] increments;
+
+	/** The next increment to use. */
+	private int nextIncrement;
+
+	@Setup(Level.Trial)
+	public void setUpIncrements() {
+		Random random = new Random(42);
+		increments = new double[INCREMENTS];
+		for (int i = 0; i < INCREMENTS; i++) {
+			if (random.nextDouble() < zeroDelayShare) {
+				increments[i] = 0;
+			} else {
+				increments[i] = -Math.log(1 - random.nextDouble()) * 300;
+			}
+		}
+	}
+
+	@Setup(Level.Iteration)
+	public void setUpQueue() {
+		queue = new FutureQueue(EventQueueBenchmark.createQueue(engine));
+		nextIncrement = 0;
+		for (int i = 0; i < size; i++) {
+			queue.addEvent(newEvent(nextIncrement()));
+		}
+	}
+
+	@Benchmark
+	public SimEvent insertPoll() {
+		SimEvent first = queue.poll();
+		queue.addEvent(newEvent(first.eventTime() + nextIncrement()));
+		return first;
+	}
+
+	@Benchmark
+	public void insertPollBatch(Blackhole blackhole) {
+		int count = queue.pollBatch();
+		double time = queue.getBatchEvent(0).eventTime();
+		for (int i = 0; i < count; i++) {
+			blackhole.consume(queue.getBatchEvent(i));
+			queue.addEvent(newEvent(time + nextIncrement()));
+		}
+	}
+
+	/**
+	 * Creates an event to send at a given time.
+	 *
+	 * @param time the time
+	 * @return the event
+	 */
+	private static SimEvent newEvent(double time) {
+		return new SimEvent(SimEvent.SEND, time, 0, 1, 0, null);
+	}
+
+	/**
+	 * Gets the next time increment.
+	 *
+	 * @return the increment
+	 */
+	private double nextIncrement() {
+		return increments[nextIncrement++ & (INCREMENTS - 1)];
+	}
+
+}
@@ -0,0 +1,280 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletSchedulerDynamicWorkload;
+import org.cloudbus.cloudsim.DatacenterBroker;
+import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Migration;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.Storage;
+import org.cloudbus.cloudsim.UtilizationModel;
+import org.cloudbus.cloudsim.UtilizationModelNull;
+import org.cloudbus.cloudsim.UtilizationModelPlanetLabInMemory;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmSchedulerTimeSharedOverSubscription;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.power.models.PowerModel;
+import org.cloudbus.cloudsim.power.models.PowerModelSpecPowerHpProLiantMl110G4Xeon3040;
+import org.cloudbus.cloudsim.power.models.PowerModelSpecPowerHpProLiantMl110G5Xeon3075;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link PowerVmAllocationPolicyMigrationAbstract#optimizeAllocation(List)} on the
+ * PlanetLab workload, with the hosts and VMs of the PlanetLab examples. The simulation is first run
+ * for a few hours with the VM selection policy MMT, so that the hosts and VMs have a utilization
+ * history, and the allocation is then optimized again and again from that state. The allocation is
+ * restored at the end of each optimization, so each operation sees the same state.
+ *
+ * The workload folder is relative to the cloudsim-benchmarks folder; it can be changed with the
+ * <tt>-p workload=...</tt> option of JMH. The hosts are scored serially and in parallel, see
+ * {@link PowerVmAllocationPolicyMigrationAbstract#setHostSelectionParallelism(int)}.
+ *
+ * @since CloudSim Toolkit 3.0.3
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PowerVmAllocationPolicyMigrationBenchmark {
+
+	/** The scheduling interval of the PlanetLab workload. */
+	private static final double SCHEDULING_INTERVAL = 300;
+
+	/** The MIPS of each VM type. */
+	private static final int[] VM_MIPS = { 2500, 2000, 1000, 500 };
+
+	/** The RAM of each VM type. */
+	private static final int[] VM_RAM = { 870, 1740, 1740, 613 };
+
+	/** The MIPS of each PE of each host type. */
+	private static final int[] HOST_MIPS = { 1860, 2660 };
+
+	/** The power model of each host type. */
+	private static final PowerModel[] HOST_POWER = {
+			new PowerModelSpecPowerHpProLiantMl110G4Xeon3040(),
+			new PowerModelSpecPowerHpProLiantMl110G5Xeon3075() };
+
+	/** The VM allocation policy: thr, iqr, mad, lr or lrr, as in the PlanetLab examples. */
+	@Param({ "thr", "mad", "lr" })
+	public String policy;
+
+	/** The number of hosts. */
+	@Param({ "800" })
+	public int hosts;
+
+	/** The PlanetLab workload folder, one file per VM. */
+	@Param({ "../examples/workload/planetlab/20110303" })
+	public String workload;
+
+	/** The simulated time before the measurement, in hours. */
+	@Param({ "6" })
+	public int hours;
+
+	/** The number of threads scoring the hosts during the measurement. */
+	@Param({ "1", "4" })
+	public int parallelism;
+
+	/** The VM allocation policy. */
+	private PowerVmAllocationPolicyMigrationAbstract vmAllocationPolicy;
+
+	/** The VMs of the datacenter. */
+	private List<Vm> vmList;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		Log.disable();
+		CloudSim.init(1, Calendar.getInstance(), false);
+
+		List<PowerHost> hostList = createHostList(hosts);
+		vmAllocationPolicy = createVmAllocationPolicy(policy, hostList);
+		PowerDatacenter datacenter = new PowerDatacenter(
+				"Datacenter",
+				new DatacenterCharacteristics("x86", "Linux", "Xen", hostList, 10.0, 3.0, 0.05, 0.001, 0.0),
+				vmAllocationPolicy,
+				new LinkedList<Storage>(),
+				SCHEDULING_INTERVAL);
+		datacenter.setDisableMigrations(false);
+
+		DatacenterBroker broker = new PowerDatacenterBroker("Broker");
+		List<Cloudlet> cloudletList = createCloudletList(broker.getId(), workload);
+		broker.submitVmList(createVmList(broker.getId(), cloudletList.size()));
+		broker.submitCloudletList(cloudletList);
+
+		CloudSim.terminateSimulation(hours * 3600);
+		CloudSim.startSimulation();
+
+		vmList = datacenter.getVmList();
+		vmAllocationPolicy.setHostSelectionParallelism(parallelism);
+	}
+
+	@Benchmark
+	public List<Migration> optimizeAllocation() {
+		return vmAllocationPolicy.optimizeAllocation(vmList);
+	}
+
+	/**
+	 * Creates the VM allocation policy, with the parameters of the PlanetLab examples.
+	 *
+	 * @param policy the policy name
+	 * @param hostList the host list
+	 * @return the VM allocation policy
+	 */
+	private static PowerVmAllocationPolicyMigrationAbstract createVmAllocationPolicy(
+			String policy,
+			List<PowerHost> hostList) {
+		PowerVmSelectionPolicy vmSelectionPolicy = new PowerVmSelectionPolicyMinimumMigrationTime();
+		PowerVmAllocationPolicyMigrationAbstract fallbackVmAllocationPolicy = new PowerVmAllocationPolicyMigrationStaticThreshold(
+				hostList,
+				vmSelectionPolicy,
+				0.7);
+		if (policy.equals("iqr")) {
+			return new PowerVmAllocationPolicyMigrationInterQuartileRange(
+					hostList,
+					vmSelectionPolicy,
+					1.5,
+					fallbackVmAllocationPolicy);
+		} else if (policy.equals("mad")) {
+			return new PowerVmAllocationPolicyMigrationMedianAbsoluteDeviation(
+					hostList,
+					vmSelectionPolicy,
+					2.5,
+					fallbackVmAllocationPolicy);
+		} else if (policy.equals("lr")) {
+			return new PowerVmAllocationPolicyMigrationLocalRegression(
+					hostList,
+					vmSelectionPolicy,
+					1.2,
+					SCHEDULING_INTERVAL,
+					fallbackVmAllocationPolicy);
+		} else if (policy.equals("lrr")) {
+			return new PowerVmAllocationPolicyMigrationLocalRegressionRobust(
+					hostList,
+					vmSelectionPolicy,
+					1.2,
+					SCHEDULING_INTERVAL,
+					fallbackVmAllocationPolicy);
+		}
+		return new PowerVmAllocationPolicyMigrationStaticThreshold(hostList, vmSelectionPolicy, 0.8);
+	}
+
+	/**
+	 * Creates the hosts, half of each type.
+	 *
+	 * @param hostsNumber the number of hosts
+	 * @return the host list
+	 */
+	private static List<PowerHost> createHostList(int hostsNumber) {
+		List<PowerHost> hostList = new ArrayList<PowerHost>();
+		for (int i = 0; i < hostsNumber; i++) {
+			int hostType = i % HOST_MIPS.length;
+			List<Pe> peList = new ArrayList<Pe>();
+			for (int j = 0; j < 2; j++) {
+				peList.add(new Pe(j, new PeProvisionerSimple(HOST_MIPS[hostType])));
+			}
+			hostList.add(new PowerHostUtilizationHistory(
+					i,
+					new RamProvisionerSimple(4096),
+					new BwProvisionerSimple(1000000),
+					1000000,
+					peList,
+					new VmSchedulerTimeSharedOverSubscription(peList),
+					HOST_POWER[hostType]));
+		}
+		return hostList;
+	}
+
+	/**
+	 * Creates the VMs, a quarter of each type.
+	 *
+	 * @param brokerId the broker id
+	 * @param vmsNumber the number of VMs
+	 * @return the VM list
+	 */
+	private static List<Vm> createVmList(int brokerId, int vmsNumber) {
+		List<Vm> vms = new ArrayList<Vm>();
+		for (int i = 0; i < vmsNumber; i++) {
+			int vmType = i / (int) Math.ceil((double) vmsNumber / VM_MIPS.length);
+			vms.add(new PowerVm(
+					i,
+					brokerId,
+					VM_MIPS[vmType],
+					1,
+					VM_RAM[vmType],
+					100000,
+					2500,
+					1,
+					"Xen",
+					new CloudletSchedulerDynamicWorkload(VM_MIPS[vmType], 1),
+					SCHEDULING_INTERVAL));
+		}
+		return vms;
+	}
+
+	/**
+	 * Creates one cloudlet per file of the workload folder, running for the whole day.
+	 *
+	 * @param brokerId the broker id
+	 * @param workload the workload folder
+	 * @return the cloudlet list
+	 * @throws Exception if a workload file cannot be read
+	 */
+	private static List<Cloudlet> createCloudletList(int brokerId, String workload) throws Exception {
+		File[] files = new File(workload).listFiles();
+		if (files == null) {
+			throw new IllegalArgumentException("The workload folder does not exist: " + workload);
+		}
+		Arrays.sort(files);
+
+		List<Cloudlet> list = new ArrayList<Cloudlet>();
+		UtilizationModel utilizationModelNull = new UtilizationModelNull();
+		for (int i = 0; i < files.length; i++) {
+			Cloudlet cloudlet = new Cloudlet(
+					i,
+					2500 * 24 * 60 * 60,
+					1,
+					300,
+					300,
+					new UtilizationModelPlanetLabInMemory(files[i].getAbsolutePath(), SCHEDULING_INTERVAL),
+					utilizationModelNull,
+					utilizationModelNull);
+			cloudlet.setUserId(brokerId);
+			cloudlet.setVmId(i);
+			list.add(cloudlet);
+		}
+		return list;
+	}
+
+}
@@ -45,6 +45,9 @@ public abstract class RunnerAbstract {
 	/** The enable output. */
 	private static boolean enableOutput;
 
+	/** The output in csv. */
+	private static boolean outputCsv = Constants.OUTPUT_CSV;
+
 	/** The broker. */
 	protected static DatacenterBroker broker;
 
@@ -182,7 +185,7 @@ public abstract class RunnerAbstract {
 					vmList,
 					lastClock,
 					experimentName,
-					Constants.OUTPUT_CSV,
+					isOutputCsv(),
 					outputFolder);
 
 		} catch (Exception e) {
@@ -333,4 +336,22 @@ public abstract class RunnerAbstract {
 		return enableOutput;
 	}
 
+	/**
+	 * Sets whether the results are written to csv files instead of the log.
+	 * 
+	 * @param outputCsv the output in csv
+	 */
+	public static void setOutputCsv(boolean outputCsv) {
+		RunnerAbstract.outputCsv = outputCsv;
+	}
+
+	/**
+	 * Checks if the results are written to csv files.
+	 * 
+	 * @return true, if the results are written to csv files
+	 */
+	public static boolean isOutputCsv() {
+		return outputCsv;
+	}
+
 }
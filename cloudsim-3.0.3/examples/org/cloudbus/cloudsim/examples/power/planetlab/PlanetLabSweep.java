@@ -0,0 +1,311 @@
+package org.cloudbus.cloudsim.examples.power.planetlab;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.cloudbus.cloudsim.examples.power.RunnerAbstract;
+
+/**
+ * Runs the PlanetLab examples for every combination of VM allocation policy, VM selection policy
+ * and workload day, several at a time, and merges the results into a single csv file.
+ * 
+ * The simulation state of CloudSim and of the example runners is static, so each experiment is run
+ * in a separate JVM. The number of experiments run at the same time defaults to the number of
+ * available processors. Each experiment writes its results to the stats folder of the output
+ * folder, as done by the runners when the csv output is enabled, and the log of each experiment is
+ * written to the log folder. The merged results are written to sweep.csv in the output folder.
+ * 
+ * Usage: PlanetLabSweep [inputFolder] [outputFolder] [threads] [workload...]
+ * 
+ * If you are using any algorithms, policies or workload included in the power package please cite
+ * the following paper:
+ * 
+ * Anton Beloglazov, and Rajkumar Buyya, "Optimal Online Deterministic Algorithms and Adaptive
+ * Heuristics for Energy and Performance Efficient Dynamic Consolidation of Virtual Machines in
+ * Cloud Data Centers", Concurrency and Computation: Practice and Experience (CCPE), Volume 24,
+ * Issue 13, Pages: 1397-1420, John Wiley & Sons, Ltd, New York, USA, 2012
+ * 
+ * @since CloudSim Toolkit 3.0.3
+ */
+public class PlanetLabSweep {
+
+	/** The argument that makes the main method run a single experiment. */
+	private static final String RUN_ARGUMENT = "--run";
+
+	/** The VM allocation policies and their parameters, as used by the PlanetLab examples. */
+	private static final String[][] VM_ALLOCATION_POLICIES = {
+			{ "iqr", "1.5" },
+			{ "mad", "2.5" },
+			{ "lr", "1.2" },
+			{ "lrr", "1.2" },
+			{ "thr", "0.8" } };
+
+	/** The VM selection policies. */
+	private static final String[] VM_SELECTION_POLICIES = { "mc", "mmt", "mu", "rs" };
+
+	/** The header of the merged csv file, following the columns written by Helper.printResults. */
+	private static final String CSV_HEADER = "experiment,workload,vm_allocation_policy,vm_selection_policy,"
+			+ "parameter,hosts,vms,total_simulation_time,energy,vm_migrations,sla,"
+			+ "sla_time_per_active_host,sla_degradation_due_to_migration,sla_overall,sla_average,"
+			+ "host_shutdowns,mean_time_before_host_shutdown,stdev_time_before_host_shutdown,"
+			+ "mean_time_before_vm_migration,stdev_time_before_vm_migration,"
+			+ "vm_selection_time_mean,vm_selection_time_stdev,host_selection_time_mean,"
+			+ "host_selection_time_stdev,vm_reallocation_time_mean,vm_reallocation_time_stdev,"
+			+ "total_time_mean,total_time_stdev";
+
+	/**
+	 * The main method.
+	 * 
+	 * @param args the arguments
+	 * @throws Exception if an experiment cannot be run or the results cannot be merged
+	 */
+	public static void main(String[] args) throws Exception {
+		if (args.length > 0 && args[0].equals(RUN_ARGUMENT)) {
+			runExperiment(args);
+			return;
+		}
+
+		String inputFolder;
+		if (args.length >= 1) {
+			inputFolder = args[0];
+		} else {
+			inputFolder = PlanetLabSweep.class.getClassLoader().getResource("workload/planetlab").getPath();
+		}
+		String outputFolder = "output";
+		if (args.length >= 2) {
+			outputFolder = args[1];
+		}
+		int threads = Runtime.getRuntime().availableProcessors();
+		if (args.length >= 3) {
+			threads = Integer.parseInt(args[2]);
+		}
+		List<String> workloads = new ArrayList<String>();
+		if (args.length >= 4) {
+			workloads.addAll(Arrays.asList(args).subList(3, args.length));
+		} else {
+			workloads.addAll(getWorkloads(inputFolder));
+		}
+
+		new File(outputFolder + "/log").mkdirs();
+
+		List<String[]> experiments = new ArrayList<String[]>();
+		for (String workload : workloads) {
+			for (String[] vmAllocationPolicy : VM_ALLOCATION_POLICIES) {
+				for (String vmSelectionPolicy : VM_SELECTION_POLICIES) {
+					experiments.add(new String[] {
+							workload,
+							vmAllocationPolicy[0],
+							vmSelectionPolicy,
+							vmAllocationPolicy[1] });
+				}
+			}
+			experiments.add(new String[] { workload, "dvfs", "", "" });
+		}
+
+		System.out.println("Running " + experiments.size() + " experiments using " + threads + " threads");
+		long startTime = System.currentTimeMillis();
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+		for (String[] experiment : experiments) {
+			results.add(executor.submit(new Experiment(inputFolder, outputFolder, experiment)));
+		}
+		executor.shutdown();
+
+		BufferedWriter writer = new BufferedWriter(new FileWriter(outputFolder + "/sweep.csv"));
+		writer.write(CSV_HEADER + "\n");
+		int failed = 0;
+		for (int i = 0; i < experiments.size(); i++) {
+			String experimentName = getExperimentName(experiments.get(i));
+			int exitValue;
+			try {
+				exitValue = results.get(i).get();
+			} catch (ExecutionException e) {
+				e.getCause().printStackTrace();
+				exitValue = -1;
+			}
+			File stats = getStatsFile(outputFolder, experimentName);
+			if (exitValue != 0 || !stats.exists()) {
+				System.out.println("Failed " + experimentName + ", see " + outputFolder + "/log/"
+						+ experimentName + ".txt");
+				failed++;
+				continue;
+			}
+			BufferedReader reader = new BufferedReader(new FileReader(stats));
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (!line.isEmpty()) {
+					writer.write(line + "\n");
+				}
+			}
+			reader.close();
+		}
+		writer.close();
+
+		System.out.println(String.format(
+				"Finished %d experiments (%d failed) in %.1f sec, results in %s/sweep.csv",
+				experiments.size(),
+				failed,
+				(System.currentTimeMillis() - startTime) / 1000.0,
+				outputFolder));
+	}
+
+	/**
+	 * Runs a single experiment in this JVM, writing its results to csv files.
+	 * 
+	 * @param args the run argument, followed by the input folder, the output folder, the workload,
+	 *            the vm allocation policy, the vm selection policy and the parameter
+	 */
+	private static void runExperiment(String[] args) {
+		RunnerAbstract.setOutputCsv(true);
+		new PlanetLabRunner(false, true, args[1], args[2], args[3], args[4], args[5], args[6]);
+	}
+
+	/**
+	 * Gets the workloads of an input folder, i.e. its subfolders, sorted by name.
+	 * 
+	 * @param inputFolder the input folder
+	 * @return the workloads
+	 */
+	private static List<String> getWorkloads(String inputFolder) {
+		List<String> workloads = new ArrayList<String>();
+		File[] files = new File(inputFolder).listFiles();
+		if (files == null) {
+			throw new IllegalArgumentException("The input folder does not exist: " + inputFolder);
+		}
+		for (File file : files) {
+			if (file.isDirectory()) {
+				workloads.add(file.getName());
+			}
+		}
+		Collections.sort(workloads);
+		return workloads;
+	}
+
+	/**
+	 * Gets the experiment name, in the same way as the example runners.
+	 * 
+	 * @param experiment the workload, the vm allocation policy, the vm selection policy and the
+	 *            parameter
+	 * @return the experiment name
+	 */
+	private static String getExperimentName(String[] experiment) {
+		StringBuilder experimentName = new StringBuilder();
+		for (int i = 0; i < experiment.length; i++) {
+			if (experiment[i].isEmpty()) {
+				continue;
+			}
+			if (i != 0) {
+				experimentName.append("_");
+			}
+			experimentName.append(experiment[i]);
+		}
+		return experimentName.toString();
+	}
+
+	/**
+	 * Gets the csv file to which an experiment writes its results.
+	 * 
+	 * @param outputFolder the output folder
+	 * @param experimentName the experiment name
+	 * @return the stats file
+	 */
+	private static File getStatsFile(String outputFolder, String experimentName) {
+		return new File(outputFolder + "/stats/" + experimentName + "_stats.csv");
+	}
+
+	/**
+	 * An experiment run in a separate JVM.
+	 */
+	private static class Experiment implements Callable<Integer> {
+
+		/** The input folder. */
+		private final String inputFolder;
+
+		/** The output folder. */
+		private final String outputFolder;
+
+		/** The workload, the vm allocation policy, the vm selection policy and the parameter. */
+		private final String[] experiment;
+
+		/**
+		 * Instantiates a new experiment.
+		 * 
+		 * @param inputFolder the input folder
+		 * @param outputFolder the output folder
+		 * @param experiment the workload, the vm allocation policy, the vm selection policy and the
+		 *            parameter
+		 */
+		public Experiment(String inputFolder, String outputFolder, String[] experiment) {
+			this.inputFolder = inputFolder;
+			this.outputFolder = outputFolder;
+			this.experiment = experiment;
+		}
+
+		/**
+		 * Runs the experiment and waits for it to finish.
+		 * 
+		 * @return the exit value of the JVM
+		 * @throws IOException if the results of a previous run cannot be deleted, or the JVM cannot
+		 *             be started
+		 * @throws InterruptedException if interrupted while waiting for the JVM
+		 */
+		@Override
+		public Integer call() throws IOException, InterruptedException {
+			String experimentName = getExperimentName(experiment);
+			System.out.println("Starting " + experimentName);
+
+			// the runners exit with 0 on errors, so a failed run is told by its missing results,
+			// which must not be the ones of a previous sweep into the same folder
+			File stats = getStatsFile(outputFolder, experimentName);
+			if (stats.exists() && !stats.delete()) {
+				throw new IOException("Cannot delete the results of a previous run: " + stats);
+			}
+
+			List<String> command = new ArrayList<String>();
+			command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+			command.add("-cp");
+			command.add(System.getProperty("java.class.path"));
+			command.add(PlanetLabSweep.class.getName());
+			command.add(RUN_ARGUMENT);
+			command.add(inputFolder);
+			command.add(outputFolder);
+			command.addAll(Arrays.asList(experiment));
+
+			Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+			OutputStream log = new FileOutputStream(outputFolder + "/log/" + experimentName + ".txt");
+			try {
+				InputStream output = process.getInputStream();
+				byte[] buffer = new byte[8192];
+				int length;
+				while ((length = output.read(buffer)) != -1) {
+					log.write(buffer, 0, length);
+				}
+			} finally {
+				log.close();
+			}
+			int exitValue = process.waitFor();
+
+			System.out.println("Finished " + experimentName);
+			return exitValue;
+		}
+
+	}
+
+}
@@ -54,9 +54,6 @@ public class Cloudlet {
 	/** The status of this Cloudlet. */
 	private int status;
 
-	/** The format of decimal numbers. */
-	private DecimalFormat num;
-
 	/** The time where this Cloudlet completes. */
 	private double finishTime;
 
@@ -73,11 +70,8 @@ public class Cloudlet {
 	/** The records the transaction history for this Cloudlet. */
 	private final boolean record;
 
-	/** The newline. */
-	private String newline;
-
-	/** The history. */
-	private StringBuffer history;
+	/** The history, created by the first recorded transaction. */
+	private CloudletHistory history;
 
 	/** The res list. */
 	private final List<Resource> resList;
@@ -91,6 +85,9 @@ public class Cloudlet {
 	/** The ToS for sending Cloudlet over the network. */
 	private int netToS;
 
+	/** The priority of this Cloudlet for scheduling on a VM, higher values are served first. */
+	private int priority;
+
 	// //////////////////////////////////////////
 	// Below are CONSTANTS attributes
 	/** The Cloudlet has been created and added to the CloudletList object. */
@@ -527,6 +524,30 @@ public class Cloudlet {
 		return classType;
 	}
 
+	/**
+	 * Sets the priority of this Cloudlet for scheduling on a VM. Schedulers that support priorities,
+	 * such as {@link CloudletSchedulerPriority}, serve the Cloudlets with higher values first. The
+	 * default priority is 0.
+	 * 
+	 * @param priority the priority of this Cloudlet
+	 * @pre $none
+	 * @post $none
+	 */
+	public void setPriority(final int priority) {
+		this.priority = priority;
+	}
+
+	/**
+	 * Gets the priority of this Cloudlet for scheduling on a VM.
+	 * 
+	 * @return the priority of this Cloudlet
+	 * @pre $none
+	 * @post $none
+	 */
+	public int getPriority() {
+		return priority;
+	}
+
 	/**
 	 * Sets the number of PEs required to run this Cloudlet. <br>
 	 * NOTE: The Cloudlet length is computed only for 1 Pe for simplicity. <br>
@@ -559,21 +580,91 @@ public class Cloudlet {
 
 	/**
 	 * Gets the history of this Cloudlet. The layout of this history is in a readable table column
-	 * with <tt>time</tt> and <tt>description</tt> as headers.
+	 * with <tt>time</tt> and <tt>description</tt> as headers. The text is built from the records
+	 * of the history each time this method is called.
 	 * 
 	 * @return a String containing the history of this Cloudlet object.
 	 * @pre $none
 	 * @post $result != null
 	 */
 	public String getCloudletHistory() {
-		String msg = null;
 		if (history == null) {
-			msg = "No history is recorded for Cloudlet #" + cloudletId;
-		} else {
-			msg = history.toString();
+			return "No history is recorded for Cloudlet #" + cloudletId;
 		}
 
-		return msg;
+		final String newline = System.getProperty("line.separator");
+		final DecimalFormat num = new DecimalFormat("#0.00#"); // with 3 decimal spaces
+		final StringBuilder msg = new StringBuilder(200 + history.size() * 60);
+		msg.append("Time below denotes the simulation time.");
+		msg.append(newline);
+		msg.append("Time (sec)       Description Cloudlet #" + cloudletId);
+		msg.append(newline);
+		msg.append("------------------------------------------");
+		msg.append(newline);
+		msg.append(num.format(history.getCreationTime()));
+		msg.append("   Creates Cloudlet ID #" + cloudletId);
+		msg.append(newline);
+		if (history.getDroppedCount() > 0) {
+			msg.append("...   " + history.getDroppedCount() + " older transactions are dropped");
+			msg.append(newline);
+		}
+		for (int i = 0; i < history.size(); i++) {
+			msg.append(num.format(history.getTime(i)));
+			msg.append("   ");
+			msg.append(getHistoryDescription(i, num));
+			msg.append(newline);
+		}
+
+		return msg.toString();
+	}
+
+	/**
+	 * Gets the records of the history of this Cloudlet.
+	 * 
+	 * @return the history, or <tt>null</tt> if no transaction has been recorded
+	 */
+	public CloudletHistory getHistory() {
+		return history;
+	}
+
+	/**
+	 * Gets the description of a record of the history of this Cloudlet.
+	 * 
+	 * @param index the index of the record
+	 * @param num the format of decimal numbers
+	 * @return the description
+	 */
+	private String getHistoryDescription(final int index, final DecimalFormat num) {
+		final double value = history.getValue(index);
+		switch (history.getCode(index)) {
+			case CloudletHistory.USER:
+				return "Assigns the Cloudlet to " + history.getText(index) + " (ID #" + (int) value + ")";
+			case CloudletHistory.RESOURCE:
+				final Resource res = resList.get((int) value);
+				if (value == 0) {
+					return "Allocates this Cloudlet to " + res.resourceName + " (ID #" + res.resourceId
+							+ ") with cost = $" + res.costPerSec + "/sec";
+				}
+				final Resource from = resList.get((int) value - 1);
+				return "Moves Cloudlet from " + from.resourceName + " (ID #" + from.resourceId + ") to "
+						+ res.resourceName + " (ID #" + res.resourceId + ") with cost = $"
+						+ res.costPerSec + "/sec";
+			case CloudletHistory.FINISHED_SO_FAR:
+				return "Sets the length's finished so far to " + (long) value;
+			case CloudletHistory.SUBMISSION_TIME:
+				return "Sets the submission time to " + num.format(value);
+			case CloudletHistory.EXEC_START_TIME:
+				return "Sets the execution start time to " + num.format(value);
+			case CloudletHistory.EXEC_PARAM:
+				return "Sets the wall clock time to " + num.format(value) + " and the actual CPU time to "
+						+ num.format(history.getSecondValue(index));
+			case CloudletHistory.STATUS:
+				return "Sets Cloudlet status from "
+						+ Cloudlet.getStatusString((int) history.getSecondValue(index)) + " to "
+						+ Cloudlet.getStatusString((int) value);
+			default:
+				return history.getText(index);
+		}
 	}
 
 	/**
@@ -642,8 +733,8 @@ public class Cloudlet {
 		final Resource res = resList.get(index);
 		res.finishedSoFar = length;
 
-		if (record) {
-			write("Sets the length's finished so far to " + length);
+		if (isRecording()) {
+			getOrCreateHistory().add(CloudSim.clock(), CloudletHistory.FINISHED_SO_FAR, length);
 		}
 	}
 
@@ -657,8 +748,12 @@ public class Cloudlet {
 	 */
 	public void setUserId(final int id) {
 		userId = id;
-		if (record) {
-			write("Assigns the Cloudlet to " + CloudSim.getEntityName(id) + " (ID #" + id + ")");
+		if (isRecording()) {
+			getOrCreateHistory().add(
+					CloudSim.clock(),
+					CloudletHistory.USER,
+					id,
+					CloudSim.getEntityName(id));
 		}
 	}
 
@@ -730,14 +825,8 @@ public class Cloudlet {
 		// add into a list if moving to a new grid resource
 		resList.add(res);
 
-		if (index == -1 && record) {
-			write("Allocates this Cloudlet to " + res.resourceName + " (ID #" + resourceID
-					+ ") with cost = $" + cost + "/sec");
-		} else if (record) {
-			final int id = resList.get(index).resourceId;
-			final String name = resList.get(index).resourceName;
-			write("Moves Cloudlet from " + name + " (ID #" + id + ") to " + res.resourceName + " (ID #"
-					+ resourceID + ") with cost = $" + cost + "/sec");
+		if (isRecording()) {
+			getOrCreateHistory().add(CloudSim.clock(), CloudletHistory.RESOURCE, index + 1);
 		}
 
 		index++;  // initially, index = -1
@@ -758,8 +847,8 @@ public class Cloudlet {
 		final Resource res = resList.get(index);
 		res.submissionTime = clockTime;
 
-		if (record) {
-			write("Sets the submission time to " + num.format(clockTime));
+		if (isRecording()) {
+			getOrCreateHistory().add(CloudSim.clock(), CloudletHistory.SUBMISSION_TIME, clockTime);
 		}
 	}
 
@@ -789,8 +878,8 @@ public class Cloudlet {
 	 */
 	public void setExecStartTime(final double clockTime) {
 		execStartTime = clockTime;
-		if (record) {
-			write("Sets the execution start time to " + num.format(clockTime));
+		if (isRecording()) {
+			getOrCreateHistory().add(CloudSim.clock(), CloudletHistory.EXEC_START_TIME, clockTime);
 		}
 	}
 
@@ -825,9 +914,8 @@ public class Cloudlet {
 		res.wallClockTime = wallTime;
 		res.actualCPUTime = actualTime;
 
-		if (record) {
-			write("Sets the wall clock time to " + num.format(wallTime) + " and the actual CPU time to "
-					+ num.format(actualTime));
+		if (isRecording()) {
+			getOrCreateHistory().add(CloudSim.clock(), CloudletHistory.EXEC_PARAM, wallTime, actualTime);
 		}
 	}
 
@@ -855,9 +943,8 @@ public class Cloudlet {
 			finishTime = CloudSim.clock();
 		}
 
-		if (record) {
-			write("Sets Cloudlet status from " + getCloudletStatusString() + " to "
-					+ Cloudlet.getStatusString(newStatus));
+		if (isRecording()) {
+			getOrCreateHistory().add(CloudSim.clock(), CloudletHistory.STATUS, newStatus, status);
 		}
 
 		status = newStatus;
@@ -1173,28 +1260,34 @@ public class Cloudlet {
 	 * @post $none
 	 */
 	protected void write(final String str) {
-		if (!record) {
+		if (!isRecording()) {
 			return;
 		}
 
-		if (num == null || history == null) { // Creates the history or
-												// transactions of this Cloudlet
-			newline = System.getProperty("line.separator");
-			num = new DecimalFormat("#0.00#"); // with 3 decimal spaces
-			history = new StringBuffer(1000);
-			history.append("Time below denotes the simulation time.");
-			history.append(System.getProperty("line.separator"));
-			history.append("Time (sec)       Description Cloudlet #" + cloudletId);
-			history.append(System.getProperty("line.separator"));
-			history.append("------------------------------------------");
-			history.append(System.getProperty("line.separator"));
-			history.append(num.format(CloudSim.clock()));
-			history.append("   Creates Cloudlet ID #" + cloudletId);
-			history.append(System.getProperty("line.separator"));
-		}
+		getOrCreateHistory().add(CloudSim.clock(), CloudletHistory.MESSAGE, 0, str);
+	}
 
-		history.append(num.format(CloudSim.clock()));
-		history.append("   " + str + newline);
+	/**
+	 * Checks whether the transactions of this Cloudlet are recorded, that is whether it has been
+	 * created with <tt>record</tt> set and the histories are enabled.
+	 * 
+	 * @return <tt>true</tt> if the transactions are recorded
+	 * @see CloudletHistory#setEnabled(boolean)
+	 */
+	private boolean isRecording() {
+		return record && CloudletHistory.isEnabled();
+	}
+
+	/**
+	 * Gets the history of this Cloudlet, creating it on the first transaction.
+	 * 
+	 * @return the history
+	 */
+	private CloudletHistory getOrCreateHistory() {
+		if (history == null) {
+			history = new CloudletHistory(CloudSim.clock());
+		}
+		return history;
 	}
 
 	/**
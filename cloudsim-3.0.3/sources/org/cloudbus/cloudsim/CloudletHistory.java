@@ -0,0 +1,394 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+/**
+ * The history of a {@link Cloudlet}, kept as a ring buffer of records. A record is made of the
+ * simulation time, an event code and up to two values, stored in primitive arrays, so recording a
+ * transaction does not build any string. A few rare records also refer to an existing string, such
+ * as the name of the user. The text of the history is only built by
+ * {@link Cloudlet#getCloudletHistory()}.
+ * <p>
+ * The buffer grows up to the capacity, after which each new record replaces the oldest one. The
+ * number of records dropped that way is available with {@link #getDroppedCount()}.
+ * <p>
+ * The recording of the history can be turned off for all the cloudlets with
+ * {@link #setEnabled(boolean)}, whatever the <tt>record</tt> flag given to their constructor.
+ * 
+ * @since CloudSim Toolkit 3.0.3
+ */
+public final class CloudletHistory {
+
+	/** The cloudlet has been assigned to a user; the value is the user ID, the text its name. */
+	public static final int USER = 0;
+
+	/** The cloudlet has been allocated to a resource; the value is the index of the resource. */
+	public static final int RESOURCE = 1;
+
+	/** The length finished so far has been set; the value is the length. */
+	public static final int FINISHED_SO_FAR = 2;
+
+	/** The submission time has been set; the value is the time. */
+	public static final int SUBMISSION_TIME = 3;
+
+	/** The execution start time has been set; the value is the time. */
+	public static final int EXEC_START_TIME = 4;
+
+	/** The execution parameters have been set; the values are the wall clock and CPU times. */
+	public static final int EXEC_PARAM = 5;
+
+	/** The status has changed; the values are the new and the previous status. */
+	public static final int STATUS = 6;
+
+	/** A free text transaction has been written; the text is the transaction. */
+	public static final int MESSAGE = 7;
+
+	/** The initial number of records of a history. */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/** Whether the histories are recorded. */
+	private static boolean enabled = true;
+
+	/** The maximum number of records of a history. */
+	private static int defaultCapacity = 1024;
+
+	/** The time when the history has been created. */
+	private final double creationTime;
+
+	/** The maximum number of records. */
+	private final int capacity;
+
+	/** The times of the records. */
+	private double[] times;
+
+	/** The event codes of the records. */
+	private int[] codes;
+
+	/** The first values of the records. */
+	private double[] values;
+
+	/** The second values of the records. */
+	private double[] secondValues;
+
+	/** The position of the oldest record. */
+	private int start;
+
+	/** The number of records. */
+	private int size;
+
+	/** The number of records dropped to make room for new ones. */
+	private long droppedCount;
+
+	/** The texts of the records, by position, created by the first record with a text. */
+	private String[] texts;
+
+	/**
+	 * Instantiates a new history with the default capacity.
+	 * 
+	 * @param creationTime the time when the history is created
+	 */
+	public CloudletHistory(double creationTime) {
+		this(creationTime, getDefaultCapacity());
+	}
+
+	/**
+	 * Instantiates a new history.
+	 * 
+	 * @param creationTime the time when the history is created
+	 * @param capacity the maximum number of records
+	 * @throws IllegalArgumentException if the capacity is not positive
+	 */
+	public CloudletHistory(double creationTime, int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("The capacity of a history must be positive");
+		}
+		this.creationTime = creationTime;
+		this.capacity = capacity;
+		int initialCapacity = Math.min(INITIAL_CAPACITY, capacity);
+		times = new double[initialCapacity];
+		codes = new int[initialCapacity];
+		values = new double[initialCapacity];
+		secondValues = new double[initialCapacity];
+	}
+
+	/**
+	 * Adds a record with one value.
+	 * 
+	 * @param time the simulation time
+	 * @param code the event code
+	 * @param value the value
+	 */
+	public void add(double time, int code, double value) {
+		add(time, code, value, 0);
+	}
+
+	/**
+	 * Adds a record with two values.
+	 * 
+	 * @param time the simulation time
+	 * @param code the event code
+	 * @param value the first value
+	 * @param secondValue the second value
+	 */
+	public void add(double time, int code, double value, double secondValue) {
+		int position = addRecord(time, code, value, secondValue);
+		if (texts != null) {
+			texts[position] = null;
+		}
+	}
+
+	/**
+	 * Adds a record with one value and a text.
+	 * 
+	 * @param time the simulation time
+	 * @param code the event code
+	 * @param value the value
+	 * @param text the text
+	 */
+	public void add(double time, int code, double value, String text) {
+		int position = addRecord(time, code, value, 0);
+		if (texts == null) {
+			texts = new String[times.length];
+		}
+		texts[position] = text;
+	}
+
+	/**
+	 * Stores a record in the arrays, growing them or replacing the oldest record if they are full.
+	 * 
+	 * @param time the simulation time
+	 * @param code the event code
+	 * @param value the first value
+	 * @param secondValue the second value
+	 * @return the position of the record in the arrays
+	 */
+	private int addRecord(double time, int code, double value, double secondValue) {
+		int position;
+		if (size < times.length) {
+			position = (start + size) % times.length;
+			size++;
+		} else if (size < capacity) {
+			grow();
+			position = size;
+			size++;
+		} else {
+			position = start;
+			start = (start + 1) % times.length;
+			droppedCount++;
+		}
+		times[position] = time;
+		codes[position] = code;
+		values[position] = value;
+		secondValues[position] = secondValue;
+		return position;
+	}
+
+	/**
+	 * Doubles the size of the arrays, moving the records to the start of the new arrays.
+	 */
+	private void grow() {
+		int length = Math.min(times.length * 2, capacity);
+		times = copy(times, length);
+		codes = copy(codes, length);
+		values = copy(values, length);
+		secondValues = copy(secondValues, length);
+		if (texts != null) {
+			texts = copy(texts, length);
+		}
+		start = 0;
+	}
+
+	/**
+	 * Copies the records of an array into a new array, oldest first.
+	 * 
+	 * @param array the array
+	 * @param length the length of the new array
+	 * @return the new array
+	 */
+	private double[] copy(double[] array, int length) {
+		double[] result = new double[length];
+		int head = array.length - start;
+		System.arraycopy(array, start, result, 0, head);
+		System.arraycopy(array, 0, result, head, start);
+		return result;
+	}
+
+	/**
+	 * Copies the records of an array into a new array, oldest first.
+	 * 
+	 * @param array the array
+	 * @param length the length of the new array
+	 * @return the new array
+	 */
+	private int[] copy(int[] array, int length) {
+		int[] result = new int[length];
+		int head = array.length - start;
+		System.arraycopy(array, start, result, 0, head);
+		System.arraycopy(array, 0, result, head, start);
+		return result;
+	}
+
+	/**
+	 * Copies the records of an array into a new array, oldest first.
+	 * 
+	 * @param array the array
+	 * @param length the length of the new array
+	 * @return the new array
+	 */
+	private String[] copy(String[] array, int length) {
+		String[] result = new String[length];
+		int head = array.length - start;
+		System.arraycopy(array, start, result, 0, head);
+		System.arraycopy(array, 0, result, head, start);
+		return result;
+	}
+
+	/**
+	 * Gets the position in the arrays of a record.
+	 * 
+	 * @param index the index of the record, 0 being the oldest
+	 * @return the position
+	 * @throws IndexOutOfBoundsException if there is no such record
+	 */
+	private int position(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		return (start + index) % times.length;
+	}
+
+	/**
+	 * Gets the number of records.
+	 * 
+	 * @return the number of records
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the time of a record.
+	 * 
+	 * @param index the index of the record, 0 being the oldest
+	 * @return the time
+	 */
+	public double getTime(int index) {
+		return times[position(index)];
+	}
+
+	/**
+	 * Gets the event code of a record.
+	 * 
+	 * @param index the index of the record, 0 being the oldest
+	 * @return the event code
+	 */
+	public int getCode(int index) {
+		return codes[position(index)];
+	}
+
+	/**
+	 * Gets the first value of a record.
+	 * 
+	 * @param index the index of the record, 0 being the oldest
+	 * @return the value
+	 */
+	public double getValue(int index) {
+		return values[position(index)];
+	}
+
+	/**
+	 * Gets the second value of a record.
+	 * 
+	 * @param index the index of the record, 0 being the oldest
+	 * @return the second value
+	 */
+	public double getSecondValue(int index) {
+		return secondValues[position(index)];
+	}
+
+	/**
+	 * Gets the text of a record added with one.
+	 * 
+	 * @param index the index of the record, 0 being the oldest
+	 * @return the text, or <tt>null</tt> if the record has none
+	 */
+	public String getText(int index) {
+		int position = position(index);
+		return texts == null ? null : texts[position];
+	}
+
+	/**
+	 * Gets the time when the history has been created.
+	 * 
+	 * @return the creation time
+	 */
+	public double getCreationTime() {
+		return creationTime;
+	}
+
+	/**
+	 * Gets the maximum number of records.
+	 * 
+	 * @return the capacity
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Gets the number of records dropped to make room for new ones.
+	 * 
+	 * @return the dropped count
+	 */
+	public long getDroppedCount() {
+		return droppedCount;
+	}
+
+	/**
+	 * Checks whether the histories of the cloudlets are recorded.
+	 * 
+	 * @return true, if enabled
+	 */
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Turns the recording of the histories of all the cloudlets on or off. When off, the cloudlets
+	 * created with <tt>record</tt> set do not record anything either.
+	 * 
+	 * @param enabled whether the histories are recorded
+	 */
+	public static void setEnabled(boolean enabled) {
+		CloudletHistory.enabled = enabled;
+	}
+
+	/**
+	 * Gets the maximum number of records of the histories created from now on.
+	 * 
+	 * @return the default capacity
+	 */
+	public static int getDefaultCapacity() {
+		return defaultCapacity;
+	}
+
+	/**
+	 * Sets the maximum number of records of the histories created from now on.
+	 * 
+	 * @param defaultCapacity the default capacity
+	 * @throws IllegalArgumentException if the capacity is not positive
+	 */
+	public static void setDefaultCapacity(int defaultCapacity) {
+		if (defaultCapacity <= 0) {
+			throw new IllegalArgumentException("The capacity of a history must be positive");
+		}
+		CloudletHistory.defaultCapacity = defaultCapacity;
+	}
+
+}
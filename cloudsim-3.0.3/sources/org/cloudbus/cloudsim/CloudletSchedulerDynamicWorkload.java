@@ -177,11 +177,49 @@ public class CloudletSchedulerDynamicWorkload extends CloudletSchedulerTimeShare
 	 */
 	@Override
 	public List<Double> getCurrentRequestedMips() {
-		if (getCachePreviousTime() == getPreviousTime()) {
-			return getCacheCurrentRequestedMips();
+		if (isCurrentRequestedMipsStale()) {
+			setCurrentUtilizationOfCpu(getTotalUtilizationOfCpu(getPreviousTime()));
 		}
+		return getCacheCurrentRequestedMips();
+	}
+
+	/**
+	 * Checks whether the current mips have to be computed again, as they were last computed at
+	 * another time than the previous time.
+	 * 
+	 * @return true if the current mips are stale
+	 */
+	public boolean isCurrentRequestedMipsStale() {
+		return getCachePreviousTime() != getPreviousTime();
+	}
+
+	/**
+	 * Copies the CPU utilization models of the cloudlets in execution into an array, in the order
+	 * their utilization is added by {@link #getTotalUtilizationOfCpu(double)}. The array must have
+	 * room for {@link #runningCloudlets()} models.
+	 * 
+	 * @param models the array of models
+	 * @param from the position of the first model in the array
+	 * @return the number of models copied
+	 */
+	public int getCpuUtilizationModels(UtilizationModel[] models, int from) {
+		int position = from;
+		for (ResCloudlet rcl : getCloudletExecList()) {
+			models[position++] = rcl.getCloudlet().getUtilizationModelCpu();
+		}
+		return position - from;
+	}
+
+	/**
+	 * Sets the current mips from the total CPU utilization of the cloudlets in execution at the
+	 * previous time, which is computed by the caller, e.g. for many schedulers at once. The mips
+	 * are spread evenly among the PEs.
+	 * 
+	 * @param totalUtilization the total CPU utilization at the previous time
+	 */
+	public void setCurrentUtilizationOfCpu(double totalUtilization) {
 		List<Double> currentMips = new ArrayList<Double>();
-		double totalMips = getTotalUtilizationOfCpu(getPreviousTime()) * getTotalMips();
+		double totalMips = totalUtilization * getTotalMips();
 		double mipsForPe = totalMips / getNumberOfPes();
 
 		for (int i = 0; i < getNumberOfPes(); i++) {
@@ -190,8 +228,6 @@ public class CloudletSchedulerDynamicWorkload extends CloudletSchedulerTimeShare
 
 		setCachePreviousTime(getPreviousTime());
 		setCacheCurrentRequestedMips(currentMips);
-
-		return currentMips;
 	}
 
 	/**
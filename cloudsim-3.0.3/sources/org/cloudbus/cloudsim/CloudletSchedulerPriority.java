@@ -0,0 +1,746 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+
+/**
+ * CloudletSchedulerPriority implements a space-shared policy of scheduling performed by a virtual
+ * machine in which the waiting cloudlets are served by priority. Each cloudlet runs on its own
+ * PEs, as in {@link CloudletSchedulerSpaceShared}, and the cloudlets that do not fit wait in a heap
+ * ordered by the priority of the cloudlet (see {@link Cloudlet#getPriority()}), higher priorities
+ * first, and then by submission time. The cloudlet at the head of the heap is started as soon as
+ * enough PEs are free; the cloudlets behind it wait even if they would fit, so that a cloudlet is
+ * never overtaken by one with a lower priority.
+ * 
+ * If preemption is enabled, a cloudlet that does not fit when submitted preempts the running
+ * cloudlets with a lower priority, lowest first, until it fits. The preempted cloudlets go back to
+ * the waiting heap and keep the work done so far.
+ * 
+ * If aging is enabled, the priority of a waiting cloudlet grows by the aging rate for each second
+ * it waits, so that cloudlets with a low priority are not starved. As all the waiting cloudlets age
+ * at the same rate, the order of the heap does not change over time: a cloudlet submitted at time t
+ * with priority p is ordered by p - agingRate * t. The priority is read when the cloudlet is
+ * submitted or resumed.
+ * 
+ * @since CloudSim Toolkit 3.0.3
+ */
+public class CloudletSchedulerPriority extends CloudletScheduler {
+
+	/** The cloudlet waiting heap. */
+	private final PriorityQueue<WaitingCloudlet> cloudletWaitingQueue;
+
+	/** The cloudlet exec list. */
+	private final List<ResCloudlet> cloudletExecList;
+
+	/** The cloudlet paused list. */
+	private final List<ResCloudlet> cloudletPausedList;
+
+	/** The cloudlet finished list. */
+	private final List<ResCloudlet> cloudletFinishedList;
+
+	/** Whether a submitted cloudlet preempts the running cloudlets with a lower priority. */
+	private final boolean preemptive;
+
+	/** The increase of the priority of a waiting cloudlet per second. */
+	private final double agingRate;
+
+	/** The number of cloudlets queued so far, used to keep the order of equal cloudlets. */
+	private long queuedCloudlets;
+
+	/** The current CPUs. */
+	protected int currentCpus;
+
+	/** The used PEs. */
+	protected int usedPes;
+
+	/**
+	 * Creates a new CloudletSchedulerPriority object without preemption and aging. This method must
+	 * be invoked before starting the actual simulation.
+	 * 
+	 * @pre $none
+	 * @post $none
+	 */
+	public CloudletSchedulerPriority() {
+		this(false, 0);
+	}
+
+	/**
+	 * Creates a new CloudletSchedulerPriority object without aging. This method must be invoked
+	 * before starting the actual simulation.
+	 * 
+	 * @param preemptive whether a submitted cloudlet preempts the running cloudlets with a lower
+	 *            priority
+	 * @pre $none
+	 * @post $none
+	 */
+	public CloudletSchedulerPriority(boolean preemptive) {
+		this(preemptive, 0);
+	}
+
+	/**
+	 * Creates a new CloudletSchedulerPriority object. This method must be invoked before starting
+	 * the actual simulation.
+	 * 
+	 * @param preemptive whether a submitted cloudlet preempts the running cloudlets with a lower
+	 *            priority
+	 * @param agingRate the increase of the priority of a waiting cloudlet per second, or 0 to
+	 *            disable aging
+	 * @pre agingRate >= 0
+	 * @post $none
+	 */
+	public CloudletSchedulerPriority(boolean preemptive, double agingRate) {
+		super();
+		if (agingRate < 0) {
+			throw new IllegalArgumentException("The aging rate cannot be negative: " + agingRate);
+		}
+		this.preemptive = preemptive;
+		this.agingRate = agingRate;
+		cloudletWaitingQueue = new PriorityQueue<WaitingCloudlet>(11, new WaitingCloudletComparator());
+		cloudletExecList = new ArrayList<ResCloudlet>();
+		cloudletPausedList = new ArrayList<ResCloudlet>();
+		cloudletFinishedList = new ArrayList<ResCloudlet>();
+		usedPes = 0;
+		currentCpus = 0;
+	}
+
+	/**
+	 * Updates the processing of cloudlets running under management of this scheduler.
+	 * 
+	 * @param currentTime current simulation time
+	 * @param mipsShare array with MIPS share of each processor available to the scheduler
+	 * @return time predicted completion time of the earliest finishing cloudlet, or 0 if there is
+	 *         no next events
+	 * @pre currentTime >= 0
+	 * @post $none
+	 */
+	@Override
+	public double updateVmProcessing(double currentTime, List<Double> mipsShare) {
+		setCurrentMipsShare(mipsShare);
+		double timeSpam = currentTime - getPreviousTime(); // time since last update
+		double capacity = getCapacity(mipsShare);
+
+		// each machine in the exec list has the same amount of cpu
+		for (ResCloudlet rcl : getCloudletExecList()) {
+			rcl.updateCloudletFinishedSoFar((long) (capacity * timeSpam * rcl.getNumberOfPes() * Consts.MILLION));
+		}
+
+		// no more cloudlets in this scheduler
+		if (getCloudletExecList().isEmpty() && cloudletWaitingQueue.isEmpty()) {
+			setPreviousTime(currentTime);
+			return 0.0;
+		}
+
+		Iterator<ResCloudlet> iterator = getCloudletExecList().iterator();
+		while (iterator.hasNext()) {
+			ResCloudlet rcl = iterator.next();
+			// finished anyway, rounding issue...
+			if (rcl.getRemainingCloudletLength() == 0) {
+				iterator.remove();
+				cloudletFinish(rcl);
+			}
+		}
+
+		// the freed PEs go to the cloudlets at the head of the waiting heap
+		startWaitingCloudlets();
+
+		// estimate finish time of cloudlets in the execution queue
+		double nextEvent = Double.MAX_VALUE;
+		for (ResCloudlet rcl : getCloudletExecList()) {
+			double remainingLength = rcl.getRemainingCloudletLength();
+			double estimatedFinishTime = currentTime + (remainingLength / (capacity * rcl.getNumberOfPes()));
+			if (estimatedFinishTime - currentTime < CloudSim.getMinTimeBetweenEvents()) {
+				estimatedFinishTime = currentTime + CloudSim.getMinTimeBetweenEvents();
+			}
+			if (estimatedFinishTime < nextEvent) {
+				nextEvent = estimatedFinishTime;
+			}
+		}
+		setPreviousTime(currentTime);
+		return nextEvent;
+	}
+
+	/**
+	 * Cancels execution of a cloudlet.
+	 * 
+	 * @param cloudletId ID of the cloudlet being cancealed
+	 * @return the canceled cloudlet, $null if not found
+	 * @pre $none
+	 * @post $none
+	 */
+	@Override
+	public Cloudlet cloudletCancel(int cloudletId) {
+		// First, looks in the finished queue
+		ResCloudlet rcl = remove(getCloudletFinishedList(), cloudletId);
+		if (rcl != null) {
+			return rcl.getCloudlet();
+		}
+
+		// Then searches in the exec list
+		rcl = remove(getCloudletExecList(), cloudletId);
+		if (rcl != null) {
+			if (rcl.getRemainingCloudletLength() == 0) {
+				cloudletFinish(rcl);
+			} else {
+				rcl.setCloudletStatus(Cloudlet.CANCELED);
+				usedPes -= rcl.getNumberOfPes();
+			}
+			return rcl.getCloudlet();
+		}
+
+		// Now, looks in the paused queue
+		rcl = remove(getCloudletPausedList(), cloudletId);
+		if (rcl != null) {
+			return rcl.getCloudlet();
+		}
+
+		// Finally, looks in the waiting heap
+		rcl = removeWaiting(cloudletId);
+		if (rcl != null) {
+			rcl.setCloudletStatus(Cloudlet.CANCELED);
+			return rcl.getCloudlet();
+		}
+
+		return null;
+	}
+
+	/**
+	 * Pauses execution of a cloudlet.
+	 * 
+	 * @param cloudletId ID of the cloudlet being paused
+	 * @return $true if cloudlet paused, $false otherwise
+	 * @pre $none
+	 * @post $none
+	 */
+	@Override
+	public boolean cloudletPause(int cloudletId) {
+		// first, looks for the cloudlet in the exec list
+		ResCloudlet rcl = remove(getCloudletExecList(), cloudletId);
+		if (rcl != null) {
+			if (rcl.getRemainingCloudletLength() == 0) {
+				cloudletFinish(rcl);
+			} else {
+				rcl.setCloudletStatus(Cloudlet.PAUSED);
+				getCloudletPausedList().add(rcl);
+				usedPes -= rcl.getNumberOfPes();
+			}
+			return true;
+		}
+
+		// now, look for the cloudlet in the waiting heap
+		rcl = removeWaiting(cloudletId);
+		if (rcl != null) {
+			rcl.setCloudletStatus(Cloudlet.PAUSED);
+			getCloudletPausedList().add(rcl);
+			return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Processes a finished cloudlet.
+	 * 
+	 * @param rcl finished cloudlet
+	 * @pre rgl != $null
+	 * @post $none
+	 */
+	@Override
+	public void cloudletFinish(ResCloudlet rcl) {
+		rcl.setCloudletStatus(Cloudlet.SUCCESS);
+		rcl.finalizeCloudlet();
+		getCloudletFinishedList().add(rcl);
+		usedPes -= rcl.getNumberOfPes();
+	}
+
+	/**
+	 * Resumes execution of a paused cloudlet. The cloudlet goes back to the waiting heap with its
+	 * current priority and is started right away if it is at the head of the heap and fits.
+	 * 
+	 * @param cloudletId ID of the cloudlet being resumed
+	 * @return expected finish time of the cloudlet if it was started, 0 otherwise
+	 * @pre $none
+	 * @post $none
+	 */
+	@Override
+	public double cloudletResume(int cloudletId) {
+		ResCloudlet rcl = remove(getCloudletPausedList(), cloudletId);
+		if (rcl == null) {
+			// not found in the paused list: either it is in in the queue, executing or not exist
+			return 0.0;
+		}
+
+		queue(rcl);
+		if (preemptive) {
+			preemptFor(rcl);
+		}
+		startWaitingCloudlets();
+		if (rcl.getCloudletStatus() != Cloudlet.INEXEC) {
+			return 0.0;
+		}
+
+		double capacity = getCapacity(getCurrentMipsShare());
+		return CloudSim.clock() + (rcl.getRemainingCloudletLength() / (capacity * rcl.getNumberOfPes()));
+	}
+
+	/**
+	 * Receives an cloudlet to be executed in the VM managed by this scheduler.
+	 * 
+	 * @param cloudlet the submited cloudlet
+	 * @param fileTransferTime time required to move the required files from the SAN to the VM
+	 * @return expected finish time of this cloudlet, or 0 if it is in the waiting queue
+	 * @pre gl != null
+	 * @post $none
+	 */
+	@Override
+	public double cloudletSubmit(Cloudlet cloudlet, double fileTransferTime) {
+		ResCloudlet rcl = new ResCloudlet(cloudlet);
+		queue(rcl);
+		if (preemptive) {
+			preemptFor(rcl);
+		}
+		startWaitingCloudlets();
+		if (rcl.getCloudletStatus() != Cloudlet.INEXEC) {
+			return 0.0;
+		}
+
+		// calculate the expected time for cloudlet completion
+		double capacity = getCapacity(getCurrentMipsShare());
+
+		// use the current capacity to estimate the extra amount of
+		// time to file transferring. It must be added to the cloudlet length
+		double extraSize = capacity * fileTransferTime;
+		long length = cloudlet.getCloudletLength();
+		length += extraSize;
+		cloudlet.setCloudletLength(length);
+		return cloudlet.getCloudletLength() / capacity;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see cloudsim.CloudletScheduler#cloudletSubmit(cloudsim.Cloudlet)
+	 */
+	@Override
+	public double cloudletSubmit(Cloudlet cloudlet) {
+		return cloudletSubmit(cloudlet, 0.0);
+	}
+
+	/**
+	 * Gets the status of a cloudlet.
+	 * 
+	 * @param cloudletId ID of the cloudlet
+	 * @return status of the cloudlet, -1 if cloudlet not found
+	 * @pre $none
+	 * @post $none
+	 */
+	@Override
+	public int getCloudletStatus(int cloudletId) {
+		for (ResCloudlet rcl : getCloudletExecList()) {
+			if (rcl.getCloudletId() == cloudletId) {
+				return rcl.getCloudletStatus();
+			}
+		}
+
+		for (ResCloudlet rcl : getCloudletPausedList()) {
+			if (rcl.getCloudletId() == cloudletId) {
+				return rcl.getCloudletStatus();
+			}
+		}
+
+		for (WaitingCloudlet waiting : cloudletWaitingQueue) {
+			if (waiting.rcl.getCloudletId() == cloudletId) {
+				return waiting.rcl.getCloudletStatus();
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Get utilization created by all cloudlets.
+	 * 
+	 * @param time the time
+	 * @return total utilization
+	 */
+	@Override
+	public double getTotalUtilizationOfCpu(double time) {
+		double totalUtilization = 0;
+		for (ResCloudlet gl : getCloudletExecList()) {
+			totalUtilization += gl.getCloudlet().getUtilizationOfCpu(time);
+		}
+		return totalUtilization;
+	}
+
+	/**
+	 * Informs about completion of some cloudlet in the VM managed by this scheduler.
+	 * 
+	 * @return $true if there is at least one finished cloudlet; $false otherwise
+	 * @pre $none
+	 * @post $none
+	 */
+	@Override
+	public boolean isFinishedCloudlets() {
+		return getCloudletFinishedList().size() > 0;
+	}
+
+	/**
+	 * Returns the next cloudlet in the finished list, $null if this list is empty.
+	 * 
+	 * @return a finished cloudlet
+	 * @pre $none
+	 * @post $none
+	 */
+	@Override
+	public Cloudlet getNextFinishedCloudlet() {
+		if (getCloudletFinishedList().size() > 0) {
+			return getCloudletFinishedList().remove(0).getCloudlet();
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the number of cloudlets runnning in the virtual machine.
+	 * 
+	 * @return number of cloudlets runnning
+	 * @pre $none
+	 * @post $none
+	 */
+	@Override
+	public int runningCloudlets() {
+		return getCloudletExecList().size();
+	}
+
+	/**
+	 * Returns one cloudlet to migrate to another vm.
+	 * 
+	 * @return one running cloudlet
+	 * @pre $none
+	 * @post $none
+	 */
+	@Override
+	public Cloudlet migrateCloudlet() {
+		ResCloudlet rcl = getCloudletExecList().remove(0);
+		rcl.finalizeCloudlet();
+		Cloudlet cl = rcl.getCloudlet();
+		usedPes -= cl.getNumberOfPes();
+		return cl;
+	}
+
+	/**
+	 * Checks whether a submitted cloudlet preempts the running cloudlets with a lower priority.
+	 * 
+	 * @return true, if preemption is enabled
+	 */
+	public boolean isPreemptive() {
+		return preemptive;
+	}
+
+	/**
+	 * Gets the increase of the priority of a waiting cloudlet per second.
+	 * 
+	 * @return the aging rate
+	 */
+	public double getAgingRate() {
+		return agingRate;
+	}
+
+	/**
+	 * Gets the number of waiting cloudlets.
+	 * 
+	 * @return the number of waiting cloudlets
+	 */
+	public int getNumberOfWaitingCloudlets() {
+		return cloudletWaitingQueue.size();
+	}
+
+	/**
+	 * Adds a cloudlet to the waiting heap.
+	 * 
+	 * @param rcl the cloudlet
+	 */
+	protected void queue(ResCloudlet rcl) {
+		rcl.setCloudletStatus(Cloudlet.QUEUED);
+		cloudletWaitingQueue.add(new WaitingCloudlet(rcl, getRank(rcl), queuedCloudlets++));
+	}
+
+	/**
+	 * Starts the cloudlets at the head of the waiting heap while there are enough free PEs.
+	 */
+	protected void startWaitingCloudlets() {
+		while (!cloudletWaitingQueue.isEmpty()
+				&& (currentCpus - usedPes) >= cloudletWaitingQueue.peek().rcl.getNumberOfPes()) {
+			ResCloudlet rcl = cloudletWaitingQueue.poll().rcl;
+			rcl.setCloudletStatus(Cloudlet.INEXEC);
+			for (int i = 0; i < rcl.getNumberOfPes(); i++) {
+				rcl.setMachineAndPeId(0, i);
+			}
+			getCloudletExecList().add(rcl);
+			usedPes += rcl.getNumberOfPes();
+		}
+	}
+
+	/**
+	 * Preempts the running cloudlets with a lower priority than a waiting cloudlet, lowest first,
+	 * until the waiting cloudlet fits. Nothing is preempted if the cloudlet is not at the head of
+	 * the waiting heap, or if it would not fit even after preempting all the running cloudlets
+	 * with a lower priority.
+	 * 
+	 * @param rcl the waiting cloudlet
+	 */
+	protected void preemptFor(ResCloudlet rcl) {
+		if (cloudletWaitingQueue.peek().rcl != rcl) {
+			return;
+		}
+		int neededPes = rcl.getNumberOfPes() - (currentCpus - usedPes);
+		if (neededPes <= 0) {
+			return;
+		}
+
+		double rank = getRank(rcl);
+		List<ResCloudlet> candidates = new ArrayList<ResCloudlet>();
+		int candidatePes = 0;
+		for (ResCloudlet running : getCloudletExecList()) {
+			if (getRank(running) < rank) {
+				candidates.add(running);
+				candidatePes += running.getNumberOfPes();
+			}
+		}
+		if (candidatePes < neededPes) {
+			return;
+		}
+
+		while (neededPes > 0) {
+			ResCloudlet lowest = null;
+			for (ResCloudlet candidate : candidates) {
+				if (lowest == null || getRank(candidate) < getRank(lowest)
+						|| (getRank(candidate) == getRank(lowest)
+						&& candidate.getCloudletArrivalTime() > lowest.getCloudletArrivalTime())) {
+					lowest = candidate;
+				}
+			}
+			candidates.remove(lowest);
+			getCloudletExecList().remove(lowest);
+			usedPes -= lowest.getNumberOfPes();
+			neededPes -= lowest.getNumberOfPes();
+
+			// pausing the cloudlet first accounts for the time it has run so far
+			lowest.setCloudletStatus(Cloudlet.PAUSED);
+			queue(lowest);
+		}
+	}
+
+	/**
+	 * Gets the rank of a cloudlet, that is, its priority minus the aging of a cloudlet that waits
+	 * since the arrival time of the cloudlet. Higher ranks are served first.
+	 * 
+	 * @param rcl the cloudlet
+	 * @return the rank
+	 */
+	protected double getRank(ResCloudlet rcl) {
+		return rcl.getCloudlet().getPriority() - agingRate * rcl.getCloudletArrivalTime();
+	}
+
+	/**
+	 * Gets the average capacity of each cpu and updates the number of current CPUs.
+	 * 
+	 * @param mipsShare the MIPS share of each processor
+	 * @return the capacity
+	 */
+	private double getCapacity(List<Double> mipsShare) {
+		double capacity = 0.0;
+		int cpus = 0;
+		for (Double mips : mipsShare) { // count the cpus available to the vmm
+			capacity += mips;
+			if (mips > 0) {
+				cpus++;
+			}
+		}
+		currentCpus = cpus;
+		capacity /= cpus; // average capacity of each cpu
+		return capacity;
+	}
+
+	/**
+	 * Removes a cloudlet from a list.
+	 * 
+	 * @param list the list
+	 * @param cloudletId ID of the cloudlet
+	 * @return the removed cloudlet, or $null if not found
+	 */
+	private static ResCloudlet remove(List<ResCloudlet> list, int cloudletId) {
+		Iterator<ResCloudlet> iterator = list.iterator();
+		while (iterator.hasNext()) {
+			ResCloudlet rcl = iterator.next();
+			if (rcl.getCloudletId() == cloudletId) {
+				iterator.remove();
+				return rcl;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Removes a cloudlet from the waiting heap.
+	 * 
+	 * @param cloudletId ID of the cloudlet
+	 * @return the removed cloudlet, or $null if not found
+	 */
+	private ResCloudlet removeWaiting(int cloudletId) {
+		Iterator<WaitingCloudlet> iterator = cloudletWaitingQueue.iterator();
+		while (iterator.hasNext()) {
+			WaitingCloudlet waiting = iterator.next();
+			if (waiting.rcl.getCloudletId() == cloudletId) {
+				iterator.remove();
+				return waiting.rcl;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Gets the cloudlet exec list.
+	 * 
+	 * @return the cloudlet exec list
+	 */
+	protected List<ResCloudlet> getCloudletExecList() {
+		return cloudletExecList;
+	}
+
+	/**
+	 * Gets the cloudlet paused list.
+	 * 
+	 * @return the cloudlet paused list
+	 */
+	protected List<ResCloudlet> getCloudletPausedList() {
+		return cloudletPausedList;
+	}
+
+	/**
+	 * Gets the cloudlet finished list.
+	 * 
+	 * @return the cloudlet finished list
+	 */
+	protected List<ResCloudlet> getCloudletFinishedList() {
+		return cloudletFinishedList;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.CloudletScheduler#getCurrentRequestedMips()
+	 */
+	@Override
+	public List<Double> getCurrentRequestedMips() {
+		List<Double> mipsShare = new ArrayList<Double>();
+		if (getCurrentMipsShare() != null) {
+			for (Double mips : getCurrentMipsShare()) {
+				mipsShare.add(mips);
+			}
+		}
+		return mipsShare;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see
+	 * org.cloudbus.cloudsim.CloudletScheduler#getTotalCurrentAvailableMipsForCloudlet(org.cloudbus
+	 * .cloudsim.ResCloudlet, java.util.List)
+	 */
+	@Override
+	public double getTotalCurrentAvailableMipsForCloudlet(ResCloudlet rcl, List<Double> mipsShare) {
+		return getCapacity(mipsShare);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see
+	 * org.cloudbus.cloudsim.CloudletScheduler#getTotalCurrentAllocatedMipsForCloudlet(org.cloudbus
+	 * .cloudsim.ResCloudlet, double)
+	 */
+	@Override
+	public double getTotalCurrentAllocatedMipsForCloudlet(ResCloudlet rcl, double time) {
+		return 0.0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see
+	 * org.cloudbus.cloudsim.CloudletScheduler#getTotalCurrentRequestedMipsForCloudlet(org.cloudbus
+	 * .cloudsim.ResCloudlet, double)
+	 */
+	@Override
+	public double getTotalCurrentRequestedMipsForCloudlet(ResCloudlet rcl, double time) {
+		return 0.0;
+	}
+
+	@Override
+	public double getCurrentRequestedUtilizationOfRam() {
+		return 0;
+	}
+
+	@Override
+	public double getCurrentRequestedUtilizationOfBw() {
+		return 0;
+	}
+
+	/**
+	 * A cloudlet in the waiting heap.
+	 */
+	private static class WaitingCloudlet {
+
+		/** The cloudlet. */
+		private final ResCloudlet rcl;
+
+		/** The rank of the cloudlet when it was queued. */
+		private final double rank;
+
+		/** The order in which the cloudlet was queued. */
+		private final long serial;
+
+		/**
+		 * Instantiates a new waiting cloudlet.
+		 * 
+		 * @param rcl the cloudlet
+		 * @param rank the rank of the cloudlet
+		 * @param serial the order in which the cloudlet was queued
+		 */
+		public WaitingCloudlet(ResCloudlet rcl, double rank, long serial) {
+			this.rcl = rcl;
+			this.rank = rank;
+			this.serial = serial;
+		}
+
+	}
+
+	/**
+	 * Orders the waiting cloudlets by rank, higher first, then by arrival time and then by the
+	 * order in which they were queued.
+	 */
+	private static class WaitingCloudletComparator implements Comparator<WaitingCloudlet> {
+
+		@Override
+		public int compare(WaitingCloudlet a, WaitingCloudlet b) {
+			int result = Double.compare(b.rank, a.rank);
+			if (result == 0) {
+				result = Double.compare(a.rcl.getCloudletArrivalTime(), b.rcl.getCloudletArrivalTime());
+			}
+			if (result == 0) {
+				result = a.serial < b.serial ? -1 : (a.serial > b.serial ? 1 : 0);
+			}
+			return result;
+		}
+
+	}
+
+}
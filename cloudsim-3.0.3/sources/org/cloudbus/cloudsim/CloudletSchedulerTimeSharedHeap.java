@@ -0,0 +1,601 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+
+/**
+ * CloudletSchedulerTimeSharedHeap implements the same time-shared policy as
+ * {@link CloudletSchedulerTimeShared}, with a cost per update that does not grow with the number
+ * of cloudlets. All running cloudlets progress at the same rate per PE, so the scheduler keeps a
+ * single virtual time, the MI executed per PE since the scheduler was created. A cloudlet finishes
+ * when the virtual time reaches the virtual time at which it was submitted plus its length per PE,
+ * and the running cloudlets are kept in a heap ordered by that finish virtual time. An update
+ * advances the virtual time, removes the finished cloudlets from the top of the heap and computes
+ * the next event from the new top, i.e. it takes O(log n) per finished cloudlet rather than O(n).
+ * 
+ * The work done so far by a running cloudlet (see {@link ResCloudlet#getRemainingCloudletLength()})
+ * is brought up to date when the cloudlet leaves the heap, i.e. when it finishes, is paused,
+ * canceled or migrated.
+ * 
+ * @since CloudSim Toolkit 3.0.3
+ */
+public class CloudletSchedulerTimeSharedHeap extends CloudletScheduler {
+
+	/** The running cloudlets, ordered by finish virtual time. */
+	private final PriorityQueue<RunningCloudlet> cloudletExecQueue;
+
+	/** The cloudlet paused list. */
+	private final List<ResCloudlet> cloudletPausedList;
+
+	/** The cloudlet finished list. */
+	private final List<ResCloudlet> cloudletFinishedList;
+
+	/** The MI executed by each PE of a running cloudlet since the scheduler was created. */
+	private double virtualTime;
+
+	/** The number of PEs used by the running cloudlets. */
+	private int pesInUse;
+
+	/** The number of cloudlets started so far, used to keep the order of equal cloudlets. */
+	private long startedCloudlets;
+
+	/** The current CPUs. */
+	protected int currentCPUs;
+
+	/**
+	 * Creates a new CloudletSchedulerTimeSharedHeap object. This method must be invoked before
+	 * starting the actual simulation.
+	 * 
+	 * @pre $none
+	 * @post $none
+	 */
+	public CloudletSchedulerTimeSharedHeap() {
+		super();
+		cloudletExecQueue = new PriorityQueue<RunningCloudlet>(11, new RunningCloudletComparator());
+		cloudletPausedList = new ArrayList<ResCloudlet>();
+		cloudletFinishedList = new ArrayList<ResCloudlet>();
+		virtualTime = 0;
+		pesInUse = 0;
+		currentCPUs = 0;
+	}
+
+	/**
+	 * Updates the processing of cloudlets running under management of this scheduler.
+	 * 
+	 * @param currentTime current simulation time
+	 * @param mipsShare array with MIPS share of each processor available to the scheduler
+	 * @return time predicted completion time of the earliest finishing cloudlet, or 0 if there is
+	 *         no next events
+	 * @pre currentTime >= 0
+	 * @post $none
+	 */
+	@Override
+	public double updateVmProcessing(double currentTime, List<Double> mipsShare) {
+		setCurrentMipsShare(mipsShare);
+		double timeSpam = currentTime - getPreviousTime();
+		setPreviousTime(currentTime);
+
+		if (cloudletExecQueue.isEmpty()) {
+			return 0.0;
+		}
+
+		virtualTime += getCapacity(mipsShare) * timeSpam;
+
+		// check finished cloudlets, i.e. the ones with less than 1 MI left
+		while (!cloudletExecQueue.isEmpty()) {
+			RunningCloudlet running = cloudletExecQueue.peek();
+			int pes = running.rcl.getNumberOfPes();
+			if ((running.finishVirtualTime - virtualTime) * pes >= 1.0) {
+				break;
+			}
+			cloudletExecQueue.poll();
+			updateFinishedSoFar(running);
+			if (running.rcl.getRemainingCloudletLength() == 0) {
+				pesInUse -= pes;
+				cloudletFinish(running.rcl);
+			} else { // rounding issue: still some MI to go
+				running.finishVirtualTime = virtualTime
+						+ (double) running.rcl.getRemainingCloudletLength() / pes;
+				cloudletExecQueue.add(running);
+			}
+		}
+
+		if (cloudletExecQueue.isEmpty()) {
+			return 0.0;
+		}
+
+		// estimate finish time of the earliest finishing cloudlet
+		double estimatedFinishTime = currentTime
+				+ (cloudletExecQueue.peek().finishVirtualTime - virtualTime) / getCapacity(mipsShare);
+		if (estimatedFinishTime - currentTime < CloudSim.getMinTimeBetweenEvents()) {
+			estimatedFinishTime = currentTime + CloudSim.getMinTimeBetweenEvents();
+		}
+		return estimatedFinishTime;
+	}
+
+	/**
+	 * Gets the capacity of each PE of a running cloudlet.
+	 * 
+	 * @param mipsShare the mips share
+	 * @return the capacity
+	 */
+	protected double getCapacity(List<Double> mipsShare) {
+		return getCapacity(mipsShare, pesInUse);
+	}
+
+	/**
+	 * Gets the capacity of each PE of a running cloudlet for a given number of PEs in use.
+	 * 
+	 * @param mipsShare the mips share
+	 * @param pes the number of PEs used by the running cloudlets
+	 * @return the capacity
+	 */
+	private double getCapacity(List<Double> mipsShare, int pes) {
+		double capacity = 0.0;
+		int cpus = 0;
+		for (Double mips : mipsShare) {
+			capacity += mips;
+			if (mips > 0.0) {
+				cpus++;
+			}
+		}
+		currentCPUs = cpus;
+
+		if (pes > currentCPUs) {
+			capacity /= pes;
+		} else {
+			capacity /= currentCPUs;
+		}
+		return capacity;
+	}
+
+	/**
+	 * Cancels execution of a cloudlet.
+	 * 
+	 * @param cloudletId ID of the cloudlet being cancealed
+	 * @return the canceled cloudlet, $null if not found
+	 * @pre $none
+	 * @post $none
+	 */
+	@Override
+	public Cloudlet cloudletCancel(int cloudletId) {
+		// First, looks in the finished queue
+		ResCloudlet rcl = remove(getCloudletFinishedList(), cloudletId);
+		if (rcl != null) {
+			return rcl.getCloudlet();
+		}
+
+		// Then searches in the exec queue
+		rcl = removeRunning(cloudletId);
+		if (rcl != null) {
+			if (rcl.getRemainingCloudletLength() == 0) {
+				cloudletFinish(rcl);
+			} else {
+				rcl.setCloudletStatus(Cloudlet.CANCELED);
+			}
+			return rcl.getCloudlet();
+		}
+
+		// Now, looks in the paused queue
+		rcl = remove(getCloudletPausedList(), cloudletId);
+		if (rcl != null) {
+			rcl.setCloudletStatus(Cloudlet.CANCELED);
+			return rcl.getCloudlet();
+		}
+
+		return null;
+	}
+
+	/**
+	 * Pauses execution of a cloudlet.
+	 * 
+	 * @param cloudletId ID of the cloudlet being paused
+	 * @return $true if cloudlet paused, $false otherwise
+	 * @pre $none
+	 * @post $none
+	 */
+	@Override
+	public boolean cloudletPause(int cloudletId) {
+		ResCloudlet rcl = removeRunning(cloudletId);
+		if (rcl == null) {
+			return false;
+		}
+
+		if (rcl.getRemainingCloudletLength() == 0) {
+			cloudletFinish(rcl);
+		} else {
+			rcl.setCloudletStatus(Cloudlet.PAUSED);
+			getCloudletPausedList().add(rcl);
+		}
+		return true;
+	}
+
+	/**
+	 * Processes a finished cloudlet.
+	 * 
+	 * @param rcl finished cloudlet
+	 * @pre rgl != $null
+	 * @post $none
+	 */
+	@Override
+	public void cloudletFinish(ResCloudlet rcl) {
+		rcl.setCloudletStatus(Cloudlet.SUCCESS);
+		rcl.finalizeCloudlet();
+		getCloudletFinishedList().add(rcl);
+	}
+
+	/**
+	 * Resumes execution of a paused cloudlet.
+	 * 
+	 * @param cloudletId ID of the cloudlet being resumed
+	 * @return expected finish time of the cloudlet, 0.0 if queued
+	 * @pre $none
+	 * @post $none
+	 */
+	@Override
+	public double cloudletResume(int cloudletId) {
+		ResCloudlet rgl = remove(getCloudletPausedList(), cloudletId);
+		if (rgl == null) {
+			return 0.0;
+		}
+
+		rgl.setCloudletStatus(Cloudlet.INEXEC);
+		start(rgl);
+
+		// calculate the expected time for cloudlet completion
+		double remainingLength = rgl.getRemainingCloudletLength();
+		return CloudSim.clock()
+				+ (remainingLength / (getCapacity(getCurrentMipsShare()) * rgl.getNumberOfPes()));
+	}
+
+	/**
+	 * Receives an cloudlet to be executed in the VM managed by this scheduler.
+	 * 
+	 * @param cloudlet the submited cloudlet
+	 * @param fileTransferTime time required to move the required files from the SAN to the VM
+	 * @return expected finish time of this cloudlet
+	 * @pre gl != null
+	 * @post $none
+	 */
+	@Override
+	public double cloudletSubmit(Cloudlet cloudlet, double fileTransferTime) {
+		ResCloudlet rcl = new ResCloudlet(cloudlet);
+		rcl.setCloudletStatus(Cloudlet.INEXEC);
+		for (int i = 0; i < cloudlet.getNumberOfPes(); i++) {
+			rcl.setMachineAndPeId(0, i);
+		}
+
+		// use the capacity with this cloudlet running to estimate the extra amount of
+		// time to file transferring. It must be added to the cloudlet length
+		double extraSize = getCapacity(getCurrentMipsShare(), pesInUse + cloudlet.getNumberOfPes())
+				* fileTransferTime;
+		long length = (long) (cloudlet.getCloudletLength() + extraSize);
+		cloudlet.setCloudletLength(length);
+
+		start(rcl);
+
+		return cloudlet.getCloudletLength() / getCapacity(getCurrentMipsShare());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see cloudsim.CloudletScheduler#cloudletSubmit(cloudsim.Cloudlet)
+	 */
+	@Override
+	public double cloudletSubmit(Cloudlet cloudlet) {
+		return cloudletSubmit(cloudlet, 0.0);
+	}
+
+	/**
+	 * Gets the status of a cloudlet.
+	 * 
+	 * @param cloudletId ID of the cloudlet
+	 * @return status of the cloudlet, -1 if cloudlet not found
+	 * @pre $none
+	 * @post $none
+	 */
+	@Override
+	public int getCloudletStatus(int cloudletId) {
+		for (RunningCloudlet running : cloudletExecQueue) {
+			if (running.rcl.getCloudletId() == cloudletId) {
+				return running.rcl.getCloudletStatus();
+			}
+		}
+		for (ResCloudlet rcl : getCloudletPausedList()) {
+			if (rcl.getCloudletId() == cloudletId) {
+				return rcl.getCloudletStatus();
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Get utilization created by all cloudlets.
+	 * 
+	 * @param time the time
+	 * @return total utilization
+	 */
+	@Override
+	public double getTotalUtilizationOfCpu(double time) {
+		double totalUtilization = 0;
+		for (RunningCloudlet running : cloudletExecQueue) {
+			totalUtilization += running.rcl.getCloudlet().getUtilizationOfCpu(time);
+		}
+		return totalUtilization;
+	}
+
+	/**
+	 * Informs about completion of some cloudlet in the VM managed by this scheduler.
+	 * 
+	 * @return $true if there is at least one finished cloudlet; $false otherwise
+	 * @pre $none
+	 * @post $none
+	 */
+	@Override
+	public boolean isFinishedCloudlets() {
+		return getCloudletFinishedList().size() > 0;
+	}
+
+	/**
+	 * Returns the next cloudlet in the finished list, $null if this list is empty.
+	 * 
+	 * @return a finished cloudlet
+	 * @pre $none
+	 * @post $none
+	 */
+	@Override
+	public Cloudlet getNextFinishedCloudlet() {
+		if (getCloudletFinishedList().size() > 0) {
+			return getCloudletFinishedList().remove(0).getCloudlet();
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the number of cloudlets runnning in the virtual machine.
+	 * 
+	 * @return number of cloudlets runnning
+	 * @pre $none
+	 * @post $none
+	 */
+	@Override
+	public int runningCloudlets() {
+		return cloudletExecQueue.size();
+	}
+
+	/**
+	 * Returns one cloudlet to migrate to another vm, namely the one that would finish first.
+	 * 
+	 * @return one running cloudlet
+	 * @pre $none
+	 * @post $none
+	 */
+	@Override
+	public Cloudlet migrateCloudlet() {
+		RunningCloudlet running = cloudletExecQueue.poll();
+		updateFinishedSoFar(running);
+		pesInUse -= running.rcl.getNumberOfPes();
+		running.rcl.finalizeCloudlet();
+		return running.rcl.getCloudlet();
+	}
+
+	/**
+	 * Adds a cloudlet to the running cloudlets.
+	 * 
+	 * @param rcl the cloudlet
+	 */
+	protected void start(ResCloudlet rcl) {
+		int pes = rcl.getNumberOfPes();
+		cloudletExecQueue.add(new RunningCloudlet(
+				rcl,
+				virtualTime + (double) rcl.getRemainingCloudletLength() / pes,
+				virtualTime,
+				startedCloudlets++));
+		pesInUse += pes;
+	}
+
+	/**
+	 * Removes a cloudlet from the running cloudlets, bringing its work done so far up to date.
+	 * 
+	 * @param cloudletId ID of the cloudlet
+	 * @return the removed cloudlet, or $null if not found
+	 */
+	private ResCloudlet removeRunning(int cloudletId) {
+		Iterator<RunningCloudlet> iterator = cloudletExecQueue.iterator();
+		while (iterator.hasNext()) {
+			RunningCloudlet running = iterator.next();
+			if (running.rcl.getCloudletId() == cloudletId) {
+				iterator.remove();
+				updateFinishedSoFar(running);
+				pesInUse -= running.rcl.getNumberOfPes();
+				return running.rcl;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Adds the work done by a running cloudlet since it was last brought up to date.
+	 * 
+	 * @param running the running cloudlet
+	 */
+	private void updateFinishedSoFar(RunningCloudlet running) {
+		running.rcl.updateCloudletFinishedSoFar((long) ((virtualTime - running.updatedVirtualTime)
+				* running.rcl.getNumberOfPes() * Consts.MILLION));
+		running.updatedVirtualTime = virtualTime;
+	}
+
+	/**
+	 * Removes a cloudlet from a list.
+	 * 
+	 * @param list the list
+	 * @param cloudletId ID of the cloudlet
+	 * @return the removed cloudlet, or $null if not found
+	 */
+	private static ResCloudlet remove(List<ResCloudlet> list, int cloudletId) {
+		Iterator<ResCloudlet> iterator = list.iterator();
+		while (iterator.hasNext()) {
+			ResCloudlet rcl = iterator.next();
+			if (rcl.getCloudletId() == cloudletId) {
+				iterator.remove();
+				return rcl;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Gets the cloudlet paused list.
+	 * 
+	 * @return the cloudlet paused list
+	 */
+	protected List<ResCloudlet> getCloudletPausedList() {
+		return cloudletPausedList;
+	}
+
+	/**
+	 * Gets the cloudlet finished list.
+	 * 
+	 * @return the cloudlet finished list
+	 */
+	protected List<ResCloudlet> getCloudletFinishedList() {
+		return cloudletFinishedList;
+	}
+
+	/**
+	 * Gets the virtual time, i.e. the MI executed by each PE of a running cloudlet since the
+	 * scheduler was created.
+	 * 
+	 * @return the virtual time
+	 */
+	public double getVirtualTime() {
+		return virtualTime;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see cloudsim.CloudletScheduler#getCurrentRequestedMips()
+	 */
+	@Override
+	public List<Double> getCurrentRequestedMips() {
+		List<Double> mipsShare = new ArrayList<Double>();
+		return mipsShare;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see cloudsim.CloudletScheduler#getTotalCurrentAvailableMipsForCloudlet(cloudsim.ResCloudlet,
+	 * java.util.List)
+	 */
+	@Override
+	public double getTotalCurrentAvailableMipsForCloudlet(ResCloudlet rcl, List<Double> mipsShare) {
+		return getCapacity(getCurrentMipsShare());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see cloudsim.CloudletScheduler#getTotalCurrentAllocatedMipsForCloudlet(cloudsim.ResCloudlet,
+	 * double)
+	 */
+	@Override
+	public double getTotalCurrentAllocatedMipsForCloudlet(ResCloudlet rcl, double time) {
+		return 0.0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see cloudsim.CloudletScheduler#getTotalCurrentRequestedMipsForCloudlet(cloudsim.ResCloudlet,
+	 * double)
+	 */
+	@Override
+	public double getTotalCurrentRequestedMipsForCloudlet(ResCloudlet rcl, double time) {
+		return 0.0;
+	}
+
+	@Override
+	public double getCurrentRequestedUtilizationOfRam() {
+		double ram = 0;
+		for (RunningCloudlet running : cloudletExecQueue) {
+			ram += running.rcl.getCloudlet().getUtilizationOfRam(CloudSim.clock());
+		}
+		return ram;
+	}
+
+	@Override
+	public double getCurrentRequestedUtilizationOfBw() {
+		double bw = 0;
+		for (RunningCloudlet running : cloudletExecQueue) {
+			bw += running.rcl.getCloudlet().getUtilizationOfBw(CloudSim.clock());
+		}
+		return bw;
+	}
+
+	/**
+	 * A cloudlet in the running heap.
+	 */
+	private static class RunningCloudlet {
+
+		/** The cloudlet. */
+		private final ResCloudlet rcl;
+
+		/** The virtual time at which the cloudlet finishes. */
+		private double finishVirtualTime;
+
+		/** The virtual time at which the work done by the cloudlet was last brought up to date. */
+		private double updatedVirtualTime;
+
+		/** The order in which the cloudlet was started. */
+		private final long serial;
+
+		/**
+		 * Instantiates a new running cloudlet.
+		 * 
+		 * @param rcl the cloudlet
+		 * @param finishVirtualTime the virtual time at which the cloudlet finishes
+		 * @param updatedVirtualTime the current virtual time
+		 * @param serial the order in which the cloudlet was started
+		 */
+		public RunningCloudlet(
+				ResCloudlet rcl,
+				double finishVirtualTime,
+				double updatedVirtualTime,
+				long serial) {
+			this.rcl = rcl;
+			this.finishVirtualTime = finishVirtualTime;
+			this.updatedVirtualTime = updatedVirtualTime;
+			this.serial = serial;
+		}
+
+	}
+
+	/**
+	 * Orders the running cloudlets by finish virtual time and then by the order in which they were
+	 * started.
+	 */
+	private static class RunningCloudletComparator implements Comparator<RunningCloudlet> {
+
+		@Override
+		public int compare(RunningCloudlet a, RunningCloudlet b) {
+			int result = Double.compare(a.finishVirtualTime, b.finishVirtualTime);
+			if (result == 0) {
+				result = a.serial < b.serial ? -1 : (a.serial > b.serial ? 1 : 0);
+			}
+			return result;
+		}
+
+	}
+
+}
@@ -8,15 +8,19 @@
 package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.core.SimEntity;
 import org.cloudbus.cloudsim.core.SimEvent;
+import org.cloudbus.cloudsim.core.SimulationContext;
 
 /**
  * Datacenter class is a CloudResource whose hostList are virtualized. It deals with processing of
@@ -52,6 +56,33 @@ public class Datacenter extends SimEntity {
 	/** The scheduling interval. */
 	private double schedulingInterval;
 
+	/** Whether only the hosts with changed or finishing VMs are updated at each event. */
+	private boolean dirtyHostTracking;
+
+	/** Whether at most one processing event of this datacenter is kept pending. */
+	private boolean timerCoalescing;
+
+	/** The indexes of the hosts in the host list, if dirty host tracking is enabled. */
+	private Map<Host, Integer> hostIndexes;
+
+	/** The hosts to update at the next event, if dirty host tracking is enabled. */
+	private BitSet dirtyHosts;
+
+	/** The hosts updated since the last completion check, if dirty host tracking is enabled. */
+	private BitSet updatedHosts;
+
+	/** The time of the last update of each host, if dirty host tracking is enabled. */
+	private double[] hostUpdateTimes;
+
+	/** The next completion time of each host, if dirty host tracking is enabled. */
+	private double[] hostCompletionTimes;
+
+	/**
+	 * The next completion times of the hosts, earliest first, if dirty host tracking is enabled.
+	 * The entries replaced by a later update of their host are removed when they reach the head.
+	 */
+	private PriorityQueue<HostCompletion> hostCompletions;
+
 	/**
 	 * Allocates a new PowerDatacenter object.
 	 * 
@@ -78,7 +109,40 @@ public class Datacenter extends SimEntity {
 			VmAllocationPolicy vmAllocationPolicy,
 			List<Storage> storageList,
 			double schedulingInterval) throws Exception {
-		super(name);
+		this(
+				CloudSim.getSimulationContext(),
+				name,
+				characteristics,
+				vmAllocationPolicy,
+				storageList,
+				schedulingInterval);
+	}
+
+	/**
+	 * Allocates a new PowerDatacenter object in a given simulation context.
+	 * 
+	 * @param context the simulation context the entity belongs to
+	 * @param name the name to be associated with this entity (as required by Sim_entity class from
+	 *            simjava package)
+	 * @param characteristics an object of DatacenterCharacteristics
+	 * @param storageList a LinkedList of storage elements, for data simulation
+	 * @param vmAllocationPolicy the vmAllocationPolicy
+	 * @param schedulingInterval the scheduling interval
+	 * @throws Exception This happens when this entity name is <tt>null</tt> or empty, or when this
+	 *             entity has <tt>zero</tt> number of PEs (Processing Elements)
+	 * @pre context != null
+	 * @pre name != null
+	 * @pre resource != null
+	 * @post $none
+	 */
+	public Datacenter(
+			SimulationContext context,
+			String name,
+			DatacenterCharacteristics characteristics,
+			VmAllocationPolicy vmAllocationPolicy,
+			List<Storage> storageList,
+			double schedulingInterval) throws Exception {
+		super(context, name);
 
 		setCharacteristics(characteristics);
 		setVmAllocationPolicy(vmAllocationPolicy);
@@ -428,6 +492,14 @@ public class Datacenter extends SimEntity {
 	protected void processVmCreate(SimEvent ev, boolean ack) {
 		Vm vm = (Vm) ev.getData();
 
+		if (isDirtyHostTracking() && hasTimeVaryingProgress(vm)) {
+			// the hosts can no longer be skipped, so they are all updated from now on
+			Log.printLine(getName() + ": dirty host tracking is disabled, as the progress of the "
+					+ "cloudlets of VM #" + vm.getId() + " varies over time");
+			updateBusyHostsProcessing();
+			dirtyHostTracking = false;
+		}
+		updateBusyHostsProcessing();
 		boolean result = getVmAllocationPolicy().allocateHostForVm(vm);
 
 		if (ack) {
@@ -452,6 +524,7 @@ public class Datacenter extends SimEntity {
 
 			vm.updateVmProcessing(CloudSim.clock(), getVmAllocationPolicy().getHost(vm).getVmScheduler()
 					.getAllocatedMipsForVm(vm));
+			markHostDirty(vm.getHost());
 		}
 
 	}
@@ -468,6 +541,7 @@ public class Datacenter extends SimEntity {
 	 */
 	protected void processVmDestroy(SimEvent ev, boolean ack) {
 		Vm vm = (Vm) ev.getData();
+		markHostDirty(vm.getHost());
 		getVmAllocationPolicy().deallocateHostForVm(vm);
 
 		if (ack) {
@@ -497,11 +571,13 @@ public class Datacenter extends SimEntity {
 		}
 
 		@SuppressWarnings("unchecked")
-		Map<String, Object> migrate = (HashMap<String, Object>) tmp;
+		Map<String, Object> migrate = (Map<String, Object>) tmp;
 
-		Vm vm = (Vm) migrate.get("vm");
-		Host host = (Host) migrate.get("host");
+		Vm vm = Migration.getVm(migrate);
+		Host host = Migration.getTargetHost(migrate);
 
+		markHostDirty(vm.getHost());
+		markHostDirty(host);
 		getVmAllocationPolicy().deallocateHostForVm(vm);
 		host.removeMigratingInVm(vm);
 		boolean result = getVmAllocationPolicy().allocateHostForVm(vm, host);
@@ -617,8 +693,9 @@ public class Datacenter extends SimEntity {
 		int destId = array[4];
 
 		// get the cloudlet
-		Cloudlet cl = getVmAllocationPolicy().getHost(vmId, userId).getVm(vmId,userId)
-				.getCloudletScheduler().cloudletCancel(cloudletId);
+		Host sourceHost = getVmAllocationPolicy().getHost(vmId, userId);
+		markHostDirty(sourceHost);
+		Cloudlet cl = sourceHost.getVm(vmId,userId).getCloudletScheduler().cloudletCancel(cloudletId);
 
 		boolean failed = false;
 		if (cl == null) {// cloudlet doesn't exist
@@ -645,6 +722,7 @@ public class Datacenter extends SimEntity {
 				} else {
 					// time to transfer the files
 					double fileTransferTime = predictFileTransferTime(cl.getRequiredFiles());
+					markHostDirty(vm.getHost());
 					vm.getCloudletScheduler().cloudletSubmit(cl, fileTransferTime);
 				}
 			} else {// the cloudlet will migrate from one resource to another
@@ -668,7 +746,8 @@ public class Datacenter extends SimEntity {
 	}
 
 	/**
-	 * Processes a Cloudlet submission.
+	 * Processes a Cloudlet submission. The data of the event is either a Cloudlet or a list of
+	 * Cloudlets, which are processed in turn.
 	 * 
 	 * @param ev a SimEvent object
 	 * @param ack an acknowledgement
@@ -676,12 +755,47 @@ public class Datacenter extends SimEntity {
 	 * @post $none
 	 */
 	protected void processCloudletSubmit(SimEvent ev, boolean ack) {
-		updateCloudletProcessing();
+		if (ev.getData() instanceof List<?>) {
+			for (Object data : (List<?>) ev.getData()) {
+				processSubmittedData(data, ack);
+			}
+		} else {
+			processSubmittedData(ev.getData(), ack);
+		}
+	}
 
+	/**
+	 * Processes the data of a Cloudlet submission, or an element of a list of them. Data that is
+	 * not a Cloudlet is reported and skipped, so that a bad submission does not stop the
+	 * simulation.
+	 * 
+	 * @param data the submitted data
+	 * @param ack an acknowledgement
+	 */
+	private void processSubmittedData(Object data, boolean ack) {
+		Cloudlet cl;
 		try {
-			// gets the Cloudlet object
-			Cloudlet cl = (Cloudlet) ev.getData();
+			cl = (Cloudlet) data;
+		} catch (ClassCastException c) {
+			Log.printLine(getName() + ".processCloudletSubmit(): " + "ClassCastException error.");
+			c.printStackTrace();
+			return;
+		}
+		processCloudletSubmit(cl, ack);
+	}
 
+	/**
+	 * Processes the submission of a Cloudlet, sent alone or as part of a batch of Cloudlets.
+	 * 
+	 * @param cl the Cloudlet
+	 * @param ack an acknowledgement
+	 * @pre cl != null
+	 * @post $none
+	 */
+	protected void processCloudletSubmit(Cloudlet cl, boolean ack) {
+		updateCloudletProcessing();
+
+		try {
 			// checks whether this Cloudlet has finished or not
 			if (cl.isFinished()) {
 				String name = CloudSim.getEntityName(cl.getUserId());
@@ -724,12 +838,13 @@ public class Datacenter extends SimEntity {
 			Host host = getVmAllocationPolicy().getHost(vmId, userId);
 			Vm vm = host.getVm(vmId, userId);
 			CloudletScheduler scheduler = vm.getCloudletScheduler();
+			markHostDirty(host);
 			double estimatedFinishTime = scheduler.cloudletSubmit(cl, fileTransferTime);
 
 			// if this cloudlet is in the exec queue
 			if (estimatedFinishTime > 0.0 && !Double.isInfinite(estimatedFinishTime)) {
 				estimatedFinishTime += fileTransferTime;
-				send(getId(), estimatedFinishTime, CloudSimTags.VM_DATACENTER_EVENT);
+				scheduleCloudletProcessing(estimatedFinishTime);
 			}
 
 			if (ack) {
@@ -788,14 +903,15 @@ public class Datacenter extends SimEntity {
 	 * @post $none
 	 */
 	protected void processCloudletResume(int cloudletId, int userId, int vmId, boolean ack) {
-		double eventTime = getVmAllocationPolicy().getHost(vmId, userId).getVm(vmId,userId)
-				.getCloudletScheduler().cloudletResume(cloudletId);
+		Host host = getVmAllocationPolicy().getHost(vmId, userId);
+		markHostDirty(host);
+		double eventTime = host.getVm(vmId,userId).getCloudletScheduler().cloudletResume(cloudletId);
 
 		boolean status = false;
 		if (eventTime > 0.0) { // if this cloudlet is in the exec queue
 			status = true;
 			if (eventTime > CloudSim.clock()) {
-				schedule(getId(), eventTime, CloudSimTags.VM_DATACENTER_EVENT);
+				scheduleCloudletProcessing(eventTime);
 			}
 		}
 
@@ -823,8 +939,9 @@ public class Datacenter extends SimEntity {
 	 * @post $none
 	 */
 	protected void processCloudletPause(int cloudletId, int userId, int vmId, boolean ack) {
-		boolean status = getVmAllocationPolicy().getHost(vmId, userId).getVm(vmId,userId)
-				.getCloudletScheduler().cloudletPause(cloudletId);
+		Host host = getVmAllocationPolicy().getHost(vmId, userId);
+		markHostDirty(host);
+		boolean status = host.getVm(vmId,userId).getCloudletScheduler().cloudletPause(cloudletId);
 
 		if (ack) {
 			int[] data = new int[3];
@@ -849,8 +966,9 @@ public class Datacenter extends SimEntity {
 	 * @post $none
 	 */
 	protected void processCloudletCancel(int cloudletId, int userId, int vmId) {
-		Cloudlet cl = getVmAllocationPolicy().getHost(vmId, userId).getVm(vmId,userId)
-				.getCloudletScheduler().cloudletCancel(cloudletId);
+		Host host = getVmAllocationPolicy().getHost(vmId, userId);
+		markHostDirty(host);
+		Cloudlet cl = host.getVm(vmId,userId).getCloudletScheduler().cloudletCancel(cloudletId);
 		sendNow(userId, CloudSimTags.CLOUDLET_CANCEL, cl);
 	}
 
@@ -867,16 +985,20 @@ public class Datacenter extends SimEntity {
 		// R: for term is to allow loop at simulation start. Otherwise, one initial
 		// simulation step is skipped and schedulers are not properly initialized
 		if (CloudSim.clock() < 0.111 || CloudSim.clock() > getLastProcessTime() + CloudSim.getMinTimeBetweenEvents()) {
-			List<? extends Host> list = getVmAllocationPolicy().getHostList();
 			double smallerTime = Double.MAX_VALUE;
-			// for each host...
-			for (int i = 0; i < list.size(); i++) {
-				Host host = list.get(i);
-				// inform VMs to update processing
-				double time = host.updateVmsProcessing(CloudSim.clock());
-				// what time do we expect that the next cloudlet will finish?
-				if (time < smallerTime) {
-					smallerTime = time;
+			if (isDirtyHostTracking()) {
+				smallerTime = updateDirtyHostsProcessing();
+			} else {
+				List<? extends Host> list = getVmAllocationPolicy().getHostList();
+				// for each host...
+				for (int i = 0; i < list.size(); i++) {
+					Host host = list.get(i);
+					// inform VMs to update processing
+					double time = host.updateVmsProcessing(CloudSim.clock());
+					// what time do we expect that the next cloudlet will finish?
+					if (time < smallerTime) {
+						smallerTime = time;
+					}
 				}
 			}
 			// gurantees a minimal interval before scheduling the event
@@ -884,9 +1006,28 @@ public class Datacenter extends SimEntity {
 				smallerTime = CloudSim.clock() + CloudSim.getMinTimeBetweenEvents() + 0.01;
 			}
 			if (smallerTime != Double.MAX_VALUE) {
-				schedule(getId(), (smallerTime - CloudSim.clock()), CloudSimTags.VM_DATACENTER_EVENT);
+				scheduleCloudletProcessing(smallerTime - CloudSim.clock());
 			}
 			setLastProcessTime(CloudSim.clock());
+		} else if (isTimerCoalescing()) {
+			// the pending event may have replaced a later one, so process again once allowed
+			scheduleCloudletProcessing(getLastProcessTime() + CloudSim.getMinTimeBetweenEvents() + 0.01
+					- CloudSim.clock());
+		}
+	}
+
+	/**
+	 * Schedules an event to update the processing of the cloudlets of this datacenter. With timer
+	 * coalescing, the event is coalesced with the pending one, if any.
+	 * 
+	 * @param delay the delay
+	 * @see #setTimerCoalescing(boolean)
+	 */
+	public void scheduleCloudletProcessing(double delay) {
+		if (isTimerCoalescing()) {
+			scheduleWakeup(delay, CloudSimTags.VM_DATACENTER_EVENT);
+		} else {
+			send(getId(), delay, CloudSimTags.VM_DATACENTER_EVENT);
 		}
 	}
 
@@ -899,19 +1040,145 @@ public class Datacenter extends SimEntity {
 	 */
 	protected void checkCloudletCompletion() {
 		List<? extends Host> list = getVmAllocationPolicy().getHostList();
+		if (isDirtyHostTracking()) {
+			// only the hosts updated since the last check can have finished cloudlets
+			for (int i = updatedHosts.nextSetBit(0); i >= 0; i = updatedHosts.nextSetBit(i + 1)) {
+				checkCloudletCompletion(list.get(i));
+			}
+			updatedHosts.clear();
+			return;
+		}
 		for (int i = 0; i < list.size(); i++) {
-			Host host = list.get(i);
-			for (Vm vm : host.getVmList()) {
-				while (vm.getCloudletScheduler().isFinishedCloudlets()) {
-					Cloudlet cl = vm.getCloudletScheduler().getNextFinishedCloudlet();
-					if (cl != null) {
-						sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_RETURN, cl);
-					}
+			checkCloudletCompletion(list.get(i));
+		}
+	}
+
+	/**
+	 * Verifies if some cloudlet inside a host already finished. If yes, send it to the User/Broker
+	 * 
+	 * @param host the host
+	 * @pre host != null
+	 * @post $none
+	 */
+	protected void checkCloudletCompletion(Host host) {
+		for (Vm vm : host.getVmList()) {
+			while (vm.getCloudletScheduler().isFinishedCloudlets()) {
+				Cloudlet cl = vm.getCloudletScheduler().getNextFinishedCloudlet();
+				if (cl != null) {
+					sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_RETURN, cl);
 				}
 			}
 		}
 	}
 
+	/**
+	 * Updates the processing of the hosts that are dirty, i.e. whose VMs or cloudlets have changed
+	 * since their last update, and of the hosts whose next cloudlet completion is due. The other
+	 * hosts are brought up to date when they become dirty or due, since the cloudlets of a host
+	 * progress at a constant rate between two changes of the host.
+	 * 
+	 * @return the earliest next completion time of the hosts, or Double.MAX_VALUE if there is none
+	 */
+	protected double updateDirtyHostsProcessing() {
+		double currentTime = CloudSim.clock();
+		while (!hostCompletions.isEmpty() && hostCompletions.peek().time <= currentTime) {
+			HostCompletion completion = hostCompletions.poll();
+			if (hostCompletionTimes[completion.hostIndex] == completion.time) {
+				dirtyHosts.set(completion.hostIndex);
+			}
+		}
+
+		for (int i = dirtyHosts.nextSetBit(0); i >= 0; i = dirtyHosts.nextSetBit(i + 1)) {
+			updateHostProcessing(i);
+		}
+		dirtyHosts.clear();
+
+		while (!hostCompletions.isEmpty()) {
+			HostCompletion completion = hostCompletions.peek();
+			if (hostCompletionTimes[completion.hostIndex] == completion.time) {
+				return completion.time;
+			}
+			hostCompletions.poll();
+		}
+		return Double.MAX_VALUE;
+	}
+
+	/**
+	 * Marks a host as dirty, so that its processing is updated again at the next call of
+	 * {@link #updateCloudletProcessing()}. It must be called before the VMs or the cloudlets of the
+	 * host change, as it also brings the processing of the host up to date. It does nothing if
+	 * dirty host tracking is disabled.
+	 * 
+	 * @param host the host, or null
+	 */
+	protected void markHostDirty(Host host) {
+		if (!isDirtyHostTracking() || host == null) {
+			return;
+		}
+		Integer index = hostIndexes.get(host);
+		if (index == null) {
+			indexHosts();
+			index = hostIndexes.get(host);
+		}
+		if (index != null) {
+			if (hostUpdateTimes[index] < CloudSim.clock()) {
+				updateHostProcessing(index);
+			}
+			dirtyHosts.set(index);
+		}
+	}
+
+	/**
+	 * Brings the processing of all the hosts with running cloudlets up to date. It must be called
+	 * before a change that may affect any host, such as the creation of a VM. It does nothing if
+	 * dirty host tracking is disabled.
+	 */
+	protected void updateBusyHostsProcessing() {
+		if (!isDirtyHostTracking()) {
+			return;
+		}
+		for (int i = 0; i < hostCompletionTimes.length; i++) {
+			if (hostCompletionTimes[i] != Double.MAX_VALUE && hostUpdateTimes[i] < CloudSim.clock()) {
+				updateHostProcessing(i);
+			}
+		}
+	}
+
+	/**
+	 * Updates the processing of a host and records its next completion time.
+	 * 
+	 * @param index the index of the host in the host list
+	 */
+	private void updateHostProcessing(int index) {
+		double currentTime = CloudSim.clock();
+		double time = getVmAllocationPolicy().getHostList().get(index).updateVmsProcessing(currentTime);
+		hostUpdateTimes[index] = currentTime;
+		hostCompletionTimes[index] = time;
+		if (time != Double.MAX_VALUE) {
+			hostCompletions.add(new HostCompletion(time, index));
+		}
+		updatedHosts.set(index);
+	}
+
+	/**
+	 * Indexes the hosts of the host list, marking them all as dirty.
+	 */
+	private void indexHosts() {
+		List<? extends Host> list = getVmAllocationPolicy().getHostList();
+		hostIndexes = new HashMap<Host, Integer>();
+		for (int i = 0; i < list.size(); i++) {
+			hostIndexes.put(list.get(i), i);
+		}
+		dirtyHosts = new BitSet(list.size());
+		dirtyHosts.set(0, list.size());
+		updatedHosts = new BitSet(list.size());
+		hostUpdateTimes = new double[list.size()];
+		Arrays.fill(hostUpdateTimes, -1);
+		hostCompletionTimes = new double[list.size()];
+		Arrays.fill(hostCompletionTimes, Double.MAX_VALUE);
+		hostCompletions = new PriorityQueue<HostCompletion>();
+	}
+
 	/**
 	 * Adds a file into the resource's storage before the experiment starts. If the file is a master
 	 * file, then it will be registered to the RC when the experiment begins.
@@ -1176,4 +1443,144 @@ public class Datacenter extends SimEntity {
 		this.schedulingInterval = schedulingInterval;
 	}
 
+	/**
+	 * Checks whether only the hosts with changed or finishing VMs are updated at each event.
+	 * 
+	 * @return true, if dirty host tracking is enabled
+	 */
+	public boolean isDirtyHostTracking() {
+		return dirtyHostTracking;
+	}
+
+	/**
+	 * Sets whether only the hosts with changed or finishing VMs are updated at each event, instead
+	 * of all the hosts. The hosts are then kept in a priority queue by next cloudlet completion
+	 * time, so that the earliest completion is found in O(log hosts). It should be set before the
+	 * simulation starts.
+	 * <p>
+	 * Skipping the update of a host only gives the same results if its cloudlets progress at a
+	 * constant rate until its VMs or cloudlets change. The tracking is therefore refused if a host
+	 * or a VM has a time-varying progress, such as a {@link HostDynamicWorkload} or a VM with a
+	 * {@link CloudletSchedulerDynamicWorkload}, and it is disabled if such a VM is created later.
+	 * 
+	 * @param dirtyHostTracking whether to enable dirty host tracking
+	 * @throws UnsupportedOperationException if this datacenter updates all its hosts at each event,
+	 *             or a host or a VM has a time-varying progress
+	 */
+	public void setDirtyHostTracking(boolean dirtyHostTracking) {
+		if (dirtyHostTracking && !isDirtyHostTrackingSupported()) {
+			throw new UnsupportedOperationException(getName()
+					+ " updates the processing of all its hosts at each event");
+		}
+		if (dirtyHostTracking) {
+			for (Host host : getVmAllocationPolicy().getHostList()) {
+				if (hasTimeVaryingProgress(host)) {
+					throw new UnsupportedOperationException(getName()
+							+ ": the progress of the cloudlets of host #" + host.getId()
+							+ " varies over time");
+				}
+			}
+		}
+		this.dirtyHostTracking = dirtyHostTracking;
+		if (dirtyHostTracking) {
+			indexHosts();
+		}
+	}
+
+	/**
+	 * Checks whether at most one processing event of this datacenter is kept pending.
+	 * 
+	 * @return true, if timer coalescing is enabled
+	 */
+	public boolean isTimerCoalescing() {
+		return timerCoalescing;
+	}
+
+	/**
+	 * Sets whether at most one processing event of this datacenter is kept pending. The processing
+	 * events are then scheduled with {@link #scheduleWakeup(double, int)}: an event requested
+	 * after the pending one is dropped, since the pending one schedules the next event when it is
+	 * processed, and an event requested before it replaces it. This avoids filling the future
+	 * queue with stale events that only hit the minimal time between events.
+	 * 
+	 * @param timerCoalescing whether to enable timer coalescing
+	 */
+	public void setTimerCoalescing(boolean timerCoalescing) {
+		this.timerCoalescing = timerCoalescing;
+	}
+
+	/**
+	 * Checks whether this datacenter supports dirty host tracking. It requires the processing of a
+	 * host to depend only on its own VMs and cloudlets.
+	 * 
+	 * @return true, if dirty host tracking is supported
+	 */
+	protected boolean isDirtyHostTrackingSupported() {
+		return true;
+	}
+
+	/**
+	 * Checks whether the cloudlets of a host may progress at a rate varying over time, even if its
+	 * VMs and cloudlets do not change.
+	 * 
+	 * @param host the host
+	 * @return true, if the host supports dynamic workloads or one of its VMs has a time-varying
+	 *         progress
+	 */
+	protected boolean hasTimeVaryingProgress(Host host) {
+		if (host instanceof HostDynamicWorkload) {
+			return true;
+		}
+		for (Vm vm : host.getVmList()) {
+			if (hasTimeVaryingProgress(vm)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks whether the cloudlets of a VM may progress at a rate varying over time, even if they
+	 * do not change.
+	 * 
+	 * @param vm the vm
+	 * @return true, if the cloudlet scheduler of the VM follows the utilization of its cloudlets
+	 */
+	protected boolean hasTimeVaryingProgress(Vm vm) {
+		return vm.getCloudletScheduler() instanceof CloudletSchedulerDynamicWorkload;
+	}
+
+	/**
+	 * The next cloudlet completion time of a host.
+	 */
+	private static class HostCompletion implements Comparable<HostCompletion> {
+
+		/** The completion time. */
+		private final double time;
+
+		/** The index of the host in the host list. */
+		private final int hostIndex;
+
+		/**
+		 * Instantiates a new host completion.
+		 * 
+		 * @param time the completion time
+		 * @param hostIndex the index of the host in the host list
+		 */
+		public HostCompletion(double time, int hostIndex) {
+			this.time = time;
+			this.hostIndex = hostIndex;
+		}
+
+		@Override
+		public int compareTo(HostCompletion other) {
+			int result = Double.compare(time, other.time);
+			if (result == 0) {
+				result = hostIndex - other.hostIndex;
+			}
+			return result;
+		}
+
+	}
+
 }
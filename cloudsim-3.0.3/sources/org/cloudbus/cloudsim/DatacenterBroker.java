@@ -18,6 +18,7 @@ import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.core.SimEntity;
 import org.cloudbus.cloudsim.core.SimEvent;
+import org.cloudbus.cloudsim.core.SimulationContext;
 import org.cloudbus.cloudsim.lists.CloudletList;
 import org.cloudbus.cloudsim.lists.VmList;
 
@@ -70,6 +71,12 @@ public class DatacenterBroker extends SimEntity {
 	/** The datacenter characteristics list. */
 	protected Map<Integer, DatacenterCharacteristics> datacenterCharacteristicsList;
 
+	/** The vms submitted to the broker, by id. */
+	private final Map<Integer, Vm> vmsById = new HashMap<Integer, Vm>();
+
+	/** The cloudlets submitted to the broker and not yet sent to a datacenter, by id. */
+	private final Map<Integer, Cloudlet> cloudletsById = new HashMap<Integer, Cloudlet>();
+
 	/**
 	 * Created a new DatacenterBroker object.
 	 * 
@@ -80,7 +87,22 @@ public class DatacenterBroker extends SimEntity {
 	 * @post $none
 	 */
 	public DatacenterBroker(String name) throws Exception {
-		super(name);
+		this(CloudSim.getSimulationContext(), name);
+	}
+
+	/**
+	 * Created a new DatacenterBroker object in a given simulation context.
+	 * 
+	 * @param context the simulation context the entity belongs to
+	 * @param name name to be associated with this entity (as required by Sim_entity class from
+	 *            simjava package)
+	 * @throws Exception the exception
+	 * @pre context != null
+	 * @pre name != null
+	 * @post $none
+	 */
+	public DatacenterBroker(SimulationContext context, String name) throws Exception {
+		super(context, name);
 
 		setVmList(new ArrayList<Vm>());
 		setVmsCreatedList(new ArrayList<Vm>());
@@ -109,6 +131,11 @@ public class DatacenterBroker extends SimEntity {
 	 */
 	public void submitVmList(List<? extends Vm> list) {
 		getVmList().addAll(list);
+		for (Vm vm : list) {
+			if (!vmsById.containsKey(vm.getId())) {
+				vmsById.put(vm.getId(), vm);
+			}
+		}
 	}
 
 	/**
@@ -120,6 +147,11 @@ public class DatacenterBroker extends SimEntity {
 	 */
 	public void submitCloudletList(List<? extends Cloudlet> list) {
 		getCloudletList().addAll(list);
+		for (Cloudlet cloudlet : list) {
+			if (!cloudletsById.containsKey(cloudlet.getCloudletId())) {
+				cloudletsById.put(cloudlet.getCloudletId(), cloudlet);
+			}
+		}
 	}
 
 	/**
@@ -132,7 +164,38 @@ public class DatacenterBroker extends SimEntity {
 	 * @post $none
 	 */
 	public void bindCloudletToVm(int cloudletId, int vmId) {
-		CloudletList.getById(getCloudletList(), cloudletId).setVmId(vmId);
+		getCloudletById(cloudletId).setVmId(vmId);
+	}
+
+	/**
+	 * Gets a vm of the vm list by its id. The vms submitted through {@link #submitVmList(List)}
+	 * are found in constant time, the other ones by a search of the vm list.
+	 * 
+	 * @param vmId the vm id
+	 * @return the vm, or null if it is not in the vm list
+	 */
+	protected Vm getVmById(int vmId) {
+		Vm vm = vmsById.get(vmId);
+		if (vm == null) {
+			vm = VmList.getById(getVmList(), vmId);
+		}
+		return vm;
+	}
+
+	/**
+	 * Gets a cloudlet waiting to be sent to a datacenter by its id. The cloudlets submitted
+	 * through {@link #submitCloudletList(List)} are found in constant time, the other ones by a
+	 * search of the cloudlet list.
+	 * 
+	 * @param cloudletId the cloudlet id
+	 * @return the cloudlet, or null if it is not in the cloudlet list
+	 */
+	protected Cloudlet getCloudletById(int cloudletId) {
+		Cloudlet cloudlet = cloudletsById.get(cloudletId);
+		if (cloudlet == null) {
+			cloudlet = CloudletList.getById(getCloudletList(), cloudletId);
+		}
+		return cloudlet;
 	}
 
 	/**
@@ -222,12 +285,15 @@ public class DatacenterBroker extends SimEntity {
 		int result = data[2];
 
 		if (result == CloudSimTags.TRUE) {
+			Vm vm = getVmById(vmId);
 			getVmsToDatacentersMap().put(vmId, datacenterId);
-			getVmsCreatedList().add(VmList.getById(getVmList(), vmId));
-			Log.printLine(CloudSim.clock() + ": " + getName() + ": VM #" + vmId
-					+ " has been created in Datacenter #" + datacenterId + ", Host #"
-					+ VmList.getById(getVmsCreatedList(), vmId).getHost().getId());
-		} else {
+			getVmsCreatedList().add(vm);
+			if (Log.isEnabled(Log.Category.BROKER, Log.Level.INFO)) {
+				Log.printLine(CloudSim.clock() + ": " + getName() + ": VM #" + vmId
+						+ " has been created in Datacenter #" + datacenterId + ", Host #"
+						+ vm.getHost().getId());
+			}
+		} else if (Log.isEnabled(Log.Category.BROKER, Log.Level.WARNING)) {
 			Log.printLine(CloudSim.clock() + ": " + getName() + ": Creation of VM #" + vmId
 					+ " failed in Datacenter #" + datacenterId);
 		}
@@ -270,8 +336,10 @@ public class DatacenterBroker extends SimEntity {
 	protected void processCloudletReturn(SimEvent ev) {
 		Cloudlet cloudlet = (Cloudlet) ev.getData();
 		getCloudletReceivedList().add(cloudlet);
-		Log.printLine(CloudSim.clock() + ": " + getName() + ": Cloudlet " + cloudlet.getCloudletId()
-				+ " received");
+		if (Log.isEnabled(Log.Category.BROKER, Log.Level.INFO)) {
+			Log.printLine(CloudSim.clock() + ": " + getName() + ": Cloudlet " + cloudlet.getCloudletId()
+					+ " received");
+		}
 		cloudletsSubmitted--;
 		if (getCloudletList().size() == 0 && cloudletsSubmitted == 0) { // all cloudlets executed
 			Log.printLine(CloudSim.clock() + ": " + getName() + ": All Cloudlets executed. Finishing...");
@@ -319,8 +387,10 @@ public class DatacenterBroker extends SimEntity {
 		String datacenterName = CloudSim.getEntityName(datacenterId);
 		for (Vm vm : getVmList()) {
 			if (!getVmsToDatacentersMap().containsKey(vm.getId())) {
-				Log.printLine(CloudSim.clock() + ": " + getName() + ": Trying to Create VM #" + vm.getId()
-						+ " in " + datacenterName);
+				if (Log.isEnabled(Log.Category.BROKER, Log.Level.INFO)) {
+					Log.printLine(CloudSim.clock() + ": " + getName() + ": Trying to Create VM #" + vm.getId()
+							+ " in " + datacenterName);
+				}
 				sendNow(datacenterId, CloudSimTags.VM_CREATE_ACK, vm);
 				requestedVms++;
 			}
@@ -333,12 +403,23 @@ public class DatacenterBroker extends SimEntity {
 	}
 
 	/**
-	 * Submit cloudlets to the created VMs.
+	 * Submit cloudlets to the created VMs. The consecutive cloudlets sent to the same datacenter
+	 * are sent in a single event, as a list of cloudlets.
 	 * 
 	 * @pre $none
 	 * @post $none
 	 */
 	protected void submitCloudlets() {
+		Map<Integer, Vm> vmsCreated = new HashMap<Integer, Vm>();
+		for (Vm vm : getVmsCreatedList()) {
+			if (!vmsCreated.containsKey(vm.getId())) {
+				vmsCreated.put(vm.getId(), vm);
+			}
+		}
+
+		List<Cloudlet> postponedCloudlets = new ArrayList<Cloudlet>();
+		List<Cloudlet> batch = new ArrayList<Cloudlet>();
+		int batchDatacenterId = -1;
 		int vmIndex = 0;
 		for (Cloudlet cloudlet : getCloudletList()) {
 			Vm vm;
@@ -346,26 +427,57 @@ public class DatacenterBroker extends SimEntity {
 			if (cloudlet.getVmId() == -1) {
 				vm = getVmsCreatedList().get(vmIndex);
 			} else { // submit to the specific vm
-				vm = VmList.getById(getVmsCreatedList(), cloudlet.getVmId());
+				vm = vmsCreated.get(cloudlet.getVmId());
 				if (vm == null) { // vm was not created
-					Log.printLine(CloudSim.clock() + ": " + getName() + ": Postponing execution of cloudlet "
-							+ cloudlet.getCloudletId() + ": bount VM not available");
+					if (Log.isEnabled(Log.Category.BROKER, Log.Level.WARNING)) {
+						Log.printLine(CloudSim.clock() + ": " + getName() + ": Postponing execution of cloudlet "
+								+ cloudlet.getCloudletId() + ": bount VM not available");
+					}
+					postponedCloudlets.add(cloudlet);
 					continue;
 				}
 			}
 
-			Log.printLine(CloudSim.clock() + ": " + getName() + ": Sending cloudlet "
-					+ cloudlet.getCloudletId() + " to VM #" + vm.getId());
+			if (Log.isEnabled(Log.Category.BROKER, Log.Level.INFO)) {
+				Log.printLine(CloudSim.clock() + ": " + getName() + ": Sending cloudlet "
+						+ cloudlet.getCloudletId() + " to VM #" + vm.getId());
+			}
 			cloudlet.setVmId(vm.getId());
-			sendNow(getVmsToDatacentersMap().get(vm.getId()), CloudSimTags.CLOUDLET_SUBMIT, cloudlet);
+			int datacenterId = getVmsToDatacentersMap().get(vm.getId());
+			if (datacenterId != batchDatacenterId) {
+				sendCloudlets(batchDatacenterId, batch);
+				batch = new ArrayList<Cloudlet>();
+				batchDatacenterId = datacenterId;
+			}
+			batch.add(cloudlet);
 			cloudletsSubmitted++;
 			vmIndex = (vmIndex + 1) % getVmsCreatedList().size();
 			getCloudletSubmittedList().add(cloudlet);
+			if (cloudletsById.get(cloudlet.getCloudletId()) == cloudlet) {
+				cloudletsById.remove(cloudlet.getCloudletId());
+			}
 		}
+		sendCloudlets(batchDatacenterId, batch);
+
+		// keep only the postponed cloudlets in the waiting list
+		getCloudletList().clear();
+		getCloudletList().addAll(postponedCloudlets);
+	}
 
-		// remove submitted cloudlets from waiting list
-		for (Cloudlet cloudlet : getCloudletSubmittedList()) {
-			getCloudletList().remove(cloudlet);
+	/**
+	 * Sends cloudlets to a datacenter. A single cloudlet is sent as is, while several cloudlets are
+	 * sent as a list in a single event, which the datacenter processes in turn.
+	 * 
+	 * @param datacenterId the datacenter id
+	 * @param cloudlets the cloudlets, which must not be modified afterwards
+	 * @pre $none
+	 * @post $none
+	 */
+	protected void sendCloudlets(int datacenterId, List<Cloudlet> cloudlets) {
+		if (cloudlets.size() == 1) {
+			sendNow(datacenterId, CloudSimTags.CLOUDLET_SUBMIT, cloudlets.get(0));
+		} else if (cloudlets.size() > 1) {
+			sendNow(datacenterId, CloudSimTags.CLOUDLET_SUBMIT, cloudlets);
 		}
 	}
 
@@ -377,7 +489,9 @@ public class DatacenterBroker extends SimEntity {
 	 */
 	protected void clearDatacenters() {
 		for (Vm vm : getVmsCreatedList()) {
-			Log.printLine(CloudSim.clock() + ": " + getName() + ": Destroying VM #" + vm.getId());
+			if (Log.isEnabled(Log.Category.BROKER, Log.Level.INFO)) {
+				Log.printLine(CloudSim.clock() + ": " + getName() + ": Destroying VM #" + vm.getId());
+			}
 			sendNow(getVmsToDatacentersMap().get(vm.getId()), CloudSimTags.VM_DESTROY, vm);
 		}
 
@@ -9,6 +9,7 @@
 package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -34,6 +35,21 @@ public class HostDynamicWorkload extends Host {
 	/** The state history. */
 	private final List<HostStateHistoryEntry> stateHistory = new LinkedList<HostStateHistoryEntry>();
 
+	/** The utilization listeners. */
+	private final List<HostUtilizationListener> utilizationListeners = new ArrayList<HostUtilizationListener>();
+
+	/** The total requested mips of each VM, by position, reused by each update. */
+	private double[] requestedTotalMips = new double[0];
+
+	/** The number of CPU utilization models of each VM in the batch, by position, or -1. */
+	private int[] utilizationModelCounts = new int[0];
+
+	/** The CPU utilization models of the cloudlets of the VMs, reused by each update. */
+	private UtilizationModel[] utilizationModels = new UtilizationModel[0];
+
+	/** The CPU utilization of each model, reused by each update. */
+	private double[] utilizationOfCpu = new double[0];
+
 	/**
 	 * Instantiates a new host.
 	 * 
@@ -66,20 +82,36 @@ public class HostDynamicWorkload extends Host {
 		setPreviousUtilizationMips(getUtilizationMips());
 		setUtilizationMips(0);
 		double hostTotalRequestedMips = 0;
+		boolean debug = Log.isEnabled(Log.Category.HOST, Log.Level.DEBUG);
 
 		for (Vm vm : getVmList()) {
 			getVmScheduler().deallocatePesForVm(vm);
 		}
 
-		for (Vm vm : getVmList()) {
-			getVmScheduler().allocatePesForVm(vm, vm.getCurrentRequestedMips());
+		// the requested mips of each VM are evaluated once, and their totals kept by position
+		List<? extends Vm> vmList = getVmList();
+		int vmCount = vmList.size();
+		updateCurrentRequestedMips(vmList, currentTime);
+		if (requestedTotalMips.length < vmCount) {
+			requestedTotalMips = new double[vmCount];
+		}
+		for (int i = 0; i < vmCount; i++) {
+			Vm vm = vmList.get(i);
+			List<Double> requestedMips = vm.getCurrentRequestedMips();
+			double totalMips = 0;
+			for (double mips : requestedMips) {
+				totalMips += mips;
+			}
+			requestedTotalMips[i] = totalMips;
+			getVmScheduler().allocatePesForVm(vm, requestedMips);
 		}
 
-		for (Vm vm : getVmList()) {
-			double totalRequestedMips = vm.getCurrentRequestedTotalMips();
+		for (int i = 0; i < vmCount; i++) {
+			Vm vm = vmList.get(i);
+			double totalRequestedMips = requestedTotalMips[i];
 			double totalAllocatedMips = getVmScheduler().getTotalAllocatedMipsForVm(vm);
 
-			if (!Log.isDisabled()) {
+			if (debug) {
 				Log.formatLine(
 						"%.2f: [Host #" + getId() + "] Total allocated MIPS for VM #" + vm.getId()
 								+ " (Host #" + vm.getHost().getId()
@@ -104,10 +136,13 @@ public class HostDynamicWorkload extends Host {
 			}
 
 			if (getVmsMigratingIn().contains(vm)) {
-				Log.formatLine("%.2f: [Host #" + getId() + "] VM #" + vm.getId()
-						+ " is being migrated to Host #" + getId(), CloudSim.clock());
+				if (debug) {
+					Log.formatLine("%.2f: [Host #" + getId() + "] VM #" + vm.getId()
+							+ " is being migrated to Host #" + getId(), CloudSim.clock());
+				}
 			} else {
-				if (totalAllocatedMips + 0.1 < totalRequestedMips) {
+				if (totalAllocatedMips + 0.1 < totalRequestedMips
+						&& Log.isEnabled(Log.Category.HOST, Log.Level.WARNING)) {
 					Log.formatLine("%.2f: [Host #" + getId() + "] Under allocated MIPS for VM #" + vm.getId()
 							+ ": %.2f", CloudSim.clock(), totalRequestedMips - totalAllocatedMips);
 				}
@@ -119,9 +154,11 @@ public class HostDynamicWorkload extends Host {
 						(vm.isInMigration() && !getVmsMigratingIn().contains(vm)));
 
 				if (vm.isInMigration()) {
-					Log.formatLine(
-							"%.2f: [Host #" + getId() + "] VM #" + vm.getId() + " is in migration",
-							CloudSim.clock());
+					if (debug) {
+						Log.formatLine(
+								"%.2f: [Host #" + getId() + "] VM #" + vm.getId() + " is in migration",
+								CloudSim.clock());
+					}
 					totalAllocatedMips /= 0.9; // performance degradation due to migration - 10%
 				}
 			}
@@ -136,9 +173,97 @@ public class HostDynamicWorkload extends Host {
 				hostTotalRequestedMips,
 				(getUtilizationMips() > 0));
 
+		if (getUtilizationMips() != getPreviousUtilizationMips()) {
+			for (HostUtilizationListener listener : utilizationListeners) {
+				listener.utilizationChanged(this);
+			}
+		}
+
 		return smallerTime;
 	}
 
+	/**
+	 * Adds a listener told when the utilization MIPS of the host change.
+	 * 
+	 * @param listener the listener
+	 */
+	public void addUtilizationListener(HostUtilizationListener listener) {
+		utilizationListeners.add(listener);
+	}
+
+	/**
+	 * Removes a utilization listener.
+	 * 
+	 * @param listener the listener
+	 */
+	public void removeUtilizationListener(HostUtilizationListener listener) {
+		utilizationListeners.remove(listener);
+	}
+
+	/**
+	 * Computes the current requested mips of the VMs whose cloudlet scheduler follows the
+	 * utilization of its cloudlets, asking the CPU utilization models of all their cloudlets in a
+	 * single batch. The schedulers keep the mips, which the VMs then get as usual. The schedulers
+	 * whose mips are up to date, or not at the current time, are left to compute them on demand.
+	 * 
+	 * @param vmList the VMs
+	 * @param currentTime the current time
+	 */
+	private void updateCurrentRequestedMips(List<? extends Vm> vmList, double currentTime) {
+		int vmCount = vmList.size();
+		if (utilizationModelCounts.length < vmCount) {
+			utilizationModelCounts = new int[vmCount];
+		}
+		int length = 0;
+		for (int i = 0; i < vmCount; i++) {
+			utilizationModelCounts[i] = -1;
+			CloudletScheduler scheduler = vmList.get(i).getCloudletScheduler();
+			if (!(scheduler instanceof CloudletSchedulerDynamicWorkload)) {
+				continue;
+			}
+			CloudletSchedulerDynamicWorkload dynamicScheduler =
+					(CloudletSchedulerDynamicWorkload) scheduler;
+			if (dynamicScheduler.isCurrentRequestedMipsStale()
+					&& dynamicScheduler.getPreviousTime() == currentTime) {
+				int required = length + dynamicScheduler.runningCloudlets();
+				if (utilizationModels.length < required) {
+					utilizationModels = Arrays.copyOf(
+							utilizationModels,
+							Math.max(required, utilizationModels.length * 2));
+				}
+				utilizationModelCounts[i] = dynamicScheduler.getCpuUtilizationModels(
+						utilizationModels,
+						length);
+				length += utilizationModelCounts[i];
+			}
+		}
+
+		if (utilizationOfCpu.length < length) {
+			utilizationOfCpu = new double[utilizationModels.length];
+		}
+		UtilizationModelPlanetLabInMemory.getUtilization(
+				utilizationModels,
+				length,
+				currentTime,
+				utilizationOfCpu);
+		// the models of the cloudlets that finish are not kept until the next update
+		Arrays.fill(utilizationModels, 0, length, null);
+
+		// the utilization is added in the order of the cloudlets, as the schedulers do
+		int position = 0;
+		for (int i = 0; i < vmCount; i++) {
+			if (utilizationModelCounts[i] < 0) {
+				continue;
+			}
+			double totalUtilization = 0;
+			for (int end = position + utilizationModelCounts[i]; position < end; position++) {
+				totalUtilization += utilizationOfCpu[position];
+			}
+			((CloudletSchedulerDynamicWorkload) vmList.get(i).getCloudletScheduler())
+					.setCurrentUtilizationOfCpu(totalUtilization);
+		}
+	}
+
 	/**
 	 * Gets the completed vms.
 	 * 
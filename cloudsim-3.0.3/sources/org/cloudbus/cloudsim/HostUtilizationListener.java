@@ -0,0 +1,29 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+/**
+ * The HostUtilizationListener interface is implemented by the objects that need to be told when
+ * the CPU utilization of a {@link HostDynamicWorkload} changes, such as an index of the hosts
+ * ordered by utilization.
+ * 
+ * @see HostDynamicWorkload#addUtilizationListener(HostUtilizationListener)
+ * @since CloudSim Toolkit 3.0.3
+ */
+public interface HostUtilizationListener {
+
+	/**
+	 * Called once the processing of the VMs of a host has been updated, if the utilization MIPS of
+	 * the host have changed.
+	 * 
+	 * @param host the host
+	 */
+	void utilizationChanged(HostDynamicWorkload host);
+
+}
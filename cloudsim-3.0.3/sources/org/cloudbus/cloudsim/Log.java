@@ -11,9 +11,23 @@ package org.cloudbus.cloudsim;
 import java.io.IOException;
 import java.io.OutputStream;
 
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimulationContext;
+
 /**
  * The Log class used for performing loggin of the simulation process. It provides the ability to
  * substitute the output stream by any OutputStream subclass.
+ * <p>
+ * The output and the disable output flag belong to a simulation context: the methods of this class
+ * use those of the current context of {@link CloudSim}.
+ * <p>
+ * The messages of the hot paths of the simulation belong to a {@link Category} and have a
+ * {@link Level}, and each category can be restricted to the messages of the most important levels.
+ * Such messages are built only if {@link #isEnabled(Category, Level)}, which the callers check
+ * before concatenating strings or boxing arguments, so a disabled log costs a single test. When
+ * many messages are printed, the output can be an
+ * {@link org.cloudbus.cloudsim.util.AsyncOutputStream}, which writes them to the underlying stream
+ * from a background thread.
  * 
  * @author Anton Beloglazov
  * @since CloudSim Toolkit 2.0
@@ -23,11 +37,40 @@ public class Log {
 	/** The Constant LINE_SEPARATOR. */
 	private static final String LINE_SEPARATOR = System.getProperty("line.separator");
 
-	/** The output. */
-	private static OutputStream output;
+	/**
+	 * The levels of the messages, from the most to the least important.
+	 */
+	public enum Level {
+
+		/** The errors. */
+		ERROR,
+
+		/** The warnings. */
+		WARNING,
+
+		/** The information on the progress of the simulation. */
+		INFO,
+
+		/** The details of each update of the hosts and VMs. */
+		DEBUG
+
+	}
+
+	/**
+	 * The categories of the messages, which can be restricted separately.
+	 */
+	public enum Category {
 
-	/** The disable output flag. */
-	private static boolean disabled;
+		/** The messages of the brokers. */
+		BROKER,
+
+		/** The messages of the datacenters. */
+		DATACENTER,
+
+		/** The messages of the hosts. */
+		HOST
+
+	}
 
 	/**
 	 * Prints the message.
@@ -110,13 +153,100 @@ public class Log {
 		}
 	}
 
+	/**
+	 * Checks whether the messages of a category and a level are printed, i.e. if the output is not
+	 * disabled and the level is at least as important as the one set for the category.
+	 * 
+	 * @param category the category
+	 * @param level the level
+	 * @return true, if the messages are printed
+	 */
+	public static boolean isEnabled(Category category, Level level) {
+		SimulationContext context = CloudSim.getSimulationContext();
+		return !context.isLogDisabled() && level.compareTo(context.getLogLevel(category)) <= 0;
+	}
+
+	/**
+	 * Prints the line, if the messages of its category and level are enabled.
+	 * 
+	 * @param category the category
+	 * @param level the level
+	 * @param message the message
+	 */
+	public static void printLine(Category category, Level level, String message) {
+		if (isEnabled(category, level)) {
+			printLine(message);
+		}
+	}
+
+	/**
+	 * Prints a line formated as in String.format(), if the messages of its category and level are
+	 * enabled. The line is formatted only in that case.
+	 * 
+	 * @param category the category
+	 * @param level the level
+	 * @param format the format
+	 * @param args the args
+	 */
+	public static void formatLine(Category category, Level level, String format, Object... args) {
+		if (isEnabled(category, level)) {
+			printLine(String.format(format, args));
+		}
+	}
+
+	/**
+	 * Gets the least important level of the messages of a category that are printed.
+	 * 
+	 * @param category the category
+	 * @return the level
+	 */
+	public static Level getLevel(Category category) {
+		return CloudSim.getSimulationContext().getLogLevel(category);
+	}
+
+	/**
+	 * Sets the least important level of the messages of a category that are printed. All the
+	 * messages are printed by default.
+	 * 
+	 * @param category the category
+	 * @param level the level
+	 */
+	public static void setLevel(Category category, Level level) {
+		CloudSim.getSimulationContext().setLogLevel(category, level);
+	}
+
+	/**
+	 * Sets the least important level of the messages of all the categories that are printed.
+	 * 
+	 * @param level the level
+	 */
+	public static void setLevel(Level level) {
+		for (Category category : Category.values()) {
+			setLevel(category, level);
+		}
+	}
+
+	/**
+	 * Flushes the output, if it has been set.
+	 */
+	public static void flush() {
+		OutputStream output = CloudSim.getSimulationContext().getLogOutput();
+		if (output != null) {
+			try {
+				output.flush();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
 	/**
 	 * Sets the output.
 	 * 
 	 * @param _output the new output
 	 */
 	public static void setOutput(OutputStream _output) {
-		output = _output;
+		CloudSim.getSimulationContext().setLogOutput(_output);
 	}
 
 	/**
@@ -125,10 +255,11 @@ public class Log {
 	 * @return the output
 	 */
 	public static OutputStream getOutput() {
-		if (output == null) {
-			setOutput(System.out);
+		SimulationContext context = CloudSim.getSimulationContext();
+		if (context.getLogOutput() == null) {
+			context.setLogOutput(System.out);
 		}
-		return output;
+		return context.getLogOutput();
 	}
 
 	/**
@@ -137,7 +268,7 @@ public class Log {
 	 * @param _disabled the new disabled
 	 */
 	public static void setDisabled(boolean _disabled) {
-		disabled = _disabled;
+		CloudSim.getSimulationContext().setLogDisabled(_disabled);
 	}
 
 	/**
@@ -146,7 +277,7 @@ public class Log {
 	 * @return true, if is disable
 	 */
 	public static boolean isDisabled() {
-		return disabled;
+		return CloudSim.getSimulationContext().isLogDisabled();
 	}
 
 	/**
@@ -0,0 +1,142 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The migration of a VM to a target host, as returned by
+ * {@link VmAllocationPolicy#optimizeAllocation(java.util.List)}. A migration is also a read-only
+ * map with the <tt>"vm"</tt> and <tt>"host"</tt> keys, so it can be read wherever a migration map
+ * used to be, such as in the data of the {@link org.cloudbus.cloudsim.core.CloudSimTags#VM_MIGRATE}
+ * events.
+ * 
+ * @since CloudSim Toolkit 3.0.3
+ */
+public final class Migration extends AbstractMap<String, Object> {
+
+	/** The key of the VM. */
+	public static final String VM = "vm";
+
+	/** The key of the target host. */
+	public static final String HOST = "host";
+
+	/** The VM. */
+	private final Vm vm;
+
+	/** The target host. */
+	private final Host targetHost;
+
+	/**
+	 * Instantiates a new migration.
+	 * 
+	 * @param vm the VM
+	 * @param targetHost the target host
+	 */
+	public Migration(Vm vm, Host targetHost) {
+		this.vm = vm;
+		this.targetHost = targetHost;
+	}
+
+	/**
+	 * Gets the VM.
+	 * 
+	 * @return the VM
+	 */
+	public Vm getVm() {
+		return vm;
+	}
+
+	/**
+	 * Gets the target host.
+	 * 
+	 * @return the target host
+	 */
+	public Host getTargetHost() {
+		return targetHost;
+	}
+
+	/**
+	 * Gets the VM of a migration, read from its record if it is a {@link Migration}, or from its
+	 * <tt>"vm"</tt> key if it is a map built by other code.
+	 * 
+	 * @param migration the migration
+	 * @return the VM
+	 */
+	public static Vm getVm(Map<String, Object> migration) {
+		if (migration instanceof Migration) {
+			return ((Migration) migration).getVm();
+		}
+		return (Vm) migration.get(VM);
+	}
+
+	/**
+	 * Gets the target host of a migration, read from its record if it is a {@link Migration}, or
+	 * from its <tt>"host"</tt> key if it is a map built by other code.
+	 * 
+	 * @param migration the migration
+	 * @return the target host
+	 */
+	public static Host getTargetHost(Map<String, Object> migration) {
+		if (migration instanceof Migration) {
+			return ((Migration) migration).getTargetHost();
+		}
+		return (Host) migration.get(HOST);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractMap#get(java.lang.Object)
+	 */
+	@Override
+	public Object get(Object key) {
+		if (VM.equals(key)) {
+			return vm;
+		}
+		if (HOST.equals(key)) {
+			return targetHost;
+		}
+		return null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractMap#containsKey(java.lang.Object)
+	 */
+	@Override
+	public boolean containsKey(Object key) {
+		return VM.equals(key) || HOST.equals(key);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractMap#size()
+	 */
+	@Override
+	public int size() {
+		return 2;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractMap#entrySet()
+	 */
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+		Set<Entry<String, Object>> entries = new LinkedHashSet<Entry<String, Object>>(4);
+		entries.add(new SimpleImmutableEntry<String, Object>(VM, vm));
+		entries.add(new SimpleImmutableEntry<String, Object>(HOST, targetHost));
+		return Collections.unmodifiableSet(entries);
+	}
+
+}
@@ -13,6 +13,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 
+import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.network.DelayMatrix_Float;
 import org.cloudbus.cloudsim.network.GraphReaderBrite;
 import org.cloudbus.cloudsim.network.TopologicalGraph;
@@ -29,6 +30,9 @@ import org.cloudbus.cloudsim.network.TopologicalNode;
  * Nevertheless, each CloudSim entity must be mapped to one (and only one) BRITE node to allow
  * proper work of the network simulation. Each BRITE node can be mapped to only one entity at a
  * time.
+ * <p>
+ * The topology belongs to a simulation context: the static methods of this class act on the
+ * topology of the current context of {@link CloudSim}.
  * 
  * @author Rodrigo N. Calheiros
  * @author Anton Beloglazov
@@ -36,17 +40,34 @@ import org.cloudbus.cloudsim.network.TopologicalNode;
  */
 public class NetworkTopology {
 
-	protected static int nextIdx = 0;
+	protected int nextIdx = 0;
+
+	private boolean networkEnabled = false;
 
-	private static boolean networkEnabled = false;
+	protected DelayMatrix_Float delayMatrix = null;
 
-	protected static DelayMatrix_Float delayMatrix = null;
+	protected double[][] bwMatrix = null;
 
-	protected static double[][] bwMatrix = null;
+	protected TopologicalGraph graph = null;
 
-	protected static TopologicalGraph graph = null;
+	protected Map<Integer, Integer> map = null;
 
-	protected static Map<Integer, Integer> map = null;
+	/**
+	 * Creates an empty network topology, with the network simulation disabled. Use
+	 * {@link org.cloudbus.cloudsim.core.SimulationContext#getNetworkTopology()} to get the topology
+	 * of a simulation.
+	 */
+	public NetworkTopology() {
+	}
+
+	/**
+	 * Gets the network topology of the current simulation context.
+	 * 
+	 * @return the network topology
+	 */
+	private static NetworkTopology getInstance() {
+		return CloudSim.getSimulationContext().getNetworkTopology();
+	}
 
 	/**
 	 * Creates the network topology if file exists and if file can be succesfully parsed. File is
@@ -62,10 +83,11 @@ public class NetworkTopology {
 		// try to find the file
 		GraphReaderBrite reader = new GraphReaderBrite();
 
+		NetworkTopology topology = getInstance();
 		try {
-			graph = reader.readGraphFile(fileName);
-			map = new HashMap<Integer, Integer>();
-			generateMatrices();
+			topology.graph = reader.readGraphFile(fileName);
+			topology.map = new HashMap<Integer, Integer>();
+			topology.generateMatrices();
 		} catch (IOException e) {
 			// problem with the file. Does not simulate network
 			Log.printLine("Problem in processing BRITE file. Network simulation is disabled. Error: "
@@ -77,7 +99,7 @@ public class NetworkTopology {
 	/**
 	 * Generates the matrices used internally to set latency and bandwidth between elements
 	 */
-	private static void generateMatrices() {
+	private void generateMatrices() {
 		// creates the delay matrix
 		delayMatrix = new DelayMatrix_Float(graph, false);
 
@@ -99,6 +121,18 @@ public class NetworkTopology {
 	 * @post $none
 	 */
 	public static void addLink(int srcId, int destId, double bw, double lat) {
+		getInstance().addTopologyLink(srcId, destId, bw, lat);
+	}
+
+	/**
+	 * Adds a new link in this network topology
+	 * 
+	 * @param srcId ID of the link's source
+	 * @param destId ID of the link's destination
+	 * @param bw Link's bandwidth
+	 * @param lat link's latency
+	 */
+	private void addTopologyLink(int srcId, int destId, double bw, double lat) {
 
 		if (graph == null) {
 			graph = new TopologicalGraph();
@@ -171,7 +205,9 @@ public class NetworkTopology {
 	 * @post $none
 	 */
 	public static void mapNode(int cloudSimEntityID, int briteID) {
-		if (networkEnabled) {
+		NetworkTopology topology = getInstance();
+		Map<Integer, Integer> map = topology.map;
+		if (topology.networkEnabled) {
 			try {
 				// this CloudSim entity was already mapped?
 				if (!map.containsKey(cloudSimEntityID)) {
@@ -199,9 +235,10 @@ public class NetworkTopology {
 	 * @post $none
 	 */
 	public static void unmapNode(int cloudSimEntityID) {
-		if (networkEnabled) {
+		NetworkTopology topology = getInstance();
+		if (topology.networkEnabled) {
 			try {
-				map.remove(cloudSimEntityID);
+				topology.map.remove(cloudSimEntityID);
 			} catch (Exception e) {
 				Log.printLine("Error in network unmapping. CloudSim node: " + cloudSimEntityID);
 			}
@@ -219,6 +256,17 @@ public class NetworkTopology {
 	 * @post $none
 	 */
 	public static double getDelay(int srcID, int destID) {
+		return getInstance().getLinkDelay(srcID, destID);
+	}
+
+	/**
+	 * Calculates the delay between two nodes of this network topology
+	 * 
+	 * @param srcID ID of the source node
+	 * @param destID ID of the destination node
+	 * @return communication delay between the two nodes
+	 */
+	public double getLinkDelay(int srcID, int destID) {
 		if (networkEnabled) {
 			try {
 				// add the network latency
@@ -242,6 +290,15 @@ public class NetworkTopology {
 	 * @post $none
 	 */
 	public static boolean isNetworkEnabled() {
+		return getInstance().isEnabled();
+	}
+
+	/**
+	 * Checks if network simulation is working for this network topology.
+	 * 
+	 * @return $true if network simulation is ok. $false otherwise
+	 */
+	public boolean isEnabled() {
 		return networkEnabled;
 	}
 
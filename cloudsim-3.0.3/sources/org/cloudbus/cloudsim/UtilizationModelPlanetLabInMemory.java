@@ -3,17 +3,35 @@ package org.cloudbus.cloudsim;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * The Class UtilizationModelPlanetLab.
+ * <p>
+ * The data is either read from a trace file into an array of its own, or viewed in a buffer of
+ * percentages shared by many models, such as the mapping of a
+ * {@link org.cloudbus.cloudsim.util.PlanetLabTraceStore}.
+ * <p>
+ * The utilization of many models at the same time can be asked at once with
+ * {@link #getUtilization(UtilizationModel[], int, double, double[])}, which places the time
+ * between two samples once for all the models sharing a scheduling interval.
  */
 public class UtilizationModelPlanetLabInMemory implements UtilizationModel {
 	
 	/** The scheduling interval. */
 	private double schedulingInterval;
 
-	/** The data (5 min * 288 = 24 hours). */
+	/** The data (5 min * 288 = 24 hours), or null if the data is viewed in a shared buffer. */
 	private final double[] data; 
+
+	/** The shared buffer of percentages, one byte per sample, or null if the data is an array. */
+	private final ByteBuffer percentages;
+
+	/** The position of the first sample in the shared buffer. */
+	private final int offset;
+
+	/** The number of samples in the shared buffer, the last one being repeated once. */
+	private final int samples;
 	
 	/**
 	 * Instantiates a new utilization model PlanetLab.
@@ -26,6 +44,9 @@ public class UtilizationModelPlanetLabInMemory implements UtilizationModel {
 			throws NumberFormatException,
 			IOException {
 		data = new double[289];
+		percentages = null;
+		offset = 0;
+		samples = 0;
 		setSchedulingInterval(schedulingInterval);
 		BufferedReader input = new BufferedReader(new FileReader(inputPath));
 		int n = data.length;
@@ -49,6 +70,9 @@ public class UtilizationModelPlanetLabInMemory implements UtilizationModel {
 			IOException {
 		setSchedulingInterval(schedulingInterval);
 		data = new double[dataSamples];
+		percentages = null;
+		offset = 0;
+		samples = 0;
 		BufferedReader input = new BufferedReader(new FileReader(inputPath));
 		int n = data.length;
 		for (int i = 0; i < n - 1; i++) {
@@ -58,6 +82,47 @@ public class UtilizationModelPlanetLabInMemory implements UtilizationModel {
 		input.close();
 	}
 
+	/**
+	 * Instantiates a new utilization model PlanetLab viewing its data in a shared buffer of
+	 * percentages, one byte per sample. The data is not copied: the last sample is repeated once,
+	 * as for a model read from a file.
+	 * 
+	 * @param percentages the shared buffer, which must not be modified afterwards
+	 * @param offset the position of the first sample in the buffer
+	 * @param samples the number of samples in the buffer
+	 * @param schedulingInterval the scheduling interval
+	 */
+	public UtilizationModelPlanetLabInMemory(
+			ByteBuffer percentages,
+			int offset,
+			int samples,
+			double schedulingInterval) {
+		if (offset < 0 || samples <= 0 || offset + samples > percentages.limit()) {
+			throw new IllegalArgumentException("The samples are out of the buffer");
+		}
+		data = null;
+		this.percentages = percentages;
+		this.offset = offset;
+		this.samples = samples;
+		setSchedulingInterval(schedulingInterval);
+	}
+
+	/**
+	 * Gets a sample of the data.
+	 * 
+	 * @param index the index of the sample
+	 * @return the utilization
+	 */
+	private double getData(int index) {
+		if (data != null) {
+			return data[index];
+		}
+		if (index > samples) {
+			throw new ArrayIndexOutOfBoundsException(index);
+		}
+		return (percentages.get(offset + Math.min(index, samples - 1)) & 0xFF) / 100.0;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see cloudsim.power.UtilizationModel#getUtilization(double)
@@ -65,18 +130,71 @@ public class UtilizationModelPlanetLabInMemory implements UtilizationModel {
 	@Override
 	public double getUtilization(double time) {
 		if (time % getSchedulingInterval() == 0) {
-			return data[(int) time / (int) getSchedulingInterval()];
+			return getData((int) time / (int) getSchedulingInterval());
 		}
 		int time1 = (int) Math.floor(time / getSchedulingInterval());
 		int time2 = (int) Math.ceil(time / getSchedulingInterval());
-		double utilization1 = data[time1];
-		double utilization2 = data[time2];
+		double utilization1 = getData(time1);
+		double utilization2 = getData(time2);
 		double delta = (utilization2 - utilization1) / ((time2 - time1) * getSchedulingInterval());
 		double utilization = utilization1 + delta * (time - time1 * getSchedulingInterval());
 		return utilization;
 
 	}
 
+	/**
+	 * Gets the utilization of many models at the same time. The position of the time in the
+	 * scheduling interval is computed once for each run of PlanetLab models sharing the same
+	 * interval, and the other models are asked one by one. The utilization is the same as the one
+	 * returned by each model.
+	 * 
+	 * @param models the utilization models
+	 * @param length the number of models, from the start of the array
+	 * @param time the time
+	 * @param utilization the array filled with the utilization of each model, in the order of the
+	 *            models
+	 */
+	public static void getUtilization(
+			UtilizationModel[] models,
+			int length,
+			double time,
+			double[] utilization) {
+		double schedulingInterval = Double.NaN;
+		boolean sample = false;
+		int index = 0;
+		double elapsed = 0;
+		for (int i = 0; i < length; i++) {
+			if (!(models[i] instanceof UtilizationModelPlanetLabInMemory)) {
+				utilization[i] = models[i].getUtilization(time);
+				continue;
+			}
+			UtilizationModelPlanetLabInMemory model = (UtilizationModelPlanetLabInMemory) models[i];
+			if (model.getSchedulingInterval() != schedulingInterval) {
+				schedulingInterval = model.getSchedulingInterval();
+				sample = time % schedulingInterval == 0;
+				if (sample) {
+					index = (int) time / (int) schedulingInterval;
+				} else {
+					double position = time / schedulingInterval;
+					double floor = Math.floor(position);
+					index = floor != position ? (int) floor : -1;
+					elapsed = time - index * schedulingInterval;
+				}
+			}
+			if (sample) {
+				utilization[i] = model.getData(index);
+			} else if (index >= 0) {
+				// the same operations as getUtilization(double), the samples being one apart
+				double utilization1 = model.getData(index);
+				double utilization2 = model.getData(index + 1);
+				double delta = (utilization2 - utilization1) / schedulingInterval;
+				utilization[i] = utilization1 + delta * elapsed;
+			} else {
+				utilization[i] = model.getUtilization(time);
+			}
+		}
+	}
+
 	/**
 	 * Sets the scheduling interval.
 	 * 
@@ -0,0 +1,147 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A journal of tentative VM allocations. The VMs created or destroyed on hosts through the journal
+ * are recorded, so the allocation can be rolled back by undoing just these operations, in reverse
+ * order, instead of destroying and recreating all the VMs of all the hosts.
+ * <p>
+ * A VM destroyed through the journal is recreated at its former position in the VM list of its
+ * host, and the host of each VM, as given by {@link Vm#getHost()}, is set back to what it was
+ * before the operation.
+ * 
+ * @since CloudSim Toolkit 3.0.3
+ */
+public class VmAllocationJournal {
+
+	/** The operations, oldest first. */
+	private final List<Operation> operations = new ArrayList<Operation>();
+
+	/**
+	 * Creates a VM on a host, and records the creation if it succeeds.
+	 * 
+	 * @param host the host
+	 * @param vm the VM
+	 * @return true, if the VM has been created
+	 */
+	public boolean vmCreate(Host host, Vm vm) {
+		Host previousHost = vm.getHost();
+		if (!host.vmCreate(vm)) {
+			return false;
+		}
+		operations.add(new Operation(true, host, vm, previousHost, -1));
+		return true;
+	}
+
+	/**
+	 * Destroys a VM running on a host, and records the destruction.
+	 * 
+	 * @param host the host
+	 * @param vm the VM
+	 */
+	public void vmDestroy(Host host, Vm vm) {
+		operations.add(new Operation(false, host, vm, vm.getHost(), host.getVmList().indexOf(vm)));
+		host.vmDestroy(vm);
+	}
+
+	/**
+	 * Gets the number of recorded operations, which can be given to {@link #rollback(int)} to
+	 * undo the operations recorded from now on.
+	 * 
+	 * @return the number of operations
+	 */
+	public int size() {
+		return operations.size();
+	}
+
+	/**
+	 * Undoes all the recorded operations and clears the journal.
+	 */
+	public void rollback() {
+		rollback(0);
+	}
+
+	/**
+	 * Undoes the operations recorded after the first ones, from the latest one.
+	 * 
+	 * @param size the number of operations to keep
+	 */
+	public void rollback(int size) {
+		for (int i = operations.size() - 1; i >= size; i--) {
+			Operation operation = operations.remove(i);
+			Host host = operation.host;
+			Vm vm = operation.vm;
+			if (operation.create) {
+				host.vmDestroy(vm);
+			} else {
+				if (!host.vmCreate(vm)) {
+					Log.printLine("Couldn't restore VM #" + vm.getId() + " on host #" + host.getId());
+					System.exit(0);
+				}
+				List<Vm> vmList = host.getVmList();
+				if (operation.index >= 0 && operation.index < vmList.size() - 1) {
+					vmList.remove(vmList.size() - 1);
+					vmList.add(operation.index, vm);
+				}
+			}
+			vm.setHost(operation.previousHost);
+		}
+	}
+
+	/**
+	 * Clears the journal, so the operations recorded so far are kept and can no longer be undone.
+	 */
+	public void clear() {
+		operations.clear();
+	}
+
+	/**
+	 * A recorded operation.
+	 */
+	private static class Operation {
+
+		/** Whether the VM has been created, or else destroyed. */
+		private final boolean create;
+
+		/** The host. */
+		private final Host host;
+
+		/** The VM. */
+		private final Vm vm;
+
+		/** The host of the VM before the operation. */
+		private final Host previousHost;
+
+		/** The position of a destroyed VM in the VM list of the host. */
+		private final int index;
+
+		/**
+		 * Instantiates a new operation.
+		 * 
+		 * @param create whether the VM has been created, or else destroyed
+		 * @param host the host
+		 * @param vm the VM
+		 * @param previousHost the host of the VM before the operation
+		 * @param index the position of a destroyed VM in the VM list of the host
+		 */
+		public Operation(boolean create, Host host, Vm vm, Host previousHost, int index) {
+			this.create = create;
+			this.host = host;
+			this.vm = vm;
+			this.previousHost = previousHost;
+			this.index = index;
+		}
+
+	}
+
+}
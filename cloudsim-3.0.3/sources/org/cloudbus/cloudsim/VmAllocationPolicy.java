@@ -63,9 +63,9 @@ public abstract class VmAllocationPolicy {
 	 * @param vmList the vm list
 	 * @param utilizationBound the utilization bound
 	 * @param time the time
-	 * @return the array list< hash map< string, object>>
+	 * @return the migrations, as maps with the "vm" and "host" keys such as {@link Migration}
 	 */
-	public abstract List<Map<String, Object>> optimizeAllocation(List<? extends Vm> vmList);
+	public abstract List<? extends Map<String, Object>> optimizeAllocation(List<? extends Vm> vmList);
 
 	/**
 	 * Releases the host used by a VM.
@@ -0,0 +1,238 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.io.IOException;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.core.SimEvent;
+import org.cloudbus.cloudsim.core.SimulationContext;
+import org.cloudbus.cloudsim.util.WorkloadFileReader;
+
+/**
+ * A broker that submits the jobs of a workload trace as the simulation reaches their submit times,
+ * instead of submitting all of them once the VMs are created. The jobs are read from the trace
+ * only when they are due.
+ * <p>
+ * The submit times of the trace are taken relative to the first job, which is submitted as soon
+ * as the VMs are created. The jobs are owned by the broker. The broker finishes once all the jobs
+ * of the trace have been read and executed.
+ * <p>
+ * By default, the broker keeps the jobs it submits and receives back in
+ * {@link #getCloudletSubmittedList()} and {@link #getCloudletReceivedList()}, as any broker does,
+ * so the memory it uses grows with the trace. Once told not to retain the jobs, it only keeps the
+ * jobs waiting for their VM and the jobs running, and counts the others; a subclass can override
+ * {@link #processJobFinished(Cloudlet)} to collect what it needs from each finished job.
+ * 
+ * @see WorkloadFileReader#iterator()
+ * @since CloudSim Toolkit 3.0.3
+ */
+public class WorkloadDatacenterBroker extends DatacenterBroker {
+
+	/** The workload. */
+	private final WorkloadFileReader workload;
+
+	/** The jobs of the workload not read yet, or null before the first submission. */
+	private WorkloadFileReader.JobIterator jobs;
+
+	/** The next job, read from the workload but not submitted yet. */
+	private Cloudlet nextJob;
+
+	/** The simulation time at which the next job is due. */
+	private double nextJobTime;
+
+	/** The simulation time minus the trace time. */
+	private double timeOffset;
+
+	/** Whether an event has been scheduled to submit the next job. */
+	private boolean submissionScheduled;
+
+	/** Whether the submitted and finished jobs are kept in the lists of the broker. */
+	private boolean retainingJobs = true;
+
+	/** The number of jobs and cloudlets submitted. */
+	private long jobsSubmitted;
+
+	/** The number of jobs and cloudlets finished. */
+	private long jobsFinished;
+
+	/**
+	 * Instantiates a new broker.
+	 * 
+	 * @param name the name of the broker
+	 * @param workload the workload
+	 * @throws Exception the exception
+	 */
+	public WorkloadDatacenterBroker(String name, WorkloadFileReader workload) throws Exception {
+		this(CloudSim.getSimulationContext(), name, workload);
+	}
+
+	/**
+	 * Instantiates a new broker in a given simulation context.
+	 * 
+	 * @param context the simulation context
+	 * @param name the name of the broker
+	 * @param workload the workload
+	 * @throws Exception the exception
+	 */
+	public WorkloadDatacenterBroker(SimulationContext context, String name, WorkloadFileReader workload)
+			throws Exception {
+		super(context, name);
+		this.workload = workload;
+	}
+
+	/**
+	 * Submits the jobs due by now, along with the cloudlets waiting in the cloudlet list, and
+	 * schedules the submission of the next job.
+	 */
+	@Override
+	protected void submitCloudlets() {
+		if (jobs == null) {
+			jobs = workload.iterator();
+			if (jobs.hasNext()) {
+				nextJob = jobs.next();
+				timeOffset = CloudSim.clock() - jobs.getSubmitTime();
+				nextJobTime = CloudSim.clock();
+			}
+		}
+
+		while (nextJob != null && nextJobTime <= CloudSim.clock()) {
+			nextJob.setUserId(getId());
+			getCloudletList().add(nextJob);
+			readNextJob();
+		}
+
+		int waiting = getCloudletList().size();
+		super.submitCloudlets();
+		jobsSubmitted += waiting - getCloudletList().size();
+		if (!retainingJobs) {
+			getCloudletSubmittedList().clear();
+		}
+
+		if (nextJob != null && !submissionScheduled) {
+			schedule(getId(), nextJobTime - CloudSim.clock(), CloudSimTags.VM_BROKER_EVENT);
+			submissionScheduled = true;
+		}
+	}
+
+	/**
+	 * Reads the next job of the workload, if any.
+	 */
+	private void readNextJob() {
+		if (jobs.hasNext()) {
+			nextJob = jobs.next();
+			nextJobTime = Math.max(CloudSim.clock(), jobs.getSubmitTime() + timeOffset);
+		} else {
+			nextJob = null;
+			try {
+				jobs.close();
+			} catch (IOException e) {
+				Log.printLine(getName() + ": Error closing the workload: " + e.getMessage());
+			}
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.DatacenterBroker#processCloudletReturn(org.cloudbus.cloudsim.core.
+	 * SimEvent)
+	 */
+	@Override
+	protected void processCloudletReturn(SimEvent ev) {
+		Cloudlet cloudlet = (Cloudlet) ev.getData();
+		jobsFinished++;
+		processJobFinished(cloudlet);
+		if (nextJob == null) {
+			super.processCloudletReturn(ev);
+			if (!retainingJobs) {
+				getCloudletReceivedList().remove(getCloudletReceivedList().size() - 1);
+			}
+			return;
+		}
+
+		// some jobs are not due yet, so the broker does not finish
+		if (retainingJobs) {
+			getCloudletReceivedList().add(cloudlet);
+		}
+		if (Log.isEnabled(Log.Category.BROKER, Log.Level.INFO)) {
+			Log.printLine(CloudSim.clock() + ": " + getName() + ": Cloudlet " + cloudlet.getCloudletId()
+					+ " received");
+		}
+		cloudletsSubmitted--;
+		if (cloudletsSubmitted == 0 && !getCloudletList().isEmpty()) {
+			// as in the base broker, all the cloudlets sent finished, so some bound cloudlet is
+			// waiting for its VM to be created
+			clearDatacenters();
+			createVmsInDatacenter(0);
+		}
+	}
+
+	/**
+	 * Processes a job or a cloudlet returned by a datacenter once executed. The default
+	 * implementation does nothing.
+	 * 
+	 * @param job the finished job
+	 */
+	protected void processJobFinished(Cloudlet job) {
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.DatacenterBroker#processOtherEvent(org.cloudbus.cloudsim.core.SimEvent)
+	 */
+	@Override
+	protected void processOtherEvent(SimEvent ev) {
+		if (ev != null && ev.getTag() == CloudSimTags.VM_BROKER_EVENT) {
+			submissionScheduled = false;
+			submitCloudlets();
+		} else {
+			super.processOtherEvent(ev);
+		}
+	}
+
+	/**
+	 * Checks whether the submitted and finished jobs are kept in the lists of the broker.
+	 * 
+	 * @return true, if the jobs are kept
+	 */
+	public boolean isRetainingJobs() {
+		return retainingJobs;
+	}
+
+	/**
+	 * Sets whether the submitted and finished jobs are kept in
+	 * {@link #getCloudletSubmittedList()} and {@link #getCloudletReceivedList()}. When they are not,
+	 * the memory used by the broker does not depend on the length of the trace.
+	 * 
+	 * @param retainingJobs whether the jobs are kept
+	 */
+	public void setRetainingJobs(boolean retainingJobs) {
+		this.retainingJobs = retainingJobs;
+	}
+
+	/**
+	 * Gets the number of jobs and cloudlets submitted to the datacenters.
+	 * 
+	 * @return the number of jobs submitted
+	 */
+	public long getJobsSubmitted() {
+		return jobsSubmitted;
+	}
+
+	/**
+	 * Gets the number of jobs and cloudlets executed and returned by the datacenters.
+	 * 
+	 * @return the number of jobs finished
+	 */
+	public long getJobsFinished() {
+		return jobsFinished;
+	}
+
+}
@@ -0,0 +1,528 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An event queue engine implementing the calendar queue proposed by R. Brown in "Calendar Queues:
+ * A Fast O(1) Priority Queue Implementation for the Simulation Event Set Problem", Communications
+ * of the ACM, 31(10), 1988. Events are hashed by time into an array of buckets ("days"), each of
+ * them holding a sorted linked list of events. The number of buckets and their width are adapted
+ * as the queue grows and shrinks, so that insert and poll take O(1) amortised time for the event
+ * time distributions usually found in simulations. The bucket lists are linked through the events
+ * themselves, so no node objects are allocated, and each bucket keeps its last event so that the
+ * many events sent at the same time are appended in O(1).
+ *
+ * @since CloudSim Toolkit 3.0.3
+ * @see EventQueue
+ */
+public class CalendarEventQueue implements EventQueue {
+
+	/** The minimal number of buckets. */
+	private static final int MIN_BUCKETS = 16;
+
+	/** The number of events sampled to estimate the bucket width on a resize. */
+	private static final int WIDTH_SAMPLE_SIZE = 25;
+
+	/** The average number of events skipped per operation above which the width is re-estimated. */
+	private static final int MAX_AVERAGE_STEPS = 8;
+
+	/** The first event of each bucket. */
+	private SimEvent[] buckets;
+
+	/** The last event of each bucket. */
+	private SimEvent[] tails;
+
+	/** The mask used to map a virtual bucket number to a bucket, as the length is a power of 2. */
+	private int mask;
+
+	/** The width of a bucket in simulation time. */
+	private double width;
+
+	/** The virtual bucket (i.e. time divided by width) of the last event returned. */
+	private long currentBucket;
+
+	/** A lower bound of the time of the events in the queue. */
+	private double lowerBound;
+
+	/** The number of events in the queue. */
+	private int size;
+
+	/** The number of structural modifications, used to detect concurrent modifications. */
+	private int modCount;
+
+	/** Whether the queue can resize, disabled while it is being resized. */
+	private boolean resizeEnabled = true;
+
+	/** The number of operations since the last resize. */
+	private int operations;
+
+	/** The number of events and buckets skipped by the operations since the last resize. */
+	private long steps;
+
+	/**
+	 * Creates a calendar event queue with a bucket width of one time unit.
+	 */
+	public CalendarEventQueue() {
+		this(1.0);
+	}
+
+	/**
+	 * Creates a calendar event queue.
+	 *
+	 * @param width the initial bucket width in simulation time
+	 */
+	public CalendarEventQueue(double width) {
+		if (width <= 0) {
+			throw new IllegalArgumentException("The bucket width should be positive, but is:" + width);
+		}
+		init(MIN_BUCKETS, width, 0);
+	}
+
+	@Override
+	public void add(SimEvent event) {
+		double time = event.eventTime();
+		long virtualBucket = getVirtualBucket(time);
+		int index = (int) (virtualBucket & mask);
+
+		SimEvent tail = tails[index];
+		event.queueNext = null;
+		if (tail == null) {
+			buckets[index] = event;
+			tails[index] = event;
+		} else if (tail.compareTo(event) <= 0) {
+			// most events are sent after all the others of their bucket, e.g. with the same time
+			tail.queueNext = event;
+			tails[index] = event;
+		} else {
+			SimEvent previous = null;
+			SimEvent current = buckets[index];
+			while (current.compareTo(event) <= 0) {
+				previous = current;
+				current = current.queueNext;
+				steps++;
+			}
+			event.queueNext = current;
+			if (previous == null) {
+				buckets[index] = event;
+			} else {
+				previous.queueNext = event;
+			}
+		}
+
+		if (time < lowerBound) {
+			lowerBound = time;
+			currentBucket = virtualBucket;
+		}
+		size++;
+		modCount++;
+
+		if (resizeEnabled) {
+			if (size > buckets.length << 1) {
+				resize(buckets.length << 1);
+			} else {
+				checkWidth();
+			}
+		}
+	}
+
+	@Override
+	public SimEvent peek() {
+		if (size == 0) {
+			return null;
+		}
+		return buckets[findFirstBucket()];
+	}
+
+	@Override
+	public SimEvent poll() {
+		if (size == 0) {
+			return null;
+		}
+		int index = findFirstBucket();
+		SimEvent first = buckets[index];
+		unlink(index, null, first);
+
+		if (resizeEnabled) {
+			if (size < buckets.length >> 1 && buckets.length > MIN_BUCKETS) {
+				resize(buckets.length >> 1);
+			} else {
+				checkWidth();
+			}
+		}
+		return first;
+	}
+
+	@Override
+	public int pollSameTime(SimEvent[] buffer, int offset) {
+		if (size == 0) {
+			return 0;
+		}
+		// events with the same time are contiguous in the same bucket, so they are unlinked at once
+		int index = findFirstBucket();
+		SimEvent event = buckets[index];
+		double time = event.eventTime();
+		int count = 0;
+		while (event != null && offset + count < buffer.length && event.eventTime() == time) {
+			buffer[offset + count++] = event;
+			SimEvent next = event.queueNext;
+			event.queueNext = null;
+			event = next;
+		}
+		buckets[index] = event;
+		if (event == null) {
+			tails[index] = null;
+		}
+		size -= count;
+		modCount++;
+
+		if (resizeEnabled) {
+			if (size < buckets.length >> 1 && buckets.length > MIN_BUCKETS) {
+				resize(buckets.length >> 1);
+			} else {
+				checkWidth();
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public boolean remove(SimEvent event) {
+		int index = (int) (getVirtualBucket(event.eventTime()) & mask);
+		SimEvent previous = null;
+		SimEvent current = buckets[index];
+		while (current != null && current != event) {
+			previous = current;
+			current = current.queueNext;
+		}
+		if (current == null) {
+			return false;
+		}
+		unlink(index, previous, current);
+		return true;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void clear() {
+		for (int i = 0; i < buckets.length; i++) {
+			SimEvent event = buckets[i];
+			while (event != null) {
+				SimEvent next = event.queueNext;
+				event.queueNext = null;
+				event = next;
+			}
+			buckets[i] = null;
+			tails[i] = null;
+		}
+		size = 0;
+		modCount++;
+		lowerBound = 0;
+		currentBucket = 0;
+	}
+
+	@Override
+	public Iterator<SimEvent> iterator() {
+		return new CalendarIterator();
+	}
+
+	/**
+	 * Gets the current bucket width.
+	 *
+	 * @return the bucket width
+	 */
+	public double getWidth() {
+		return width;
+	}
+
+	/**
+	 * Gets the current number of buckets.
+	 *
+	 * @return the number of buckets
+	 */
+	public int getNumberOfBuckets() {
+		return buckets.length;
+	}
+
+	/**
+	 * Finds the bucket holding the first event and moves the calendar to it. The queue must not be
+	 * empty.
+	 *
+	 * @return the index of the bucket
+	 */
+	private int findFirstBucket() {
+		// scan one year of the calendar starting from the current day
+		long virtualBucket = currentBucket;
+		for (int i = 0; i < buckets.length; i++, virtualBucket++) {
+			steps++;
+			int index = (int) (virtualBucket & mask);
+			SimEvent head = buckets[index];
+			if (head != null && getVirtualBucket(head.eventTime()) == virtualBucket) {
+				currentBucket = virtualBucket;
+				lowerBound = head.eventTime();
+				return index;
+			}
+		}
+
+		// the next event is more than a year ahead: direct search among the bucket heads
+		int minIndex = -1;
+		SimEvent min = null;
+		steps += buckets.length;
+		for (int i = 0; i < buckets.length; i++) {
+			SimEvent head = buckets[i];
+			if (head != null && (min == null || head.compareTo(min) < 0)) {
+				min = head;
+				minIndex = i;
+			}
+		}
+		currentBucket = getVirtualBucket(min.eventTime());
+		lowerBound = min.eventTime();
+		return minIndex;
+	}
+
+	/**
+	 * Removes an event from a bucket list.
+	 *
+	 * @param index the bucket
+	 * @param previous the event before the removed one in the bucket, or null if it is the head
+	 * @param event the event to remove
+	 */
+	private void unlink(int index, SimEvent previous, SimEvent event) {
+		if (previous == null) {
+			buckets[index] = event.queueNext;
+		} else {
+			previous.queueNext = event.queueNext;
+		}
+		if (tails[index] == event) {
+			tails[index] = previous;
+		}
+		event.queueNext = null;
+		size--;
+		modCount++;
+	}
+
+	/**
+	 * Gets the virtual bucket number of a given time, i.e. the number of bucket widths from zero.
+	 *
+	 * @param time the time
+	 * @return the virtual bucket number
+	 */
+	private long getVirtualBucket(double time) {
+		return (long) Math.floor(time / width);
+	}
+
+	/**
+	 * Initialises an empty calendar.
+	 *
+	 * @param numberOfBuckets the number of buckets, a power of 2
+	 * @param width the bucket width
+	 * @param startTime the time the calendar starts from
+	 */
+	private void init(int numberOfBuckets, double width, double startTime) {
+		buckets = new SimEvent[numberOfBuckets];
+		tails = new SimEvent[numberOfBuckets];
+		mask = numberOfBuckets - 1;
+		this.width = width;
+		lowerBound = startTime;
+		currentBucket = getVirtualBucket(startTime);
+		size = 0;
+	}
+
+	/**
+	 * Re-estimates the bucket width when the operations performed since the last resize had to
+	 * skip too many events or buckets on average. A resize only happens when the queue size
+	 * doubles or halves, so without this check a steady-size queue keeps the width estimated on
+	 * a distribution of event times that may no longer hold.
+	 */
+	private void checkWidth() {
+		if (++operations < buckets.length) {
+			return;
+		}
+		if (steps > (long) operations * MAX_AVERAGE_STEPS) {
+			resize(buckets.length);
+		} else {
+			operations = 0;
+			steps = 0;
+		}
+	}
+
+	/**
+	 * Copies the events into a calendar with a new number of buckets. The bucket width is
+	 * re-estimated from the average separation of the first events of the queue, as proposed by
+	 * Brown.
+	 *
+	 * @param numberOfBuckets the new number of buckets
+	 */
+	private void resize(int numberOfBuckets) {
+		resizeEnabled = false;
+		double newWidth = estimateWidth();
+
+		SimEvent[] oldBuckets = buckets;
+		init(numberOfBuckets, newWidth, lowerBound);
+		for (SimEvent oldBucket : oldBuckets) {
+			SimEvent event = oldBucket;
+			while (event != null) {
+				SimEvent next = event.queueNext;
+				add(event);
+				event = next;
+			}
+		}
+		operations = 0;
+		steps = 0;
+		resizeEnabled = true;
+	}
+
+	/**
+	 * Estimates the bucket width as three times the average separation of the first distinct event
+	 * times of the queue, ignoring separations larger than twice the average. Events sent at the
+	 * same time always share a bucket, so they are not taken into account.
+	 *
+	 * @return the new bucket width
+	 */
+	private double estimateWidth() {
+		if (size < 2) {
+			return width;
+		}
+
+		double[] times = new double[WIDTH_SAMPLE_SIZE];
+		int distinct = 0;
+		SimEvent[] sampled = new SimEvent[WIDTH_SAMPLE_SIZE];
+		int samples = 0;
+		while (distinct < WIDTH_SAMPLE_SIZE && size > 0) {
+			SimEvent event = poll();
+			if (samples == sampled.length) {
+				sampled = Arrays.copyOf(sampled, samples << 1);
+			}
+			sampled[samples++] = event;
+			if (distinct == 0 || event.eventTime() > times[distinct - 1]) {
+				times[distinct++] = event.eventTime();
+			}
+		}
+		for (int i = 0; i < samples; i++) {
+			add(sampled[i]);
+		}
+		if (distinct < 2) {
+			return width;
+		}
+
+		double cutOff = (times[distinct - 1] - times[0]) / (distinct - 1) * 2;
+		double sum = 0;
+		int count = 0;
+		for (int i = 1; i < distinct; i++) {
+			double separation = times[i] - times[i - 1];
+			if (separation <= cutOff) {
+				sum += separation;
+				count++;
+			}
+		}
+		if (sum <= 0) {
+			return width;
+		}
+		return 3 * sum / count;
+	}
+
+	/**
+	 * Iterates over the buckets in index order.
+	 */
+	private class CalendarIterator implements Iterator<SimEvent> {
+
+		/** The bucket of the next event. */
+		private int bucket = -1;
+
+		/** The next event to return. */
+		private SimEvent next;
+
+		/** The bucket of the event returned last. */
+		private int lastBucket = -1;
+
+		/** The event returned last. */
+		private SimEvent last;
+
+		/** The event before the one returned last in its bucket. */
+		private SimEvent lastPrevious;
+
+		/** The event before the next one in its bucket. */
+		private SimEvent nextPrevious;
+
+		/** The expected modification count. */
+		private int expectedModCount = modCount;
+
+		/**
+		 * Instantiates a new calendar iterator.
+		 */
+		CalendarIterator() {
+			advanceBucket();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		@Override
+		public SimEvent next() {
+			if (expectedModCount != modCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (next == null) {
+				throw new NoSuchElementException();
+			}
+			last = next;
+			lastBucket = bucket;
+			lastPrevious = nextPrevious;
+
+			nextPrevious = next;
+			next = next.queueNext;
+			if (next == null) {
+				advanceBucket();
+			}
+			return last;
+		}
+
+		@Override
+		public void remove() {
+			if (last == null) {
+				throw new IllegalStateException();
+			}
+			if (expectedModCount != modCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (nextPrevious == last) {
+				nextPrevious = lastPrevious;
+			}
+			unlink(lastBucket, lastPrevious, last);
+			last = null;
+			expectedModCount = modCount;
+		}
+
+		/**
+		 * Moves the iterator to the head of the next non-empty bucket.
+		 */
+		private void advanceBucket() {
+			nextPrevious = null;
+			while (++bucket < buckets.length) {
+				if (buckets[bucket] != null) {
+					next = buckets[bucket];
+					return;
+				}
+			}
+			next = null;
+		}
+
+	}
+
+}
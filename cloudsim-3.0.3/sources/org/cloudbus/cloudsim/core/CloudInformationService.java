@@ -49,7 +49,21 @@ public class CloudInformationService extends SimEntity {
 	 * @post $none
 	 */
 	public CloudInformationService(String name) throws Exception {
-		super(name);
+		this(CloudSim.getSimulationContext(), name);
+	}
+
+	/**
+	 * Allocates a new CloudInformationService object in a given simulation context.
+	 * 
+	 * @param context the simulation context the entity belongs to
+	 * @param name the name to be associated with this entity (as required by SimEntity class)
+	 * @throws Exception This happens when this entity name is <tt>null</tt> or empty
+	 * @pre context != null
+	 * @pre name != null
+	 * @post $none
+	 */
+	public CloudInformationService(SimulationContext context, String name) throws Exception {
+		super(context, name);
 		resList = new LinkedList<Integer>();
 		arList = new LinkedList<Integer>();
 		gisList = new LinkedList<Integer>();
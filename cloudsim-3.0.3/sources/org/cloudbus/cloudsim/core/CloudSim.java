@@ -8,16 +8,9 @@
 
 package org.cloudbus.cloudsim.core;
 
-import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 
-import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.core.predicates.Predicate;
 import org.cloudbus.cloudsim.core.predicates.PredicateAny;
 import org.cloudbus.cloudsim.core.predicates.PredicateNone;
@@ -29,6 +22,12 @@ import org.cloudbus.cloudsim.core.predicates.PredicateNone;
  * network. Later, nodes in such file are mapped to CloudSim entities. Delay calculated from the
  * BRITE model are added to the messages send through CloudSim. Messages using the old model are
  * converted to the apropriate methods with the correct parameters.
+ * <p>
+ * The state of the simulation is held by a {@link SimulationContext}. The static methods of this
+ * class act on the context bound to the calling thread by
+ * {@link #setSimulationContext(SimulationContext)}, or on a default context if the thread has none.
+ * A context binds itself to the calling thread while it runs, so the entities of a simulation can
+ * use these methods even when several simulations run at the same time in different threads.
  * 
  * @author Rodrigo N. Calheiros
  * @author Anton Beloglazov
@@ -36,63 +35,80 @@ import org.cloudbus.cloudsim.core.predicates.PredicateNone;
  */
 public class CloudSim {
 
-	/** The Constant CLOUDSIM_VERSION_STRING. */
-	private static final String CLOUDSIM_VERSION_STRING = "3.0";
+	/** The future event queue engine backed by a {@link TreeSetEventQueue}. */
+	public static final int EVENT_QUEUE_TREE_SET = 0;
 
-	/** The id of CIS entity. */
-	private static int cisId = -1;
+	/** The future event queue engine backed by a {@link HeapEventQueue}. */
+	public static final int EVENT_QUEUE_HEAP = 1;
 
-	/** The id of CloudSimShutdown entity. */
-	@SuppressWarnings("unused")
-	private static int shutdownId = -1;
+	/** The future event queue engine backed by a {@link CalendarEventQueue}. */
+	public static final int EVENT_QUEUE_CALENDAR = 2;
 
-	/** The CIS object. */
-	private static CloudInformationService cis = null;
+	/** A standard predicate that matches any event. */
+	public final static PredicateAny SIM_ANY = new PredicateAny();
 
-	/** The Constant NOT_FOUND. */
-	private static final int NOT_FOUND = -1;
+	/** A standard predicate that does not match any events. */
+	public final static PredicateNone SIM_NONE = new PredicateNone();
 
-	/** The trace flag. */
-	@SuppressWarnings("unused")
-	private static boolean traceFlag = false;
+	/** The context used by the threads that have no context bound. */
+	private static final SimulationContext defaultContext = new SimulationContext();
 
-	/** The calendar. */
-	private static Calendar calendar = null;
+	/** The context bound to each thread. */
+	private static final ThreadLocal<SimulationContext> boundContext = new ThreadLocal<SimulationContext>();
 
-	/** The termination time. */
-	private static double terminateAt = -1;
+	/** Whether a context other than the default one has ever been bound to a thread. */
+	private static volatile boolean contextBound = false;
 
-	/** The minimal time between events. Events within shorter periods after the last event are discarded. */
-	private static double minTimeBetweenEvents = 0.1;
-	
 	/**
-	 * Initialises all the common attributes.
+	 * Gets the simulation context the static methods of this class act on, i.e. the context bound
+	 * to the calling thread, or the default context if none is bound.
 	 * 
-	 * @param _calendar the _calendar
-	 * @param _traceFlag the _trace flag
-	 * @param numUser number of users
-	 * @throws Exception This happens when creating this entity before initialising CloudSim package
-	 *             or this entity name is <tt>null</tt> or empty
-	 * @pre $none
-	 * @post $none
+	 * @return the simulation context
+	 */
+	public static SimulationContext getSimulationContext() {
+		if (contextBound) {
+			SimulationContext context = boundContext.get();
+			if (context != null) {
+				return context;
+			}
+		}
+		return defaultContext;
+	}
+
+	/**
+	 * Binds a simulation context to the calling thread. The static methods of this class called by
+	 * the thread then act on that context.
+	 * 
+	 * @param context the context, or <tt>null</tt> to use the default context
 	 */
-	private static void initCommonVariable(Calendar _calendar, boolean _traceFlag, int numUser)
-			throws Exception {
-		initialize();
-		// NOTE: the order for the below 3 lines are important
-		traceFlag = _traceFlag;
+	public static void setSimulationContext(SimulationContext context) {
+		bindSimulationContext(context);
+	}
 
-		// Set the current Wall clock time as the starting time of
-		// simulation
-		if (_calendar == null) {
-			calendar = Calendar.getInstance();
+	/**
+	 * Binds a simulation context to the calling thread. The default context is never bound, so the
+	 * simulations that only use the default context do not pay for the thread-local lookup.
+	 * 
+	 * @param context the context, or <tt>null</tt> to use the default context
+	 * @return the context that was bound to the thread before, or <tt>null</tt> if none was
+	 */
+	static SimulationContext bindSimulationContext(SimulationContext context) {
+		if (context == defaultContext) {
+			context = null;
+		}
+		if (!contextBound) {
+			if (context == null) {
+				return null;
+			}
+			contextBound = true;
+		}
+		SimulationContext previous = boundContext.get();
+		if (context == null) {
+			boundContext.remove();
 		} else {
-			calendar = _calendar;
+			boundContext.set(context);
 		}
-
-		// creates a CloudSimShutdown object
-		CloudSimShutdown shutdown = new CloudSimShutdown("CloudSimShutdown", numUser);
-		shutdownId = shutdown.getId();
+		return previous;
 	}
 
 	/**
@@ -117,21 +133,7 @@ public class CloudSim {
 	 * @post $none
 	 */
 	public static void init(int numUser, Calendar cal, boolean traceFlag) {
-		try {
-			initCommonVariable(cal, traceFlag, numUser);
-
-			// create a GIS object
-			cis = new CloudInformationService("CloudInformationService");
-
-			// set all the above entity IDs
-			cisId = cis.getId();
-		} catch (IllegalArgumentException s) {
-			Log.printLine("CloudSim.init(): The simulation has been terminated due to an unexpected error");
-			Log.printLine(s.getMessage());
-		} catch (Exception e) {
-			Log.printLine("CloudSim.init(): The simulation has been terminated due to an unexpected error");
-			Log.printLine(e.getMessage());
-		}
+		getSimulationContext().init(numUser, cal, traceFlag);
 	}
 
 	/**
@@ -158,16 +160,9 @@ public class CloudSim {
 	 * @post $none
 	 */
 	public static void init(int numUser, Calendar cal, boolean traceFlag, double periodBetweenEvents) {
-	    if (periodBetweenEvents <= 0) {
-		throw new IllegalArgumentException("The minimal time between events should be positive, but is:" + periodBetweenEvents);
-	    }
-	    
-	    init(numUser, cal, traceFlag);
-	    minTimeBetweenEvents = periodBetweenEvents;
+		getSimulationContext().init(numUser, cal, traceFlag, periodBetweenEvents);
 	}
-	
-	
-	
+
 	/**
 	 * Starts the execution of CloudSim simulation. It waits for complete execution of all entities,
 	 * i.e. until all entities threads reach non-RUNNABLE state or there are no more events in the
@@ -183,23 +178,7 @@ public class CloudSim {
 	 * @post $none
 	 */
 	public static double startSimulation() throws NullPointerException {
-		Log.printLine("Starting CloudSim version " + CLOUDSIM_VERSION_STRING);
-		try {
-			double clock = run();
-
-			// reset all static variables
-			cisId = -1;
-			shutdownId = -1;
-			cis = null;
-			calendar = null;
-			traceFlag = false;
-
-			return clock;
-		} catch (IllegalArgumentException e) {
-			e.printStackTrace();
-			throw new NullPointerException("CloudSim.startCloudSimulation() :"
-					+ " Error - you haven't initialized CloudSim.");
-		}
+		return getSimulationContext().startSimulation();
 	}
 
 	/**
@@ -215,12 +194,7 @@ public class CloudSim {
 	 * @post $none
 	 */
 	public static void stopSimulation() throws NullPointerException {
-		try {
-			runStop();
-		} catch (IllegalArgumentException e) {
-			throw new NullPointerException("CloudSim.stopCloudSimulation() : "
-					+ "Error - can't stop Cloud Simulation.");
-		}
+		getSimulationContext().stopSimulation();
 	}
 
 	/**
@@ -229,9 +203,7 @@ public class CloudSim {
 	 * @return true, if successful; false otherwise.
 	 */
 	public static boolean terminateSimulation() {
-		running = false;
-		printMessage("Simulation: Reached termination time.");
-		return true;
+		return getSimulationContext().terminateSimulation();
 	}
 
 	/**
@@ -241,21 +213,96 @@ public class CloudSim {
 	 * @return true, if successful otherwise.
 	 */
 	public static boolean terminateSimulation(double time) {
-		if (time <= clock) {
-			return false;
-		} else {
-			terminateAt = time;
-		}
-		return true;
+		return getSimulationContext().terminateSimulation(time);
 	}
 
-	
 	/**
 	 * Returns the minimum time between events. Events within shorter periods after the last event are discarded. 
 	 * @return the minimum time between events.
 	 */
 	public static double getMinTimeBetweenEvents() {
-	    return minTimeBetweenEvents;
+		return getSimulationContext().getMinTimeBetweenEvents();
+	}
+
+	/**
+	 * Sets the engine used to store the future events of the simulations initialised after this
+	 * call. The engine does not change the order in which events are processed: events are ordered
+	 * by time and events with the same time keep the order in which they were sent.
+	 * 
+	 * @param type one of {@link #EVENT_QUEUE_TREE_SET}, {@link #EVENT_QUEUE_HEAP} or
+	 *            {@link #EVENT_QUEUE_CALENDAR}
+	 */
+	public static void setEventQueueType(int type) {
+		getSimulationContext().setEventQueueType(type);
+	}
+
+	/**
+	 * Gets the engine used to store the future events.
+	 * 
+	 * @return the event queue type
+	 */
+	public static int getEventQueueType() {
+		return getSimulationContext().getEventQueueType();
+	}
+
+	/**
+	 * Sets whether the events with the same time are removed from the future queue in one batch
+	 * operation at each clock tick, instead of one by one. The batch buffer is reused between
+	 * ticks. The events are processed in the same order in both modes.
+	 * 
+	 * @param batch true to dispatch the events of a tick in one batch
+	 */
+	public static void setBatchDispatch(boolean batch) {
+		getSimulationContext().setBatchDispatch(batch);
+	}
+
+	/**
+	 * Checks if the events of a tick are removed from the future queue in one batch.
+	 * 
+	 * @return true, if the batch dispatch is enabled
+	 */
+	public static boolean isBatchDispatch() {
+		return getSimulationContext().isBatchDispatch();
+	}
+
+	/**
+	 * Sets whether an event delivered to an entity waiting for it is handed over as is, instead of
+	 * a copy of the event. The event is not used by the simulation once delivered, so the copy is
+	 * only needed by entities that modify the events they receive and expect the sender's event to
+	 * be unchanged.
+	 * 
+	 * @param zeroCopy true to deliver the events without copying them
+	 */
+	public static void setZeroCopyDelivery(boolean zeroCopy) {
+		getSimulationContext().setZeroCopyDelivery(zeroCopy);
+	}
+
+	/**
+	 * Checks if the delivered events are handed over without being copied.
+	 * 
+	 * @return true, if the zero-copy delivery is enabled
+	 */
+	public static boolean isZeroCopyDelivery() {
+		return getSimulationContext().isZeroCopyDelivery();
+	}
+
+	/**
+	 * Sets the pool used to recycle the events sent with its pooled tags, or <tt>null</tt> to
+	 * create a new event for every send.
+	 * 
+	 * @param pool the event pool
+	 */
+	public static void setEventPool(SimEventPool pool) {
+		getSimulationContext().setEventPool(pool);
+	}
+
+	/**
+	 * Gets the pool used to recycle the events.
+	 * 
+	 * @return the event pool, or <tt>null</tt> if the events are not recycled
+	 */
+	public static SimEventPool getEventPool() {
+		return getSimulationContext().getEventPool();
 	}
 
 	/**
@@ -268,13 +315,7 @@ public class CloudSim {
 	 * @post $none
 	 */
 	public static Calendar getSimulationCalendar() {
-		// make a new copy
-		Calendar clone = calendar;
-		if (calendar != null) {
-			clone = (Calendar) calendar.clone();
-		}
-
-		return clone;
+		return getSimulationContext().getSimulationCalendar();
 	}
 
 	/**
@@ -285,7 +326,7 @@ public class CloudSim {
 	 * @post $result >= -1
 	 */
 	public static int getCloudInfoServiceEntityId() {
-		return cisId;
+		return getSimulationContext().getCloudInfoServiceEntityId();
 	}
 
 	/**
@@ -298,78 +339,24 @@ public class CloudSim {
 	 * @post $none
 	 */
 	public static List<Integer> getCloudResourceList() {
-		if (cis == null) {
-			return null;
-		}
-
-		return cis.getList();
+		return getSimulationContext().getCloudResourceList();
 	}
 
-	// ======== SIMULATION METHODS ===============//
-
-	/** The entities. */
-	private static List<SimEntity> entities;
-
-	/** The future event queue. */
-	protected static FutureQueue future;
-
-	/** The deferred event queue. */
-	protected static DeferredQueue deferred;
-
-	/** The simulation clock. */
-	private static double clock;
-
-	/** Flag for checking if the simulation is running. */
-	private static boolean running;
-
-	/** The entities by name. */
-	private static Map<String, SimEntity> entitiesByName;
-
-	// The predicates used in entity wait methods
-	/** The wait predicates. */
-	private static Map<Integer, Predicate> waitPredicates;
-
-	/** The paused. */
-	private static boolean paused = false;
-
-	/** The pause at. */
-	private static long pauseAt = -1;
-
-	/** The abrupt terminate. */
-	private static boolean abruptTerminate = false;
-
 	/**
 	 * Initialise the simulation for stand alone simulations. This function should be called at the
 	 * start of the simulation.
 	 */
 	protected static void initialize() {
-		Log.printLine("Initialising...");
-		entities = new ArrayList<SimEntity>();
-		entitiesByName = new LinkedHashMap<String, SimEntity>();
-		future = new FutureQueue();
-		deferred = new DeferredQueue();
-		waitPredicates = new HashMap<Integer, Predicate>();
-		clock = 0;
-		running = false;
+		getSimulationContext().initialize();
 	}
 
-	// The two standard predicates
-
-	/** A standard predicate that matches any event. */
-	public final static PredicateAny SIM_ANY = new PredicateAny();
-
-	/** A standard predicate that does not match any events. */
-	public final static PredicateNone SIM_NONE = new PredicateNone();
-
-	// Public access methods
-
 	/**
 	 * Get the current simulation time.
 	 * 
 	 * @return the simulation time
 	 */
 	public static double clock() {
-		return clock;
+		return getSimulationContext().clock();
 	}
 
 	/**
@@ -378,7 +365,7 @@ public class CloudSim {
 	 * @return The number of entities
 	 */
 	public static int getNumEntities() {
-		return entities.size();
+		return getSimulationContext().getNumEntities();
 	}
 
 	/**
@@ -388,7 +375,7 @@ public class CloudSim {
 	 * @return The entity, or if it could not be found
 	 */
 	public static SimEntity getEntity(int id) {
-		return entities.get(id);
+		return getSimulationContext().getEntity(id);
 	}
 
 	/**
@@ -398,7 +385,7 @@ public class CloudSim {
 	 * @return The entity
 	 */
 	public static SimEntity getEntity(String name) {
-		return entitiesByName.get(name);
+		return getSimulationContext().getEntity(name);
 	}
 
 	/**
@@ -408,12 +395,7 @@ public class CloudSim {
 	 * @return The entity's unique id number
 	 */
 	public static int getEntityId(String name) {
-		SimEntity obj = entitiesByName.get(name);
-		if (obj == null) {
-			return NOT_FOUND;
-		} else {
-			return obj.getId();
-		}
+		return getSimulationContext().getEntityId(name);
 	}
 
 	/**
@@ -425,13 +407,7 @@ public class CloudSim {
 	 * @post $none
 	 */
 	public static String getEntityName(int entityID) {
-		try {
-			return getEntity(entityID).getName();
-		} catch (IllegalArgumentException e) {
-			return null;
-		} catch (Exception e) {
-			return null;
-		}
+		return getSimulationContext().getEntityName(entityID);
 	}
 
 	/**
@@ -443,10 +419,7 @@ public class CloudSim {
 	 * @post $none
 	 */
 	public static String getEntityName(Integer entityID) {
-		if (entityID != null) {
-			return getEntityName(entityID.intValue());
-		}
-		return null;
+		return getSimulationContext().getEntityName(entityID);
 	}
 
 	/**
@@ -455,15 +428,9 @@ public class CloudSim {
 	 * @return the entity iterator
 	 */
 	public static List<SimEntity> getEntityList() {
-		// create a new list to prevent the user from changing
-		// the list of entities used by Simulation
-		List<SimEntity> list = new LinkedList<SimEntity>();
-		list.addAll(entities);
-		return list;
+		return getSimulationContext().getEntityList();
 	}
 
-	// Public update methods
-
 	/**
 	 * Add a new entity to the simulation. This is present for compatibility with existing
 	 * simulations since entities are automatically added to the simulation upon instantiation.
@@ -471,18 +438,7 @@ public class CloudSim {
 	 * @param e The new entity
 	 */
 	public static void addEntity(SimEntity e) {
-		SimEvent evt;
-		if (running) {
-			// Post an event to make this entity
-			evt = new SimEvent(SimEvent.CREATE, clock, 1, 0, 0, e);
-			future.addEvent(evt);
-		}
-		if (e.getId() == -1) { // Only add once!
-			int id = entities.size();
-			e.setId(id);
-			entities.add(e);
-			entitiesByName.put(e.getName(), e);
-		}
+		getSimulationContext().addEntity(e);
 	}
 
 	/**
@@ -492,12 +448,7 @@ public class CloudSim {
 	 * @param e The new entity
 	 */
 	protected static void addEntityDynamically(SimEntity e) {
-		if (e == null) {
-			throw new IllegalArgumentException("Adding null entity.");
-		} else {
-			printMessage("Adding: " + e.getName());
-		}
-		e.startEntity();
+		getSimulationContext().addEntityDynamically(e);
 	}
 
 	/**
@@ -507,58 +458,51 @@ public class CloudSim {
 	 * @return true, if successful otherwise
 	 */
 	public static boolean runClockTick() {
-		SimEntity ent;
-		boolean queue_empty;
-		
-		int entities_size = entities.size();
-
-		for (int i = 0; i < entities_size; i++) {
-			ent = entities.get(i);
-			if (ent.getState() == SimEntity.RUNNABLE) {
-				ent.run();
-			}
-		}
-				
-		// If there are more future events then deal with them
-		if (future.size() > 0) {
-			List<SimEvent> toRemove = new ArrayList<SimEvent>();
-			Iterator<SimEvent> fit = future.iterator();
-			queue_empty = false;
-			SimEvent first = fit.next();
-			processEvent(first);
-			future.remove(first);
-
-			fit = future.iterator();
-
-			// Check if next events are at same time...
-			boolean trymore = fit.hasNext();
-			while (trymore) {
-				SimEvent next = fit.next();
-				if (next.eventTime() == first.eventTime()) {
-					processEvent(next);
-					toRemove.add(next);
-					trymore = fit.hasNext();
-				} else {
-					trymore = false;
-				}
-			}
+		return getSimulationContext().runClockTick();
+	}
 
-			future.removeAll(toRemove);
+	/**
+	 * Gets the number of future events processed by the last clock tick, i.e. the number of events
+	 * that shared the last timestamp.
+	 * 
+	 * @return the number of events of the last tick
+	 */
+	public static int getLastTickEventCount() {
+		return getSimulationContext().getLastTickEventCount();
+	}
 
-		} else {
-			queue_empty = true;
-			running = false;
-			printMessage("Simulation: No more future events");
-		}
+	/**
+	 * Gets the maximum number of future events processed by a single clock tick.
+	 * 
+	 * @return the maximum number of events per tick
+	 */
+	public static int getMaxTickEventCount() {
+		return getSimulationContext().getMaxTickEventCount();
+	}
 
-		return queue_empty;
+	/**
+	 * Gets the number of clock ticks that processed future events.
+	 * 
+	 * @return the number of ticks
+	 */
+	public static long getTickCount() {
+		return getSimulationContext().getTickCount();
+	}
+
+	/**
+	 * Gets the number of future events processed since the simulation was initialised.
+	 * 
+	 * @return the number of processed events
+	 */
+	public static long getProcessedEventCount() {
+		return getSimulationContext().getProcessedEventCount();
 	}
 
 	/**
 	 * Internal method used to stop the simulation. This method should <b>not</b> be used directly.
 	 */
 	public static void runStop() {
-		printMessage("Simulation completed.");
+		getSimulationContext().runStop();
 	}
 
 	/**
@@ -568,9 +512,7 @@ public class CloudSim {
 	 * @param delay the delay
 	 */
 	public static void hold(int src, long delay) {
-		SimEvent e = new SimEvent(SimEvent.HOLD_DONE, clock + delay, src);
-		future.addEvent(e);
-		entities.get(src).setState(SimEntity.HOLDING);
+		getSimulationContext().hold(src, delay);
 	}
 
 	/**
@@ -580,9 +522,7 @@ public class CloudSim {
 	 * @param delay the delay
 	 */
 	public static void pause(int src, double delay) {
-		SimEvent e = new SimEvent(SimEvent.HOLD_DONE, clock + delay, src);
-		future.addEvent(e);
-		entities.get(src).setState(SimEntity.HOLDING);
+		getSimulationContext().pause(src, delay);
 	}
 
 	/**
@@ -595,12 +535,7 @@ public class CloudSim {
 	 * @param data the data
 	 */
 	public static void send(int src, int dest, double delay, int tag, Object data) {
-		if (delay < 0) {
-			throw new IllegalArgumentException("Send delay can't be negative.");
-		}
-
-		SimEvent e = new SimEvent(SimEvent.SEND, clock + delay, src, dest, tag, data);
-		future.addEvent(e);
+		getSimulationContext().send(src, dest, delay, tag, data);
 	}
 
 	/**
@@ -613,12 +548,7 @@ public class CloudSim {
 	 * @param data the data
 	 */
 	public static void sendFirst(int src, int dest, double delay, int tag, Object data) {
-		if (delay < 0) {
-			throw new IllegalArgumentException("Send delay can't be negative.");
-		}
-
-		SimEvent e = new SimEvent(SimEvent.SEND, clock + delay, src, dest, tag, data);
-		future.addEventFirst(e);
+		getSimulationContext().sendFirst(src, dest, delay, tag, data);
 	}
 
 	/**
@@ -630,11 +560,7 @@ public class CloudSim {
 	 * @param p the p
 	 */
 	public static void wait(int src, Predicate p) {
-		entities.get(src).setState(SimEntity.WAITING);
-		if (p != SIM_ANY) {
-			// If a predicate has been used store it in order to check it
-			waitPredicates.put(src, p);
-		}
+		getSimulationContext().wait(src, p);
 	}
 
 	/**
@@ -645,16 +571,7 @@ public class CloudSim {
 	 * @return the int
 	 */
 	public static int waiting(int d, Predicate p) {
-		int count = 0;
-		SimEvent event;
-		Iterator<SimEvent> iterator = deferred.iterator();
-		while (iterator.hasNext()) {
-			event = iterator.next();
-			if ((event.getDestination() == d) && (p.match(event))) {
-				count++;
-			}
-		}
-		return count;
+		return getSimulationContext().waiting(d, p);
 	}
 
 	/**
@@ -662,19 +579,10 @@ public class CloudSim {
 	 * 
 	 * @param src the src
 	 * @param p the p
-	 * @return the sim event
+	 * @return the sim event, or <tt>null</tt> if no deferred event matches
 	 */
 	public static SimEvent select(int src, Predicate p) {
-		SimEvent ev = null;
-		Iterator<SimEvent> iterator = deferred.iterator();
-		while (iterator.hasNext()) {
-			ev = iterator.next();
-			if (ev.getDestination() == src && p.match(ev)) {
-				iterator.remove();
-				break;
-			}
-		}
-		return ev;
+		return getSimulationContext().select(src, p);
 	}
 
 	/**
@@ -682,18 +590,10 @@ public class CloudSim {
 	 * 
 	 * @param src the src
 	 * @param p the p
-	 * @return the sim event
+	 * @return the sim event, or <tt>null</tt> if no deferred event matches
 	 */
 	public static SimEvent findFirstDeferred(int src, Predicate p) {
-		SimEvent ev = null;
-		Iterator<SimEvent> iterator = deferred.iterator();
-		while (iterator.hasNext()) {
-			ev = iterator.next();
-			if (ev.getDestination() == src && p.match(ev)) {
-				break;
-			}
-		}
-		return ev;
+		return getSimulationContext().findFirstDeferred(src, p);
 	}
 
 	/**
@@ -704,17 +604,7 @@ public class CloudSim {
 	 * @return the sim event
 	 */
 	public static SimEvent cancel(int src, Predicate p) {
-		SimEvent ev = null;
-		Iterator<SimEvent> iter = future.iterator();
-		while (iter.hasNext()) {
-			ev = iter.next();
-			if (ev.getSource() == src && p.match(ev)) {
-				iter.remove();
-				break;
-			}
-		}
-
-		return ev;
+		return getSimulationContext().cancel(src, p);
 	}
 
 	/**
@@ -726,82 +616,20 @@ public class CloudSim {
 	 * @return true, if successful
 	 */
 	public static boolean cancelAll(int src, Predicate p) {
-		SimEvent ev = null;
-		int previousSize = future.size();
-		Iterator<SimEvent> iter = future.iterator();
-		while (iter.hasNext()) {
-			ev = iter.next();
-			if (ev.getSource() == src && p.match(ev)) {
-				iter.remove();
-			}
-		}
-		return previousSize < future.size();
+		return getSimulationContext().cancelAll(src, p);
 	}
 
-	//
-	// Private internal methods
-	//
-
 	/**
-	 * Processes an event.
+	 * Removes all the events sent by an entity with a given tag from the future event queue,
+	 * without scanning the queue once the tag is indexed.
 	 * 
-	 * @param e the e
+	 * @param src the src
+	 * @param tag the tag
+	 * @return true, if at least one event has been cancelled
+	 * @see SimulationContext#cancelAll(int, int)
 	 */
-	private static void processEvent(SimEvent e) {
-		int dest, src;
-		SimEntity dest_ent;
-		// Update the system's clock
-		if (e.eventTime() < clock) {
-			throw new IllegalArgumentException("Past event detected.");
-		}
-		clock = e.eventTime();
-
-		// Ok now process it
-		switch (e.getType()) {
-			case SimEvent.ENULL:
-				throw new IllegalArgumentException("Event has a null type.");
-
-			case SimEvent.CREATE:
-				SimEntity newe = (SimEntity) e.getData();
-				addEntityDynamically(newe);
-				break;
-
-			case SimEvent.SEND:
-				// Check for matching wait
-				dest = e.getDestination();
-				if (dest < 0) {
-					throw new IllegalArgumentException("Attempt to send to a null entity detected.");
-				} else {
-					int tag = e.getTag();
-					dest_ent = entities.get(dest);
-					if (dest_ent.getState() == SimEntity.WAITING) {
-						Integer destObj = Integer.valueOf(dest);
-						Predicate p = waitPredicates.get(destObj);
-						if ((p == null) || (tag == 9999) || (p.match(e))) {
-							dest_ent.setEventBuffer((SimEvent) e.clone());
-							dest_ent.setState(SimEntity.RUNNABLE);
-							waitPredicates.remove(destObj);
-						} else {
-							deferred.addEvent(e);
-						}
-					} else {
-						deferred.addEvent(e);
-					}
-				}
-				break;
-
-			case SimEvent.HOLD_DONE:
-				src = e.getSource();
-				if (src < 0) {
-					throw new IllegalArgumentException("Null entity holding.");
-				} else {
-					entities.get(src).setState(SimEntity.RUNNABLE);
-				}
-				break;
-
-			default:
-				break;
-		}
+	public static boolean cancelAll(int src, int tag) {
+		return getSimulationContext().cancelAll(src, tag);
 	}
 
 	/**
@@ -809,13 +637,7 @@ public class CloudSim {
 	 * simulations.
 	 */
 	public static void runStart() {
-		running = true;
-		// Start all the entities
-		for (SimEntity ent : entities) {
-			ent.startEntity();
-		}
-
-		printMessage("Entities started.");
+		getSimulationContext().runStart();
 	}
 
 	/**
@@ -825,7 +647,7 @@ public class CloudSim {
 	 * @return if the simulation is still running, otherwise
 	 */
 	public static boolean running() {
-		return running;
+		return getSimulationContext().running();
 	}
 
 	/**
@@ -834,8 +656,7 @@ public class CloudSim {
 	 * @return true, if successful otherwise.
 	 */
 	public static boolean pauseSimulation() {
-		paused = true;
-		return paused;
+		return getSimulationContext().pauseSimulation();
 	}
 
 	/**
@@ -845,12 +666,7 @@ public class CloudSim {
 	 * @return true, if successful otherwise.
 	 */
 	public static boolean pauseSimulation(long time) {
-		if (time <= clock) {
-			return false;
-		} else {
-			pauseAt = time;
-		}
-		return true;
+		return getSimulationContext().pauseSimulation(time);
 	}
 
 	/**
@@ -859,13 +675,7 @@ public class CloudSim {
 	 * @return if the simulation has been restarted or or otherwise.
 	 */
 	public static boolean resumeSimulation() {
-		paused = false;
-
-		if (pauseAt <= clock) {
-			pauseAt = -1;
-		}
-
-		return !paused;
+		return getSimulationContext().resumeSimulation();
 	}
 
 	/**
@@ -875,43 +685,7 @@ public class CloudSim {
 	 * @return the double last clock value
 	 */
 	public static double run() {
-		if (!running) {
-			runStart();
-		}
-		while (true) {
-			if (runClockTick() || abruptTerminate) {
-				break;
-			}
-
-			// this block allows termination of simulation at a specific time
-			if (terminateAt > 0.0 && clock >= terminateAt) {
-				terminateSimulation();
-				clock = terminateAt;
-				break;
-			}
-
-			if (pauseAt != -1
-					&& ((future.size() > 0 && clock <= pauseAt && pauseAt <= future.iterator().next()
-							.eventTime()) || future.size() == 0 && pauseAt <= clock)) {
-				pauseSimulation();
-				clock = pauseAt;
-			}
-
-			while (paused) {
-				try {
-					Thread.sleep(100);
-				} catch (InterruptedException e) {
-					e.printStackTrace();
-				}
-			}
-		}
-
-		double clock = clock();
-
-		finishSimulation();
-		runStop();
-
-		return clock;
+		return getSimulationContext().run();
 	}
 
 	/**
@@ -919,48 +693,14 @@ public class CloudSim {
 	 * in user simulations.
 	 */
 	public static void finishSimulation() {
-		// Allow all entities to exit their body method
-		if (!abruptTerminate) {
-			for (SimEntity ent : entities) {
-				if (ent.getState() != SimEntity.FINISHED) {
-					ent.run();
-				}
-			}
-		}
-
-		for (SimEntity ent : entities) {
-			ent.shutdownEntity();
-		}
-
-		// reset all static variables
-		// Private data members
-		entities = null;
-		entitiesByName = null;
-		future = null;
-		deferred = null;
-		clock = 0L;
-		running = false;
-
-		waitPredicates = null;
-		paused = false;
-		pauseAt = -1;
-		abruptTerminate = false;
+		getSimulationContext().finishSimulation();
 	}
 
 	/**
 	 * Abruptally terminate.
 	 */
 	public static void abruptallyTerminate() {
-		abruptTerminate = true;
-	}
-
-	/**
-	 * Prints a message about the progress of the simulation.
-	 * 
-	 * @param message the message
-	 */
-	private static void printMessage(String message) {
-		Log.printLine(message);
+		getSimulationContext().abruptallyTerminate();
 	}
 
 	/**
@@ -969,7 +709,7 @@ public class CloudSim {
 	 * @return true, if is paused
 	 */
 	public static boolean isPaused() {
-		return paused;
+		return getSimulationContext().isPaused();
 	}
 
 }
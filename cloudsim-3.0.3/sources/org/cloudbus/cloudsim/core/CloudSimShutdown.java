@@ -43,9 +43,25 @@ public class CloudSimShutdown extends SimEntity {
 	 * @post $none
 	 */
 	public CloudSimShutdown(String name, int numUser) throws Exception {
+		this(CloudSim.getSimulationContext(), name, numUser);
+	}
+
+	/**
+	 * Allocates a new CloudSimShutdown object in a given simulation context.
+	 * 
+	 * @param context the simulation context the entity belongs to
+	 * @param name the name to be associated with this entity (as required by SimEntity class)
+	 * @param numUser total number of grid user entity
+	 * @throws Exception This happens when this entity name is <tt>null</tt> or empty
+	 * @pre context != null
+	 * @pre name != null
+	 * @pre numUser >= 0
+	 * @post $none
+	 */
+	public CloudSimShutdown(SimulationContext context, String name, int numUser) throws Exception {
 		// NOTE: This entity doesn't use any I/O port.
 		// super(name, CloudSimTags.DEFAULT_BAUD_RATE);
-		super(name);
+		super(context, name);
 		this.numUser = numUser;
 	}
 
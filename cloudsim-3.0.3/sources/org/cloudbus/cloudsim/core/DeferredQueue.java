@@ -8,14 +8,27 @@
 
 package org.cloudbus.cloudsim.core;
 
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
-import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+import org.cloudbus.cloudsim.core.predicates.PredicateAny;
+import org.cloudbus.cloudsim.core.predicates.PredicateFrom;
+import org.cloudbus.cloudsim.core.predicates.PredicateNone;
+import org.cloudbus.cloudsim.core.predicates.PredicateType;
 
 /**
- * This class implements the deferred event queue used by {@link Simulation}. The event queue uses a
- * linked list to store the events.
+ * This class implements the deferred event queue used by {@link Simulation}. The events are
+ * bucketed by destination entity, each bucket being a linked list that keeps the temporal order of
+ * the events sent to that entity. Looking up the events of an entity therefore only visits the
+ * events sent to it. Each bucket also counts its events by tag and by source, so that lookups with
+ * a {@link PredicateType} or a {@link PredicateFrom} that have no matching event return without
+ * scanning the bucket.
  * 
  * @author Marcos Dias de Assuncao
  * @since CloudSim Toolkit 1.0
@@ -24,49 +37,130 @@ import java.util.ListIterator;
  */
 public class DeferredQueue {
 
-	/** The list. */
-	private final List<SimEvent> list = new LinkedList<SimEvent>();
+	/** The buckets, indexed by destination entity id. */
+	private Bucket[] buckets = new Bucket[16];
 
-	/** The max time. */
-	private double maxTime = -1;
+	/** The number of events in the queue. */
+	private int size = 0;
 
 	/**
 	 * Adds a new event to the queue. Adding a new event to the queue preserves the temporal order
-	 * of the events.
+	 * of the events sent to the same entity.
 	 * 
 	 * @param newEvent The event to be added to the queue.
 	 */
 	public void addEvent(SimEvent newEvent) {
-		// The event has to be inserted as the last of all events
-		// with the same event_time(). Yes, this matters.
-		double eventTime = newEvent.eventTime();
-		if (eventTime >= maxTime) {
-			list.add(newEvent);
-			maxTime = eventTime;
-			return;
+		getBucket(newEvent.getDestination(), true).add(newEvent);
+		size++;
+	}
+
+	/**
+	 * Counts the events sent to an entity that match a predicate.
+	 * 
+	 * @param destination the id of the destination entity
+	 * @param p the predicate
+	 * @return the number of matching events
+	 */
+	public int count(int destination, Predicate p) {
+		Bucket bucket = getBucket(destination, false);
+		if (bucket == null || bucket.events.isEmpty() || p instanceof PredicateNone) {
+			return 0;
+		}
+		if (p instanceof PredicateAny) {
+			return bucket.events.size();
+		}
+		if (p instanceof PredicateType) {
+			PredicateType type = (PredicateType) p;
+			int count = 0;
+			for (int i = 0; i < type.getNumberOfTags(); i++) {
+				if (!repeated(type.getTag(i), type, i)) {
+					count += Bucket.get(bucket.tagCounts, type.getTag(i));
+				}
+			}
+			return count;
+		}
+		if (p instanceof PredicateFrom) {
+			PredicateFrom from = (PredicateFrom) p;
+			int count = 0;
+			for (int i = 0; i < from.getNumberOfSources(); i++) {
+				if (!repeated(from.getSourceId(i), from, i)) {
+					count += Bucket.get(bucket.sourceCounts, from.getSourceId(i));
+				}
+			}
+			return count;
+		}
+
+		int count = 0;
+		for (SimEvent event : bucket.events) {
+			if (p.match(event)) {
+				count++;
+			}
 		}
+		return count;
+	}
 
-		ListIterator<SimEvent> iterator = list.listIterator();
-		SimEvent event;
+	/**
+	 * Removes the first event sent to an entity that matches a predicate.
+	 * 
+	 * @param destination the id of the destination entity
+	 * @param p the predicate
+	 * @return the removed event, or <tt>null</tt> if no event matches
+	 */
+	public SimEvent select(int destination, Predicate p) {
+		Bucket bucket = getBucket(destination, false);
+		if (bucket == null || !mayMatch(bucket, p)) {
+			return null;
+		}
+		if (p instanceof PredicateAny) {
+			size--;
+			return bucket.removeFirst();
+		}
+
+		ListIterator<SimEvent> iterator = bucket.events.listIterator();
 		while (iterator.hasNext()) {
-			event = iterator.next();
-			if (event.eventTime() > eventTime) {
-				iterator.previous();
-				iterator.add(newEvent);
-				return;
+			SimEvent event = iterator.next();
+			if (p.match(event)) {
+				iterator.remove();
+				bucket.removed(event);
+				size--;
+				return event;
 			}
 		}
+		return null;
+	}
+
+	/**
+	 * Finds the first event sent to an entity that matches a predicate, without removing it.
+	 * 
+	 * @param destination the id of the destination entity
+	 * @param p the predicate
+	 * @return the event, or <tt>null</tt> if no event matches
+	 */
+	public SimEvent findFirst(int destination, Predicate p) {
+		Bucket bucket = getBucket(destination, false);
+		if (bucket == null || !mayMatch(bucket, p)) {
+			return null;
+		}
+		if (p instanceof PredicateAny) {
+			return bucket.events.getFirst();
+		}
 
-		list.add(newEvent);
+		for (SimEvent event : bucket.events) {
+			if (p.match(event)) {
+				return event;
+			}
+		}
+		return null;
 	}
 
 	/**
-	 * Returns an iterator to the events in the queue.
+	 * Returns an iterator to the events in the queue. The events are returned bucket by bucket,
+	 * i.e. in temporal order for each destination entity.
 	 * 
 	 * @return the iterator
 	 */
 	public Iterator<SimEvent> iterator() {
-		return list.iterator();
+		return new DeferredIterator();
 	}
 
 	/**
@@ -75,14 +169,258 @@ public class DeferredQueue {
 	 * @return the number of events in the queue.
 	 */
 	public int size() {
-		return list.size();
+		return size;
 	}
 
 	/**
 	 * Clears the queue.
 	 */
 	public void clear() {
-		list.clear();
+		Arrays.fill(buckets, null);
+		size = 0;
+	}
+
+	/**
+	 * Checks whether a bucket may hold an event matching a predicate, using the tag and source
+	 * counts of the bucket for the predicates that are based on them.
+	 * 
+	 * @param bucket the bucket
+	 * @param p the predicate
+	 * @return false if no event of the bucket matches; true if some may match
+	 */
+	private boolean mayMatch(Bucket bucket, Predicate p) {
+		if (bucket.events.isEmpty() || p instanceof PredicateNone) {
+			return false;
+		}
+		if (p instanceof PredicateType) {
+			PredicateType type = (PredicateType) p;
+			for (int i = 0; i < type.getNumberOfTags(); i++) {
+				if (Bucket.get(bucket.tagCounts, type.getTag(i)) > 0) {
+					return true;
+				}
+			}
+			return false;
+		}
+		if (p instanceof PredicateFrom) {
+			PredicateFrom from = (PredicateFrom) p;
+			for (int i = 0; i < from.getNumberOfSources(); i++) {
+				if (Bucket.get(bucket.sourceCounts, from.getSourceId(i)) > 0) {
+					return true;
+				}
+			}
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Checks whether a tag or source id of a predicate also appears before a given index, so that
+	 * the events with that value are counted only once.
+	 * 
+	 * @param value the tag or source id
+	 * @param p a {@link PredicateType} or a {@link PredicateFrom}
+	 * @param index the index of the value
+	 * @return true, if the value appears before the index
+	 */
+	private static boolean repeated(int value, Predicate p, int index) {
+		for (int i = 0; i < index; i++) {
+			int other;
+			if (p instanceof PredicateType) {
+				other = ((PredicateType) p).getTag(i);
+			} else {
+				other = ((PredicateFrom) p).getSourceId(i);
+			}
+			if (other == value) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Gets the bucket of a destination entity.
+	 * 
+	 * @param destination the id of the destination entity
+	 * @param create whether to create the bucket if it does not exist
+	 * @return the bucket, or <tt>null</tt> if it does not exist and is not created
+	 */
+	private Bucket getBucket(int destination, boolean create) {
+		if (destination < 0) {
+			throw new IllegalArgumentException("Invalid destination entity: " + destination);
+		}
+		if (destination >= buckets.length) {
+			if (!create) {
+				return null;
+			}
+			buckets = Arrays.copyOf(buckets, Math.max(buckets.length << 1, destination + 1));
+		}
+		Bucket bucket = buckets[destination];
+		if (bucket == null && create) {
+			bucket = new Bucket();
+			buckets[destination] = bucket;
+		}
+		return bucket;
+	}
+
+	/**
+	 * The events sent to one entity, in temporal order.
+	 */
+	private static class Bucket {
+
+		/** The events. */
+		private final LinkedList<SimEvent> events = new LinkedList<SimEvent>();
+
+		/** The number of events by tag. */
+		private final Map<Integer, int[]> tagCounts = new HashMap<Integer, int[]>();
+
+		/** The number of events by source entity. */
+		private final Map<Integer, int[]> sourceCounts = new HashMap<Integer, int[]>();
+
+		/** The max time. */
+		private double maxTime = -1;
+
+		/**
+		 * Adds an event after all the events of the bucket with the same or an earlier time.
+		 * 
+		 * @param newEvent the event
+		 */
+		void add(SimEvent newEvent) {
+			increment(tagCounts, newEvent.getTag(), 1);
+			increment(sourceCounts, newEvent.getSource(), 1);
+
+			// The event has to be inserted as the last of all events
+			// with the same event_time(). Yes, this matters.
+			double eventTime = newEvent.eventTime();
+			if (eventTime >= maxTime) {
+				events.add(newEvent);
+				maxTime = eventTime;
+				return;
+			}
+
+			ListIterator<SimEvent> iterator = events.listIterator();
+			SimEvent event;
+			while (iterator.hasNext()) {
+				event = iterator.next();
+				if (event.eventTime() > eventTime) {
+					iterator.previous();
+					iterator.add(newEvent);
+					return;
+				}
+			}
+
+			events.add(newEvent);
+		}
+
+		/**
+		 * Removes the first event of the bucket.
+		 * 
+		 * @return the event
+		 */
+		SimEvent removeFirst() {
+			SimEvent event = events.removeFirst();
+			removed(event);
+			return event;
+		}
+
+		/**
+		 * Updates the counts after an event has been removed from the bucket.
+		 * 
+		 * @param event the removed event
+		 */
+		void removed(SimEvent event) {
+			increment(tagCounts, event.getTag(), -1);
+			increment(sourceCounts, event.getSource(), -1);
+		}
+
+		/**
+		 * Gets a count.
+		 * 
+		 * @param counts the counts
+		 * @param key the key
+		 * @return the count
+		 */
+		static int get(Map<Integer, int[]> counts, int key) {
+			int[] count = counts.get(key);
+			if (count == null) {
+				return 0;
+			}
+			return count[0];
+		}
+
+		/**
+		 * Adds a value to a count.
+		 * 
+		 * @param counts the counts
+		 * @param key the key
+		 * @param value the value to add
+		 */
+		static void increment(Map<Integer, int[]> counts, int key, int value) {
+			int[] count = counts.get(key);
+			if (count == null) {
+				count = new int[1];
+				counts.put(key, count);
+			}
+			count[0] += value;
+		}
+
+	}
+
+	/**
+	 * Iterates over the buckets in entity id order.
+	 */
+	private class DeferredIterator implements Iterator<SimEvent> {
+
+		/** The index of the current bucket. */
+		private int bucketIndex = -1;
+
+		/** The iterator of the current bucket. */
+		private Iterator<SimEvent> current;
+
+		/** The bucket of the event returned last. */
+		private Bucket lastBucket;
+
+		/** The iterator of the event returned last. */
+		private Iterator<SimEvent> lastIterator;
+
+		/** The event returned last. */
+		private SimEvent last;
+
+		@Override
+		public boolean hasNext() {
+			while (current == null || !current.hasNext()) {
+				if (++bucketIndex >= buckets.length) {
+					bucketIndex = buckets.length;
+					return false;
+				}
+				if (buckets[bucketIndex] != null) {
+					current = buckets[bucketIndex].events.iterator();
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public SimEvent next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			lastBucket = buckets[bucketIndex];
+			lastIterator = current;
+			last = current.next();
+			return last;
+		}
+
+		@Override
+		public void remove() {
+			if (last == null) {
+				throw new IllegalStateException();
+			}
+			lastIterator.remove();
+			lastBucket.removed(last);
+			size--;
+			last = null;
+		}
+
 	}
 
-}
\ No newline at end of file
+}
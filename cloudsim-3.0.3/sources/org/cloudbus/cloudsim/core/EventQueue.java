@@ -0,0 +1,87 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Iterator;
+
+/**
+ * This interface defines the storage engine behind the {@link FutureQueue}. Implementations keep
+ * the events ordered by {@link SimEvent#compareTo(SimEvent)}, i.e. by event time and, for events
+ * with the same time, by the serial number assigned by the future queue. This keeps events with
+ * the same timestamp in FIFO order regardless of the engine used.
+ *
+ * @since CloudSim Toolkit 3.0.3
+ * @see FutureQueue
+ * @see TreeSetEventQueue
+ * @see HeapEventQueue
+ * @see CalendarEventQueue
+ */
+public interface EventQueue extends Iterable<SimEvent> {
+
+	/**
+	 * Adds an event to the queue.
+	 *
+	 * @param event the event
+	 */
+	void add(SimEvent event);
+
+	/**
+	 * Returns the first event of the queue without removing it.
+	 *
+	 * @return the first event, or <tt>null</tt> if the queue is empty
+	 */
+	SimEvent peek();
+
+	/**
+	 * Removes and returns the first event of the queue.
+	 *
+	 * @return the first event, or <tt>null</tt> if the queue is empty
+	 */
+	SimEvent poll();
+
+	/**
+	 * Removes the first event of the queue and the events that follow it with the same time, in
+	 * order, as long as they fit in a buffer.
+	 *
+	 * @param buffer the buffer to put the events in
+	 * @param offset the position of the buffer where the first event is put
+	 * @return the number of events put in the buffer
+	 */
+	int pollSameTime(SimEvent[] buffer, int offset);
+
+	/**
+	 * Removes an event from the queue.
+	 *
+	 * @param event the event
+	 * @return true, if the event was in the queue
+	 */
+	boolean remove(SimEvent event);
+
+	/**
+	 * Returns the number of events in the queue.
+	 *
+	 * @return the size
+	 */
+	int size();
+
+	/**
+	 * Removes all the events from the queue.
+	 */
+	void clear();
+
+	/**
+	 * Returns an iterator over the events in the queue. The iteration order is only guaranteed to
+	 * be the temporal order for {@link TreeSetEventQueue}. The iterator supports removal.
+	 *
+	 * @return the iterator
+	 */
+	@Override
+	Iterator<SimEvent> iterator();
+
+}
@@ -8,28 +8,72 @@
 
 package org.cloudbus.cloudsim.core;
 
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
-import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.Map;
+import java.util.Set;
 
 /**
- * This class implements the future event queue used by {@link Simulation}. The event queue uses a
- * {@link TreeSet} in order to store the events.
+ * This class implements the future event queue used by {@link Simulation}. The events are stored
+ * in an {@link EventQueue} engine, which by default is a {@link TreeSetEventQueue}.
+ * <p>
+ * The pending events of some tags can also be indexed by source and tag, so that they can be
+ * removed by {@link #removeAll(int, int)} without scanning the queue.
  * 
  * @author Marcos Dias de Assuncao
  * @since CloudSim Toolkit 1.0
  * @see Simulation
- * @see java.util.TreeSet
+ * @see EventQueue
  */
 public class FutureQueue {
 
-	/** The sorted set. */
-	private final SortedSet<SimEvent> sortedSet = new TreeSet<SimEvent>();
+	/** The event queue engine. */
+	private final EventQueue queue;
 
 	/** The serial. */
 	private long serial = 0;
 
+	/**
+	 * The serial of the next event added first. It counts up from the smallest long, so the events
+	 * added first come before the other events of their time, in the order they were added.
+	 */
+	private long firstSerial = Long.MIN_VALUE;
+
+	/** The buffer reused to hand out the events with the same time. */
+	private SimEvent[] batch = new SimEvent[16];
+
+	/** The number of events in the batch buffer. */
+	private int batchSize = 0;
+
+	/** The tags of the events indexed by source and tag. */
+	private final BitSet indexedTags = new BitSet();
+
+	/** The pending events of the indexed tags, by source and tag. */
+	private final Map<Long, Set<SimEvent>> index = new HashMap<Long, Set<SimEvent>>();
+
+	/**
+	 * Creates a future queue backed by a {@link TreeSetEventQueue}.
+	 */
+	public FutureQueue() {
+		this(new TreeSetEventQueue());
+	}
+
+	/**
+	 * Creates a future queue backed by a given event queue engine.
+	 * 
+	 * @param queue the event queue engine
+	 */
+	public FutureQueue(EventQueue queue) {
+		if (queue == null) {
+			throw new IllegalArgumentException("The event queue can't be null.");
+		}
+		this.queue = queue;
+	}
+
 	/**
 	 * Add a new event to the queue. Adding a new event to the queue preserves the temporal order of
 	 * the events in the queue.
@@ -38,26 +82,118 @@ public class FutureQueue {
 	 */
 	public void addEvent(SimEvent newEvent) {
 		newEvent.setSerial(serial++);
-		sortedSet.add(newEvent);
+		queue.add(newEvent);
+		addToIndex(newEvent);
 	}
 
 	/**
-	 * Add a new event to the head of the queue.
+	 * Add a new event to the head of the queue, i.e. before the events with the same time added by
+	 * {@link #addEvent(SimEvent)}. No two events share a serial, so every engine returns the events
+	 * with the same time in the same order.
 	 * 
 	 * @param newEvent The event to be put in the queue.
 	 */
 	public void addEventFirst(SimEvent newEvent) {
-		newEvent.setSerial(0);
-		sortedSet.add(newEvent);
+		newEvent.setSerial(firstSerial++);
+		queue.add(newEvent);
+		addToIndex(newEvent);
+	}
+
+	/**
+	 * Returns the first event of the queue without removing it.
+	 * 
+	 * @return the first event, or <tt>null</tt> if the queue is empty
+	 */
+	public SimEvent first() {
+		return queue.peek();
 	}
 
 	/**
-	 * Returns an iterator to the queue.
+	 * Removes and returns the first event of the queue.
+	 * 
+	 * @return the first event, or <tt>null</tt> if the queue is empty
+	 */
+	public SimEvent poll() {
+		SimEvent event = queue.poll();
+		if (event != null) {
+			removeFromIndex(event);
+		}
+		return event;
+	}
+
+	/**
+	 * Removes the first event of the queue and all the events with the same time in one operation.
+	 * The events are then available through {@link #getBatchEvent(int)} until the next call. The
+	 * batch buffer is reused, so no memory is allocated once it has grown to the largest number of
+	 * events sharing a timestamp.
+	 * 
+	 * @return the number of events removed
+	 */
+	public int pollBatch() {
+		for (int i = 0; i < batchSize; i++) {
+			batch[i] = null;
+		}
+		batchSize = queue.pollSameTime(batch, 0);
+		while (batchSize == batch.length) {
+			SimEvent next = queue.peek();
+			if (next == null || next.eventTime() != batch[0].eventTime()) {
+				break;
+			}
+			batch = Arrays.copyOf(batch, batch.length << 1);
+			batchSize += queue.pollSameTime(batch, batchSize);
+		}
+		if (!indexedTags.isEmpty()) {
+			for (int i = 0; i < batchSize; i++) {
+				removeFromIndex(batch[i]);
+			}
+		}
+		return batchSize;
+	}
+
+	/**
+	 * Gets an event removed by the last call to {@link #pollBatch()}.
+	 * 
+	 * @param index the position of the event in the batch
+	 * @return the event
+	 */
+	public SimEvent getBatchEvent(int index) {
+		if (index >= batchSize) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Batch size: " + batchSize);
+		}
+		return batch[index];
+	}
+
+	/**
+	 * Returns an iterator to the queue. The events are only guaranteed to be returned in temporal
+	 * order when the queue is backed by a {@link TreeSetEventQueue}.
 	 * 
 	 * @return the iterator
 	 */
 	public Iterator<SimEvent> iterator() {
-		return sortedSet.iterator();
+		final Iterator<SimEvent> iterator = queue.iterator();
+		return new Iterator<SimEvent>() {
+
+			/** The last event returned. */
+			private SimEvent current;
+
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public SimEvent next() {
+				current = iterator.next();
+				return current;
+			}
+
+			@Override
+			public void remove() {
+				iterator.remove();
+				removeFromIndex(current);
+			}
+
+		};
 	}
 
 	/**
@@ -66,7 +202,7 @@ public class FutureQueue {
 	 * @return the size
 	 */
 	public int size() {
-		return sortedSet.size();
+		return queue.size();
 	}
 
 	/**
@@ -76,7 +212,11 @@ public class FutureQueue {
 	 * @return true, if successful
 	 */
 	public boolean remove(SimEvent event) {
-		return sortedSet.remove(event);
+		if (!queue.remove(event)) {
+			return false;
+		}
+		removeFromIndex(event);
+		return true;
 	}
 
 	/**
@@ -86,14 +226,149 @@ public class FutureQueue {
 	 * @return true, if successful
 	 */
 	public boolean removeAll(Collection<SimEvent> events) {
-		return sortedSet.removeAll(events);
+		boolean modified = false;
+		for (SimEvent event : events) {
+			modified |= remove(event);
+		}
+		return modified;
+	}
+
+	/**
+	 * Removes all the pending events sent by an entity with a given tag. The events of the tag are
+	 * indexed from now on, so this only scans the queue the first time a tag is used.
+	 * 
+	 * @param src the id of the entity that sent the events
+	 * @param tag the tag, which must not be negative
+	 * @return the number of events removed
+	 */
+	public int removeAll(int src, int tag) {
+		indexTag(tag);
+		Set<SimEvent> events = index.get(getIndexKey(src, tag));
+		if (events == null || events.isEmpty()) {
+			return 0;
+		}
+		int count = 0;
+		for (SimEvent event : events) {
+			if (queue.remove(event)) {
+				count++;
+			}
+		}
+		events.clear();
+		return count;
+	}
+
+	/**
+	 * Gets the first pending event sent by an entity with a given tag. The events of the tag are
+	 * indexed from now on, as in {@link #removeAll(int, int)}.
+	 * 
+	 * @param src the id of the entity that sent the event
+	 * @param tag the tag, which must not be negative
+	 * @return the first event, or <tt>null</tt> if there is none
+	 */
+	public SimEvent first(int src, int tag) {
+		indexTag(tag);
+		Set<SimEvent> events = index.get(getIndexKey(src, tag));
+		if (events == null) {
+			return null;
+		}
+		SimEvent first = null;
+		for (SimEvent event : events) {
+			if (first == null || event.compareTo(first) < 0) {
+				first = event;
+			}
+		}
+		return first;
+	}
+
+	/**
+	 * Indexes the pending events of a tag by source, including those already in the queue.
+	 * 
+	 * @param tag the tag, which must not be negative
+	 */
+	public void indexTag(int tag) {
+		if (tag < 0) {
+			throw new IllegalArgumentException("Only non-negative tags can be indexed: " + tag);
+		}
+		if (indexedTags.get(tag)) {
+			return;
+		}
+		indexedTags.set(tag);
+		for (SimEvent event : queue) {
+			if (event.getTag() == tag) {
+				addToIndex(event);
+			}
+		}
+	}
+
+	/**
+	 * Checks if the pending events of a tag are indexed.
+	 * 
+	 * @param tag the tag
+	 * @return true, if the tag is indexed
+	 */
+	public boolean isIndexedTag(int tag) {
+		return tag >= 0 && indexedTags.get(tag);
+	}
+
+	/**
+	 * Adds an event to the index, if its tag is indexed.
+	 * 
+	 * @param event the event
+	 */
+	private void addToIndex(SimEvent event) {
+		if (!isIndexedTag(event.getTag())) {
+			return;
+		}
+		Long key = getIndexKey(event.getSource(), event.getTag());
+		Set<SimEvent> events = index.get(key);
+		if (events == null) {
+			events = new HashSet<SimEvent>();
+			index.put(key, events);
+		}
+		events.add(event);
+	}
+
+	/**
+	 * Removes an event from the index, if its tag is indexed.
+	 * 
+	 * @param event the event
+	 */
+	private void removeFromIndex(SimEvent event) {
+		if (!isIndexedTag(event.getTag())) {
+			return;
+		}
+		Set<SimEvent> events = index.get(getIndexKey(event.getSource(), event.getTag()));
+		if (events != null) {
+			events.remove(event);
+		}
+	}
+
+	/**
+	 * Gets the index key of a source and a tag.
+	 * 
+	 * @param src the id of the source entity
+	 * @param tag the tag
+	 * @return the key
+	 */
+	private static Long getIndexKey(int src, int tag) {
+		return Long.valueOf(((long) src << 32) | (tag & 0xffffffffL));
 	}
 
 	/**
 	 * Clears the queue.
 	 */
 	public void clear() {
-		sortedSet.clear();
+		queue.clear();
+		index.clear();
+	}
+
+	/**
+	 * Gets the event queue engine.
+	 * 
+	 * @return the event queue engine
+	 */
+	public EventQueue getEventQueue() {
+		return queue;
 	}
 
 }
\ No newline at end of file
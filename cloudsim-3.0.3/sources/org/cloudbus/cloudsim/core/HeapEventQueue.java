@@ -0,0 +1,287 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An event queue engine backed by an array-based d-ary heap. Inserting and polling events cost
+ * O(log n) comparisons without allocating any node objects. Each event keeps its position in the
+ * heap, so removing an arbitrary event (e.g. when cancelling it) is O(log n) as well.
+ *
+ * @since CloudSim Toolkit 3.0.3
+ * @see EventQueue
+ */
+public class HeapEventQueue implements EventQueue {
+
+	/** The default arity of the heap. */
+	public static final int DEFAULT_ARITY = 4;
+
+	/** The initial capacity of the heap array. */
+	private static final int INITIAL_CAPACITY = 64;
+
+	/** The arity of the heap. */
+	private final int arity;
+
+	/** The heap array. */
+	private SimEvent[] heap;
+
+	/** The number of events in the heap. */
+	private int size;
+
+	/** The number of structural modifications, used to detect concurrent modifications. */
+	private int modCount;
+
+	/**
+	 * Creates a 4-ary heap event queue.
+	 */
+	public HeapEventQueue() {
+		this(DEFAULT_ARITY);
+	}
+
+	/**
+	 * Creates a d-ary heap event queue.
+	 *
+	 * @param arity the number of children of each heap node
+	 */
+	public HeapEventQueue(int arity) {
+		if (arity < 2) {
+			throw new IllegalArgumentException("The arity of the heap should be at least 2, but is:" + arity);
+		}
+		this.arity = arity;
+		heap = new SimEvent[INITIAL_CAPACITY];
+	}
+
+	@Override
+	public void add(SimEvent event) {
+		if (size == heap.length) {
+			heap = Arrays.copyOf(heap, heap.length << 1);
+		}
+		modCount++;
+		siftUp(size++, event);
+	}
+
+	@Override
+	public SimEvent peek() {
+		if (size == 0) {
+			return null;
+		}
+		return heap[0];
+	}
+
+	@Override
+	public SimEvent poll() {
+		if (size == 0) {
+			return null;
+		}
+		SimEvent first = heap[0];
+		removeAt(0);
+		return first;
+	}
+
+	@Override
+	public int pollSameTime(SimEvent[] buffer, int offset) {
+		if (size == 0) {
+			return 0;
+		}
+		double time = heap[0].eventTime();
+		int count = 0;
+		while (offset + count < buffer.length && size > 0 && heap[0].eventTime() == time) {
+			buffer[offset + count++] = heap[0];
+			removeAt(0);
+		}
+		return count;
+	}
+
+	@Override
+	public boolean remove(SimEvent event) {
+		int index = event.queueIndex;
+		if (index < 0 || index >= size || heap[index] != event) {
+			return false;
+		}
+		removeAt(index);
+		return true;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			heap[i].queueIndex = -1;
+			heap[i] = null;
+		}
+		size = 0;
+		modCount++;
+	}
+
+	@Override
+	public Iterator<SimEvent> iterator() {
+		return new HeapIterator();
+	}
+
+	/**
+	 * Removes the event at a given position of the heap.
+	 *
+	 * @param index the position
+	 * @return the last event of the heap if it was moved before the given position, to fill the
+	 *         gap; null otherwise
+	 */
+	private SimEvent removeAt(int index) {
+		modCount++;
+		heap[index].queueIndex = -1;
+		int last = --size;
+		SimEvent moved = heap[last];
+		heap[last] = null;
+		if (last == index) {
+			return null;
+		}
+		siftDown(index, moved);
+		if (heap[index] == moved) {
+			siftUp(index, moved);
+			if (heap[index] != moved) {
+				return moved;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Moves an event up the heap until its parent is not greater than it.
+	 *
+	 * @param index the starting position
+	 * @param event the event
+	 */
+	private void siftUp(int index, SimEvent event) {
+		while (index > 0) {
+			int parentIndex = (index - 1) / arity;
+			SimEvent parent = heap[parentIndex];
+			if (event.compareTo(parent) >= 0) {
+				break;
+			}
+			heap[index] = parent;
+			parent.queueIndex = index;
+			index = parentIndex;
+		}
+		heap[index] = event;
+		event.queueIndex = index;
+	}
+
+	/**
+	 * Moves an event down the heap until none of its children is smaller than it.
+	 *
+	 * @param index the starting position
+	 * @param event the event
+	 */
+	private void siftDown(int index, SimEvent event) {
+		while (true) {
+			int firstChild = index * arity + 1;
+			if (firstChild >= size) {
+				break;
+			}
+			int lastChild = Math.min(firstChild + arity, size);
+			int minIndex = firstChild;
+			SimEvent min = heap[firstChild];
+			for (int i = firstChild + 1; i < lastChild; i++) {
+				if (heap[i].compareTo(min) < 0) {
+					min = heap[i];
+					minIndex = i;
+				}
+			}
+			if (min.compareTo(event) >= 0) {
+				break;
+			}
+			heap[index] = min;
+			min.queueIndex = index;
+			index = minIndex;
+		}
+		heap[index] = event;
+		event.queueIndex = index;
+	}
+
+	/**
+	 * Iterates over the heap array. Events that are moved before the cursor by a removal are kept
+	 * aside and returned at the end, so every event is returned exactly once.
+	 */
+	private class HeapIterator implements Iterator<SimEvent> {
+
+		/** The position of the next event to return. */
+		private int cursor;
+
+		/** The event returned last, when it was taken from the heap array. */
+		private int lastIndex = -1;
+
+		/** The event returned last, when it was taken from the moved events. */
+		private SimEvent lastMoved;
+
+		/** Events moved before the cursor by a removal. */
+		private ArrayDeque<SimEvent> moved;
+
+		/** The expected modification count. */
+		private int expectedModCount = modCount;
+
+		@Override
+		public boolean hasNext() {
+			return cursor < size || (moved != null && !moved.isEmpty());
+		}
+
+		@Override
+		public SimEvent next() {
+			if (expectedModCount != modCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (cursor < size) {
+				lastIndex = cursor++;
+				return heap[lastIndex];
+			}
+			if (moved != null) {
+				lastIndex = -1;
+				lastMoved = moved.poll();
+				if (lastMoved != null) {
+					return lastMoved;
+				}
+			}
+			throw new NoSuchElementException();
+		}
+
+		@Override
+		public void remove() {
+			if (expectedModCount != modCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (lastIndex != -1) {
+				SimEvent movedEvent = removeAt(lastIndex);
+				lastIndex = -1;
+				if (movedEvent == null) {
+					cursor--;
+				} else {
+					if (moved == null) {
+						moved = new ArrayDeque<SimEvent>();
+					}
+					moved.add(movedEvent);
+				}
+			} else if (lastMoved != null) {
+				HeapEventQueue.this.remove(lastMoved);
+				lastMoved = null;
+			} else {
+				throw new IllegalStateException();
+			}
+			expectedModCount = modCount;
+		}
+
+	}
+
+}
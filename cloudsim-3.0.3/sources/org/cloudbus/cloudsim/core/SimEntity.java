@@ -42,19 +42,42 @@ public abstract class SimEntity implements Cloneable {
 	/** The entity's current state. */
 	private int state;
 
+	/** The simulation context the entity belongs to. */
+	private final SimulationContext context;
+
 	/**
-	 * Creates a new entity.
+	 * Creates a new entity in the current simulation context of {@link CloudSim}.
 	 * 
 	 * @param name the name to be associated with this entity
 	 */
 	public SimEntity(String name) {
+		this(CloudSim.getSimulationContext(), name);
+	}
+
+	/**
+	 * Creates a new entity in a given simulation context.
+	 * 
+	 * @param context the simulation context the entity belongs to
+	 * @param name the name to be associated with this entity
+	 */
+	public SimEntity(SimulationContext context, String name) {
 		if (name.indexOf(" ") != -1) {
 			throw new IllegalArgumentException("Entity names can't contain spaces.");
 		}
 		this.name = name;
+		this.context = context;
 		id = -1;
 		state = RUNNABLE;
-		CloudSim.addEntity(this);
+		context.addEntity(this);
+	}
+
+	/**
+	 * Gets the simulation context the entity belongs to.
+	 * 
+	 * @return the simulation context
+	 */
+	public SimulationContext getSimulationContext() {
+		return context;
 	}
 
 	/**
@@ -87,10 +110,10 @@ public abstract class SimEntity implements Cloneable {
 	 * @param data The data to be sent with the event.
 	 */
 	public void schedule(int dest, double delay, int tag, Object data) {
-		if (!CloudSim.running()) {
+		if (!context.running()) {
 			return;
 		}
-		CloudSim.send(id, dest, delay, tag, data);
+		context.send(id, dest, delay, tag, data);
 	}
 
 	/**
@@ -105,6 +128,67 @@ public abstract class SimEntity implements Cloneable {
 		schedule(dest, delay, tag, null);
 	}
 
+	/**
+	 * Send an event to another entity by id number, with data, cancelling first all the pending
+	 * events sent by this entity with the same tag. This is meant for timers that are pushed back
+	 * each time they are rescheduled; after the first call for a tag, the pending events of the tag
+	 * are found without scanning the future event queue.
+	 * 
+	 * @param dest The unique id number of the destination entity
+	 * @param delay How long from the current simulation time the event should be sent
+	 * @param tag An user-defined number representing the type of event.
+	 * @param data The data to be sent with the event.
+	 * @see SimulationContext#cancelAll(int, int)
+	 */
+	public void scheduleOrReplace(int dest, double delay, int tag, Object data) {
+		context.cancelAll(id, tag);
+		schedule(dest, delay, tag, data);
+	}
+
+	/**
+	 * Send an event to another entity by id number and with <b>no</b> data, cancelling first all
+	 * the pending events sent by this entity with the same tag.
+	 * 
+	 * @param dest The unique id number of the destination entity
+	 * @param delay How long from the current simulation time the event should be sent
+	 * @param tag An user-defined number representing the type of event.
+	 */
+	public void scheduleOrReplace(int dest, double delay, int tag) {
+		scheduleOrReplace(dest, delay, tag, null);
+	}
+
+	/**
+	 * Schedules a wakeup of this entity, that is an event with no data sent to itself, coalesced
+	 * with the pending wakeups of the same tag: at most one of them is kept pending. No event is
+	 * sent if a wakeup is already pending at or before the requested time, and a wakeup pending
+	 * after the requested time is moved to it. Every pending event sent by this entity with the
+	 * tag counts as a wakeup, so the tag should only be used by the entity for its own wakeups.
+	 * 
+	 * @param delay How long from the current simulation time the entity should wake up
+	 * @param tag An user-defined number representing the type of event.
+	 * @see SimulationContext#findFirstFuture(int, int)
+	 */
+	public void scheduleWakeup(double delay, int tag) {
+		if (!context.running()) {
+			return;
+		}
+		if (delay < 0) {
+			delay = 0;
+		}
+		if (Double.isInfinite(delay)) {
+			throw new IllegalArgumentException("The specified delay is infinite value");
+		}
+
+		SimEvent pending = context.findFirstFuture(id, tag);
+		if (pending != null) {
+			if (pending.eventTime() <= context.clock() + delay) {
+				return;
+			}
+			context.cancelAll(id, tag);
+		}
+		context.send(id, id, delay, tag, null);
+	}
+
 	/**
 	 * Send an event to another entity through a port with a given name, with data. Note that the
 	 * tag <code>9999</code> is reserved.
@@ -115,7 +199,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @param data The data to be sent with the event.
 	 */
 	public void schedule(String dest, double delay, int tag, Object data) {
-		schedule(CloudSim.getEntityId(dest), delay, tag, data);
+		schedule(context.getEntityId(dest), delay, tag, data);
 	}
 
 	/**
@@ -162,7 +246,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @param data The data to be sent with the event.
 	 */
 	public void scheduleNow(String dest, int tag, Object data) {
-		schedule(CloudSim.getEntityId(dest), 0, tag, data);
+		schedule(context.getEntityId(dest), 0, tag, data);
 	}
 
 	/**
@@ -186,10 +270,10 @@ public abstract class SimEntity implements Cloneable {
 	 * @param data The data to be sent with the event.
 	 */
 	public void scheduleFirst(int dest, double delay, int tag, Object data) {
-		if (!CloudSim.running()) {
+		if (!context.running()) {
 			return;
 		}
-		CloudSim.sendFirst(id, dest, delay, tag, data);
+		context.sendFirst(id, dest, delay, tag, data);
 	}
 
 	/**
@@ -214,7 +298,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @param data The data to be sent with the event.
 	 */
 	public void scheduleFirst(String dest, double delay, int tag, Object data) {
-		scheduleFirst(CloudSim.getEntityId(dest), delay, tag, data);
+		scheduleFirst(context.getEntityId(dest), delay, tag, data);
 	}
 
 	/**
@@ -261,7 +345,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @param data The data to be sent with the event.
 	 */
 	public void scheduleFirstNow(String dest, int tag, Object data) {
-		scheduleFirst(CloudSim.getEntityId(dest), 0, tag, data);
+		scheduleFirst(context.getEntityId(dest), 0, tag, data);
 	}
 
 	/**
@@ -284,10 +368,10 @@ public abstract class SimEntity implements Cloneable {
 		if (delay < 0) {
 			throw new IllegalArgumentException("Negative delay supplied.");
 		}
-		if (!CloudSim.running()) {
+		if (!context.running()) {
 			return;
 		}
-		CloudSim.pause(id, delay);
+		context.pause(id, delay);
 	}
 
 	/**
@@ -297,7 +381,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @return The count of matching events
 	 */
 	public int numEventsWaiting(Predicate p) {
-		return CloudSim.waiting(id, p);
+		return context.waiting(id, p);
 	}
 
 	/**
@@ -306,7 +390,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @return The count of events
 	 */
 	public int numEventsWaiting() {
-		return CloudSim.waiting(id, CloudSim.SIM_ANY);
+		return context.waiting(id, CloudSim.SIM_ANY);
 	}
 
 	/**
@@ -316,11 +400,11 @@ public abstract class SimEntity implements Cloneable {
 	 * @return the simulation event
 	 */
 	public SimEvent selectEvent(Predicate p) {
-		if (!CloudSim.running()) {
+		if (!context.running()) {
 			return null;
 		}
 
-		return CloudSim.select(id, p);
+		return context.select(id, p);
 	}
 
 	/**
@@ -330,11 +414,11 @@ public abstract class SimEntity implements Cloneable {
 	 * @return The number of events cancelled (0 or 1)
 	 */
 	public SimEvent cancelEvent(Predicate p) {
-		if (!CloudSim.running()) {
+		if (!context.running()) {
 			return null;
 		}
 
-		return CloudSim.cancel(id, p);
+		return context.cancel(id, p);
 	}
 
 	/**
@@ -345,13 +429,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @return the simulation event
 	 */
 	public SimEvent getNextEvent(Predicate p) {
-		if (!CloudSim.running()) {
-			return null;
-		}
-		if (numEventsWaiting(p) > 0) {
-			return selectEvent(p);
-		}
-		return null;
+		return selectEvent(p);
 	}
 
 	/**
@@ -361,11 +439,11 @@ public abstract class SimEntity implements Cloneable {
 	 * @param p The predicate to match
 	 */
 	public void waitForEvent(Predicate p) {
-		if (!CloudSim.running()) {
+		if (!context.running()) {
 			return;
 		}
 
-		CloudSim.wait(id, p);
+		context.wait(id, p);
 		state = WAITING;
 	}
 
@@ -404,6 +482,7 @@ public abstract class SimEntity implements Cloneable {
 
 		while (ev != null) {
 			processEvent(ev);
+			context.releaseEvent(ev);
 			if (state != RUNNABLE) {
 				break;
 			}
@@ -475,12 +554,15 @@ public abstract class SimEntity implements Cloneable {
 	public static final int FINISHED = 3;
 
 	/**
-	 * Sets the state.
+	 * Sets the state. An entity made runnable is run at the next clock tick.
 	 * 
 	 * @param state the new state
 	 */
 	protected void setState(int state) {
 		this.state = state;
+		if (state == RUNNABLE && id >= 0) {
+			context.markEntityReady(id);
+		}
 	}
 
 	/**
@@ -575,7 +657,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @post $none
 	 */
 	protected void send(String entityName, double delay, int cloudSimTag, Object data) {
-		send(CloudSim.getEntityId(entityName), delay, cloudSimTag, data);
+		send(context.getEntityId(entityName), delay, cloudSimTag, data);
 	}
 
 	/**
@@ -643,7 +725,7 @@ public abstract class SimEntity implements Cloneable {
 	 * @post $none
 	 */
 	protected void sendNow(String entityName, int cloudSimTag, Object data) {
-		send(CloudSim.getEntityId(entityName), 0, cloudSimTag, data);
+		send(context.getEntityId(entityName), 0, cloudSimTag, data);
 	}
 
 	/**
@@ -673,8 +755,9 @@ public abstract class SimEntity implements Cloneable {
 	 * @pre dst >= 0
 	 */
 	private double getNetworkDelay(int src, int dst) {
-		if (NetworkTopology.isNetworkEnabled()) {
-			return NetworkTopology.getDelay(src, dst);
+		NetworkTopology topology = context.getNetworkTopology();
+		if (topology.isEnabled()) {
+			return topology.getLinkDelay(src, dst);
 		}
 		return 0.0;
 	}
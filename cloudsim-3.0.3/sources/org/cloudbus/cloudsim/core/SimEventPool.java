@@ -0,0 +1,154 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.BitSet;
+
+/**
+ * A pool of {@link SimEvent} objects, used by a {@link SimulationContext} to recycle the events
+ * sent with high-rate tags, such as {@link CloudSimTags#VM_DATACENTER_EVENT} or the
+ * <tt>Network_Event_*</tt> tags. An event sent with a pooled tag is taken from the pool, and is
+ * given back to the pool once the destination entity has processed it.
+ * <p>
+ * An entity must therefore not keep a reference to an event with a pooled tag after its
+ * {@link SimEntity#processEvent(SimEvent)} method returns; the data of the event can be kept.
+ * 
+ * @see SimulationContext#setEventPool(SimEventPool)
+ * @since CloudSim Toolkit 3.0.3
+ */
+public class SimEventPool {
+
+	/** The default maximum number of free events kept by a pool. */
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	/** The pooled tags. */
+	private final BitSet pooledTags = new BitSet();
+
+	/** The free events. */
+	private final SimEvent[] freeEvents;
+
+	/** The number of free events. */
+	private int freeCount;
+
+	/** The number of events created by the pool. */
+	private long createdCount;
+
+	/** The number of events taken from the free events. */
+	private long reusedCount;
+
+	/**
+	 * Instantiates a new pool keeping up to {@link #DEFAULT_CAPACITY} free events.
+	 */
+	public SimEventPool() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Instantiates a new pool.
+	 * 
+	 * @param capacity the maximum number of free events kept by the pool
+	 * @throws IllegalArgumentException if the capacity is not positive
+	 */
+	public SimEventPool(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("The capacity of the pool must be positive");
+		}
+		freeEvents = new SimEvent[capacity];
+	}
+
+	/**
+	 * Makes the events sent with the given tags pooled.
+	 * 
+	 * @param tags the tags
+	 * @throws IllegalArgumentException if a tag is negative
+	 */
+	public void addPooledTags(int... tags) {
+		for (int tag : tags) {
+			if (tag < 0) {
+				throw new IllegalArgumentException("Only non-negative tags can be pooled: " + tag);
+			}
+			pooledTags.set(tag);
+		}
+	}
+
+	/**
+	 * Checks if the events sent with a given tag are pooled.
+	 * 
+	 * @param tag the tag
+	 * @return true, if the tag is pooled
+	 */
+	public boolean isPooledTag(int tag) {
+		return tag >= 0 && pooledTags.get(tag);
+	}
+
+	/**
+	 * Gets an event, reusing a free one when the tag is pooled and one is available.
+	 * 
+	 * @param type the internal event type
+	 * @param time the time of the event
+	 * @param src the id of the source entity
+	 * @param dest the id of the destination entity
+	 * @param tag the tag
+	 * @param data the data
+	 * @return the event
+	 */
+	SimEvent acquire(int type, double time, int src, int dest, int tag, Object data) {
+		if (freeCount == 0 || !isPooledTag(tag)) {
+			createdCount++;
+			return new SimEvent(type, time, src, dest, tag, data);
+		}
+		SimEvent event = freeEvents[--freeCount];
+		freeEvents[freeCount] = null;
+		event.set(type, time, src, dest, tag, data);
+		reusedCount++;
+		return event;
+	}
+
+	/**
+	 * Gives an event back to the pool once it has been processed. Events with a tag that is not
+	 * pooled are ignored, as are events beyond the capacity of the pool.
+	 * 
+	 * @param event the event
+	 */
+	void release(SimEvent event) {
+		if (freeCount == freeEvents.length || !isPooledTag(event.getTag())) {
+			return;
+		}
+		event.set(SimEvent.ENULL, -1, -1, -1, -1, null);
+		freeEvents[freeCount++] = event;
+	}
+
+	/**
+	 * Gets the number of free events.
+	 * 
+	 * @return the free count
+	 */
+	public int getFreeCount() {
+		return freeCount;
+	}
+
+	/**
+	 * Gets the number of events created by the pool.
+	 * 
+	 * @return the created count
+	 */
+	public long getCreatedCount() {
+		return createdCount;
+	}
+
+	/**
+	 * Gets the number of events reused by the pool.
+	 * 
+	 * @return the reused count
+	 */
+	public long getReusedCount() {
+		return reusedCount;
+	}
+
+}
@@ -0,0 +1,1334 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.NetworkTopology;
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+import org.cloudbus.cloudsim.core.predicates.PredicateType;
+
+/**
+ * This class holds the state of a simulation: its entities, its future and deferred event queues,
+ * its clock and its configuration, along with the state of the {@link Log}, the
+ * {@link NetworkTopology} and the {@link org.cloudbus.cloudsim.util.ExecutionTimeMeasurer} used by
+ * the simulation. Each context runs an independent simulation, so several contexts can be run at
+ * the same time in different threads.
+ * <p>
+ * The static methods of {@link CloudSim} act on the context bound to the calling thread, or on a
+ * default context if none is bound. A context binds itself to the calling thread while it is
+ * initialised and while it runs, so the entities of the simulation can keep using {@link CloudSim}.
+ * Entities are added to the context given to their constructor, or to the current context of
+ * {@link CloudSim} otherwise.
+ * 
+ * @author Rodrigo N. Calheiros
+ * @author Anton Beloglazov
+ * @since CloudSim Toolkit 3.0.3
+ * @see CloudSim
+ */
+public class SimulationContext {
+
+	/** The Constant CLOUDSIM_VERSION_STRING. */
+	private static final String CLOUDSIM_VERSION_STRING = "3.0";
+
+	/** The id of CIS entity. */
+	private int cisId = -1;
+
+	/** The id of CloudSimShutdown entity. */
+	@SuppressWarnings("unused")
+	private int shutdownId = -1;
+
+	/** The CIS object. */
+	private CloudInformationService cis = null;
+
+	/** The Constant NOT_FOUND. */
+	private static final int NOT_FOUND = -1;
+
+	/** The trace flag. */
+	@SuppressWarnings("unused")
+	private boolean traceFlag = false;
+
+	/** The calendar. */
+	private Calendar calendar = null;
+
+	/** The termination time. */
+	private double terminateAt = -1;
+
+	/** The minimal time between events. Events within shorter periods after the last event are discarded. */
+	private double minTimeBetweenEvents = 0.1;
+
+
+	/** The engine used by the future event queue of the next simulations. */
+	private int eventQueueType = CloudSim.EVENT_QUEUE_TREE_SET;
+
+	/** Whether the events of a tick are removed from the future queue in one batch. */
+	private boolean batchDispatch = false;
+
+	/** Whether the delivered events are handed to the waiting entities without being copied. */
+	private boolean zeroCopyDelivery = false;
+
+	/** The pool of events, or null if the events are not recycled. */
+	private SimEventPool eventPool;
+
+	/** The output of the log. */
+	private OutputStream logOutput;
+
+	/** The disable output flag of the log. */
+	private boolean logDisabled;
+
+	/** The least important level of the messages logged, by category. */
+	private final Log.Level[] logLevels = newLogLevels();
+
+	/** The network topology. */
+	private final NetworkTopology networkTopology = new NetworkTopology();
+
+	/** The start times of the execution time measurements. */
+	private final Map<String, Long> executionTimes = new HashMap<String, Long>();
+
+	/**
+	 * Initialises all the common attributes.
+	 * 
+	 * @param _calendar the _calendar
+	 * @param _traceFlag the _trace flag
+	 * @param numUser number of users
+	 * @throws Exception This happens when creating this entity before initialising CloudSim package
+	 *             or this entity name is <tt>null</tt> or empty
+	 * @pre $none
+	 * @post $none
+	 */
+	private void initCommonVariable(Calendar _calendar, boolean _traceFlag, int numUser)
+			throws Exception {
+		initialize();
+		// NOTE: the order for the below 3 lines are important
+		traceFlag = _traceFlag;
+
+		// Set the current Wall clock time as the starting time of
+		// simulation
+		if (_calendar == null) {
+			calendar = Calendar.getInstance();
+		} else {
+			calendar = _calendar;
+		}
+
+		// creates a CloudSimShutdown object
+		CloudSimShutdown shutdown = new CloudSimShutdown(this, "CloudSimShutdown", numUser);
+		shutdownId = shutdown.getId();
+	}
+
+	/**
+	 * Initialises CloudSim parameters. This method should be called before creating any entities.
+	 * <p>
+	 * Inside this method, it will create the following CloudSim entities:
+	 * <ul>
+	 * <li>CloudInformationService.
+	 * <li>CloudSimShutdown
+	 * </ul>
+	 * <p>
+	 * 
+	 * @param numUser the number of User Entities created. This parameters indicates that
+	 *            {@link gridsim.CloudSimShutdown} first waits for all user entities's
+	 *            END_OF_SIMULATION signal before issuing terminate signal to other entities
+	 * @param cal starting time for this simulation. If it is <tt>null</tt>, then the time will be
+	 *            taken from <tt>Calendar.getInstance()</tt>
+	 * @param traceFlag <tt>true</tt> if CloudSim trace need to be written
+	 * @see gridsim.CloudSimShutdown
+	 * @see CloudInformationService.CloudInformationService
+	 * @pre numUser >= 0
+	 * @post $none
+	 */
+	public void init(int numUser, Calendar cal, boolean traceFlag) {
+		SimulationContext previous = CloudSim.bindSimulationContext(this);
+		try {
+			initCommonVariable(cal, traceFlag, numUser);
+
+			// create a GIS object
+			cis = new CloudInformationService(this, "CloudInformationService");
+
+			// set all the above entity IDs
+			cisId = cis.getId();
+		} catch (IllegalArgumentException s) {
+			Log.printLine("CloudSim.init(): The simulation has been terminated due to an unexpected error");
+			Log.printLine(s.getMessage());
+		} catch (Exception e) {
+			Log.printLine("CloudSim.init(): The simulation has been terminated due to an unexpected error");
+			Log.printLine(e.getMessage());
+		} finally {
+			CloudSim.bindSimulationContext(previous);
+		}
+	}
+
+	/**
+	 * Initialises CloudSim parameters. This method should be called before creating any entities.
+	 * <p>
+	 * Inside this method, it will create the following CloudSim entities:
+	 * <ul>
+	 * <li>CloudInformationService.
+	 * <li>CloudSimShutdown
+	 * </ul>
+	 * <p>
+	 * 
+	 * @param numUser the number of User Entities created. This parameters indicates that
+	 *            {@link gridsim.CloudSimShutdown} first waits for all user entities's
+	 *            END_OF_SIMULATION signal before issuing terminate signal to other entities
+	 * @param cal starting time for this simulation. If it is <tt>null</tt>, then the time will be
+	 *            taken from <tt>Calendar.getInstance()</tt>
+	 * @param traceFlag <tt>true</tt> if CloudSim trace need to be written
+	 * @param periodBetweenEvents - the minimal period between events. Events within shorter periods
+	 * after the last event are discarded.
+	 * @see gridsim.CloudSimShutdown
+	 * @see CloudInformationService.CloudInformationService
+	 * @pre numUser >= 0
+	 * @post $none
+	 */
+	public void init(int numUser, Calendar cal, boolean traceFlag, double periodBetweenEvents) {
+	    if (periodBetweenEvents <= 0) {
+		throw new IllegalArgumentException("The minimal time between events should be positive, but is:" + periodBetweenEvents);
+	    }
+	    
+	    init(numUser, cal, traceFlag);
+	    minTimeBetweenEvents = periodBetweenEvents;
+	}
+	
+	
+	
+	/**
+	 * Starts the execution of CloudSim simulation. It waits for complete execution of all entities,
+	 * i.e. until all entities threads reach non-RUNNABLE state or there are no more events in the
+	 * future event queue.
+	 * <p>
+	 * <b>Note</b>: This method should be called after all the entities have been setup and added.
+	 * 
+	 * @return the double
+	 * @throws NullPointerException This happens when creating this entity before initialising
+	 *             CloudSim package or this entity name is <tt>null</tt> or empty.
+	 * @see gridsim.CloudSim#init(int, Calendar, boolean)
+	 * @pre $none
+	 * @post $none
+	 */
+	public double startSimulation() throws NullPointerException {
+		SimulationContext previous = CloudSim.bindSimulationContext(this);
+		try {
+			Log.printLine("Starting CloudSim version " + CLOUDSIM_VERSION_STRING);
+			double clock = run();
+
+			// reset all the variables
+			cisId = -1;
+			shutdownId = -1;
+			cis = null;
+			calendar = null;
+			traceFlag = false;
+
+			return clock;
+		} catch (IllegalArgumentException e) {
+			e.printStackTrace();
+			throw new NullPointerException("CloudSim.startCloudSimulation() :"
+					+ " Error - you haven't initialized CloudSim.");
+		} finally {
+			CloudSim.bindSimulationContext(previous);
+		}
+	}
+
+	/**
+	 * Stops Cloud Simulation (based on {@link Simulation#runStop()}). This should be only called if
+	 * any of the user defined entities <b>explicitly</b> want to terminate simulation during
+	 * execution.
+	 * 
+	 * @throws NullPointerException This happens when creating this entity before initialising
+	 *             CloudSim package or this entity name is <tt>null</tt> or empty
+	 * @see gridsim.CloudSim#init(int, Calendar, boolean)
+	 * @see Simulation#runStop()
+	 * @pre $none
+	 * @post $none
+	 */
+	public void stopSimulation() throws NullPointerException {
+		try {
+			runStop();
+		} catch (IllegalArgumentException e) {
+			throw new NullPointerException("CloudSim.stopCloudSimulation() : "
+					+ "Error - can't stop Cloud Simulation.");
+		}
+	}
+
+	/**
+	 * This method is called if one wants to terminate the simulation.
+	 * 
+	 * @return true, if successful; false otherwise.
+	 */
+	public boolean terminateSimulation() {
+		running = false;
+		printMessage("Simulation: Reached termination time.");
+		return true;
+	}
+
+	/**
+	 * This method is called if one wants to terminate the simulation at a given time.
+	 * 
+	 * @param time the time at which the simulation has to be terminated
+	 * @return true, if successful otherwise.
+	 */
+	public boolean terminateSimulation(double time) {
+		if (time <= clock) {
+			return false;
+		} else {
+			terminateAt = time;
+		}
+		return true;
+	}
+
+	
+	/**
+	 * Returns the minimum time between events. Events within shorter periods after the last event are discarded. 
+	 * @return the minimum time between events.
+	 */
+	public double getMinTimeBetweenEvents() {
+	    return minTimeBetweenEvents;
+	}
+
+	/**
+	 * Sets the engine used to store the future events of the simulations initialised after this
+	 * call. The engine does not change the order in which events are processed: events are ordered
+	 * by time and events with the same time keep the order in which they were sent.
+	 * 
+	 * @param type one of {@link CloudSim#EVENT_QUEUE_TREE_SET}, {@link CloudSim#EVENT_QUEUE_HEAP} or
+	 *            {@link CloudSim#EVENT_QUEUE_CALENDAR}
+	 */
+	public void setEventQueueType(int type) {
+		if (type != CloudSim.EVENT_QUEUE_TREE_SET && type != CloudSim.EVENT_QUEUE_HEAP
+				&& type != CloudSim.EVENT_QUEUE_CALENDAR) {
+			throw new IllegalArgumentException("Unknown event queue type: " + type);
+		}
+		eventQueueType = type;
+	}
+
+	/**
+	 * Gets the engine used to store the future events.
+	 * 
+	 * @return the event queue type
+	 */
+	public int getEventQueueType() {
+		return eventQueueType;
+	}
+
+	/**
+	 * Sets whether the events with the same time are removed from the future queue in one batch
+	 * operation at each clock tick, instead of one by one. The batch buffer is reused between
+	 * ticks. The events are processed in the same order in both modes.
+	 * 
+	 * @param batch true to dispatch the events of a tick in one batch
+	 */
+	public void setBatchDispatch(boolean batch) {
+		batchDispatch = batch;
+	}
+
+	/**
+	 * Checks if the events of a tick are removed from the future queue in one batch.
+	 * 
+	 * @return true, if the batch dispatch is enabled
+	 */
+	public boolean isBatchDispatch() {
+		return batchDispatch;
+	}
+
+	/**
+	 * Sets whether an event delivered to an entity waiting for it is handed over as is, instead of
+	 * a copy of the event. The event is not used by the simulation once delivered, so the copy is
+	 * only needed by entities that modify the events they receive and expect the sender's event to
+	 * be unchanged.
+	 * 
+	 * @param zeroCopy true to deliver the events without copying them
+	 */
+	public void setZeroCopyDelivery(boolean zeroCopy) {
+		zeroCopyDelivery = zeroCopy;
+	}
+
+	/**
+	 * Checks if the delivered events are handed over without being copied.
+	 * 
+	 * @return true, if the zero-copy delivery is enabled
+	 */
+	public boolean isZeroCopyDelivery() {
+		return zeroCopyDelivery;
+	}
+
+	/**
+	 * Sets the pool used to recycle the events sent with its pooled tags, or <tt>null</tt> to
+	 * create a new event for every send.
+	 * 
+	 * @param pool the event pool
+	 */
+	public void setEventPool(SimEventPool pool) {
+		eventPool = pool;
+	}
+
+	/**
+	 * Gets the pool used to recycle the events.
+	 * 
+	 * @return the event pool, or <tt>null</tt> if the events are not recycled
+	 */
+	public SimEventPool getEventPool() {
+		return eventPool;
+	}
+
+	/**
+	 * Gives an event processed by an entity back to the event pool, if any. This method should
+	 * <b>not</b> be called in simulations.
+	 * 
+	 * @param e the event
+	 */
+	protected void releaseEvent(SimEvent e) {
+		if (eventPool != null) {
+			eventPool.release(e);
+		}
+	}
+
+	/**
+	 * Creates an event to send, taking it from the event pool if there is one.
+	 * 
+	 * @param src the src
+	 * @param dest the dest
+	 * @param delay the delay
+	 * @param tag the tag
+	 * @param data the data
+	 * @return the event
+	 */
+	private SimEvent newSendEvent(int src, int dest, double delay, int tag, Object data) {
+		if (eventPool != null) {
+			return eventPool.acquire(SimEvent.SEND, clock + delay, src, dest, tag, data);
+		}
+		return new SimEvent(SimEvent.SEND, clock + delay, src, dest, tag, data);
+	}
+
+	/**
+	 * Creates an event queue engine of the configured type.
+	 * 
+	 * @return the event queue
+	 */
+	private EventQueue createEventQueue() {
+		switch (eventQueueType) {
+			case CloudSim.EVENT_QUEUE_HEAP:
+				return new HeapEventQueue();
+			case CloudSim.EVENT_QUEUE_CALENDAR:
+				return new CalendarEventQueue();
+			default:
+				return new TreeSetEventQueue();
+		}
+	}
+
+	/**
+	 * Gets a new copy of initial simulation Calendar.
+	 * 
+	 * @return a new copy of Calendar object or if CloudSim hasn't been initialized
+	 * @see gridsim.CloudSim#init(int, Calendar, boolean, String[], String[], String)
+	 * @see gridsim.CloudSim#init(int, Calendar, boolean)
+	 * @pre $none
+	 * @post $none
+	 */
+	public Calendar getSimulationCalendar() {
+		// make a new copy
+		Calendar clone = calendar;
+		if (calendar != null) {
+			clone = (Calendar) calendar.clone();
+		}
+
+		return clone;
+	}
+
+	/**
+	 * Gets the entity ID of <tt>CloudInformationService</tt>.
+	 * 
+	 * @return the Entity ID or if it is not found
+	 * @pre $none
+	 * @post $result >= -1
+	 */
+	public int getCloudInfoServiceEntityId() {
+		return cisId;
+	}
+
+	/**
+	 * Sends a request to Cloud Information Service (GIS) entity to get the list of all Cloud
+	 * hostList.
+	 * 
+	 * @return A List containing CloudResource ID (as an Integer object) or if a CIS entity hasn't
+	 *         been created before
+	 * @pre $none
+	 * @post $none
+	 */
+	public List<Integer> getCloudResourceList() {
+		if (cis == null) {
+			return null;
+		}
+
+		return cis.getList();
+	}
+
+	// ======== SIMULATION METHODS ===============//
+
+	/** The entities. */
+	private List<SimEntity> entities;
+
+	/** The future event queue. */
+	protected FutureQueue future;
+
+	/** The deferred event queue. */
+	protected DeferredQueue deferred;
+
+	/** The simulation clock. */
+	private double clock;
+
+	/** Flag for checking if the simulation is running. */
+	private boolean running;
+
+	/** The entities by name. */
+	private Map<String, SimEntity> entitiesByName;
+
+	/**
+	 * The ids of the entities to run at the next clock tick: the entities that have been made
+	 * runnable or have received deferred events since they last ran.
+	 */
+	private BitSet readyEntities;
+
+	// The predicates used in entity wait methods
+	/** The wait predicates. */
+	private Map<Integer, Predicate> waitPredicates;
+
+	/** The paused. */
+	private boolean paused = false;
+
+	/** The pause at. */
+	private long pauseAt = -1;
+
+	/** The abrupt terminate. */
+	private boolean abruptTerminate = false;
+
+	/** The number of clock ticks that processed future events. */
+	private long tickCount = 0;
+
+	/** The number of future events processed. */
+	private long processedEventCount = 0;
+
+	/** The number of future events processed by the last tick. */
+	private int lastTickEventCount = 0;
+
+	/** The maximum number of future events processed by a single tick. */
+	private int maxTickEventCount = 0;
+
+	/**
+	 * Initialise the simulation for stand alone simulations. This function should be called at the
+	 * start of the simulation.
+	 */
+	protected void initialize() {
+		Log.printLine("Initialising...");
+		entities = new ArrayList<SimEntity>();
+		entitiesByName = new LinkedHashMap<String, SimEntity>();
+		readyEntities = new BitSet();
+		future = new FutureQueue(createEventQueue());
+		deferred = new DeferredQueue();
+		waitPredicates = new HashMap<Integer, Predicate>();
+		clock = 0;
+		running = false;
+		tickCount = 0;
+		processedEventCount = 0;
+		lastTickEventCount = 0;
+		maxTickEventCount = 0;
+	}
+
+	// Public access methods
+
+	/**
+	 * Get the current simulation time.
+	 * 
+	 * @return the simulation time
+	 */
+	public double clock() {
+		return clock;
+	}
+
+	/**
+	 * Get the current number of entities in the simulation.
+	 * 
+	 * @return The number of entities
+	 */
+	public int getNumEntities() {
+		return entities.size();
+	}
+
+	/**
+	 * Get the entity with a given id.
+	 * 
+	 * @param id the entity's unique id number
+	 * @return The entity, or if it could not be found
+	 */
+	public SimEntity getEntity(int id) {
+		return entities.get(id);
+	}
+
+	/**
+	 * Get the entity with a given name.
+	 * 
+	 * @param name The entity's name
+	 * @return The entity
+	 */
+	public SimEntity getEntity(String name) {
+		return entitiesByName.get(name);
+	}
+
+	/**
+	 * Get the id of an entity with a given name.
+	 * 
+	 * @param name The entity's name
+	 * @return The entity's unique id number
+	 */
+	public int getEntityId(String name) {
+		SimEntity obj = entitiesByName.get(name);
+		if (obj == null) {
+			return NOT_FOUND;
+		} else {
+			return obj.getId();
+		}
+	}
+
+	/**
+	 * Gets name of the entity given its entity ID.
+	 * 
+	 * @param entityID the entity ID
+	 * @return the Entity name or if this object does not have one
+	 * @pre entityID > 0
+	 * @post $none
+	 */
+	public String getEntityName(int entityID) {
+		try {
+			return getEntity(entityID).getName();
+		} catch (IllegalArgumentException e) {
+			return null;
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Gets name of the entity given its entity ID.
+	 * 
+	 * @param entityID the entity ID
+	 * @return the Entity name or if this object does not have one
+	 * @pre entityID > 0
+	 * @post $none
+	 */
+	public String getEntityName(Integer entityID) {
+		if (entityID != null) {
+			return getEntityName(entityID.intValue());
+		}
+		return null;
+	}
+
+	/**
+	 * Returns a list of entities created for the simulation.
+	 * 
+	 * @return the entity iterator
+	 */
+	public List<SimEntity> getEntityList() {
+		// create a new list to prevent the user from changing
+		// the list of entities used by Simulation
+		List<SimEntity> list = new LinkedList<SimEntity>();
+		list.addAll(entities);
+		return list;
+	}
+
+	// Public update methods
+
+	/**
+	 * Add a new entity to the simulation. This is present for compatibility with existing
+	 * simulations since entities are automatically added to the simulation upon instantiation.
+	 * 
+	 * @param e The new entity
+	 */
+	public void addEntity(SimEntity e) {
+		SimEvent evt;
+		if (running) {
+			// Post an event to make this entity
+			evt = new SimEvent(SimEvent.CREATE, clock, 1, 0, 0, e);
+			future.addEvent(evt);
+		}
+		if (e.getId() == -1) { // Only add once!
+			int id = entities.size();
+			e.setId(id);
+			entities.add(e);
+			entitiesByName.put(e.getName(), e);
+			readyEntities.set(id);
+		}
+	}
+
+	/**
+	 * Marks an entity as ready to run at the next clock tick. This method is called when the
+	 * entity becomes runnable; it should <b>not</b> be called in simulations.
+	 * 
+	 * @param id the id of the entity
+	 */
+	protected void markEntityReady(int id) {
+		readyEntities.set(id);
+	}
+
+	/**
+	 * Internal method used to add a new entity to the simulation when the simulation is running. It
+	 * should <b>not</b> be called from user simulations.
+	 * 
+	 * @param e The new entity
+	 */
+	protected void addEntityDynamically(SimEntity e) {
+		if (e == null) {
+			throw new IllegalArgumentException("Adding null entity.");
+		} else {
+			printMessage("Adding: " + e.getName());
+		}
+		e.startEntity();
+	}
+
+	/**
+	 * Internal method used to run one tick of the simulation. This method should <b>not</b> be
+	 * called in simulations.
+	 * 
+	 * @return true, if successful otherwise
+	 */
+	public boolean runClockTick() {
+		SimEntity ent;
+		boolean queue_empty;
+		
+		int entities_size = entities.size();
+
+		// only the ready entities can have something to do, run them in the order of their ids
+		for (int i = readyEntities.nextSetBit(0); i >= 0 && i < entities_size; i = readyEntities
+				.nextSetBit(i + 1)) {
+			readyEntities.clear(i);
+			ent = entities.get(i);
+			if (ent.getState() == SimEntity.RUNNABLE) {
+				ent.run();
+			}
+		}
+				
+		// If there are more future events then deal with them
+		if (future.size() > 0) {
+			queue_empty = false;
+			int count;
+			if (batchDispatch) {
+				count = future.pollBatch();
+				for (int i = 0; i < count; i++) {
+					processEvent(future.getBatchEvent(i));
+				}
+			} else {
+				SimEvent first = future.poll();
+				processEvent(first);
+				count = 1;
+
+				// Check if next events are at same time...
+				SimEvent next = future.first();
+				while (next != null && next.eventTime() == first.eventTime()) {
+					processEvent(future.poll());
+					count++;
+					next = future.first();
+				}
+			}
+
+			tickCount++;
+			processedEventCount += count;
+			lastTickEventCount = count;
+			if (count > maxTickEventCount) {
+				maxTickEventCount = count;
+			}
+		} else {
+			queue_empty = true;
+			running = false;
+			printMessage("Simulation: No more future events");
+		}
+
+		return queue_empty;
+	}
+
+	/**
+	 * Gets the number of future events processed by the last clock tick, i.e. the number of events
+	 * that shared the last timestamp.
+	 * 
+	 * @return the number of events of the last tick
+	 */
+	public int getLastTickEventCount() {
+		return lastTickEventCount;
+	}
+
+	/**
+	 * Gets the maximum number of future events processed by a single clock tick.
+	 * 
+	 * @return the maximum number of events per tick
+	 */
+	public int getMaxTickEventCount() {
+		return maxTickEventCount;
+	}
+
+	/**
+	 * Gets the number of clock ticks that processed future events.
+	 * 
+	 * @return the number of ticks
+	 */
+	public long getTickCount() {
+		return tickCount;
+	}
+
+	/**
+	 * Gets the number of future events processed since the simulation was initialised.
+	 * 
+	 * @return the number of processed events
+	 */
+	public long getProcessedEventCount() {
+		return processedEventCount;
+	}
+
+	/**
+	 * Internal method used to stop the simulation. This method should <b>not</b> be used directly.
+	 */
+	public void runStop() {
+		printMessage("Simulation completed.");
+	}
+
+	/**
+	 * Used to hold an entity for some time.
+	 * 
+	 * @param src the src
+	 * @param delay the delay
+	 */
+	public void hold(int src, long delay) {
+		SimEvent e = new SimEvent(SimEvent.HOLD_DONE, clock + delay, src);
+		future.addEvent(e);
+		entities.get(src).setState(SimEntity.HOLDING);
+	}
+
+	/**
+	 * Used to pause an entity for some time.
+	 * 
+	 * @param src the src
+	 * @param delay the delay
+	 */
+	public void pause(int src, double delay) {
+		SimEvent e = new SimEvent(SimEvent.HOLD_DONE, clock + delay, src);
+		future.addEvent(e);
+		entities.get(src).setState(SimEntity.HOLDING);
+	}
+
+	/**
+	 * Used to send an event from one entity to another.
+	 * 
+	 * @param src the src
+	 * @param dest the dest
+	 * @param delay the delay
+	 * @param tag the tag
+	 * @param data the data
+	 */
+	public void send(int src, int dest, double delay, int tag, Object data) {
+		if (delay < 0) {
+			throw new IllegalArgumentException("Send delay can't be negative.");
+		}
+
+		SimEvent e = newSendEvent(src, dest, delay, tag, data);
+		future.addEvent(e);
+	}
+
+	/**
+	 * Used to send an event from one entity to another, with priority in the queue.
+	 * 
+	 * @param src the src
+	 * @param dest the dest
+	 * @param delay the delay
+	 * @param tag the tag
+	 * @param data the data
+	 */
+	public void sendFirst(int src, int dest, double delay, int tag, Object data) {
+		if (delay < 0) {
+			throw new IllegalArgumentException("Send delay can't be negative.");
+		}
+
+		SimEvent e = newSendEvent(src, dest, delay, tag, data);
+		future.addEventFirst(e);
+	}
+
+	/**
+	 * Sets an entity's state to be waiting. The predicate used to wait for an event is now passed
+	 * to Sim_system. Only events that satisfy the predicate will be passed to the entity. This is
+	 * done to avoid unnecessary context switches.
+	 * 
+	 * @param src the src
+	 * @param p the p
+	 */
+	public void wait(int src, Predicate p) {
+		entities.get(src).setState(SimEntity.WAITING);
+		if (p != CloudSim.SIM_ANY) {
+			// If a predicate has been used store it in order to check it
+			waitPredicates.put(src, p);
+		}
+	}
+
+	/**
+	 * Checks if events for a specific entity are present in the deferred event queue.
+	 * 
+	 * @param d the d
+	 * @param p the p
+	 * @return the int
+	 */
+	public int waiting(int d, Predicate p) {
+		return deferred.count(d, p);
+	}
+
+	/**
+	 * Selects an event matching a predicate.
+	 * 
+	 * @param src the src
+	 * @param p the p
+	 * @return the sim event, or <tt>null</tt> if no deferred event matches
+	 */
+	public SimEvent select(int src, Predicate p) {
+		return deferred.select(src, p);
+	}
+
+	/**
+	 * Find first deferred event matching a predicate.
+	 * 
+	 * @param src the src
+	 * @param p the p
+	 * @return the sim event, or <tt>null</tt> if no deferred event matches
+	 */
+	public SimEvent findFirstDeferred(int src, Predicate p) {
+		return deferred.findFirst(src, p);
+	}
+
+	/**
+	 * Removes an event from the event queue.
+	 * 
+	 * @param src the src
+	 * @param p the p
+	 * @return the sim event
+	 */
+	public SimEvent cancel(int src, Predicate p) {
+		// the queue may not be iterated in temporal order, so look for the earliest match
+		SimEvent ev = null;
+		Iterator<SimEvent> iter = future.iterator();
+		while (iter.hasNext()) {
+			SimEvent next = iter.next();
+			if (next.getSource() == src && p.match(next) && (ev == null || next.compareTo(ev) < 0)) {
+				ev = next;
+			}
+		}
+		if (ev != null) {
+			future.remove(ev);
+		}
+
+		return ev;
+	}
+
+	/**
+	 * Removes all events that match a given predicate from the future event queue returns true if
+	 * at least one event has been cancelled; false otherwise.
+	 * 
+	 * @param src the src
+	 * @param p the p
+	 * @return true, if successful
+	 */
+	public boolean cancelAll(int src, Predicate p) {
+		SimEvent ev = null;
+		int previousSize = future.size();
+		Iterator<SimEvent> iter = future.iterator();
+		while (iter.hasNext()) {
+			ev = iter.next();
+			if (ev.getSource() == src && p.match(ev)) {
+				iter.remove();
+			}
+		}
+		return previousSize < future.size();
+	}
+
+	/**
+	 * Removes all the events sent by an entity with a given tag from the future event queue. This
+	 * has the same effect as {@link #cancelAll(int, Predicate)} with a
+	 * {@link org.cloudbus.cloudsim.core.predicates.PredicateType}, but the events of the tag are
+	 * indexed from the first call on, so the queue is not scanned again.
+	 * 
+	 * @param src the src
+	 * @param tag the tag
+	 * @return true, if at least one event has been cancelled
+	 */
+	public boolean cancelAll(int src, int tag) {
+		if (tag < 0) {
+			return cancelAll(src, new PredicateType(tag));
+		}
+		return future.removeAll(src, tag) > 0;
+	}
+
+	/**
+	 * Finds the first event sent by an entity with a given tag in the future event queue. As with
+	 * {@link #cancelAll(int, int)}, the events of the tag are indexed from the first call on.
+	 * 
+	 * @param src the src
+	 * @param tag the tag, which must not be negative
+	 * @return the first event, or <tt>null</tt> if there is none
+	 */
+	public SimEvent findFirstFuture(int src, int tag) {
+		return future.first(src, tag);
+	}
+
+	//
+	// Private internal methods
+	//
+
+	/**
+	 * Processes an event.
+	 * 
+	 * @param e the e
+	 */
+	private void processEvent(SimEvent e) {
+		int dest, src;
+		SimEntity dest_ent;
+		// Update the system's clock
+		if (e.eventTime() < clock) {
+			throw new IllegalArgumentException("Past event detected.");
+		}
+		clock = e.eventTime();
+
+		// Ok now process it
+		switch (e.getType()) {
+			case SimEvent.ENULL:
+				throw new IllegalArgumentException("Event has a null type.");
+
+			case SimEvent.CREATE:
+				SimEntity newe = (SimEntity) e.getData();
+				addEntityDynamically(newe);
+				break;
+
+			case SimEvent.SEND:
+				// Check for matching wait
+				dest = e.getDestination();
+				if (dest < 0) {
+					throw new IllegalArgumentException("Attempt to send to a null entity detected.");
+				} else {
+					int tag = e.getTag();
+					dest_ent = entities.get(dest);
+					if (dest_ent.getState() == SimEntity.WAITING) {
+						Integer destObj = Integer.valueOf(dest);
+						Predicate p = waitPredicates.get(destObj);
+						if ((p == null) || (tag == 9999) || (p.match(e))) {
+							dest_ent.setEventBuffer(zeroCopyDelivery ? e : (SimEvent) e.clone());
+							dest_ent.setState(SimEntity.RUNNABLE);
+							waitPredicates.remove(destObj);
+						} else {
+							deferred.addEvent(e);
+						}
+					} else {
+						deferred.addEvent(e);
+						readyEntities.set(dest);
+					}
+				}
+				break;
+
+			case SimEvent.HOLD_DONE:
+				src = e.getSource();
+				if (src < 0) {
+					throw new IllegalArgumentException("Null entity holding.");
+				} else {
+					entities.get(src).setState(SimEntity.RUNNABLE);
+				}
+				break;
+
+			default:
+				break;
+		}
+	}
+
+	/**
+	 * Internal method used to start the simulation. This method should <b>not</b> be used by user
+	 * simulations.
+	 */
+	public void runStart() {
+		running = true;
+		// Start all the entities
+		for (SimEntity ent : entities) {
+			ent.startEntity();
+		}
+
+		printMessage("Entities started.");
+	}
+
+	/**
+	 * Check if the simulation is still running. This method should be used by entities to check if
+	 * they should continue executing.
+	 * 
+	 * @return if the simulation is still running, otherwise
+	 */
+	public boolean running() {
+		return running;
+	}
+
+	/**
+	 * This method is called if one wants to pause the simulation.
+	 * 
+	 * @return true, if successful otherwise.
+	 */
+	public boolean pauseSimulation() {
+		paused = true;
+		return paused;
+	}
+
+	/**
+	 * This method is called if one wants to pause the simulation at a given time.
+	 * 
+	 * @param time the time at which the simulation has to be paused
+	 * @return true, if successful otherwise.
+	 */
+	public boolean pauseSimulation(long time) {
+		if (time <= clock) {
+			return false;
+		} else {
+			pauseAt = time;
+		}
+		return true;
+	}
+
+	/**
+	 * This method is called if one wants to resume the simulation that has previously been paused.
+	 * 
+	 * @return if the simulation has been restarted or or otherwise.
+	 */
+	public boolean resumeSimulation() {
+		paused = false;
+
+		if (pauseAt <= clock) {
+			pauseAt = -1;
+		}
+
+		return !paused;
+	}
+
+	/**
+	 * Start the simulation running. This should be called after all the entities have been setup
+	 * and added, and their ports linked.
+	 * 
+	 * @return the double last clock value
+	 */
+	public double run() {
+		SimulationContext previous = CloudSim.bindSimulationContext(this);
+		try {
+			return runSimulation();
+		} finally {
+			CloudSim.bindSimulationContext(previous);
+		}
+	}
+
+	/**
+	 * Runs the simulation until it finishes.
+	 * 
+	 * @return the double last clock value
+	 */
+	private double runSimulation() {
+		if (!running) {
+			runStart();
+		}
+		while (true) {
+			if (runClockTick() || abruptTerminate) {
+				break;
+			}
+
+			// this block allows termination of simulation at a specific time
+			if (terminateAt > 0.0 && clock >= terminateAt) {
+				terminateSimulation();
+				clock = terminateAt;
+				break;
+			}
+
+			if (pauseAt != -1
+					&& ((future.size() > 0 && clock <= pauseAt && pauseAt <= future.first().eventTime()) || future
+							.size() == 0 && pauseAt <= clock)) {
+				pauseSimulation();
+				clock = pauseAt;
+			}
+
+			while (paused) {
+				try {
+					Thread.sleep(100);
+				} catch (InterruptedException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+
+		double clock = clock();
+
+		finishSimulation();
+		runStop();
+
+		return clock;
+	}
+
+	/**
+	 * Internal method that allows the entities to terminate. This method should <b>not</b> be used
+	 * in user simulations.
+	 */
+	public void finishSimulation() {
+		// Allow all entities to exit their body method
+		if (!abruptTerminate) {
+			for (SimEntity ent : entities) {
+				if (ent.getState() != SimEntity.FINISHED) {
+					ent.run();
+				}
+			}
+		}
+
+		for (SimEntity ent : entities) {
+			ent.shutdownEntity();
+		}
+		Log.flush();
+
+		// reset all the variables
+		// Private data members
+		entities = null;
+		entitiesByName = null;
+		future = null;
+		deferred = null;
+		clock = 0L;
+		running = false;
+
+		waitPredicates = null;
+		paused = false;
+		pauseAt = -1;
+		abruptTerminate = false;
+	}
+
+	/**
+	 * Abruptally terminate.
+	 */
+	public void abruptallyTerminate() {
+		abruptTerminate = true;
+	}
+
+	/**
+	 * Prints a message about the progress of the simulation.
+	 * 
+	 * @param message the message
+	 */
+	private void printMessage(String message) {
+		Log.printLine(message);
+	}
+
+	/**
+	 * Checks if is paused.
+	 * 
+	 * @return true, if is paused
+	 */
+	public boolean isPaused() {
+		return paused;
+	}
+
+	/**
+	 * Gets the output of the log of this context.
+	 * 
+	 * @return the output, or <tt>null</tt> if it has not been set
+	 * @see Log#getOutput()
+	 */
+	public OutputStream getLogOutput() {
+		return logOutput;
+	}
+
+	/**
+	 * Sets the output of the log of this context.
+	 * 
+	 * @param logOutput the output
+	 * @see Log#setOutput(OutputStream)
+	 */
+	public void setLogOutput(OutputStream logOutput) {
+		this.logOutput = logOutput;
+	}
+
+	/**
+	 * Checks if the log of this context is disabled.
+	 * 
+	 * @return true, if the log is disabled
+	 * @see Log#isDisabled()
+	 */
+	public boolean isLogDisabled() {
+		return logDisabled;
+	}
+
+	/**
+	 * Sets the disable output flag of the log of this context.
+	 * 
+	 * @param logDisabled the new disabled flag
+	 * @see Log#setDisabled(boolean)
+	 */
+	public void setLogDisabled(boolean logDisabled) {
+		this.logDisabled = logDisabled;
+	}
+
+	/**
+	 * Gets the least important level of the messages of a category that the log of this context
+	 * prints.
+	 * 
+	 * @param category the category
+	 * @return the level
+	 * @see Log#getLevel(Log.Category)
+	 */
+	public Log.Level getLogLevel(Log.Category category) {
+		return logLevels[category.ordinal()];
+	}
+
+	/**
+	 * Sets the least important level of the messages of a category that the log of this context
+	 * prints.
+	 * 
+	 * @param category the category
+	 * @param level the level
+	 * @see Log#setLevel(Log.Category, Log.Level)
+	 */
+	public void setLogLevel(Log.Category category, Log.Level level) {
+		logLevels[category.ordinal()] = level;
+	}
+
+	/**
+	 * Creates the log levels of a context, where all the messages of all the categories are
+	 * printed.
+	 * 
+	 * @return the log levels, by category
+	 */
+	private static Log.Level[] newLogLevels() {
+		Log.Level[] levels = new Log.Level[Log.Category.values().length];
+		Arrays.fill(levels, Log.Level.DEBUG);
+		return levels;
+	}
+
+	/**
+	 * Gets the network topology of this context.
+	 * 
+	 * @return the network topology
+	 */
+	public NetworkTopology getNetworkTopology() {
+		return networkTopology;
+	}
+
+	/**
+	 * Gets the start times of the execution time measurements of this context.
+	 * 
+	 * @return the execution times
+	 * @see org.cloudbus.cloudsim.util.ExecutionTimeMeasurer
+	 */
+	public Map<String, Long> getExecutionTimes() {
+		return executionTimes;
+	}
+
+}
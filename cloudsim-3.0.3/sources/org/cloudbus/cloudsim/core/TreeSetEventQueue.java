@@ -0,0 +1,78 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Iterator;
+import java.util.TreeSet;
+
+/**
+ * An event queue engine backed by a {@link TreeSet}. This is the original CloudSim future queue
+ * implementation: every operation is O(log n) and allocates a tree node per event.
+ *
+ * @since CloudSim Toolkit 3.0.3
+ * @see EventQueue
+ */
+public class TreeSetEventQueue implements EventQueue {
+
+	/** The sorted set. */
+	private final TreeSet<SimEvent> sortedSet = new TreeSet<SimEvent>();
+
+	@Override
+	public void add(SimEvent event) {
+		sortedSet.add(event);
+	}
+
+	@Override
+	public SimEvent peek() {
+		if (sortedSet.isEmpty()) {
+			return null;
+		}
+		return sortedSet.first();
+	}
+
+	@Override
+	public SimEvent poll() {
+		return sortedSet.pollFirst();
+	}
+
+	@Override
+	public int pollSameTime(SimEvent[] buffer, int offset) {
+		if (sortedSet.isEmpty()) {
+			return 0;
+		}
+		double time = sortedSet.first().eventTime();
+		int count = 0;
+		while (offset + count < buffer.length && !sortedSet.isEmpty()
+				&& sortedSet.first().eventTime() == time) {
+			buffer[offset + count++] = sortedSet.pollFirst();
+		}
+		return count;
+	}
+
+	@Override
+	public boolean remove(SimEvent event) {
+		return sortedSet.remove(event);
+	}
+
+	@Override
+	public int size() {
+		return sortedSet.size();
+	}
+
+	@Override
+	public void clear() {
+		sortedSet.clear();
+	}
+
+	@Override
+	public Iterator<SimEvent> iterator() {
+		return sortedSet.iterator();
+	}
+
+}
@@ -59,4 +59,23 @@ public class PredicateFrom extends Predicate {
 		return false;
 	}
 
+	/**
+	 * Gets the number of source entities of this predicate.
+	 * 
+	 * @return the number of source entities
+	 */
+	public int getNumberOfSources() {
+		return ids.length;
+	}
+
+	/**
+	 * Gets the id of a source entity of this predicate.
+	 * 
+	 * @param index the index of the source entity
+	 * @return the id of the source entity
+	 */
+	public int getSourceId(int index) {
+		return ids[index];
+	}
+
 }
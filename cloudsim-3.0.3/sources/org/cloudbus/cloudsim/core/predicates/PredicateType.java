@@ -58,4 +58,23 @@ public class PredicateType extends Predicate {
 		return false;
 	}
 
+	/**
+	 * Gets the number of tags of this predicate.
+	 * 
+	 * @return the number of tags
+	 */
+	public int getNumberOfTags() {
+		return tags.length;
+	}
+
+	/**
+	 * Gets a tag of this predicate.
+	 * 
+	 * @param index the index of the tag
+	 * @return the tag
+	 */
+	public int getTag(int index) {
+		return tags[index];
+	}
+
 }
@@ -24,7 +24,6 @@ import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.VmAllocationPolicy;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
-import org.cloudbus.cloudsim.core.SimEvent;
 
 /**
  * NetworkDatacenter class is a Datacenter whose hostList are virtualized and networked. It contains
@@ -128,22 +127,19 @@ public class NetworkDatacenter extends Datacenter {
 	}
 
 	/**
-	 * Processes a Cloudlet submission.
+	 * Processes the submission of a Cloudlet, sent alone or as part of a batch of Cloudlets.
 	 * 
-	 * @param ev a SimEvent object
+	 * @param cl the Cloudlet
 	 * @param ack an acknowledgement
 	 * 
-	 * @pre ev != null
+	 * @pre cl != null
 	 * @post $none
 	 */
 	@Override
-	protected void processCloudletSubmit(SimEvent ev, boolean ack) {
+	protected void processCloudletSubmit(Cloudlet cl, boolean ack) {
 		updateCloudletProcessing();
 
 		try {
-			// gets the Cloudlet object
-			Cloudlet cl = (Cloudlet) ev.getData();
-
 			// checks whether this Cloudlet has finished or not
 			if (cl.isFinished()) {
 				String name = CloudSim.getEntityName(cl.getUserId());
@@ -191,10 +187,10 @@ public class NetworkDatacenter extends Datacenter {
 			if (estimatedFinishTime > 0.0) { // if this cloudlet is in the exec
 				// time to process the cloudlet
 				estimatedFinishTime += fileTransferTime;
-				send(getId(), estimatedFinishTime, CloudSimTags.VM_DATACENTER_EVENT);
+				scheduleCloudletProcessing(estimatedFinishTime);
 
 				// event to update the stages
-				send(getId(), 0.0001, CloudSimTags.VM_DATACENTER_EVENT);
+				scheduleCloudletProcessing(0.0001);
 			}
 
 			if (ack) {
@@ -218,4 +214,15 @@ public class NetworkDatacenter extends Datacenter {
 		checkCloudletCompletion();
 	}
 
+	/**
+	 * Dirty host tracking is not supported, as the hosts exchange packets when their processing is
+	 * updated.
+	 * 
+	 * @return false
+	 */
+	@Override
+	protected boolean isDirtyHostTrackingSupported() {
+		return false;
+	}
+
 }
@@ -8,6 +8,7 @@
 
 package org.cloudbus.cloudsim.power;
 
+import java.util.Arrays;
 import java.util.List;
 
 import org.cloudbus.cloudsim.Pe;
@@ -34,6 +35,24 @@ import org.cloudbus.cloudsim.util.MathUtil;
  */
 public class PowerHostUtilizationHistory extends PowerHost {
 
+	/** The host utilization history, newest value first, of which the first values are valid. */
+	private final double[] utilizationHistory = new double[PowerVm.HISTORY_LENGTH];
+
+	/** The number of valid values of the host utilization history. */
+	private int utilizationHistoryLength;
+
+	/** The VMs from which the host utilization history has been computed. */
+	private PowerVm[] historyVms = new PowerVm[0];
+
+	/** The versions of the histories of the VMs when the host utilization history was computed. */
+	private long[] historyVersions = new long[0];
+
+	/** The MIPS of the VMs when the host utilization history was computed. */
+	private double[] historyMips = new double[0];
+
+	/** The total MIPS of the host when the host utilization history was computed. */
+	private double historyHostMips = -1;
+
 	/**
 	 * Instantiates a new power host utilization history.
 	 * 
@@ -57,19 +76,131 @@ public class PowerHostUtilizationHistory extends PowerHost {
 	}
 
 	/**
-	 * Gets the host utilization history.
+	 * Gets the host utilization history, newest value first. The returned array is a copy, so the
+	 * caller can modify it.
 	 * 
 	 * @return the host utilization history
 	 */
 	protected double[] getUtilizationHistory() {
-		double[] utilizationHistory = new double[PowerVm.HISTORY_LENGTH];
+		updateUtilizationHistory();
+		return Arrays.copyOf(utilizationHistory, utilizationHistoryLength);
+	}
+
+	/**
+	 * Copies the host utilization history, newest value first, into a given array.
+	 * 
+	 * @param history the array, of at least {@link PowerVm#HISTORY_LENGTH} values
+	 * @return the number of values copied
+	 */
+	public int getUtilizationHistory(double[] history) {
+		updateUtilizationHistory();
+		System.arraycopy(utilizationHistory, 0, history, 0, utilizationHistoryLength);
+		return utilizationHistoryLength;
+	}
+
+	/**
+	 * Computes the host utilization history the host would have if a VM was allocated to it, into
+	 * a given array, without allocating the VM. The history of the VM is added last, as it would
+	 * be after the VM is appended to the VM list, so the values are the same as once the VM is
+	 * allocated.
+	 * 
+	 * @param history the array, of at least {@link PowerVm#HISTORY_LENGTH} values
+	 * @param vm the VM
+	 * @return the number of values of the history
+	 */
+	public int getUtilizationHistory(double[] history, PowerVm vm) {
+		updateUtilizationHistory();
+		System.arraycopy(utilizationHistory, 0, history, 0, utilizationHistory.length);
+		double hostMips = getTotalMips();
+		for (int i = 0; i < vm.getUtilizationHistorySize(); i++) {
+			history[i] += vm.getUtilizationHistoryValue(i) * vm.getMips() / hostMips;
+		}
+		int length = utilizationHistory.length;
+		while (length > 1 && history[length - 1] == 0) { // as MathUtil.countNonZeroBeginning
+			length--;
+		}
+		return length;
+	}
+
+	/**
+	 * Gets the number of values of the host utilization history, without copying it.
+	 * 
+	 * @return the host utilization history length
+	 */
+	public int getUtilizationHistoryLength() {
+		updateUtilizationHistory();
+		return utilizationHistoryLength;
+	}
+
+	/**
+	 * Gets a value of the host utilization history, without copying it.
+	 * 
+	 * @param index the index of the value, 0 being the newest
+	 * @return the host utilization
+	 * @throws IndexOutOfBoundsException if there is no such value
+	 */
+	public double getUtilizationHistoryValue(int index) {
+		updateUtilizationHistory();
+		if (index < 0 || index >= utilizationHistoryLength) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Length: "
+					+ utilizationHistoryLength);
+		}
+		return utilizationHistory[index];
+	}
+
+	/**
+	 * Computes the host utilization history again if a VM has been added to or removed from the
+	 * host, or if the history of one of the VMs has changed since it was last computed. The values
+	 * are summed in the order of the VM list, so they do not depend on when they are computed.
+	 */
+	private void updateUtilizationHistory() {
+		List<PowerVm> vmList = getVmList();
 		double hostMips = getTotalMips();
-		for (PowerVm vm : this.<PowerVm> getVmList()) {
-			for (int i = 0; i < vm.getUtilizationHistory().size(); i++) {
-				utilizationHistory[i] += vm.getUtilizationHistory().get(i) * vm.getMips() / hostMips;
+		if (isUtilizationHistoryValid(vmList, hostMips)) {
+			return;
+		}
+
+		int vmCount = vmList.size();
+		if (historyVms.length != vmCount) {
+			historyVms = new PowerVm[vmCount];
+			historyVersions = new long[vmCount];
+			historyMips = new double[vmCount];
+		}
+		historyHostMips = hostMips;
+		Arrays.fill(utilizationHistory, 0);
+		for (int j = 0; j < vmCount; j++) {
+			PowerVm vm = vmList.get(j);
+			historyVms[j] = vm;
+			historyVersions[j] = vm.getUtilizationHistoryVersion();
+			historyMips[j] = vm.getMips();
+			for (int i = 0; i < vm.getUtilizationHistorySize(); i++) {
+				utilizationHistory[i] += vm.getUtilizationHistoryValue(i) * vm.getMips() / hostMips;
+			}
+		}
+
+		utilizationHistoryLength = MathUtil.countNonZeroBeginning(utilizationHistory);
+	}
+
+	/**
+	 * Checks whether the host utilization history computed last is still valid.
+	 * 
+	 * @param vmList the VMs of the host
+	 * @param hostMips the total MIPS of the host
+	 * @return true, if it is still valid
+	 */
+	private boolean isUtilizationHistoryValid(List<PowerVm> vmList, double hostMips) {
+		if (hostMips != historyHostMips || vmList.size() != historyVms.length) {
+			return false;
+		}
+		for (int j = 0; j < historyVms.length; j++) {
+			PowerVm vm = vmList.get(j);
+			if (vm != historyVms[j]
+					|| vm.getUtilizationHistoryVersion() != historyVersions[j]
+					|| vm.getMips() != historyMips[j]) {
+				return false;
 			}
 		}
-		return MathUtil.trimZeroTail(utilizationHistory);
+		return true;
 	}
 
 }
@@ -0,0 +1,229 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.cloudbus.cloudsim.HostDynamicWorkload;
+import org.cloudbus.cloudsim.HostUtilizationListener;
+
+/**
+ * An index of power hosts by CPU utilization. The active hosts, i.e. those with a utilization
+ * above zero, are kept ordered by utilization, while the switched off hosts are kept apart. The
+ * index listens to its hosts, and is updated whenever
+ * {@link HostDynamicWorkload#updateVmsProcessing(double)} changes the utilization of one of them,
+ * so the least utilized host is found in O(log n) instead of a pass over all the hosts.
+ * <p>
+ * Hosts with the same utilization are ordered as in the host list, so the first acceptable host
+ * of {@link #getActiveHosts(double)} is the one a pass over the host list keeping the first
+ * minimum would find.
+ * 
+ * @since CloudSim Toolkit 3.0.3
+ */
+public class PowerHostUtilizationIndex implements HostUtilizationListener {
+
+	/** The host list. */
+	private final List<PowerHost> hostList;
+
+	/** The entries of the hosts. */
+	private final Map<HostDynamicWorkload, Entry> entries = new HashMap<HostDynamicWorkload, Entry>();
+
+	/** The active hosts, ordered by utilization and then by position in the host list. */
+	private final TreeSet<Entry> activeHosts = new TreeSet<Entry>();
+
+	/** The positions in the host list of the switched off hosts. */
+	private final BitSet switchedOffHosts = new BitSet();
+
+	/**
+	 * Instantiates a new index of the given hosts, and registers it as a utilization listener of
+	 * each of them.
+	 * 
+	 * @param hostList the host list
+	 */
+	public PowerHostUtilizationIndex(List<? extends PowerHost> hostList) {
+		this.hostList = new ArrayList<PowerHost>(hostList);
+		for (int i = 0; i < this.hostList.size(); i++) {
+			PowerHost host = this.hostList.get(i);
+			Entry entry = new Entry(host, i, host.getUtilizationOfCpu());
+			entries.put(host, entry);
+			add(entry);
+			host.addUtilizationListener(this);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.HostUtilizationListener#utilizationChanged(org.cloudbus.cloudsim.
+	 * HostDynamicWorkload)
+	 */
+	@Override
+	public void utilizationChanged(HostDynamicWorkload host) {
+		Entry entry = entries.get(host);
+		if (entry == null) {
+			return;
+		}
+		if (entry.utilization > 0) {
+			activeHosts.remove(entry);
+		} else {
+			switchedOffHosts.clear(entry.index);
+		}
+		entry.utilization = host.getUtilizationOfCpu();
+		add(entry);
+	}
+
+	/**
+	 * Adds an entry to the active or to the switched off hosts, depending on its utilization.
+	 * 
+	 * @param entry the entry
+	 */
+	private void add(Entry entry) {
+		if (entry.utilization > 0) {
+			activeHosts.add(entry);
+		} else {
+			switchedOffHosts.set(entry.index);
+		}
+	}
+
+	/**
+	 * Gets the active hosts with a utilization below the given one, from the least utilized. The
+	 * returned view must not be iterated across an update of the utilization of the hosts.
+	 * 
+	 * @param maxUtilization the utilization, excluded, below which the hosts are returned
+	 * @return the active hosts
+	 */
+	public Iterable<PowerHost> getActiveHosts(double maxUtilization) {
+		final Iterable<Entry> view = activeHosts.headSet(new Entry(null, -1, maxUtilization));
+		return new Iterable<PowerHost>() {
+
+			@Override
+			public Iterator<PowerHost> iterator() {
+				final Iterator<Entry> iterator = view.iterator();
+				return new Iterator<PowerHost>() {
+
+					@Override
+					public boolean hasNext() {
+						return iterator.hasNext();
+					}
+
+					@Override
+					public PowerHost next() {
+						return iterator.next().host;
+					}
+
+					@Override
+					public void remove() {
+						throw new UnsupportedOperationException();
+					}
+				};
+			}
+		};
+	}
+
+	/**
+	 * Gets the least utilized active host.
+	 * 
+	 * @return the least utilized host, or null if all the hosts are switched off
+	 */
+	public PowerHost getLeastUtilizedHost() {
+		if (activeHosts.isEmpty()) {
+			return null;
+		}
+		return activeHosts.first().host;
+	}
+
+	/**
+	 * Gets the switched off hosts, in the order of the host list.
+	 * 
+	 * @return the switched off hosts
+	 */
+	public List<PowerHost> getSwitchedOffHosts() {
+		List<PowerHost> result = new ArrayList<PowerHost>(switchedOffHosts.cardinality());
+		for (int i = switchedOffHosts.nextSetBit(0); i >= 0; i = switchedOffHosts.nextSetBit(i + 1)) {
+			result.add(hostList.get(i));
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the number of active hosts.
+	 * 
+	 * @return the number of active hosts
+	 */
+	public int getActiveHostsNumber() {
+		return activeHosts.size();
+	}
+
+	/**
+	 * Gets the number of switched off hosts.
+	 * 
+	 * @return the number of switched off hosts
+	 */
+	public int getSwitchedOffHostsNumber() {
+		return switchedOffHosts.cardinality();
+	}
+
+	/**
+	 * Unregisters the index from the utilization listeners of its hosts. The index is no longer
+	 * updated afterwards.
+	 */
+	public void detach() {
+		for (PowerHost host : hostList) {
+			host.removeUtilizationListener(this);
+		}
+	}
+
+	/**
+	 * The entry of a host, keyed by the utilization it has been indexed with.
+	 */
+	private static class Entry implements Comparable<Entry> {
+
+		/** The host. */
+		private final PowerHost host;
+
+		/** The position of the host in the host list. */
+		private final int index;
+
+		/** The utilization. */
+		private double utilization;
+
+		/**
+		 * Instantiates a new entry.
+		 * 
+		 * @param host the host
+		 * @param index the position of the host in the host list
+		 * @param utilization the utilization
+		 */
+		public Entry(PowerHost host, int index, double utilization) {
+			this.host = host;
+			this.index = index;
+			this.utilization = utilization;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Comparable#compareTo(java.lang.Object)
+		 */
+		@Override
+		public int compareTo(Entry other) {
+			int result = Double.compare(utilization, other.utilization);
+			if (result == 0) {
+				result = index < other.index ? -1 : (index == other.index ? 0 : 1);
+			}
+			return result;
+		}
+
+	}
+
+}
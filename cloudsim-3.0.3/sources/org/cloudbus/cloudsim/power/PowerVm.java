@@ -8,7 +8,7 @@
 
 package org.cloudbus.cloudsim.power;
 
-import java.util.LinkedList;
+import java.util.AbstractList;
 import java.util.List;
 
 import org.cloudbus.cloudsim.CloudletScheduler;
@@ -36,8 +36,35 @@ public class PowerVm extends Vm {
 	/** The Constant HISTORY_LENGTH. */
 	public static final int HISTORY_LENGTH = 30;
 
-	/** The utilization history. */
-	private final List<Double> utilizationHistory = new LinkedList<Double>();
+	/**
+	 * The utilization history, kept as a ring buffer. The newest value is at the position
+	 * {@link #utilizationHistoryStart}, the older ones follow it.
+	 */
+	private final double[] utilizationHistory = new double[HISTORY_LENGTH];
+
+	/** The position of the newest value of the utilization history. */
+	private int utilizationHistoryStart;
+
+	/** The number of values of the utilization history. */
+	private int utilizationHistorySize;
+
+	/** The number of values added to the utilization history so far. */
+	private long utilizationHistoryVersion;
+
+	/** A read-only list view of the utilization history, newest value first. */
+	private final List<Double> utilizationHistoryList = new AbstractList<Double>() {
+
+		@Override
+		public Double get(int index) {
+			return getUtilizationHistoryValue(index);
+		}
+
+		@Override
+		public int size() {
+			return getUtilizationHistorySize();
+		}
+
+	};
 
 	/** The previous time. */
 	private double previousTime;
@@ -108,15 +135,16 @@ public class PowerVm extends Vm {
 	 */
 	public double getUtilizationMad() {
 		double mad = 0;
-		if (!getUtilizationHistory().isEmpty()) {
-			int n = HISTORY_LENGTH;
-			if (HISTORY_LENGTH > getUtilizationHistory().size()) {
-				n = getUtilizationHistory().size();
+		int n = getUtilizationHistorySize();
+		if (n > 0) {
+			double[] data = new double[n];
+			for (int i = 0; i < n; i++) {
+				data[i] = getUtilizationHistoryValue(i);
 			}
-			double median = MathUtil.median(getUtilizationHistory());
+			double median = MathUtil.median(data);
 			double[] deviationSum = new double[n];
 			for (int i = 0; i < n; i++) {
-				deviationSum[i] = Math.abs(median - getUtilizationHistory().get(i));
+				deviationSum[i] = Math.abs(median - data[i]);
 			}
 			mad = MathUtil.median(deviationSum);
 		}
@@ -130,13 +158,10 @@ public class PowerVm extends Vm {
 	 */
 	public double getUtilizationMean() {
 		double mean = 0;
-		if (!getUtilizationHistory().isEmpty()) {
-			int n = HISTORY_LENGTH;
-			if (HISTORY_LENGTH > getUtilizationHistory().size()) {
-				n = getUtilizationHistory().size();
-			}
+		int n = getUtilizationHistorySize();
+		if (n > 0) {
 			for (int i = 0; i < n; i++) {
-				mean += getUtilizationHistory().get(i);
+				mean += getUtilizationHistoryValue(i);
 			}
 			mean /= n;
 		}
@@ -151,13 +176,10 @@ public class PowerVm extends Vm {
 	public double getUtilizationVariance() {
 		double mean = getUtilizationMean();
 		double variance = 0;
-		if (!getUtilizationHistory().isEmpty()) {
-			int n = HISTORY_LENGTH;
-			if (HISTORY_LENGTH > getUtilizationHistory().size()) {
-				n = getUtilizationHistory().size();
-			}
+		int n = getUtilizationHistorySize();
+		if (n > 0) {
 			for (int i = 0; i < n; i++) {
-				double tmp = getUtilizationHistory().get(i) * getMips() - mean;
+				double tmp = getUtilizationHistoryValue(i) * getMips() - mean;
 				variance += tmp * tmp;
 			}
 			variance /= n;
@@ -166,24 +188,62 @@ public class PowerVm extends Vm {
 	}
 
 	/**
-	 * Adds the utilization history value.
+	 * Adds the utilization history value. Once the history holds {@link #HISTORY_LENGTH} values,
+	 * the oldest value is dropped.
 	 * 
 	 * @param utilization the utilization
 	 */
 	public void addUtilizationHistoryValue(final double utilization) {
-		getUtilizationHistory().add(0, utilization);
-		if (getUtilizationHistory().size() > HISTORY_LENGTH) {
-			getUtilizationHistory().remove(HISTORY_LENGTH);
+		utilizationHistoryStart = (utilizationHistoryStart + HISTORY_LENGTH - 1) % HISTORY_LENGTH;
+		utilizationHistory[utilizationHistoryStart] = utilization;
+		if (utilizationHistorySize < HISTORY_LENGTH) {
+			utilizationHistorySize++;
+		}
+		utilizationHistoryVersion++;
+	}
+
+	/**
+	 * Gets the number of values of the utilization history.
+	 * 
+	 * @return the utilization history size
+	 */
+	public int getUtilizationHistorySize() {
+		return utilizationHistorySize;
+	}
+
+	/**
+	 * Gets a value of the utilization history.
+	 * 
+	 * @param index the index of the value, 0 being the newest
+	 * @return the utilization
+	 * @throws IndexOutOfBoundsException if there is no such value
+	 */
+	public double getUtilizationHistoryValue(final int index) {
+		if (index < 0 || index >= utilizationHistorySize) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: "
+					+ utilizationHistorySize);
 		}
+		return utilizationHistory[(utilizationHistoryStart + index) % HISTORY_LENGTH];
+	}
+
+	/**
+	 * Gets the number of values added to the utilization history so far. It changes each time the
+	 * history changes, so it can be used to tell whether a value computed from the history is
+	 * still valid.
+	 * 
+	 * @return the utilization history version
+	 */
+	public long getUtilizationHistoryVersion() {
+		return utilizationHistoryVersion;
 	}
 
 	/**
-	 * Gets the utilization history.
+	 * Gets the utilization history, newest value first. The list is a read-only view of the history.
 	 * 
 	 * @return the utilization history
 	 */
 	protected List<Double> getUtilizationHistory() {
-		return utilizationHistory;
+		return utilizationHistoryList;
 	}
 
 	/**
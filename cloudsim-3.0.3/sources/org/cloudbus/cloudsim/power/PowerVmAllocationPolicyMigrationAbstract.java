@@ -11,18 +11,33 @@ package org.cloudbus.cloudsim.power;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.HostDynamicWorkload;
 import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Migration;
 import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmAllocationJournal;
 import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimulationContext;
 import org.cloudbus.cloudsim.power.lists.PowerVmList;
+import org.cloudbus.cloudsim.provisioners.BwProvisioner;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisioner;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
 import org.cloudbus.cloudsim.util.ExecutionTimeMeasurer;
+import org.cloudbus.cloudsim.util.StatisticsWorkspace;
 
 /**
  * The class of an abstract power-aware VM allocation policy that dynamically optimizes the VM
@@ -44,8 +59,8 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	/** The vm selection policy. */
 	private PowerVmSelectionPolicy vmSelectionPolicy;
 
-	/** The saved allocation. */
-	private final List<Map<String, Object>> savedAllocation = new ArrayList<Map<String, Object>>();
+	/** The journal of the tentative allocations made while optimizing. */
+	private final VmAllocationJournal allocationJournal = new VmAllocationJournal();
 
 	/** The utilization history. */
 	private final Map<Integer, List<Double>> utilizationHistory = new HashMap<Integer, List<Double>>();
@@ -68,6 +83,25 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	/** The execution time history total. */
 	private final List<Double> executionTimeHistoryTotal = new LinkedList<Double>();
 
+	/** The statistics workspaces, one per thread checking the hosts. */
+	private final ThreadLocal<StatisticsWorkspace> statistics = new ThreadLocal<StatisticsWorkspace>() {
+
+		@Override
+		protected StatisticsWorkspace initialValue() {
+			return new StatisticsWorkspace();
+		}
+
+	};
+
+	/** The number of threads scoring the hosts in findHostForVm. */
+	private int hostSelectionParallelism = 1;
+
+	/** The index of the hosts by utilization. */
+	private PowerHostUtilizationIndex hostUtilizationIndex;
+
+	/** The executor running the host scoring threads other than the calling one. */
+	private ExecutorService hostSelectionExecutor;
+
 	/**
 	 * Instantiates a new power vm allocation policy migration abstract.
 	 * 
@@ -86,10 +120,10 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 * 
 	 * @param vmList the vm list
 	 * 
-	 * @return the array list< hash map< string, object>>
+	 * @return the migrations
 	 */
 	@Override
-	public List<Map<String, Object>> optimizeAllocation(List<? extends Vm> vmList) {
+	public List<Migration> optimizeAllocation(List<? extends Vm> vmList) {
 		ExecutionTimeMeasurer.start("optimizeAllocationTotal");
 
 		ExecutionTimeMeasurer.start("optimizeAllocationHostSelection");
@@ -107,7 +141,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 
 		Log.printLine("Reallocation of VMs from the over-utilized hosts:");
 		ExecutionTimeMeasurer.start("optimizeAllocationVmReallocation");
-		List<Map<String, Object>> migrationMap = getNewVmPlacement(vmsToMigrate, new HashSet<Host>(
+		List<Migration> migrationMap = getNewVmPlacement(vmsToMigrate, new HashSet<Host>(
 				overUtilizedHosts));
 		getExecutionTimeHistoryVmReallocation().add(
 				ExecutionTimeMeasurer.end("optimizeAllocationVmReallocation"));
@@ -128,9 +162,9 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 * @param overUtilizedHosts the over utilized hosts
 	 * @return the migration map from under utilized hosts
 	 */
-	protected List<Map<String, Object>> getMigrationMapFromUnderUtilizedHosts(
+	protected List<Migration> getMigrationMapFromUnderUtilizedHosts(
 			List<PowerHostUtilizationHistory> overUtilizedHosts) {
-		List<Map<String, Object>> migrationMap = new LinkedList<Map<String, Object>>();
+		List<Migration> migrationMap = new LinkedList<Migration>();
 		List<PowerHost> switchedOffHosts = getSwitchedOffHosts();
 
 		// over-utilized hosts + hosts that are selected to migrate VMs to from over-utilized hosts
@@ -146,12 +180,18 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 
 		int numberOfHosts = getHostList().size();
 
+		// the utilization does not change while optimizing, so the candidates are only walked once
+		Iterator<PowerHost> underUtilizedHostCandidates = getHostUtilizationIndex().getActiveHosts(1)
+				.iterator();
+
 		while (true) {
 			if (numberOfHosts == excludedHostsForFindingUnderUtilizedHost.size()) {
 				break;
 			}
 
-			PowerHost underUtilizedHost = getUnderUtilizedHost(excludedHostsForFindingUnderUtilizedHost);
+			PowerHost underUtilizedHost = getUnderUtilizedHost(
+					underUtilizedHostCandidates,
+					excludedHostsForFindingUnderUtilizedHost);
 			if (underUtilizedHost == null) {
 				break;
 			}
@@ -174,7 +214,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 			}
 			Log.printLine();
 
-			List<Map<String, Object>> newVmPlacement = getNewVmPlacementFromUnderUtilizedHost(
+			List<Migration> newVmPlacement = getNewVmPlacementFromUnderUtilizedHost(
 					vmsToMigrateFromUnderUtilizedHost,
 					excludedHostsForFindingNewVmPlacement);
 
@@ -210,6 +250,9 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 * @return the power host
 	 */
 	public PowerHost findHostForVm(Vm vm, Set<? extends Host> excludedHosts) {
+		if (getHostSelectionParallelism() > 1) {
+			return findHostForVmInParallel(vm, excludedHosts);
+		}
 		double minPower = Double.MAX_VALUE;
 		PowerHost allocatedHost = null;
 
@@ -238,6 +281,124 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		return allocatedHost;
 	}
 
+	/**
+	 * Find host for vm, scoring the hosts in parallel. The host list is split into one range per
+	 * thread; each range is scored as by the serial version of
+	 * {@link #findHostForVm(Vm, Set)}, except that the hosts are checked with
+	 * {@link #isHostOverUtilizedWithVm(PowerHost, Vm, double)} instead of being allocated the VM.
+	 * The best hosts of the ranges are then compared in the order of the host list, so the result
+	 * is the same as the one of the serial version.
+	 * <p>
+	 * The requests of the VM are computed once by the calling thread, so the threads do not ask the
+	 * VM concurrently, and the threads act on the simulation context of the calling thread.
+	 * 
+	 * @param vm the vm
+	 * @param excludedHosts the excluded hosts
+	 * @return the power host
+	 */
+	protected PowerHost findHostForVmInParallel(final Vm vm, final Set<? extends Host> excludedHosts) {
+		final List<PowerHost> hostList = this.<PowerHost> getHostList();
+		int parallelism = getHostSelectionParallelism();
+		int rangeSize = (hostList.size() + parallelism - 1) / parallelism;
+		final SimulationContext context = CloudSim.getSimulationContext();
+		final VmRequest request = new VmRequest(vm);
+
+		List<Future<HostScore>> futures = new ArrayList<Future<HostScore>>();
+		for (int from = rangeSize; from < hostList.size(); from += rangeSize) {
+			final int start = from;
+			final int end = Math.min(from + rangeSize, hostList.size());
+			futures.add(getHostSelectionExecutor().submit(new Callable<HostScore>() {
+
+				@Override
+				public HostScore call() {
+					CloudSim.setSimulationContext(context);
+					try {
+						return scoreHostsForVm(vm, request, excludedHosts, hostList, start, end);
+					} finally {
+						CloudSim.setSimulationContext(null);
+					}
+				}
+
+			}));
+		}
+		HostScore best = scoreHostsForVm(
+				vm,
+				request,
+				excludedHosts,
+				hostList,
+				0,
+				Math.min(rangeSize, hostList.size()));
+
+		for (Future<HostScore> future : futures) {
+			HostScore score;
+			try {
+				score = future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while scoring the hosts", e);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				throw new IllegalStateException(e.getCause());
+			}
+			if (score.powerDiff < best.powerDiff) {
+				best = score;
+			}
+		}
+		return best.host;
+	}
+
+	/**
+	 * Finds the host of a range of the host list with the lowest power increase after the
+	 * allocation of a VM, without allocating it.
+	 * 
+	 * @param vm the vm
+	 * @param request the requests of the vm
+	 * @param excludedHosts the excluded hosts
+	 * @param hostList the host list
+	 * @param from the index of the first host of the range
+	 * @param to the index after the last host of the range
+	 * @return the best host of the range, with its power increase
+	 */
+	private HostScore scoreHostsForVm(
+			Vm vm,
+			VmRequest request,
+			Set<? extends Host> excludedHosts,
+			List<PowerHost> hostList,
+			int from,
+			int to) {
+		HostScore score = new HostScore();
+		for (int i = from; i < to; i++) {
+			PowerHost host = hostList.get(i);
+			if (excludedHosts.contains(host)) {
+				continue;
+			}
+			if (request.isSuitableHost(host, vm, this)) {
+				if (getUtilizationOfCpuMips(host) != 0
+						&& (host.getStorage() < vm.getSize() || isHostOverUtilizedWithVm(
+								host,
+								vm,
+								request.totalMips))) {
+					continue;
+				}
+
+				try {
+					double powerAfterAllocation = getPowerAfterAllocation(host, request.totalMips);
+					if (powerAfterAllocation != -1) {
+						double powerDiff = powerAfterAllocation - host.getPower();
+						if (powerDiff < score.powerDiff) {
+							score.powerDiff = powerDiff;
+							score.host = host;
+						}
+					}
+				} catch (Exception e) {
+				}
+			}
+		}
+		return score;
+	}
+
 	/**
 	 * Checks if is host over utilized after allocation.
 	 * 
@@ -247,13 +408,54 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 */
 	protected boolean isHostOverUtilizedAfterAllocation(PowerHost host, Vm vm) {
 		boolean isHostOverUtilizedAfterAllocation = true;
+		Host vmHost = vm.getHost();
 		if (host.vmCreate(vm)) {
 			isHostOverUtilizedAfterAllocation = isHostOverUtilized(host);
 			host.vmDestroy(vm);
+			vm.setHost(vmHost);
 		}
 		return isHostOverUtilizedAfterAllocation;
 	}
 
+	/**
+	 * Checks if a host would be over utilized if a VM was allocated to it, given that the VM fits
+	 * in the host. It is used when the hosts are scored in parallel, so it is called concurrently
+	 * for different hosts, and must give the same result as
+	 * {@link #isHostOverUtilizedAfterAllocation(PowerHost, Vm)}.
+	 * <p>
+	 * This implementation allocates the VM to the host and releases it, one host at a time. The
+	 * policies of this package override it with an estimate that leaves the host unchanged, so the
+	 * hosts are really checked in parallel; a policy overriding {@link #isHostOverUtilized(PowerHost)}
+	 * should override this method too.
+	 * 
+	 * @param host the host
+	 * @param vm the vm
+	 * @param vmRequestedTotalMips the total MIPS requested by the vm, computed beforehand, as the
+	 *            vm must not be asked concurrently
+	 * @return true, if the host would be over utilized
+	 */
+	protected boolean isHostOverUtilizedWithVm(PowerHost host, Vm vm, double vmRequestedTotalMips) {
+		synchronized (this) {
+			return isHostOverUtilizedAfterAllocation(host, vm);
+		}
+	}
+
+	/**
+	 * Gets the total MIPS requested by the VMs of a host and by a VM that would be allocated to it.
+	 * The VM is counted last, as it would be once appended to the VM list of the host.
+	 * 
+	 * @param host the host
+	 * @param vmRequestedTotalMips the total MIPS requested by the vm
+	 * @return the total requested MIPS
+	 */
+	protected double getRequestedTotalMipsWithVm(PowerHost host, double vmRequestedTotalMips) {
+		double totalRequestedMips = 0;
+		for (Vm hostVm : host.getVmList()) {
+			totalRequestedMips += hostVm.getCurrentRequestedTotalMips();
+		}
+		return totalRequestedMips + vmRequestedTotalMips;
+	}
+
 	/**
 	 * Find host for vm.
 	 * 
@@ -275,10 +477,10 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 * @param migrationMap the migration map
 	 * @return the list
 	 */
-	protected List<PowerHost> extractHostListFromMigrationMap(List<Map<String, Object>> migrationMap) {
+	protected List<PowerHost> extractHostListFromMigrationMap(List<Migration> migrationMap) {
 		List<PowerHost> hosts = new LinkedList<PowerHost>();
-		for (Map<String, Object> map : migrationMap) {
-			hosts.add((PowerHost) map.get("host"));
+		for (Migration migration : migrationMap) {
+			hosts.add((PowerHost) migration.getTargetHost());
 		}
 		return hosts;
 	}
@@ -290,21 +492,18 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 * @param excludedHosts the excluded hosts
 	 * @return the new vm placement
 	 */
-	protected List<Map<String, Object>> getNewVmPlacement(
+	protected List<Migration> getNewVmPlacement(
 			List<? extends Vm> vmsToMigrate,
 			Set<? extends Host> excludedHosts) {
-		List<Map<String, Object>> migrationMap = new LinkedList<Map<String, Object>>();
+		List<Migration> migrationMap = new LinkedList<Migration>();
 		PowerVmList.sortByCpuUtilization(vmsToMigrate);
 		for (Vm vm : vmsToMigrate) {
 			PowerHost allocatedHost = findHostForVm(vm, excludedHosts);
 			if (allocatedHost != null) {
-				allocatedHost.vmCreate(vm);
+				getAllocationJournal().vmCreate(allocatedHost, vm);
 				Log.printLine("VM #" + vm.getId() + " allocated to host #" + allocatedHost.getId());
 
-				Map<String, Object> migrate = new HashMap<String, Object>();
-				migrate.put("vm", vm);
-				migrate.put("host", allocatedHost);
-				migrationMap.add(migrate);
+				migrationMap.add(new Migration(vm, allocatedHost));
 			}
 		}
 		return migrationMap;
@@ -317,26 +516,22 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 * @param excludedHosts the excluded hosts
 	 * @return the new vm placement from under utilized host
 	 */
-	protected List<Map<String, Object>> getNewVmPlacementFromUnderUtilizedHost(
+	protected List<Migration> getNewVmPlacementFromUnderUtilizedHost(
 			List<? extends Vm> vmsToMigrate,
 			Set<? extends Host> excludedHosts) {
-		List<Map<String, Object>> migrationMap = new LinkedList<Map<String, Object>>();
+		List<Migration> migrationMap = new LinkedList<Migration>();
+		int journalSize = getAllocationJournal().size();
 		PowerVmList.sortByCpuUtilization(vmsToMigrate);
 		for (Vm vm : vmsToMigrate) {
 			PowerHost allocatedHost = findHostForVm(vm, excludedHosts);
 			if (allocatedHost != null) {
-				allocatedHost.vmCreate(vm);
+				getAllocationJournal().vmCreate(allocatedHost, vm);
 				Log.printLine("VM #" + vm.getId() + " allocated to host #" + allocatedHost.getId());
 
-				Map<String, Object> migrate = new HashMap<String, Object>();
-				migrate.put("vm", vm);
-				migrate.put("host", allocatedHost);
-				migrationMap.add(migrate);
+				migrationMap.add(new Migration(vm, allocatedHost));
 			} else {
 				Log.printLine("Not all VMs can be reallocated from the host, reallocation cancelled");
-				for (Map<String, Object> map : migrationMap) {
-					((Host) map.get("host")).vmDestroy((Vm) map.get("vm"));
-				}
+				getAllocationJournal().rollback(journalSize);
 				migrationMap.clear();
 				break;
 			}
@@ -361,7 +556,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 					break;
 				}
 				vmsToMigrate.add(vm);
-				host.vmDestroy(vm);
+				getAllocationJournal().vmDestroy(host, vm);
 				if (!isHostOverUtilized(host)) {
 					break;
 				}
@@ -407,13 +602,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 * @return the switched off host
 	 */
 	protected List<PowerHost> getSwitchedOffHosts() {
-		List<PowerHost> switchedOffHosts = new LinkedList<PowerHost>();
-		for (PowerHost host : this.<PowerHost> getHostList()) {
-			if (host.getUtilizationOfCpu() == 0) {
-				switchedOffHosts.add(host);
-			}
-		}
-		return switchedOffHosts;
+		return getHostUtilizationIndex().getSwitchedOffHosts();
 	}
 
 	/**
@@ -423,20 +612,29 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 * @return the under utilized host
 	 */
 	protected PowerHost getUnderUtilizedHost(Set<? extends Host> excludedHosts) {
-		double minUtilization = 1;
-		PowerHost underUtilizedHost = null;
-		for (PowerHost host : this.<PowerHost> getHostList()) {
-			if (excludedHosts.contains(host)) {
-				continue;
-			}
-			double utilization = host.getUtilizationOfCpu();
-			if (utilization > 0 && utilization < minUtilization
-					&& !areAllVmsMigratingOutOrAnyVmMigratingIn(host)) {
-				minUtilization = utilization;
-				underUtilizedHost = host;
+		return getUnderUtilizedHost(getHostUtilizationIndex().getActiveHosts(1).iterator(), excludedHosts);
+	}
+
+	/**
+	 * Gets the under utilized host, advancing the given iterator over the active hosts ordered by
+	 * utilization up to the first host that is neither excluded nor has all its VMs migrating out
+	 * or any VM migrating in. The hosts passed over are not returned by later calls with the same
+	 * iterator, so the excluded hosts must only grow between these calls.
+	 * 
+	 * @param candidates the iterator over the candidate hosts
+	 * @param excludedHosts the excluded hosts
+	 * @return the under utilized host
+	 */
+	protected PowerHost getUnderUtilizedHost(
+			Iterator<PowerHost> candidates,
+			Set<? extends Host> excludedHosts) {
+		while (candidates.hasNext()) {
+			PowerHost host = candidates.next();
+			if (!excludedHosts.contains(host) && !areAllVmsMigratingOutOrAnyVmMigratingIn(host)) {
+				return host;
 			}
 		}
-		return underUtilizedHost;
+		return null;
 	}
 
 	/**
@@ -471,7 +669,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 * @param host the host
 	 * @param metric the metric
 	 */
-	protected void addHistoryEntry(HostDynamicWorkload host, double metric) {
+	protected synchronized void addHistoryEntry(HostDynamicWorkload host, double metric) {
 		int hostId = host.getId();
 		if (!getTimeHistory().containsKey(hostId)) {
 			getTimeHistory().put(hostId, new LinkedList<Double>());
@@ -490,40 +688,17 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	}
 
 	/**
-	 * Save allocation.
+	 * Save allocation, by starting a new journal of the tentative allocations made from now on.
 	 */
 	protected void saveAllocation() {
-		getSavedAllocation().clear();
-		for (Host host : getHostList()) {
-			for (Vm vm : host.getVmList()) {
-				if (host.getVmsMigratingIn().contains(vm)) {
-					continue;
-				}
-				Map<String, Object> map = new HashMap<String, Object>();
-				map.put("host", host);
-				map.put("vm", vm);
-				getSavedAllocation().add(map);
-			}
-		}
+		getAllocationJournal().clear();
 	}
 
 	/**
-	 * Restore allocation.
+	 * Restore allocation, by rolling back the tentative allocations made since it has been saved.
 	 */
 	protected void restoreAllocation() {
-		for (Host host : getHostList()) {
-			host.vmDestroyAll();
-			host.reallocateMigratingInVms();
-		}
-		for (Map<String, Object> map : getSavedAllocation()) {
-			Vm vm = (Vm) map.get("vm");
-			PowerHost host = (PowerHost) map.get("host");
-			if (!host.vmCreate(vm)) {
-				Log.printLine("Couldn't restore VM #" + vm.getId() + " on host #" + host.getId());
-				System.exit(0);
-			}
-			getVmTable().put(vm.getUid(), host);
-		}
+		getAllocationJournal().rollback();
 	}
 
 	/**
@@ -535,9 +710,22 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 * @return the power after allocation
 	 */
 	protected double getPowerAfterAllocation(PowerHost host, Vm vm) {
+		return getPowerAfterAllocation(host, vm.getCurrentRequestedTotalMips());
+	}
+
+	/**
+	 * Gets the power after allocation of a VM requesting the given MIPS.
+	 * 
+	 * @param host the host
+	 * @param vmRequestedTotalMips the total MIPS requested by the vm
+	 * 
+	 * @return the power after allocation
+	 */
+	protected double getPowerAfterAllocation(PowerHost host, double vmRequestedTotalMips) {
 		double power = 0;
 		try {
-			power = host.getPowerModel().getPower(getMaxUtilizationAfterAllocation(host, vm));
+			power = host.getPowerModel().getPower(
+					getMaxUtilizationAfterAllocation(host, vmRequestedTotalMips));
 		} catch (Exception e) {
 			e.printStackTrace();
 			System.exit(0);
@@ -555,7 +743,19 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 * @return the power after allocation
 	 */
 	protected double getMaxUtilizationAfterAllocation(PowerHost host, Vm vm) {
-		double requestedTotalMips = vm.getCurrentRequestedTotalMips();
+		return getMaxUtilizationAfterAllocation(host, vm.getCurrentRequestedTotalMips());
+	}
+
+	/**
+	 * Gets the utilization of the CPU of a host after the allocation of a VM requesting the given
+	 * MIPS.
+	 * 
+	 * @param host the host
+	 * @param requestedTotalMips the total MIPS requested by the vm
+	 * 
+	 * @return the utilization after allocation
+	 */
+	protected double getMaxUtilizationAfterAllocation(PowerHost host, double requestedTotalMips) {
 		double hostUtilizationMips = getUtilizationOfCpuMips(host);
 		double hostPotentialUtilizationMips = hostUtilizationMips + requestedTotalMips;
 		double pePotentialUtilization = hostPotentialUtilizationMips / host.getTotalMips();
@@ -564,9 +764,9 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	
 	/**
 	 * Gets the utilization of the CPU in MIPS for the current potentially allocated VMs.
-	 *
+	 * 
 	 * @param host the host
-	 *
+	 * 
 	 * @return the utilization of the CPU in MIPS
 	 */
 	protected double getUtilizationOfCpuMips(PowerHost host) {
@@ -582,12 +782,12 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	}
 
 	/**
-	 * Gets the saved allocation.
+	 * Gets the journal of the tentative allocations.
 	 * 
-	 * @return the saved allocation
+	 * @return the allocation journal
 	 */
-	protected List<Map<String, Object>> getSavedAllocation() {
-		return savedAllocation;
+	protected VmAllocationJournal getAllocationJournal() {
+		return allocationJournal;
 	}
 
 	/**
@@ -671,4 +871,160 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		return executionTimeHistoryTotal;
 	}
 
+	/**
+	 * Gets the index of the hosts by utilization, creating it on first use. The index is then kept up
+	 * to date by the hosts.
+	 * 
+	 * @return the host utilization index
+	 */
+	protected PowerHostUtilizationIndex getHostUtilizationIndex() {
+		if (hostUtilizationIndex == null) {
+			hostUtilizationIndex = new PowerHostUtilizationIndex(this.<PowerHost> getHostList());
+		}
+		return hostUtilizationIndex;
+	}
+
+	/**
+	 * Gets the statistics workspace of the current thread.
+	 * 
+	 * @return the statistics workspace
+	 */
+	protected StatisticsWorkspace getStatistics() {
+		return statistics.get();
+	}
+
+	/**
+	 * Gets the number of threads scoring the hosts in findHostForVm.
+	 * 
+	 * @return the host selection parallelism
+	 */
+	public int getHostSelectionParallelism() {
+		return hostSelectionParallelism;
+	}
+
+	/**
+	 * Sets the number of threads scoring the hosts in findHostForVm. With more than one thread,
+	 * the host list is split between the calling thread and daemon threads of the policy, which
+	 * check the hosts with {@link #isHostOverUtilizedWithVm(PowerHost, Vm, double)}. The selected
+	 * hosts are the same whatever the number of threads.
+	 * 
+	 * @param hostSelectionParallelism the number of threads, 1 to score the hosts serially
+	 * @throws IllegalArgumentException if the number of threads is not positive
+	 */
+	public void setHostSelectionParallelism(int hostSelectionParallelism) {
+		if (hostSelectionParallelism < 1) {
+			throw new IllegalArgumentException("The host selection parallelism must be positive");
+		}
+		if (hostSelectionExecutor != null) {
+			hostSelectionExecutor.shutdown();
+			hostSelectionExecutor = null;
+		}
+		this.hostSelectionParallelism = hostSelectionParallelism;
+	}
+
+	/**
+	 * Gets the executor running the host scoring threads other than the calling one, creating it
+	 * if needed.
+	 * 
+	 * @return the host selection executor
+	 */
+	private ExecutorService getHostSelectionExecutor() {
+		if (hostSelectionExecutor == null) {
+			hostSelectionExecutor = Executors.newFixedThreadPool(
+					getHostSelectionParallelism() - 1,
+					new ThreadFactory() {
+
+						@Override
+						public Thread newThread(Runnable runnable) {
+							Thread thread = new Thread(runnable, "HostSelection");
+							thread.setDaemon(true);
+							return thread;
+						}
+
+					});
+		}
+		return hostSelectionExecutor;
+	}
+
+	/**
+	 * The best host of a range of the host list for a VM.
+	 */
+	private static class HostScore {
+
+		/** The host, or null if no host of the range fits. */
+		private PowerHost host;
+
+		/** The power increase of the host after the allocation. */
+		private double powerDiff = Double.MAX_VALUE;
+
+	}
+
+	/**
+	 * The requests of a VM, computed once before the hosts are scored in parallel.
+	 */
+	private static class VmRequest {
+
+		/** The maximum MIPS requested by a PE of the VM. */
+		private final double maxMips;
+
+		/** The total MIPS requested by the VM. */
+		private final double totalMips;
+
+		/** The RAM requested by the VM. */
+		private final int ram;
+
+		/** The RAM a simple provisioner allocates to the VM, i.e. the request capped by its RAM. */
+		private final int cappedRam;
+
+		/** The bandwidth requested by the VM. */
+		private final long bw;
+
+		/**
+		 * Computes the requests of a VM.
+		 * 
+		 * @param vm the vm
+		 */
+		private VmRequest(Vm vm) {
+			maxMips = vm.getCurrentRequestedMaxMips();
+			totalMips = vm.getCurrentRequestedTotalMips();
+			ram = vm.getCurrentRequestedRam();
+			cappedRam = Math.min(ram, vm.getRam());
+			bw = vm.getCurrentRequestedBw();
+		}
+
+		/**
+		 * Checks whether a host can run the VM, as {@link Host#isSuitableForVm(Vm)} does. The
+		 * provisioners check a VM by allocating and releasing its resources, which also sets the
+		 * resources allocated to the VM, so they can't be asked concurrently. The simple
+		 * provisioners are checked by comparing the requests with the available resources, the
+		 * resources already allocated to the VM included, and the others one host at a time.
+		 * 
+		 * @param host the host
+		 * @param vm the vm
+		 * @param lock the lock held while other provisioners are asked
+		 * @return true, if the host is suitable for the VM
+		 */
+		private boolean isSuitableHost(Host host, Vm vm, Object lock) {
+			if (host.getVmScheduler().getPeCapacity() < maxMips
+					|| host.getVmScheduler().getAvailableMips() < totalMips) {
+				return false;
+			}
+			RamProvisioner ramProvisioner = host.getRamProvisioner();
+			BwProvisioner bwProvisioner = host.getBwProvisioner();
+			if (ramProvisioner.getClass() == RamProvisionerSimple.class
+					&& bwProvisioner.getClass() == BwProvisionerSimple.class) {
+				int availableRam = ramProvisioner.getAvailableRam()
+						+ ramProvisioner.getAllocatedRamForVm(vm);
+				long availableBw = bwProvisioner.getAvailableBw()
+						+ bwProvisioner.getAllocatedBwForVm(vm);
+				return availableRam >= cappedRam && availableBw >= bw;
+			}
+			synchronized (lock) {
+				return ramProvisioner.isSuitableForVm(vm, ram)
+						&& bwProvisioner.isSuitableForVm(vm, bw);
+			}
+		}
+
+	}
+
 }
@@ -13,7 +13,6 @@ import java.util.List;
 import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.Vm;
-import org.cloudbus.cloudsim.util.MathUtil;
 
 /**
  * The Inter Quartile Range (IQR) VM allocation policy.
@@ -32,6 +31,9 @@ import org.cloudbus.cloudsim.util.MathUtil;
 public class PowerVmAllocationPolicyMigrationInterQuartileRange extends
 		PowerVmAllocationPolicyMigrationAbstract {
 
+	/** The utilization history of the host being checked. */
+	private final double[] hostUtilizationHistory = new double[PowerVm.HISTORY_LENGTH];
+
 	/** The safety parameter. */
 	private double safetyParameter = 0;
 
@@ -98,6 +100,32 @@ public class PowerVmAllocationPolicyMigrationInterQuartileRange extends
 		return utilization > upperThreshold;
 	}
 
+	/**
+	 * Checks if a host would be over utilized if a VM was allocated to it, without allocating it.
+	 * 
+	 * @param host the host
+	 * @param vm the vm
+	 * @param vmRequestedTotalMips the total MIPS requested by the vm
+	 * @return true, if the host would be over utilized
+	 */
+	@Override
+	protected boolean isHostOverUtilizedWithVm(PowerHost host, Vm vm, double vmRequestedTotalMips) {
+		PowerHostUtilizationHistory _host = (PowerHostUtilizationHistory) host;
+		double[] data = getStatistics().getDataBuffer(PowerVm.HISTORY_LENGTH);
+		int length = _host.getUtilizationHistory(data, (PowerVm) vm);
+		if (length < 12) { // 12 has been suggested as a safe value
+			return getFallbackVmAllocationPolicy().isHostOverUtilizedWithVm(
+					host,
+					vm,
+					vmRequestedTotalMips);
+		}
+		double upperThreshold = 1 - getSafetyParameter() * getStatistics().iqr(data, length);
+		addHistoryEntry(host, upperThreshold);
+		double utilization = getRequestedTotalMipsWithVm(host, vmRequestedTotalMips)
+				/ host.getTotalMips();
+		return utilization > upperThreshold;
+	}
+
 	/**
 	 * Gets the host utilization iqr.
 	 * 
@@ -105,9 +133,9 @@ public class PowerVmAllocationPolicyMigrationInterQuartileRange extends
 	 * @return the host utilization iqr
 	 */
 	protected double getHostUtilizationIqr(PowerHostUtilizationHistory host) throws IllegalArgumentException {
-		double[] data = host.getUtilizationHistory();
-		if (MathUtil.countNonZeroBeginning(data) >= 12) { // 12 has been suggested as a safe value
-			return MathUtil.iqr(data);
+		int length = host.getUtilizationHistory(hostUtilizationHistory);
+		if (length >= 12) { // 12 has been suggested as a safe value
+			return getStatistics().iqr(hostUtilizationHistory, length);
 		}
 		throw new IllegalArgumentException();
 	}
@@ -12,7 +12,6 @@ import java.util.List;
 
 import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.Vm;
-import org.cloudbus.cloudsim.util.MathUtil;
 
 /**
  * The Local Regression (LR) VM allocation policy.
@@ -39,6 +38,12 @@ public class PowerVmAllocationPolicyMigrationLocalRegression extends PowerVmAllo
 	/** The fallback vm allocation policy. */
 	private PowerVmAllocationPolicyMigrationAbstract fallbackVmAllocationPolicy;
 
+	/**
+	 * The last values of the utilization history of the host being checked, oldest first. We use
+	 * 10 values to make the regression responsive enough to latest values.
+	 */
+	private final double[] utilizationHistoryReversed = new double[10];
+
 	/**
 	 * Instantiates a new power vm allocation policy migration local regression.
 	 * 
@@ -90,14 +95,12 @@ public class PowerVmAllocationPolicyMigrationLocalRegression extends PowerVmAllo
 	@Override
 	protected boolean isHostOverUtilized(PowerHost host) {
 		PowerHostUtilizationHistory _host = (PowerHostUtilizationHistory) host;
-		double[] utilizationHistory = _host.getUtilizationHistory();
-		int length = 10; // we use 10 to make the regression responsive enough to latest values
-		if (utilizationHistory.length < length) {
+		int length = utilizationHistoryReversed.length;
+		if (_host.getUtilizationHistoryLength() < length) {
 			return getFallbackVmAllocationPolicy().isHostOverUtilized(host);
 		}
-		double[] utilizationHistoryReversed = new double[length];
 		for (int i = 0; i < length; i++) {
-			utilizationHistoryReversed[i] = utilizationHistory[length - i - 1];
+			utilizationHistoryReversed[i] = _host.getUtilizationHistoryValue(length - i - 1);
 		}
 		double[] estimates = null;
 		try {
@@ -114,6 +117,48 @@ public class PowerVmAllocationPolicyMigrationLocalRegression extends PowerVmAllo
 		return predictedUtilization >= 1;
 	}
 
+	/**
+	 * Checks if a host would be over utilized if a VM was allocated to it, without allocating it.
+	 * 
+	 * @param host the host
+	 * @param vm the vm
+	 * @param vmRequestedTotalMips the total MIPS requested by the vm
+	 * @return true, if the host would be over utilized
+	 */
+	@Override
+	protected boolean isHostOverUtilizedWithVm(PowerHost host, Vm vm, double vmRequestedTotalMips) {
+		PowerHostUtilizationHistory _host = (PowerHostUtilizationHistory) host;
+		double[] utilizationHistory = getStatistics().getDataBuffer(PowerVm.HISTORY_LENGTH);
+		int length = utilizationHistoryReversed.length;
+		if (_host.getUtilizationHistory(utilizationHistory, (PowerVm) vm) < length) {
+			return getFallbackVmAllocationPolicy().isHostOverUtilizedWithVm(
+					host,
+					vm,
+					vmRequestedTotalMips);
+		}
+		double[] historyReversed = getStatistics().getReversedDataBuffer(length);
+		for (int i = 0; i < length; i++) {
+			historyReversed[i] = utilizationHistory[length - i - 1];
+		}
+		double[] estimates = null;
+		try {
+			estimates = getParameterEstimates(historyReversed);
+		} catch (IllegalArgumentException e) {
+			return getFallbackVmAllocationPolicy().isHostOverUtilizedWithVm(
+					host,
+					vm,
+					vmRequestedTotalMips);
+		}
+		double migrationIntervals = Math.ceil(getMaximumVmMigrationTime(_host, vm)
+				/ getSchedulingInterval());
+		double predictedUtilization = estimates[0] + estimates[1] * (length + migrationIntervals);
+		predictedUtilization *= getSafetyParameter();
+
+		addHistoryEntry(host, predictedUtilization);
+
+		return predictedUtilization >= 1;
+	}
+
 	/**
 	 * Gets the parameter estimates.
 	 * 
@@ -121,9 +166,12 @@ public class PowerVmAllocationPolicyMigrationLocalRegression extends PowerVmAllo
 	 * @return the parameter estimates
 	 */
 	protected double[] getParameterEstimates(double[] utilizationHistoryReversed) {
-		return MathUtil.getLoessParameterEstimates(utilizationHistoryReversed);
+		return getStatistics().getLoessParameterEstimates(
+				utilizationHistoryReversed,
+				utilizationHistoryReversed.length);
 	}
 
+
 	/**
 	 * Gets the maximum vm migration time.
 	 * 
@@ -141,6 +189,24 @@ public class PowerVmAllocationPolicyMigrationLocalRegression extends PowerVmAllo
 		return maxRam / ((double) host.getBw() / (2 * 8000));
 	}
 
+	/**
+	 * Gets the maximum vm migration time of a host if a VM was allocated to it.
+	 * 
+	 * @param host the host
+	 * @param vm the vm
+	 * @return the maximum vm migration time
+	 */
+	protected double getMaximumVmMigrationTime(PowerHost host, Vm vm) {
+		int maxRam = vm.getRam();
+		for (Vm hostVm : host.getVmList()) {
+			int ram = hostVm.getRam();
+			if (ram > maxRam) {
+				maxRam = ram;
+			}
+		}
+		return maxRam / ((double) host.getBw() / (2 * 8000));
+	}
+
 	/**
 	 * Sets the scheduling interval.
 	 * 
@@ -64,6 +64,22 @@ public class PowerVmAllocationPolicyMigrationStaticThreshold extends PowerVmAllo
 		return utilization > getUtilizationThreshold();
 	}
 
+	/**
+	 * Checks if a host would be over utilized if a VM was allocated to it, without allocating it.
+	 * 
+	 * @param host the host
+	 * @param vm the vm
+	 * @param vmRequestedTotalMips the total MIPS requested by the vm
+	 * @return true, if the host would be over utilized
+	 */
+	@Override
+	protected boolean isHostOverUtilizedWithVm(PowerHost host, Vm vm, double vmRequestedTotalMips) {
+		addHistoryEntry(host, getUtilizationThreshold());
+		double utilization = getRequestedTotalMipsWithVm(host, vmRequestedTotalMips)
+				/ host.getTotalMips();
+		return utilization > getUtilizationThreshold();
+	}
+
 	/**
 	 * Sets the utilization threshold.
 	 * 
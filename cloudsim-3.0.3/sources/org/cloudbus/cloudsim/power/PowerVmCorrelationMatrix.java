@@ -0,0 +1,200 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.List;
+
+/**
+ * The matrix of the sums of the cross products of the deviations from their means of the CPU
+ * utilization histories of a set of VMs, over the same number of the most recent history values.
+ * The multiple correlation coefficient of each VM of any subset, with the other VMs of the subset,
+ * follows from this Gram matrix without fitting a regression per VM: it is
+ * <tt>1 - 1 / (C[i][i] * inverse(C)[i][i])</tt>, where <tt>C</tt> is the matrix restricted to the
+ * subset.
+ * <p>
+ * The matrix records the versions of the utilization histories of its VMs, so it can tell when it
+ * has to be computed again.
+ * 
+ * @see PowerVmSelectionPolicyMaximumCorrelation
+ * @since CloudSim Toolkit 3.0.3
+ */
+public class PowerVmCorrelationMatrix {
+
+	/**
+	 * The ratio under which the utilization of a VM is taken as constant, when comparing its sum of
+	 * squared deviations to its sum of squares, or as collinear with the utilization of the previous
+	 * VMs, when comparing the pivot of the Cholesky decomposition to its sum of squared deviations.
+	 */
+	public static final double MIN_PIVOT_RATIO = 1e-8;
+
+	/** The VMs. */
+	private final PowerVm[] vms;
+
+	/** The versions of the utilization histories of the VMs when the matrix was computed. */
+	private final long[] versions;
+
+	/** The number of the most recent history values used. */
+	private final int window;
+
+	/** The sums of the cross products of the deviations. */
+	private final double[][] crossProducts;
+
+	/** Whether the utilization of each VM is constant. */
+	private final boolean[] constant;
+
+	/**
+	 * Instantiates a new correlation matrix.
+	 * 
+	 * @param vmList the VMs
+	 * @param window the number of the most recent history values used, at most the size of the
+	 *            utilization history of each VM
+	 */
+	public PowerVmCorrelationMatrix(List<PowerVm> vmList, int window) {
+		int n = vmList.size();
+		this.window = window;
+		vms = new PowerVm[n];
+		versions = new long[n];
+		crossProducts = new double[n][n];
+		constant = new boolean[n];
+		double[][] deviations = new double[n][window];
+		for (int i = 0; i < n; i++) {
+			PowerVm vm = vmList.get(i);
+			vms[i] = vm;
+			versions[i] = vm.getUtilizationHistoryVersion();
+			double sum = 0;
+			double sumOfSquares = 0;
+			for (int j = 0; j < window; j++) {
+				deviations[i][j] = vm.getUtilizationHistoryValue(j);
+				sum += deviations[i][j];
+				sumOfSquares += deviations[i][j] * deviations[i][j];
+			}
+			double mean = sum / window;
+			double sumOfSquaredDeviations = 0;
+			for (int j = 0; j < window; j++) {
+				deviations[i][j] -= mean;
+				sumOfSquaredDeviations += deviations[i][j] * deviations[i][j];
+			}
+			constant[i] = !(sumOfSquaredDeviations > MIN_PIVOT_RATIO * sumOfSquares);
+		}
+		for (int i = 0; i < n; i++) {
+			for (int k = 0; k <= i; k++) {
+				double sum = 0;
+				for (int j = 0; j < window; j++) {
+					sum += deviations[i][j] * deviations[k][j];
+				}
+				crossProducts[i][k] = sum;
+				crossProducts[k][i] = sum;
+			}
+		}
+	}
+
+	/**
+	 * Checks whether the matrix covers the given VMs with their current utilization histories, over
+	 * the given number of history values.
+	 * 
+	 * @param vmList the VMs
+	 * @param window the number of the most recent history values
+	 * @return true, if the matrix can be used for these VMs
+	 */
+	public boolean covers(List<PowerVm> vmList, int window) {
+		if (window != this.window) {
+			return false;
+		}
+		for (PowerVm vm : vmList) {
+			int i = indexOf(vm);
+			if (i < 0 || versions[i] != vm.getUtilizationHistoryVersion()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the multiple correlation coefficient, i.e. the coefficient of determination of the linear
+	 * regression, of each of the given VMs with the other ones.
+	 * 
+	 * @param vmList the VMs, all covered by the matrix
+	 * @return the coefficients, in the order of the VMs, or null if the utilization of a VM is
+	 *         constant or collinear with the ones of the other VMs
+	 */
+	public double[] getMultipleCorrelationCoefficients(List<PowerVm> vmList) {
+		int n = vmList.size();
+		int[] index = new int[n];
+		for (int i = 0; i < n; i++) {
+			index[i] = indexOf(vmList.get(i));
+			if (constant[index[i]]) {
+				return null;
+			}
+		}
+
+		// Cholesky decomposition of the matrix restricted to the VMs
+		double[][] l = new double[n][n];
+		for (int j = 0; j < n; j++) {
+			double variance = crossProducts[index[j]][index[j]];
+			double pivot = variance;
+			for (int k = 0; k < j; k++) {
+				pivot -= l[j][k] * l[j][k];
+			}
+			if (!(pivot > MIN_PIVOT_RATIO * variance)) {
+				return null;
+			}
+			l[j][j] = Math.sqrt(pivot);
+			for (int i = j + 1; i < n; i++) {
+				double sum = crossProducts[index[i]][index[j]];
+				for (int k = 0; k < j; k++) {
+					sum -= l[i][k] * l[j][k];
+				}
+				l[i][j] = sum / l[j][j];
+			}
+		}
+
+		// the diagonal of the inverse from the columns of the inverse of the Cholesky factor
+		double[] coefficients = new double[n];
+		double[] column = new double[n];
+		for (int i = 0; i < n; i++) {
+			column[i] = 1 / l[i][i];
+			double inverseDiagonal = column[i] * column[i];
+			for (int k = i + 1; k < n; k++) {
+				double sum = 0;
+				for (int p = i; p < k; p++) {
+					sum += l[k][p] * column[p];
+				}
+				column[k] = -sum / l[k][k];
+				inverseDiagonal += column[k] * column[k];
+			}
+			coefficients[i] = 1 - 1 / (crossProducts[index[i]][index[i]] * inverseDiagonal);
+		}
+		return coefficients;
+	}
+
+	/**
+	 * Gets the position of a VM in the matrix.
+	 * 
+	 * @param vm the VM
+	 * @return the position, or -1 if the VM is not covered
+	 */
+	private int indexOf(PowerVm vm) {
+		for (int i = 0; i < vms.length; i++) {
+			if (vms[i] == vm) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the number of the most recent history values used.
+	 * 
+	 * @return the window
+	 */
+	public int getWindow() {
+		return window;
+	}
+
+}
@@ -8,8 +8,10 @@
 
 package org.cloudbus.cloudsim.power;
 
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.math3.linear.Array2DRowRealMatrix;
 import org.cloudbus.cloudsim.Vm;
@@ -31,9 +33,19 @@ import org.cloudbus.cloudsim.util.MathUtil;
  */
 public class PowerVmSelectionPolicyMaximumCorrelation extends PowerVmSelectionPolicy {
 
+	/**
+	 * The difference under which the two highest correlation coefficients computed from a
+	 * correlation matrix are computed again by regression, so that the selected VM is the one the
+	 * regressions select.
+	 */
+	public static final double TIE_TOLERANCE = 1e-6;
+
 	/** The fallback policy. */
 	private PowerVmSelectionPolicy fallbackPolicy;
 
+	/** The correlation matrices of the hosts, kept until the VMs or their histories change. */
+	private final Map<PowerHost, PowerVmCorrelationMatrix> correlationMatrices = new HashMap<PowerHost, PowerVmCorrelationMatrix>();
+
 	/**
 	 * Instantiates a new power vm selection policy maximum correlation.
 	 * 
@@ -56,16 +68,24 @@ public class PowerVmSelectionPolicyMaximumCorrelation extends PowerVmSelectionPo
 		if (migratableVms.isEmpty()) {
 			return null;
 		}
-		List<Double> metrics = null;
-		try {
-			metrics = getCorrelationCoefficients(getUtilizationMatrix(migratableVms));
-		} catch (IllegalArgumentException e) { // the degrees of freedom must be greater than zero
-			return getFallbackPolicy().getVmToMigrate(host);
+		double[] metrics = getCorrelationCoefficients(host, migratableVms);
+		if (metrics == null) {
+			List<Double> coefficients = null;
+			try {
+				coefficients = getCorrelationCoefficients(getUtilizationMatrix(migratableVms));
+			} catch (IllegalArgumentException e) { // the degrees of freedom must be greater than zero
+				return getFallbackPolicy().getVmToMigrate(host);
+			}
+			metrics = new double[coefficients.size()];
+			int i = 0;
+			for (double coefficient : coefficients) {
+				metrics[i++] = coefficient;
+			}
 		}
 		double maxMetric = Double.MIN_VALUE;
 		int maxIndex = 0;
-		for (int i = 0; i < metrics.size(); i++) {
-			double metric = metrics.get(i);
+		for (int i = 0; i < metrics.length; i++) {
+			double metric = metrics[i];
 			if (metric > maxMetric) {
 				maxMetric = metric;
 				maxIndex = i;
@@ -74,6 +94,52 @@ public class PowerVmSelectionPolicyMaximumCorrelation extends PowerVmSelectionPo
 		return migratableVms.get(maxIndex);
 	}
 
+	/**
+	 * Gets the correlation coefficients of the VMs of a host from the correlation matrix of the host,
+	 * which is only computed again when the VMs or their utilization histories have changed since
+	 * the last call. The VMs selected one after the other from an over-utilized host thus share the
+	 * same matrix.
+	 * <p>
+	 * Returns null when the coefficients have to be computed by regression instead: when there are
+	 * too few VMs or history values for the regressions, when the utilization of a VM is constant
+	 * or collinear with the others, or when the two highest coefficients are within
+	 * {@link #TIE_TOLERANCE}, as the regressions may then order them differently.
+	 * 
+	 * @param host the host
+	 * @param vmList the migratable VMs of the host
+	 * @return the correlation coefficients, or null
+	 */
+	protected double[] getCorrelationCoefficients(final PowerHost host, final List<PowerVm> vmList) {
+		int n = vmList.size();
+		int m = getMinUtilizationHistorySize(vmList);
+		if (n < 2 || n > m) {
+			return null;
+		}
+		PowerVmCorrelationMatrix matrix = correlationMatrices.get(host);
+		if (matrix == null || !matrix.covers(vmList, m)) {
+			matrix = new PowerVmCorrelationMatrix(vmList, m);
+			correlationMatrices.put(host, matrix);
+		}
+		double[] coefficients = matrix.getMultipleCorrelationCoefficients(vmList);
+		if (coefficients == null) {
+			return null;
+		}
+		double max = Double.NEGATIVE_INFINITY;
+		double secondMax = Double.NEGATIVE_INFINITY;
+		for (double coefficient : coefficients) {
+			if (coefficient > max) {
+				secondMax = max;
+				max = coefficient;
+			} else if (coefficient > secondMax) {
+				secondMax = coefficient;
+			}
+		}
+		if (max < TIE_TOLERANCE || max - secondMax < TIE_TOLERANCE) {
+			return null;
+		}
+		return coefficients;
+	}
+
 	/**
 	 * Gets the utilization matrix.
 	 * 
@@ -85,9 +151,9 @@ public class PowerVmSelectionPolicyMaximumCorrelation extends PowerVmSelectionPo
 		int m = getMinUtilizationHistorySize(vmList);
 		double[][] utilization = new double[n][m];
 		for (int i = 0; i < n; i++) {
-			List<Double> vmUtilization = vmList.get(i).getUtilizationHistory();
-			for (int j = 0; j < vmUtilization.size(); j++) {
-				utilization[i][j] = vmUtilization.get(j);
+			PowerVm vm = vmList.get(i);
+			for (int j = 0; j < m; j++) {
+				utilization[i][j] = vm.getUtilizationHistoryValue(j);
 			}
 		}
 		return utilization;
@@ -102,7 +168,7 @@ public class PowerVmSelectionPolicyMaximumCorrelation extends PowerVmSelectionPo
 	protected int getMinUtilizationHistorySize(final List<PowerVm> vmList) {
 		int minSize = Integer.MAX_VALUE;
 		for (PowerVm vm : vmList) {
-			int size = vm.getUtilizationHistory().size();
+			int size = vm.getUtilizationHistorySize();
 			if (size < minSize) {
 				minSize = size;
 			}
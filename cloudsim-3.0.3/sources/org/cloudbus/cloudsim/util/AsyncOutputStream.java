@@ -0,0 +1,258 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * An output stream that buffers the bytes written to it and writes them to an underlying stream
+ * from a background thread, so the simulation does not wait for the output while tracing. The
+ * bytes are written in the order they have been received. A flush waits until all the bytes
+ * received so far have been written and the underlying stream has been flushed.
+ * <p>
+ * An error of the underlying stream is thrown by the next write, flush or close. The stream must be
+ * closed once no longer used, so the background thread ends.
+ * 
+ * @see org.cloudbus.cloudsim.Log#setOutput(OutputStream)
+ * @since CloudSim Toolkit 3.0.3
+ */
+public class AsyncOutputStream extends OutputStream {
+
+	/** The default size of the buffer, in bytes. */
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+	/** The default number of full buffers waiting to be written. */
+	public static final int DEFAULT_QUEUE_CAPACITY = 16;
+
+	/** The marker that ends the background thread. */
+	private static final Object CLOSE = new Object();
+
+	/** The underlying stream. */
+	private final OutputStream out;
+
+	/** The buffers waiting to be written, and the flush and close markers. */
+	private final BlockingQueue<Object> queue;
+
+	/** The background thread. */
+	private final Thread writer;
+
+	/** The buffer. */
+	private final byte[] buffer;
+
+	/** The number of bytes in the buffer. */
+	private int count;
+
+	/** Whether the stream has been closed. */
+	private boolean closed;
+
+	/** The first error of the underlying stream, if any. */
+	private volatile IOException failure;
+
+	/**
+	 * Instantiates a new stream with the default buffer size and queue capacity.
+	 * 
+	 * @param out the underlying stream
+	 */
+	public AsyncOutputStream(OutputStream out) {
+		this(out, DEFAULT_BUFFER_SIZE, DEFAULT_QUEUE_CAPACITY);
+	}
+
+	/**
+	 * Instantiates a new stream.
+	 * 
+	 * @param out the underlying stream
+	 * @param bufferSize the size of the buffer, in bytes
+	 * @param queueCapacity the number of full buffers waiting to be written, beyond which the
+	 *            writes wait for the background thread
+	 */
+	public AsyncOutputStream(OutputStream out, int bufferSize, int queueCapacity) {
+		if (bufferSize <= 0 || queueCapacity <= 0) {
+			throw new IllegalArgumentException("The buffer size and the queue capacity must be positive");
+		}
+		this.out = out;
+		buffer = new byte[bufferSize];
+		queue = new ArrayBlockingQueue<Object>(queueCapacity);
+		writer = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				writeQueue();
+			}
+		}, "CloudSim log writer");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.io.OutputStream#write(int)
+	 */
+	@Override
+	public synchronized void write(int b) throws IOException {
+		ensureOpen();
+		if (count == buffer.length) {
+			drainBuffer();
+		}
+		buffer[count++] = (byte) b;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.io.OutputStream#write(byte[], int, int)
+	 */
+	@Override
+	public synchronized void write(byte[] b, int off, int len) throws IOException {
+		if (off < 0 || len < 0 || off + len > b.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		ensureOpen();
+		if (len > buffer.length - count) {
+			drainBuffer();
+		}
+		if (len >= buffer.length) {
+			enqueue(Arrays.copyOfRange(b, off, off + len));
+		} else {
+			System.arraycopy(b, off, buffer, count, len);
+			count += len;
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.io.OutputStream#flush()
+	 */
+	@Override
+	public synchronized void flush() throws IOException {
+		ensureOpen();
+		drainBuffer();
+		CountDownLatch flushed = new CountDownLatch(1);
+		enqueue(flushed);
+		try {
+			flushed.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		}
+		checkFailure();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.io.OutputStream#close()
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		try {
+			flush();
+		} finally {
+			closed = true;
+			enqueue(CLOSE);
+			try {
+				writer.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			out.close();
+		}
+	}
+
+	/**
+	 * Hands the bytes of the buffer to the background thread.
+	 * 
+	 * @throws IOException if the thread is interrupted while waiting for the background thread
+	 */
+	private void drainBuffer() throws IOException {
+		if (count > 0) {
+			enqueue(Arrays.copyOf(buffer, count));
+			count = 0;
+		}
+	}
+
+	/**
+	 * Adds a buffer or a marker to the queue, waiting for room if the queue is full.
+	 * 
+	 * @param item the buffer or the marker
+	 * @throws IOException if the thread is interrupted while waiting
+	 */
+	private void enqueue(Object item) throws IOException {
+		try {
+			queue.put(item);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		}
+	}
+
+	/**
+	 * Checks that the stream is open and that the underlying stream has not failed.
+	 * 
+	 * @throws IOException if the stream is closed or the underlying stream has failed
+	 */
+	private void ensureOpen() throws IOException {
+		if (closed) {
+			throw new IOException("The stream is closed");
+		}
+		checkFailure();
+	}
+
+	/**
+	 * Throws the error of the underlying stream, if any.
+	 * 
+	 * @throws IOException the error of the underlying stream
+	 */
+	private void checkFailure() throws IOException {
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * Writes the buffers of the queue to the underlying stream until the close marker. The bytes
+	 * received after an error are dropped.
+	 */
+	private void writeQueue() {
+		while (true) {
+			Object item;
+			try {
+				item = queue.take();
+			} catch (InterruptedException e) {
+				return;
+			}
+			if (item == CLOSE) {
+				return;
+			}
+			try {
+				if (item instanceof byte[]) {
+					if (failure == null) {
+						out.write((byte[]) item);
+					}
+				} else if (failure == null) {
+					out.flush();
+				}
+			} catch (IOException e) {
+				failure = e;
+			} catch (RuntimeException e) {
+				failure = new IOException(e);
+			}
+			if (item instanceof CountDownLatch) {
+				((CountDownLatch) item).countDown();
+			}
+		}
+	}
+
+}
@@ -8,20 +8,19 @@
 
 package org.cloudbus.cloudsim.util;
 
-import java.util.HashMap;
 import java.util.Map;
 
+import org.cloudbus.cloudsim.core.CloudSim;
+
 /**
- * The class for measuring the execution time.
+ * The class for measuring the execution time. The measurements in progress belong to the current
+ * simulation context of {@link CloudSim}.
  * 
  * @author Anton Beloglazov
  * @since CloudSim Toolkit 3.0
  */
 public class ExecutionTimeMeasurer {
 
-	/** The execution times. */
-	private final static Map<String, Long> executionTimes = new HashMap<String, Long>();
-
 	/**
 	 * Start.
 	 * 
@@ -44,12 +43,12 @@ public class ExecutionTimeMeasurer {
 	}
 
 	/**
-	 * Gets the execution times.
+	 * Gets the execution times of the current simulation context.
 	 * 
 	 * @return the execution times
 	 */
 	public static Map<String, Long> getExecutionTimes() {
-		return executionTimes;
+		return CloudSim.getSimulationContext().getExecutionTimes();
 	}
 
 }
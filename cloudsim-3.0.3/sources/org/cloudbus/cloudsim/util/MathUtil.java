@@ -161,16 +161,7 @@ public class MathUtil {
 	 * @return the mad
 	 */
 	public static double mad(final double[] data) {
-		double mad = 0;
-		if (data.length > 0) {
-			double median = median(data);
-			double[] deviationSum = new double[data.length];
-			for (int i = 0; i < data.length; i++) {
-				deviationSum[i] = Math.abs(median - data[i]);
-			}
-			mad = median(deviationSum);
-		}
-		return mad;
+		return new StatisticsWorkspace().mad(data, data.length);
 	}
 
 	/**
@@ -235,13 +226,7 @@ public class MathUtil {
 	 * @return the loess parameter estimates
 	 */
 	public static double[] getLoessParameterEstimates(final double[] y) {
-		int n = y.length;
-		double[] x = new double[n];
-		for (int i = 0; i < n; i++) {
-			x[i] = i + 1;
-		}
-		return createWeigthedLinearRegression(x, y, getTricubeWeigts(n))
-				.regress().getParameterEstimates();
+		return new StatisticsWorkspace().getLoessParameterEstimates(y, y.length);
 	}
 
 	public static SimpleRegression createLinearRegression(final double[] x,
@@ -295,26 +280,7 @@ public class MathUtil {
 	 * @return the robust loess parameter estimates
 	 */
 	public static double[] getRobustLoessParameterEstimates(final double[] y) {
-		int n = y.length;
-		double[] x = new double[n];
-		for (int i = 0; i < n; i++) {
-			x[i] = i + 1;
-		}
-		SimpleRegression tricubeRegression = createWeigthedLinearRegression(x,
-				y, getTricubeWeigts(n));
-		double[] residuals = new double[n];
-		for (int i = 0; i < n; i++) {
-			residuals[i] = y[i] - tricubeRegression.predict(x[i]);
-		}
-		SimpleRegression tricubeBySquareRegression = createWeigthedLinearRegression(
-				x, y, getTricubeBisquareWeigts(residuals));
-
-		double[] estimates = tricubeBySquareRegression.regress()
-				.getParameterEstimates();
-		if (estimates[0] == Double.NaN || estimates[1] == Double.NaN) {
-			return tricubeRegression.regress().getParameterEstimates();
-		}
-		return estimates;
+		return new StatisticsWorkspace().getRobustLoessParameterEstimates(y, y.length);
 	}
 
 	/**
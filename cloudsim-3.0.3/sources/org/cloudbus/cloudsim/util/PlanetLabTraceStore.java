@@ -0,0 +1,324 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.UtilizationModelPlanetLabInMemory;
+
+/**
+ * A store of the PlanetLab traces of a folder, such as
+ * <tt>examples/workload/planetlab/20110303</tt>. The traces are converted once into a binary file, which holds one byte per sample, i.e. the CPU
+ * utilization in percent, and 288 samples per trace. The file is then memory-mapped, and the
+ * utilization models of the traces are views over the shared mapping, so they neither parse the
+ * traces nor hold their own copy of the data.
+ * <p>
+ * The binary file is kept in the temporary directory, and is converted again if the traces of the
+ * folder have changed since. The stores are shared by all the simulations run in the same JVM, and
+ * the mapping is shared with other JVMs by the operating system.
+ * 
+ * @see UtilizationModelPlanetLabInMemory#UtilizationModelPlanetLabInMemory(ByteBuffer, int, int,
+ *      double)
+ * @since CloudSim Toolkit 3.0.3
+ */
+public class PlanetLabTraceStore {
+
+	/** The number of samples read from each trace, i.e. 5 min * 288 = 24 hours. */
+	public static final int SAMPLES = 288;
+
+	/** The magic number of the binary files. */
+	private static final int MAGIC = 0x43535054;
+
+	/** The version of the format of the binary files. */
+	private static final int VERSION = 1;
+
+	/** The open stores, by path of the binary file. */
+	private static final Map<String, PlanetLabTraceStore> STORES = new HashMap<String, PlanetLabTraceStore>();
+
+	/** The positions of the traces in the mapping, by file name. */
+	private final Map<String, Integer> offsets;
+
+	/** The last modification times of the traces when they were converted, by file name. */
+	private final Map<String, Long> lastModified;
+
+	/** The mapping of the samples of all the traces. */
+	private final ByteBuffer percentages;
+
+	/**
+	 * Instantiates a new store.
+	 * 
+	 * @param offsets the positions of the traces in the mapping, by file name
+	 * @param lastModified the last modification times of the traces, by file name
+	 * @param percentages the mapping
+	 */
+	private PlanetLabTraceStore(
+			Map<String, Integer> offsets,
+			Map<String, Long> lastModified,
+			ByteBuffer percentages) {
+		this.offsets = offsets;
+		this.lastModified = lastModified;
+		this.percentages = percentages;
+	}
+
+	/**
+	 * Opens the store of the traces of a folder, converting them into a binary file in the
+	 * temporary directory first if needed.
+	 * 
+	 * @param inputFolder the folder of the traces
+	 * @return the store
+	 * @throws IOException if the traces or the binary file cannot be read, or the binary file
+	 *             cannot be written
+	 */
+	public static PlanetLabTraceStore open(File inputFolder) throws IOException {
+		String path = inputFolder.getCanonicalPath();
+		File storeFile = new File(System.getProperty("java.io.tmpdir"), "cloudsim-planetlab-"
+				+ inputFolder.getName() + "-" + Integer.toHexString(path.hashCode()) + ".bin");
+		return open(inputFolder, storeFile);
+	}
+
+	/**
+	 * Opens the store of the traces of a folder, converting them into the given binary file first
+	 * if the file does not exist or is out of date.
+	 * 
+	 * @param inputFolder the folder of the traces
+	 * @param storeFile the binary file
+	 * @return the store
+	 * @throws IOException if the traces or the binary file cannot be read, or the binary file
+	 *             cannot be written
+	 */
+	public static synchronized PlanetLabTraceStore open(File inputFolder, File storeFile)
+			throws IOException {
+		File[] files = inputFolder.listFiles();
+		if (files == null) {
+			throw new FileNotFoundException("The trace folder " + inputFolder + " does not exist");
+		}
+		List<File> traces = new ArrayList<File>();
+		for (File file : files) {
+			if (file.isFile()) {
+				traces.add(file);
+			}
+		}
+
+		String key = storeFile.getCanonicalPath();
+		PlanetLabTraceStore store = STORES.get(key);
+		if (store != null && store.isUpToDate(traces)) {
+			return store;
+		}
+		store = read(storeFile);
+		if (store == null || !store.isUpToDate(traces)) {
+			write(traces, storeFile);
+			store = read(storeFile);
+			if (store == null) {
+				throw new IOException("The trace store " + storeFile + " cannot be read");
+			}
+		}
+		STORES.put(key, store);
+		return store;
+	}
+
+	/**
+	 * Gets the utilization model of a trace, as a view over the mapping.
+	 * 
+	 * @param fileName the name of the file of the trace in the folder
+	 * @param schedulingInterval the scheduling interval
+	 * @return the utilization model
+	 * @throws IllegalArgumentException if the store has no such trace
+	 */
+	public UtilizationModelPlanetLabInMemory getUtilizationModel(
+			String fileName,
+			double schedulingInterval) {
+		Integer offset = offsets.get(fileName);
+		if (offset == null) {
+			throw new IllegalArgumentException("The trace store has no trace " + fileName);
+		}
+		return new UtilizationModelPlanetLabInMemory(percentages, offset, SAMPLES, schedulingInterval);
+	}
+
+	/**
+	 * Gets the names of the files of the traces.
+	 * 
+	 * @return the file names
+	 */
+	public List<String> getTraceNames() {
+		List<String> names = new ArrayList<String>(offsets.keySet());
+		Collections.sort(names);
+		return names;
+	}
+
+	/**
+	 * Checks whether the store has been converted from the given traces.
+	 * 
+	 * @param traces the files of the traces
+	 * @return true, if the store holds exactly these traces
+	 */
+	private boolean isUpToDate(List<File> traces) {
+		return lastModified.equals(getLastModified(traces));
+	}
+
+	/**
+	 * Gets the last modification times of traces.
+	 * 
+	 * @param traces the files of the traces
+	 * @return the last modification times, by file name
+	 */
+	private static Map<String, Long> getLastModified(List<File> traces) {
+		Map<String, Long> result = new HashMap<String, Long>();
+		for (File trace : traces) {
+			result.put(trace.getName(), trace.lastModified());
+		}
+		return result;
+	}
+
+	/**
+	 * Reads and maps a binary file.
+	 * 
+	 * @param storeFile the binary file
+	 * @return the store, or null if the file does not exist or is not a store of this version
+	 * @throws IOException if the file cannot be read
+	 */
+	private static PlanetLabTraceStore read(File storeFile) throws IOException {
+		if (!storeFile.isFile()) {
+			return null;
+		}
+		Map<String, Integer> offsets = new HashMap<String, Integer>();
+		Map<String, Long> lastModified = new HashMap<String, Long>();
+		long dataOffset;
+		int count;
+		DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(
+				storeFile)));
+		try {
+			if (input.readInt() != MAGIC || input.readInt() != VERSION || input.readInt() != SAMPLES) {
+				return null;
+			}
+			count = input.readInt();
+			dataOffset = input.readLong();
+			for (int i = 0; i < count; i++) {
+				String name = input.readUTF();
+				offsets.put(name, i * SAMPLES);
+				lastModified.put(name, input.readLong());
+			}
+		} catch (EOFException e) {
+			return null;
+		} finally {
+			input.close();
+		}
+
+		RandomAccessFile file = new RandomAccessFile(storeFile, "r");
+		try {
+			FileChannel channel = file.getChannel();
+			if (channel.size() != dataOffset + (long) count * SAMPLES) {
+				return null;
+			}
+			return new PlanetLabTraceStore(offsets, lastModified, channel.map(
+					FileChannel.MapMode.READ_ONLY,
+					dataOffset,
+					(long) count * SAMPLES));
+		} finally {
+			// the mapping stays valid once the file is closed
+			file.close();
+		}
+	}
+
+	/**
+	 * Converts traces into a binary file. The file is written under another name and then
+	 * renamed, so it is never read while being written.
+	 * 
+	 * @param traces the files of the traces
+	 * @param storeFile the binary file
+	 * @throws IOException if a trace cannot be read, or the binary file cannot be written
+	 */
+	private static void write(List<File> traces, File storeFile) throws IOException {
+		ByteArrayOutputStream header = new ByteArrayOutputStream();
+		DataOutputStream headerOutput = new DataOutputStream(header);
+		for (File trace : traces) {
+			headerOutput.writeUTF(trace.getName());
+			headerOutput.writeLong(trace.lastModified());
+		}
+		headerOutput.close();
+
+		File temporaryFile = File.createTempFile(storeFile.getName(), ".tmp", storeFile
+				.getAbsoluteFile().getParentFile());
+		DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(
+				temporaryFile)));
+		try {
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			output.writeInt(SAMPLES);
+			output.writeInt(traces.size());
+			output.writeLong(24 + header.size());
+			header.writeTo(output);
+			for (File trace : traces) {
+				writeTrace(trace, output);
+			}
+		} catch (IOException e) {
+			output.close();
+			temporaryFile.delete();
+			throw e;
+		}
+		output.close();
+
+		if (!temporaryFile.renameTo(storeFile)) {
+			storeFile.delete();
+			if (!temporaryFile.renameTo(storeFile)) {
+				temporaryFile.delete();
+				throw new IOException("The trace store " + storeFile + " cannot be written");
+			}
+		}
+	}
+
+	/**
+	 * Writes the samples of a trace, one byte per sample.
+	 * 
+	 * @param trace the file of the trace
+	 * @param output the output
+	 * @throws IOException if the trace cannot be read, or has a sample that is not a percentage
+	 */
+	private static void writeTrace(File trace, OutputStream output) throws IOException {
+		BufferedReader input = new BufferedReader(new FileReader(trace));
+		try {
+			for (int i = 0; i < SAMPLES; i++) {
+				String line = input.readLine();
+				int percentage;
+				try {
+					percentage = Integer.parseInt(line);
+				} catch (NumberFormatException e) {
+					throw new IOException("Invalid sample " + (i + 1) + " in the trace " + trace);
+				}
+				if (percentage < 0 || percentage > 255) {
+					throw new IOException("Invalid sample " + (i + 1) + " in the trace " + trace);
+				}
+				output.write(percentage);
+			}
+		} finally {
+			input.close();
+		}
+	}
+
+}
@@ -0,0 +1,519 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+/**
+ * A reusable workspace computing the statistics used by the VM allocation policies of the power
+ * package, without allocating memory once it has been sized. The results are the same as the ones
+ * of the corresponding methods of {@link MathUtil}, which rely on the <tt>DescriptiveStatistics</tt>
+ * and <tt>SimpleRegression</tt> classes of Apache Commons Math:
+ * <ul>
+ * <li>the median, MAD and IQR are computed by selecting the needed order statistics in a copy of
+ * the data rather than by sorting it;</li>
+ * <li>the local regressions fit a line by least squares with the same update steps as
+ * <tt>SimpleRegression</tt>; the x values, the tricube weights and the terms of the fit that only
+ * depend on the x values are computed once per window length.</li>
+ * </ul>
+ * The data given to the methods is never modified. A workspace is not thread-safe; each thread
+ * needs its own.
+ * 
+ * @since CloudSim Toolkit 3.0.3
+ */
+public class StatisticsWorkspace {
+
+	/** The length of the window of the local regressions, or -1 if not computed yet. */
+	private int windowLength = -1;
+
+	/** The x values of the window, from 1 to the window length. */
+	private double[] windowX;
+
+	/** The tricube weights of the window. */
+	private double[] tricubeWeights;
+
+	/** Whether the tricube weights are applied to the data of the regression. */
+	private boolean tricubeWeighted;
+
+	/** The square roots of the tricube weights. */
+	private double[] tricubeWeightsSqrt;
+
+	/** The differences between each x value and the mean of the previous ones. */
+	private double[] windowDx;
+
+	/** The sum of the x values of the window. */
+	private double windowSumX;
+
+	/** The sum of the squared deviations of the x values of the window. */
+	private double windowSumXX;
+
+	/** The copy of the data in which the order statistics are selected. */
+	private double[] work = new double[0];
+
+	/** The residuals of the tricube regression. */
+	private double[] residuals = new double[0];
+
+	/** The bisquare weights of the robust regression. */
+	private double[] bisquareWeights = new double[0];
+
+	/** The weighted x values of the regression. */
+	private double[] weightedX = new double[0];
+
+	/** The weighted y values of the regression. */
+	private double[] weightedY = new double[0];
+
+	/** The buffer in which the caller gathers its data. */
+	private double[] dataBuffer = new double[0];
+
+	/** The buffer in which the caller gathers its data in reverse order. */
+	private double[] reversedDataBuffer = new double[0];
+
+	/** The parameter estimates of the last regression: the intercept and the slope. */
+	private final double[] estimates = new double[2];
+
+	/** The number of values of the last regression. */
+	private int n;
+
+	/** The sum of the x values of the last regression. */
+	private double sumX;
+
+	/** The sum of the y values of the last regression. */
+	private double sumY;
+
+	/** The sum of the squared deviations of the x values of the last regression. */
+	private double sumXX;
+
+	/** The sum of the products of the deviations of the last regression. */
+	private double sumXY;
+
+	/**
+	 * Gets the median of the first values of an array, as {@link MathUtil#median(double[])}. NaN
+	 * values are ignored.
+	 * 
+	 * @param data the data
+	 * @param length the number of values
+	 * @return the median, or NaN if there is no value
+	 */
+	public double median(final double[] data, final int length) {
+		if (length == 0) {
+			return Double.NaN;
+		}
+		if (length == 1) {
+			return data[0];
+		}
+		ensureWork(length);
+		int size = 0;
+		for (int i = 0; i < length; i++) {
+			if (!Double.isNaN(data[i])) {
+				work[size++] = data[i];
+			}
+		}
+		return medianOfWork(size);
+	}
+
+	/**
+	 * Gets the median absolute deviation of the first values of an array, as
+	 * {@link MathUtil#mad(double[])}.
+	 * 
+	 * @param data the data
+	 * @param length the number of values
+	 * @return the MAD, or 0 if there is no value
+	 */
+	public double mad(final double[] data, final int length) {
+		if (length == 0) {
+			return 0;
+		}
+		double median = median(data, length);
+		ensureWork(length);
+		for (int i = 0; i < length; i++) {
+			work[i] = Math.abs(median - data[i]);
+		}
+		return median(work, length);
+	}
+
+	/**
+	 * Gets the interquartile range of the first values of an array, as
+	 * {@link MathUtil#iqr(double[])}, except that the array is not sorted.
+	 * 
+	 * @param data the data
+	 * @param length the number of values
+	 * @return the IQR
+	 * @throws IllegalArgumentException if there are less than 2 values
+	 */
+	public double iqr(final double[] data, final int length) {
+		if (length < 2) {
+			throw new IllegalArgumentException("The IQR needs at least 2 values: " + length);
+		}
+		ensureWork(length);
+		System.arraycopy(data, 0, work, 0, length);
+		int q1 = (int) Math.round(0.25 * (length + 1)) - 1;
+		int q3 = (int) Math.round(0.75 * (length + 1)) - 1;
+		double upper = select(work, 0, length, q3);
+		double lower = select(work, 0, q3, q1);
+		return upper - lower;
+	}
+
+	/**
+	 * Gets the loess parameter estimates of the first values of an array, as
+	 * {@link MathUtil#getLoessParameterEstimates(double[])}.
+	 * 
+	 * @param y the y values
+	 * @param length the number of values
+	 * @return the intercept and the slope; the array is reused by the next regression
+	 * @throws IllegalArgumentException if there are less than 3 values
+	 */
+	public double[] getLoessParameterEstimates(final double[] y, final int length) {
+		ensureWindow(length);
+		if (tricubeWeighted) {
+			for (int i = 0; i < length; i++) {
+				weightedX[i] = tricubeWeightsSqrt[i] * windowX[i];
+				weightedY[i] = tricubeWeightsSqrt[i] * y[i];
+			}
+			regress(weightedX, weightedY, length);
+		} else {
+			regressWindow(y);
+		}
+		return getEstimates();
+	}
+
+	/**
+	 * Gets the robust loess parameter estimates of the first values of an array, as
+	 * {@link MathUtil#getRobustLoessParameterEstimates(double[])}.
+	 * 
+	 * @param y the y values
+	 * @param length the number of values
+	 * @return the intercept and the slope; the array is reused by the next regression
+	 * @throws IllegalArgumentException if there are less than 3 values
+	 */
+	public double[] getRobustLoessParameterEstimates(final double[] y, final int length) {
+		getLoessParameterEstimates(y, length);
+		double slope = getSlope();
+		double intercept = getIntercept(slope);
+		for (int i = 0; i < length; i++) {
+			residuals[i] = y[i] - (intercept + slope * windowX[i]);
+		}
+
+		for (int i = 0; i < length; i++) {
+			bisquareWeights[i] = Math.abs(residuals[i]);
+		}
+		double s6 = median(bisquareWeights, length) * 6;
+		for (int i = 2; i < length; i++) {
+			double k = Math.pow(1 - Math.pow(residuals[i] / s6, 2), 2);
+			if (k > 0) {
+				bisquareWeights[i] = (1 / k) * tricubeWeights[i];
+			} else {
+				bisquareWeights[i] = Double.MAX_VALUE;
+			}
+		}
+		bisquareWeights[0] = bisquareWeights[1] = bisquareWeights[2];
+
+		if (countZeroWeights(bisquareWeights, length) >= 0.4 * length) {
+			for (int i = 0; i < length; i++) {
+				weightedX[i] = Math.sqrt(bisquareWeights[i]) * windowX[i];
+				weightedY[i] = Math.sqrt(bisquareWeights[i]) * y[i];
+			}
+			regress(weightedX, weightedY, length);
+		} else {
+			regressWindow(y);
+		}
+		return getEstimates();
+	}
+
+	/**
+	 * Computes the x values, the tricube weights and the x terms of the fit of a window length,
+	 * unless they are already computed.
+	 * 
+	 * @param length the window length
+	 * @throws IllegalArgumentException if the length is less than 3
+	 */
+	private void ensureWindow(final int length) {
+		if (length == windowLength) {
+			return;
+		}
+		if (length < 3) {
+			throw new IllegalArgumentException("A regression needs at least 3 values: " + length);
+		}
+		windowX = new double[length];
+		for (int i = 0; i < length; i++) {
+			windowX[i] = i + 1;
+		}
+		tricubeWeights = MathUtil.getTricubeWeigts(length);
+		tricubeWeighted = countZeroWeights(tricubeWeights, length) >= 0.4 * length;
+		tricubeWeightsSqrt = new double[length];
+		for (int i = 0; i < length; i++) {
+			tricubeWeightsSqrt[i] = Math.sqrt(tricubeWeights[i]);
+		}
+
+		windowDx = new double[length];
+		double xbar = windowX[0];
+		double sumXX = 0;
+		double sumX = windowX[0];
+		for (int i = 1; i < length; i++) {
+			double dx = windowX[i] - xbar;
+			windowDx[i] = dx;
+			sumXX += dx * dx * (i / (1.0 + i));
+			xbar += dx / (1.0 + i);
+			sumX += windowX[i];
+		}
+		windowSumX = sumX;
+		windowSumXX = sumXX;
+
+		residuals = new double[length];
+		bisquareWeights = new double[length];
+		weightedX = new double[length];
+		weightedY = new double[length];
+		windowLength = length;
+	}
+
+	/**
+	 * Counts the weights that are not positive.
+	 * 
+	 * @param weights the weights
+	 * @param length the number of weights
+	 * @return the number of zero weights
+	 */
+	private static int countZeroWeights(final double[] weights, final int length) {
+		int count = 0;
+		for (int i = 0; i < length; i++) {
+			if (weights[i] <= 0) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Fits a line to the y values of the window, against the x values of the window, reusing the
+	 * x terms computed for the window length.
+	 * 
+	 * @param y the y values
+	 */
+	private void regressWindow(final double[] y) {
+		double ybar = y[0];
+		double sumY = y[0];
+		double sumXY = 0;
+		for (int i = 1; i < windowLength; i++) {
+			double dy = y[i] - ybar;
+			sumXY += windowDx[i] * dy * (i / (1.0 + i));
+			ybar += dy / (1.0 + i);
+			sumY += y[i];
+		}
+		this.n = windowLength;
+		this.sumX = windowSumX;
+		this.sumY = sumY;
+		this.sumXX = windowSumXX;
+		this.sumXY = sumXY;
+	}
+
+	/**
+	 * Fits a line to the given values, with the update steps of <tt>SimpleRegression</tt>.
+	 * 
+	 * @param x the x values
+	 * @param y the y values
+	 * @param length the number of values
+	 */
+	private void regress(final double[] x, final double[] y, final int length) {
+		double xbar = x[0];
+		double ybar = y[0];
+		double sumX = x[0];
+		double sumY = y[0];
+		double sumXX = 0;
+		double sumXY = 0;
+		for (int i = 1; i < length; i++) {
+			double fact1 = 1.0 + i;
+			double fact2 = i / (1.0 + i);
+			double dx = x[i] - xbar;
+			double dy = y[i] - ybar;
+			sumXX += dx * dx * fact2;
+			sumXY += dx * dy * fact2;
+			xbar += dx / fact1;
+			ybar += dy / fact1;
+			sumX += x[i];
+			sumY += y[i];
+		}
+		this.n = length;
+		this.sumX = sumX;
+		this.sumY = sumY;
+		this.sumXX = sumXX;
+		this.sumXY = sumXY;
+	}
+
+	/**
+	 * Gets the slope of the last regression.
+	 * 
+	 * @return the slope
+	 */
+	private double getSlope() {
+		if (n < 2 || Math.abs(sumXX) < 10 * Double.MIN_VALUE) {
+			return Double.NaN;
+		}
+		return sumXY / sumXX;
+	}
+
+	/**
+	 * Gets the intercept of the last regression.
+	 * 
+	 * @param slope the slope
+	 * @return the intercept
+	 */
+	private double getIntercept(final double slope) {
+		return (sumY - slope * sumX) / n;
+	}
+
+	/**
+	 * Gets the parameter estimates of the last regression.
+	 * 
+	 * @return the intercept and the slope
+	 */
+	private double[] getEstimates() {
+		if (Math.abs(sumXX) > Double.MIN_NORMAL) {
+			double slope = getSlope();
+			estimates[0] = getIntercept(slope);
+			estimates[1] = slope;
+		} else {
+			estimates[0] = sumY / n;
+			estimates[1] = Double.NaN;
+		}
+		return estimates;
+	}
+
+	/**
+	 * Gets the median of the first values of the work array, which are not NaN, with the legacy
+	 * estimation of the percentiles of Apache Commons Math.
+	 * 
+	 * @param size the number of values
+	 * @return the median
+	 */
+	private double medianOfWork(final int size) {
+		if (size == 0) {
+			return Double.NaN;
+		}
+		double position = 0.5 * (size + 1);
+		if (position < 1) {
+			return select(work, 0, size, 0);
+		}
+		if (position >= size) {
+			return select(work, 0, size, size - 1);
+		}
+		int index = (int) Math.floor(position);
+		double fraction = position - index;
+		double lower = select(work, 0, size, index - 1);
+		double upper = work[index];
+		for (int i = index + 1; i < size; i++) {
+			if (Double.compare(work[i], upper) < 0) {
+				upper = work[i];
+			}
+		}
+		return lower + fraction * (upper - lower);
+	}
+
+	/**
+	 * Selects the k-th smallest value of a range of an array, reordering the range so that the
+	 * values before k are not greater and the values after k are not smaller than it. The values
+	 * are ordered as by {@link java.util.Arrays#sort(double[])}.
+	 * 
+	 * @param data the data
+	 * @param from the first index of the range
+	 * @param to the index after the last one of the range
+	 * @param k the index of the value to select
+	 * @return the selected value
+	 */
+	private static double select(final double[] data, final int from, final int to, final int k) {
+		int left = from;
+		int right = to - 1;
+		while (right > left) {
+			int middle = (left + right) >>> 1;
+			if (Double.compare(data[middle], data[left]) < 0) {
+				swap(data, middle, left);
+			}
+			if (Double.compare(data[right], data[left]) < 0) {
+				swap(data, right, left);
+			}
+			if (Double.compare(data[right], data[middle]) < 0) {
+				swap(data, right, middle);
+			}
+			double pivot = data[middle];
+			int i = left;
+			int j = right;
+			while (i <= j) {
+				while (Double.compare(data[i], pivot) < 0) {
+					i++;
+				}
+				while (Double.compare(pivot, data[j]) < 0) {
+					j--;
+				}
+				if (i <= j) {
+					swap(data, i, j);
+					i++;
+					j--;
+				}
+			}
+			if (k <= j) {
+				right = j;
+			} else if (k >= i) {
+				left = i;
+			} else {
+				break;
+			}
+		}
+		return data[k];
+	}
+
+	/**
+	 * Swaps two values of an array.
+	 * 
+	 * @param data the data
+	 * @param i the index of the first value
+	 * @param j the index of the second value
+	 */
+	private static void swap(final double[] data, final int i, final int j) {
+		double tmp = data[i];
+		data[i] = data[j];
+		data[j] = tmp;
+	}
+
+	/**
+	 * Gets a buffer of a given length in which the caller can gather the data it passes to the
+	 * methods of the workspace, such as a utilization history. The buffer is reused by the next
+	 * call; the methods of the workspace do not use it themselves.
+	 * 
+	 * @param length the length of the buffer
+	 * @return the buffer
+	 */
+	public double[] getDataBuffer(final int length) {
+		if (dataBuffer.length != length) {
+			dataBuffer = new double[length];
+		}
+		return dataBuffer;
+	}
+
+	/**
+	 * Gets a second buffer of a given length, distinct from the one of
+	 * {@link #getDataBuffer(int)}, in which the caller can reverse its data.
+	 * 
+	 * @param length the length of the buffer
+	 * @return the buffer
+	 */
+	public double[] getReversedDataBuffer(final int length) {
+		if (reversedDataBuffer.length != length) {
+			reversedDataBuffer = new double[length];
+		}
+		return reversedDataBuffer;
+	}
+
+	/**
+	 * Makes sure the work array can hold a number of values.
+	 * 
+	 * @param length the number of values
+	 */
+	private void ensureWork(final int length) {
+		if (work.length < length) {
+			work = new double[length];
+		}
+	}
+
+}
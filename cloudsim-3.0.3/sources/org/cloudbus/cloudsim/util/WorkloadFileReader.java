@@ -8,19 +8,27 @@
 
 package org.cloudbus.cloudsim.util;
 
-import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOError;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
 import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.UtilizationModel;
 import org.cloudbus.cloudsim.UtilizationModelFull;
 
@@ -35,7 +43,8 @@ import org.cloudbus.cloudsim.UtilizationModelFull;
  * class <tt>each with a unique 
  *      	 entity name</tt>.
  * <li>If size of the trace file is huge or contains lots of traces please increase the JVM heap
- * size accordingly by using <tt>java -Xmx</tt> option when running the simulation.
+ * size accordingly by using <tt>java -Xmx</tt> option when running the simulation, or read the
+ * jobs one at a time through {@link #iterator()} instead of {@link #generateWorkload()}.
  * <li>The default job file size for sending to and receiving from a resource is
  * {@link gridsim.net.Link#DEFAULT_MTU}. However, you can specify the file size by using
  * {@link #setGridletFileSize(int)}.
@@ -59,7 +68,7 @@ import org.cloudbus.cloudsim.UtilizationModelFull;
  * 
  * @see Workload
  */
-public class WorkloadFileReader implements WorkloadModel {
+public class WorkloadFileReader implements WorkloadModel, Iterable<Cloudlet> {
 
 	private final File file; // file name
 
@@ -96,7 +105,10 @@ public class WorkloadFileReader implements WorkloadModel {
 	// comment
 	private static final int IRRELEVANT = -1; // irrelevant number
 
-	private String[] fieldArray = null; // a temp array storing all the fields
+	private static final int BUFFER_SIZE = 64 * 1024; // size of the read buffer
+
+	// the utilization model of all the jobs, which holds no state
+	private static final UtilizationModel UTILIZATION_MODEL = new UtilizationModelFull();
 
 	/**
 	 * Create a new {@link WorkloadFileReader} object.
@@ -133,26 +145,22 @@ public class WorkloadFileReader implements WorkloadModel {
 	 * Reads job information from a given file.
 	 * 
 	 * @return the list of gridlets read from the file; <code>null</code> in case of failure.
+	 * @see #iterator()
 	 */
 	@Override
 	public ArrayList<Cloudlet> generateWorkload() {
 		if (jobs == null) {
-			jobs = new ArrayList<Cloudlet>();
-
-			// create a temp array
-			fieldArray = new String[MAX_FIELD];
-
+			final ArrayList<Cloudlet> list = new ArrayList<Cloudlet>();
 			try {
-				if (file.getName().endsWith(".gz")) {
-					readGZIPFile(file);
-				} else if (file.getName().endsWith(".zip")) {
-					readZipFile(file);
-				} else {
-					readFile(file);
+				final JobIterator iterator = iterator();
+				while (iterator.hasNext()) {
+					list.add(iterator.next());
 				}
-			} catch (final FileNotFoundException e) {
-			} catch (final IOException e) {
+			} catch (final IOError e) {
+				Log.printLine("WorkloadFileReader: Error reading " + file + ": " + e.getCause());
+				return null;
 			}
+			jobs = list;
 		}
 
 		return jobs;
@@ -246,250 +254,394 @@ public class WorkloadFileReader implements WorkloadModel {
 		return true;
 	}
 
+	/**
+	 * Returns an iterator that reads the jobs from the trace file as they are requested, so only
+	 * the current line of the file is held in memory. Each call opens the file again, and the jobs
+	 * are returned in the order of the file, which is the order of their submit times in the
+	 * standard workload format. The iterator is closed once all the jobs have been read, or by
+	 * {@link JobIterator#close()}.
+	 * 
+	 * @return the iterator over the jobs
+	 * @throws IOError if the file cannot be opened or read
+	 */
+	@Override
+	public JobIterator iterator() {
+		try {
+			return new JobIterator();
+		} catch (final IOException e) {
+			throw new IOError(e);
+		}
+	}
+
 	// ------------------- PRIVATE METHODS -------------------
 
 	/**
-	 * Creates a Gridlet with the given information and adds to the list
+	 * Creates a Gridlet with the given information.
 	 * 
 	 * @param id a Gridlet ID
-	 * @param submitTime Gridlet's submit time
 	 * @param runTime Gridlet's run time
 	 * @param numProc number of processors
-	 * @param reqRunTime user estimated run time
-	 * @param userID user id
-	 * @param groupID user's group id
+	 * @return the Gridlet
 	 * @pre id >= 0
-	 * @pre submitTime >= 0
 	 * @pre runTime >= 0
 	 * @pre numProc > 0
 	 * @post $none
 	 */
-	private void createJob(
-			final int id,
-			final long submitTime,
-			final int runTime,
-			final int numProc,
-			final int reqRunTime,
-			final int userID,
-			final int groupID) {
+	private Cloudlet createJob(final int id, final int runTime, final int numProc) {
 		// create the cloudlet
 		final int len = runTime * rating;
-		UtilizationModel utilizationModel = new UtilizationModelFull();
-		final Cloudlet wgl = new Cloudlet(
+		return new Cloudlet(
 				id,
 				len,
 				numProc,
 				0,
 				0,
-				utilizationModel,
-				utilizationModel,
-				utilizationModel);
-		jobs.add(wgl);
+				UTILIZATION_MODEL,
+				UTILIZATION_MODEL,
+				UTILIZATION_MODEL);
 	}
 
 	/**
-	 * Extracts relevant information from a given array
-	 * 
-	 * @param array an array of String
-	 * @param line a line number
-	 * @pre array != null
-	 * @pre line > 0
+	 * An iterator over the jobs of the trace file. The file is read through a channel into a
+	 * buffer, and each line is split into fields and parsed byte by byte, without creating
+	 * strings. The lines that are comments, do not have the expected number of fields or have a
+	 * relevant field that is not an integer are skipped.
 	 */
-	private void extractField(final String[] array, final int line) {
-		try {
-			Integer obj = null;
+	public class JobIterator implements Iterator<Cloudlet>, Closeable {
 
-			// get the job number
-			int id = 0;
-			if (JOB_NUM == IRRELEVANT) {
-				id = jobs.size() + 1;
-			} else {
-				obj = new Integer(array[JOB_NUM].trim());
-				id = obj.intValue();
-			}
+		/** The zip file, or null if the trace is not zipped. */
+		private final ZipFile zipFile;
 
-			// get the submit time
-			final Long l = new Long(array[SUBMIT_TIME].trim());
-			final long submitTime = l.intValue();
+		/** The entries of the zip file not read yet. */
+		private final Enumeration<? extends ZipEntry> zipEntries;
 
-			// get the user estimated run time
-			obj = new Integer(array[REQ_RUN_TIME].trim());
-			final int reqRunTime = obj.intValue();
+		/** The channel being read, or null once the file has been read. */
+		private ReadableByteChannel channel;
 
-			// if the required run time field is ignored, then use
-			// the actual run time
-			obj = new Integer(array[RUN_TIME].trim());
-			int runTime = obj.intValue();
+		/** The buffer of the channel. */
+		private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
 
-			final int userID = new Integer(array[USER_ID].trim()).intValue();
-			final int groupID = new Integer(array[GROUP_ID].trim()).intValue();
+		/** The current line. */
+		private byte[] line = new byte[256];
 
-			// according to the SWF manual, runtime of 0 is possible due
-			// to rounding down. E.g. runtime is 0.4 seconds -> runtime = 0
-			if (runTime <= 0) {
-				runTime = 1; // change to 1 second
-			}
+		/** The length of the current line. */
+		private int lineLength;
 
-			// get the number of allocated processors
-			obj = new Integer(array[REQ_NUM_PROC].trim());
-			int numProc = obj.intValue();
+		/** The comment prefix. */
+		private final byte[] comment = COMMENT.getBytes();
 
-			// if the required num of allocated processors field is ignored
-			// or zero, then use the actual field
-			if (numProc == IRRELEVANT || numProc == 0) {
-				obj = new Integer(array[NUM_PROC].trim());
-				numProc = obj.intValue();
-			}
+		/** The values of the fields of the current line. */
+		private final long[] fields = new long[MAX_FIELD];
 
-			// finally, check if the num of PEs required is valid or not
-			if (numProc <= 0) {
-				numProc = 1;
+		/** Whether each field of the current line is an integer. */
+		private final boolean[] integers = new boolean[MAX_FIELD];
+
+		/** The next job, or null if it has not been read yet. */
+		private Cloudlet next;
+
+		/** The submit time of the next job. */
+		private long nextSubmitTime;
+
+		/** The submit time of the last job returned. */
+		private long submitTime;
+
+		/** The number of jobs read. */
+		private int jobsRead;
+
+		/**
+		 * Instantiates a new iterator, opening the trace file.
+		 * 
+		 * @throws IOException if the file cannot be opened
+		 */
+		private JobIterator() throws IOException {
+			if (file.getName().endsWith(".zip")) {
+				zipFile = new ZipFile(file);
+				zipEntries = zipFile.entries();
+			} else {
+				zipFile = null;
+				zipEntries = null;
+				InputStream in = new FileInputStream(file);
+				if (file.getName().endsWith(".gz")) {
+					in = new GZIPInputStream(in, BUFFER_SIZE);
+				}
+				channel = Channels.newChannel(in);
 			}
-			createJob(id, submitTime, runTime, numProc, reqRunTime, userID, groupID);
-		} catch (final Exception e) {
+			buffer.flip();
+		}
 
+		/*
+		 * (non-Javadoc)
+		 * @see java.util.Iterator#hasNext()
+		 */
+		@Override
+		public boolean hasNext() {
+			if (next == null) {
+				try {
+					readNext();
+				} catch (final IOException e) {
+					throw new IOError(e);
+				}
+			}
+			return next != null;
 		}
-	}
 
-	/**
-	 * Breaks a line of string into many fields.
-	 * 
-	 * @param line a line of string
-	 * @param lineNum a line number
-	 * @pre line != null
-	 * @pre lineNum > 0
-	 * @post $none
-	 */
-	private void parseValue(final String line, final int lineNum) {
-		// skip a comment line
-		if (line.startsWith(COMMENT)) {
-			return;
+		/*
+		 * (non-Javadoc)
+		 * @see java.util.Iterator#next()
+		 */
+		@Override
+		public Cloudlet next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			final Cloudlet job = next;
+			submitTime = nextSubmitTime;
+			next = null;
+			return job;
 		}
 
-		final String[] sp = line.split("\\s+"); // split the fields based on a
-		// space
-		int len = 0; // length of a string
-		int index = 0; // the index of an array
+		/*
+		 * (non-Javadoc)
+		 * @see java.util.Iterator#remove()
+		 */
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
 
-		// check for each field in the array
-		for (final String elem : sp) {
-			len = elem.length(); // get the length of a string
+		/**
+		 * Gets the submit time of the job last returned by {@link #next()}, as given in the trace.
+		 * 
+		 * @return the submit time, in seconds
+		 */
+		public long getSubmitTime() {
+			return submitTime;
+		}
 
-			// if it is empty then ignore
-			if (len == 0) {
-				continue;
+		/*
+		 * (non-Javadoc)
+		 * @see java.io.Closeable#close()
+		 */
+		@Override
+		public void close() throws IOException {
+			try {
+				if (channel != null) {
+					channel.close();
+					channel = null;
+				}
+			} finally {
+				if (zipFile != null) {
+					zipFile.close();
+				}
 			}
-			fieldArray[index] = elem;
-			index++;
 		}
 
-		if (index == MAX_FIELD) {
-			extractField(fieldArray, lineNum);
+		/**
+		 * Reads the lines until the next job, and closes the file if there is none.
+		 * 
+		 * @throws IOException if the file cannot be read
+		 */
+		private void readNext() throws IOException {
+			while (readLine()) {
+				if (parseLine()) {
+					return;
+				}
+			}
+			close();
 		}
-	}
 
-	/**
-	 * Reads a text file one line at the time
-	 * 
-	 * @param fl a file name
-	 * @return <code>true</code> if successful, <code>false</code> otherwise.
-	 * @throws IOException if the there was any error reading the file
-	 * @throws FileNotFoundException if the file was not found
-	 */
-	private boolean readFile(final File fl) throws IOException, FileNotFoundException {
-		boolean success = false;
-		BufferedReader reader = null;
-		try {
-			reader = new BufferedReader(new InputStreamReader(new FileInputStream(fl)));
-
-			// read one line at the time
-			int line = 1;
-			while (reader.ready()) {
-				parseValue(reader.readLine(), line);
-				line++;
+		/**
+		 * Reads the next line of the file, or of the next entry of the zip file.
+		 * 
+		 * @return true, if a line has been read
+		 * @throws IOException if the file cannot be read
+		 */
+		private boolean readLine() throws IOException {
+			lineLength = 0;
+			while (true) {
+				if (!buffer.hasRemaining() && !fillBuffer()) {
+					return lineLength > 0;
+				}
+				final byte[] bytes = buffer.array();
+				final int start = buffer.position();
+				final int limit = buffer.limit();
+				int end = start;
+				while (end < limit && bytes[end] != '\n') {
+					end++;
+				}
+				if (lineLength + end - start > line.length) {
+					line = Arrays.copyOf(line, Math.max(2 * line.length, lineLength + end - start));
+				}
+				System.arraycopy(bytes, start, line, lineLength, end - start);
+				lineLength += end - start;
+				if (end < limit) {
+					buffer.position(end + 1);
+					return true;
+				}
+				buffer.position(limit);
 			}
+		}
 
-			reader.close();
-			success = true;
-		} finally {
-			if (reader != null) {
-				reader.close();
+		/**
+		 * Fills the buffer from the channel, moving to the next entry of the zip file at the end of
+		 * an entry.
+		 * 
+		 * @return false, if the end of the file has been reached
+		 * @throws IOException if the file cannot be read
+		 */
+		private boolean fillBuffer() throws IOException {
+			while (true) {
+				if (channel == null) {
+					if (zipEntries == null || !zipEntries.hasMoreElements()) {
+						return false;
+					}
+					channel = Channels.newChannel(zipFile.getInputStream(zipEntries.nextElement()));
+				}
+				buffer.clear();
+				final int read = channel.read(buffer);
+				buffer.flip();
+				if (read > 0) {
+					return true;
+				}
+				if (read < 0) {
+					channel.close();
+					channel = null;
+				}
 			}
 		}
 
-		return success;
-	}
+		/**
+		 * Parses the current line, and creates its job if it is valid.
+		 * 
+		 * @return true, if a job has been created
+		 */
+		private boolean parseLine() {
+			// skip a comment line
+			if (lineLength >= comment.length) {
+				int i = 0;
+				while (i < comment.length && line[i] == comment[i]) {
+					i++;
+				}
+				if (i == comment.length) {
+					return false;
+				}
+			}
 
-	/**
-	 * Reads a gzip file one line at the time
-	 * 
-	 * @param fl a gzip file name
-	 * @return <code>true</code> if successful; <code>false</code> otherwise.
-	 * @throws IOException if the there was any error reading the file
-	 * @throws FileNotFoundException if the file was not found
-	 */
-	private boolean readGZIPFile(final File fl) throws IOException, FileNotFoundException {
-		boolean success = false;
-		BufferedReader reader = null;
-		try {
-			reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(fl))));
+			// split the line into fields separated by white spaces
+			int fieldCount = 0;
+			int i = 0;
+			while (true) {
+				while (i < lineLength && line[i] <= ' ') {
+					i++;
+				}
+				if (i == lineLength) {
+					break;
+				}
+				if (fieldCount == MAX_FIELD) {
+					return false;
+				}
+				i = parseField(i, fieldCount++);
+			}
+			if (fieldCount != MAX_FIELD) {
+				return false;
+			}
 
-			// read one line at the time
-			int line = 1;
-			while (reader.ready()) {
-				parseValue(reader.readLine(), line);
-				line++;
+			// get the job number
+			int id;
+			if (JOB_NUM == IRRELEVANT) {
+				id = jobsRead + 1;
+			} else if (isInt(JOB_NUM)) {
+				id = (int) fields[JOB_NUM];
+			} else {
+				return false;
 			}
 
-			reader.close();
-			success = true;
-		} finally {
-			if (reader != null) {
-				reader.close();
+			// get the submit time, the actual run time and the number of processors
+			if (!isLong(SUBMIT_TIME) || !isInt(REQ_RUN_TIME) || !isInt(RUN_TIME) || !isInt(USER_ID)
+					|| !isInt(GROUP_ID) || !isInt(REQ_NUM_PROC)) {
+				return false;
 			}
-		}
 
-		return success;
-	}
+			// according to the SWF manual, runtime of 0 is possible due
+			// to rounding down. E.g. runtime is 0.4 seconds -> runtime = 0
+			int runTime = (int) fields[RUN_TIME];
+			if (runTime <= 0) {
+				runTime = 1; // change to 1 second
+			}
 
-	/**
-	 * Reads a Zip file.
-	 * 
-	 * @param fl a zip file name
-	 * @return <code>true</code> if reading a file is successful; <code>false</code> otherwise.
-	 * @throws IOException if the there was any error reading the file
-	 */
-	private boolean readZipFile(final File fl) throws IOException {
-		boolean success = false;
-		ZipFile zipFile = null;
-		try {
-			BufferedReader reader = null;
-
-			// ZipFile offers an Enumeration of all the files in the file
-			zipFile = new ZipFile(fl);
-			final Enumeration<? extends ZipEntry> e = zipFile.entries();
-			while (e.hasMoreElements()) {
-				success = false; // reset the value again
-				final ZipEntry zipEntry = e.nextElement();
-
-				reader = new BufferedReader(new InputStreamReader(zipFile.getInputStream(zipEntry)));
-
-				// read one line at the time
-				int line = 1;
-				while (reader.ready()) {
-					parseValue(reader.readLine(), line);
-					line++;
+			// if the required num of allocated processors field is ignored
+			// or zero, then use the actual field
+			int numProc = (int) fields[REQ_NUM_PROC];
+			if (numProc == IRRELEVANT || numProc == 0) {
+				if (!isInt(NUM_PROC)) {
+					return false;
 				}
+				numProc = (int) fields[NUM_PROC];
+			}
 
-				reader.close();
-				success = true;
+			// finally, check if the num of PEs required is valid or not
+			if (numProc <= 0) {
+				numProc = 1;
 			}
-		} finally {
-			if (zipFile != null) {
-				zipFile.close();
+
+			jobsRead++;
+			nextSubmitTime = (int) fields[SUBMIT_TIME];
+			next = createJob(id, runTime, numProc);
+			return true;
+		}
+
+		/**
+		 * Parses a field of the current line as an integer.
+		 * 
+		 * @param start the position of the first byte of the field
+		 * @param field the index of the field
+		 * @return the position after the field
+		 */
+		private int parseField(final int start, final int field) {
+			int i = start;
+			boolean negative = false;
+			if (line[i] == '-' || line[i] == '+') {
+				negative = line[i] == '-';
+				i++;
 			}
+			long value = 0;
+			int digits = 0;
+			boolean integer = true;
+			while (i < lineLength && line[i] > ' ') {
+				final int digit = line[i] - '0';
+				if (digit < 0 || digit > 9 || ++digits > 18) {
+					integer = false;
+				} else {
+					value = 10 * value + digit;
+				}
+				i++;
+			}
+			fields[field] = negative ? -value : value;
+			integers[field] = integer && digits > 0;
+			return i;
+		}
+
+		/**
+		 * Checks whether a field of the current line is an int.
+		 * 
+		 * @param field the index of the field
+		 * @return true, if the field is an int
+		 */
+		private boolean isInt(final int field) {
+			return isLong(field) && fields[field] >= Integer.MIN_VALUE
+					&& fields[field] <= Integer.MAX_VALUE;
+		}
+
+		/**
+		 * Checks whether a field of the current line is a long.
+		 * 
+		 * @param field the index of the field
+		 * @return true, if the field is a long
+		 */
+		private boolean isLong(final int field) {
+			return field >= 0 && field < MAX_FIELD && integers[field];
 		}
 
-		return success;
 	}
+
 }